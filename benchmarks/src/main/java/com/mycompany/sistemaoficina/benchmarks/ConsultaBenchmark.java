@@ -0,0 +1,135 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.Produto;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorAgendamentos;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorClientes;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorElevadores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorEstoque;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFornecedores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFuncionarios;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorOrdensDeServico;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorServicos;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede as buscas por ID dos gerenciadores com colecoes de 1 mil a 1 milhao de registros.
+ * Os IDs consultados sao sorteados antes da medicao e percorridos em ciclo, para que o acesso
+ * nao favoreca sempre os mesmos objetos no cache do processador.
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ConsultaBenchmark {
+
+    private static final int IDS_SORTEADOS = 4096;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int quantidade;
+
+    private Path diretorio;
+    private PrintStream saidaOriginal;
+
+    private GerenciadorClientes gerenciadorClientes;
+    private GerenciadorEstoque gerenciadorEstoque;
+    private GerenciadorOrdensDeServico gerenciadorOS;
+    private GerenciadorAgendamentos gerenciadorAgendamentos;
+
+    private int[] ids;
+    private int[] idsOS;
+    private int posicao;
+
+    /**
+     * Grava a massa de dados, carrega os gerenciadores e sorteia os IDs consultados.
+     * @throws IOException Se houver erro ao gravar a massa de dados.
+     */
+    @Setup
+    public void preparar() throws IOException {
+        diretorio = DadosBenchmark.prepararDiretorio(quantidade);
+        saidaOriginal = DadosBenchmark.silenciarSaida();
+        GerenciadorServicos gerenciadorServicos = new GerenciadorServicos();
+        gerenciadorClientes = new GerenciadorClientes();
+        gerenciadorEstoque = new GerenciadorEstoque(new GerenciadorFornecedores());
+        gerenciadorOS = new GerenciadorOrdensDeServico(gerenciadorEstoque, gerenciadorServicos);
+        gerenciadorAgendamentos = new GerenciadorAgendamentos(gerenciadorClientes, new GerenciadorFuncionarios(),
+                new GerenciadorElevadores(), gerenciadorOS);
+
+        Random random = new Random(7);
+        ids = sortearIds(random, quantidade);
+        // As OS ficam em particoes mensais carregadas sob demanda: as primeiras buscas de cada mes
+        // carregam a particao durante o aquecimento, e a medicao ve apenas o indice em memoria.
+        idsOS = sortearIds(random, SequenciaIds.atual(SequenciaIds.ORDENS_DE_SERVICO));
+    }
+
+    private static int[] sortearIds(Random random, int maiorId) {
+        int[] sorteados = new int[IDS_SORTEADOS];
+        for (int i = 0; i < sorteados.length; i++) {
+            sorteados[i] = 1 + random.nextInt(Math.max(1, maiorId));
+        }
+        return sorteados;
+    }
+
+    /**
+     * Restaura o System.out e apaga a pasta temporaria.
+     * @throws IOException Se houver erro ao apagar os arquivos.
+     */
+    @TearDown
+    public void encerrar() throws IOException {
+        System.setOut(saidaOriginal);
+        DadosBenchmark.apagarDiretorio(diretorio);
+    }
+
+    private int proximoId(int[] sorteados) {
+        posicao = (posicao + 1) & (IDS_SORTEADOS - 1);
+        return sorteados[posicao];
+    }
+
+    @Benchmark
+    public Clientes buscarClientePorId() {
+        return gerenciadorClientes.buscarClientePorId(proximoId(ids));
+    }
+
+    @Benchmark
+    public Produto buscarProdutoPorId() {
+        return gerenciadorEstoque.buscarProdutoPorId(proximoId(ids));
+    }
+
+    @Benchmark
+    public OrdemDeServico buscarOSPorId() {
+        return gerenciadorOS.buscarOSPorId(proximoId(idsOS));
+    }
+
+    @Benchmark
+    public OrdemDeServico buscarOSPorAgendamentoId() {
+        return gerenciadorOS.buscarOSPorAgendamentoId(proximoId(ids));
+    }
+
+    @Benchmark
+    public Agendamento buscarAgendamentoPorId() {
+        return gerenciadorAgendamentos.buscarAgendamentoPorId(proximoId(ids));
+    }
+}
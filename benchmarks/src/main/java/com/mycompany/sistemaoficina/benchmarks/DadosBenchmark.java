@@ -0,0 +1,70 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.GeradorDadosSinteticos;
+import com.mycompany.sistemaoficina.persistencia.DiretorioDados;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Massa de dados usada pelos benchmarks dos gerenciadores.
+ * Grava os arquivos JSON produzidos pelo {@link GeradorDadosSinteticos} em uma pasta temporaria
+ * e aponta o sistema para ela pela propriedade "sistemaoficina.dados".
+ * As datas ficam espalhadas entre 2022 e 2024, entao os relatorios de 2023 encontram movimento.
+ * @author santo
+ */
+final class DadosBenchmark {
+
+    private DadosBenchmark() {
+    }
+
+    /**
+     * Cria uma pasta temporaria com a massa de {@link GeradorDadosSinteticos.Configuracao#comQuantidade(int)}
+     * e a define como diretorio de dados do sistema.
+     * @param quantidade O numero de clientes, agendamentos, produtos e despesas.
+     * @return A pasta criada.
+     * @throws IOException Se houver erro ao gravar os arquivos.
+     */
+    static Path prepararDiretorio(int quantidade) throws IOException {
+        Path diretorio = Files.createTempDirectory("sistemaoficina-bench");
+        new GeradorDadosSinteticos(GeradorDadosSinteticos.Configuracao.comQuantidade(quantidade))
+                .gerarArquivos(diretorio.toFile());
+        System.setProperty(DiretorioDados.PROPRIEDADE, diretorio.toString());
+        return diretorio;
+    }
+
+    /**
+     * Grava as alteracoes adiadas, fecha os armazenamentos paginados abertos e remove a pasta criada por {@link #prepararDiretorio(int)}.
+     * @param diretorio A pasta a ser removida.
+     * @throws IOException Se houver erro ao apagar os arquivos.
+     */
+    static void apagarDiretorio(Path diretorio) throws IOException {
+        if (diretorio == null) {
+            return;
+        }
+        Repositorios.encerrar();
+        try (Stream<Path> caminhos = Files.walk(diretorio)) {
+            for (Path caminho : (Iterable<Path>) caminhos.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(caminho);
+            }
+        }
+        System.clearProperty(DiretorioDados.PROPRIEDADE);
+    }
+
+    /**
+     * Troca o System.out por uma saida descartada, pois os gerenciadores imprimem mensagens
+     * a cada operacao e isso distorceria as medicoes.
+     * @return O System.out original, para ser restaurado no TearDown.
+     */
+    static PrintStream silenciarSaida() {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return original;
+    }
+}
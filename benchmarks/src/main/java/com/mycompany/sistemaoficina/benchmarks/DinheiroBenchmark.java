@@ -0,0 +1,86 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.Dinheiro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a soma de {@code valores} lancamentos (preco x quantidade) em centavos ({@link Dinheiro}),
+ * em double (como os totais eram somados antes) e em BigDecimal.
+ * A versao em centavos deve ser exata como a BigDecimal e custar perto da versao em double.
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DinheiroBenchmark {
+
+    @Param({"1000", "100000"})
+    public int valores;
+
+    private long[] centavos;
+    private double[] reais;
+    private BigDecimal[] decimais;
+    private int[] quantidades;
+
+    /**
+     * Sorteia os precos (de R$ 0,01 a R$ 5.000,00) e as quantidades (1 a 5), com semente fixa.
+     */
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        centavos = new long[valores];
+        reais = new double[valores];
+        decimais = new BigDecimal[valores];
+        quantidades = new int[valores];
+        for (int i = 0; i < valores; i++) {
+            centavos[i] = 1 + random.nextInt(500000);
+            reais[i] = Dinheiro.emReais(centavos[i]);
+            decimais[i] = BigDecimal.valueOf(centavos[i], 2);
+            quantidades[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public long somarCentavos() {
+        long total = 0;
+        for (int i = 0; i < valores; i++) {
+            total = Dinheiro.somar(total, Dinheiro.multiplicar(centavos[i], quantidades[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double somarDouble() {
+        double total = 0.0;
+        for (int i = 0; i < valores; i++) {
+            total += reais[i] * quantidades[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal somarBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < valores; i++) {
+            total = total.add(decimais[i].multiply(BigDecimal.valueOf(quantidades[i])));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.TipoElevador;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorElevadores;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede GerenciadorElevadores.alocarElevadorPorTipo seguido da liberacao do elevador, como acontece
+ * em cada servico que usa elevador. As duas operacoes gravam elevadores.json, entao o custo de disco
+ * faz parte da medicao (o arquivo fica em uma pasta temporaria).
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElevadoresBenchmark {
+
+    private Path diretorio;
+    private PrintStream saidaOriginal;
+    private GerenciadorElevadores gerenciadorElevadores;
+    private Agendamento agendamento;
+
+    /**
+     * Cria os elevadores padrao em uma pasta temporaria vazia.
+     * @throws IOException Se houver erro ao criar a pasta.
+     */
+    @Setup
+    public void preparar() throws IOException {
+        diretorio = DadosBenchmark.prepararDiretorio(0);
+        saidaOriginal = DadosBenchmark.silenciarSaida();
+        gerenciadorElevadores = new GerenciadorElevadores();
+        agendamento = new Agendamento();
+    }
+
+    /**
+     * Restaura o System.out e apaga a pasta temporaria.
+     * @throws IOException Se houver erro ao apagar os arquivos.
+     */
+    @TearDown
+    public void encerrar() throws IOException {
+        System.setOut(saidaOriginal);
+        DadosBenchmark.apagarDiretorio(diretorio);
+    }
+
+    @Benchmark
+    public boolean alocarELiberarCorriqueiro() {
+        boolean alocado = gerenciadorElevadores.alocarElevadorPorTipo(agendamento, TipoElevador.CORRIQUEIRO);
+        gerenciadorElevadores.liberarElevadorDoAgendamento(agendamento);
+        return alocado;
+    }
+
+    @Benchmark
+    public boolean alocarELiberarFixo() {
+        boolean alocado = gerenciadorElevadores.alocarElevadorPorTipo(agendamento, TipoElevador.FIXO);
+        gerenciadorElevadores.liberarElevadorDoAgendamento(agendamento);
+        return alocado;
+    }
+}
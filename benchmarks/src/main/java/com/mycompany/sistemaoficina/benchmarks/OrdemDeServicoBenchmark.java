@@ -0,0 +1,69 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.GeradorDadosSinteticos;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.Produto;
+import com.mycompany.sistemaoficina.Servico;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede o lancamento de itens na Ordem de Servico, com a atualizacao do valor total a cada item.
+ * Monta uma OS com {@code itens} servicos e {@code itens} pecas pelos metodos publicos
+ * adicionarServico/adicionarPeca; o custo por item deve se manter constante com o tamanho da OS.
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrdemDeServicoBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int itens;
+
+    private Agendamento agendamento;
+    private Servico[] servicos;
+    private Produto[] pecas;
+
+    /**
+     * Gera um agendamento e um catalogo com {@code itens} servicos e {@code itens} pecas.
+     */
+    @Setup
+    public void preparar() {
+        GeradorDadosSinteticos.Configuracao config = new GeradorDadosSinteticos.Configuracao();
+        config.setClientes(1);
+        config.setAgendamentos(1);
+        config.setDespesas(0);
+        config.setServicos(itens);
+        config.setProdutos(itens);
+        GeradorDadosSinteticos.MassaDeDados massa = new GeradorDadosSinteticos(config).gerar();
+        agendamento = massa.getAgendamentos().get(0);
+        servicos = massa.getServicos().toArray(new Servico[0]);
+        pecas = massa.getProdutos().toArray(new Produto[0]);
+    }
+
+    @Benchmark
+    public long lancarItensNaOS() {
+        OrdemDeServico os = new OrdemDeServico(1, agendamento);
+        for (int i = 0; i < itens; i++) {
+            os.adicionarServico(servicos[i]);
+            os.adicionarPeca(pecas[i]);
+        }
+        return os.getValorTotalCentavos();
+    }
+}
@@ -0,0 +1,153 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorAgendamentos;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorClientes;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorDespesas;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorElevadores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorEstoque;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFornecedores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFuncionarios;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorOrdensDeServico;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorServicos;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede a carga (construtor de cada gerenciador, que chama o respectivo carregar*) e a gravacao
+ * (salvar*) com massas de 1 mil a 1 milhao de registros, nos backends de armazenamento
+ * (arquivos JSON, armazenamento paginado e snapshots binarios de OS e agendamentos). O benchmark atualizarUmCliente mede a gravacao de um
+ * unico registro alterado, que no JSON regrava o arquivo inteiro e no paginado so as paginas do registro.
+ * Os arquivos ficam em uma pasta temporaria, entao os dados reais da oficina nao sao tocados.
+ * Execute com: java -jar target/benchmarks.jar PersistenciaBenchmark
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PersistenciaBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int quantidade;
+
+    @Param({Repositorios.JSON, Repositorios.PAGINADO, Repositorios.BINARIO})
+    public String armazenamento;
+
+    private Path diretorio;
+    private PrintStream saidaOriginal;
+
+    private GerenciadorFornecedores gerenciadorFornecedores;
+    private GerenciadorServicos gerenciadorServicos;
+    private GerenciadorFuncionarios gerenciadorFuncionarios;
+    private GerenciadorElevadores gerenciadorElevadores;
+    private GerenciadorClientes gerenciadorClientes;
+    private GerenciadorEstoque gerenciadorEstoque;
+    private GerenciadorOrdensDeServico gerenciadorOS;
+    private GerenciadorAgendamentos gerenciadorAgendamentos;
+    private Repositorio<Clientes> repositorioClientes;
+    private Clientes clienteAlterado;
+
+    /**
+     * Grava a massa de dados e carrega uma vez todos os gerenciadores (usados nos benchmarks de gravacao
+     * e como dependencias nos de carga).
+     * @throws IOException Se houver erro ao gravar a massa de dados.
+     */
+    @Setup
+    public void preparar() throws IOException {
+        diretorio = DadosBenchmark.prepararDiretorio(quantidade);
+        System.setProperty(Repositorios.PROPRIEDADE, armazenamento);
+        saidaOriginal = DadosBenchmark.silenciarSaida();
+        gerenciadorFornecedores = new GerenciadorFornecedores();
+        gerenciadorServicos = new GerenciadorServicos();
+        gerenciadorFuncionarios = new GerenciadorFuncionarios();
+        gerenciadorElevadores = new GerenciadorElevadores();
+        gerenciadorClientes = new GerenciadorClientes();
+        gerenciadorEstoque = new GerenciadorEstoque(gerenciadorFornecedores);
+        gerenciadorOS = new GerenciadorOrdensDeServico(gerenciadorEstoque, gerenciadorServicos);
+        gerenciadorAgendamentos = new GerenciadorAgendamentos(gerenciadorClientes, gerenciadorFuncionarios,
+                gerenciadorElevadores, gerenciadorOS);
+        repositorioClientes = Repositorios.abrir("clientes.json", Clientes.class, Clientes::getId);
+        clienteAlterado = gerenciadorClientes.buscarClientePorId(quantidade / 2);
+    }
+
+    /**
+     * Restaura o System.out e apaga a pasta temporaria.
+     * @throws IOException Se houver erro ao apagar os arquivos.
+     */
+    @TearDown
+    public void encerrar() throws IOException {
+        System.setOut(saidaOriginal);
+        DadosBenchmark.apagarDiretorio(diretorio);
+        System.clearProperty(Repositorios.PROPRIEDADE);
+    }
+
+    @Benchmark
+    public GerenciadorClientes carregarClientes() {
+        return new GerenciadorClientes();
+    }
+
+    @Benchmark
+    public GerenciadorEstoque carregarEstoque() {
+        return new GerenciadorEstoque(gerenciadorFornecedores);
+    }
+
+    @Benchmark
+    public GerenciadorDespesas carregarDespesas() {
+        return new GerenciadorDespesas();
+    }
+
+    @Benchmark
+    public GerenciadorOrdensDeServico carregarOrdensDeServico() {
+        return new GerenciadorOrdensDeServico(gerenciadorEstoque, gerenciadorServicos);
+    }
+
+    @Benchmark
+    public GerenciadorAgendamentos carregarAgendamentos() {
+        return new GerenciadorAgendamentos(gerenciadorClientes, gerenciadorFuncionarios, gerenciadorElevadores, gerenciadorOS);
+    }
+
+    @Benchmark
+    public void salvarClientes() {
+        gerenciadorClientes.salvarDadosNoArquivo();
+    }
+
+    @Benchmark
+    public void salvarEstoque() {
+        gerenciadorEstoque.salvarEstoque();
+    }
+
+    @Benchmark
+    public void salvarOrdensDeServico() {
+        gerenciadorOS.salvarOrdensDeServico();
+    }
+
+    @Benchmark
+    public void salvarAgendamentos() {
+        gerenciadorAgendamentos.salvarDadosAgendamentos();
+    }
+
+    @Benchmark
+    public boolean atualizarUmCliente() {
+        return repositorioClientes.salvar(clienteAlterado);
+    }
+}
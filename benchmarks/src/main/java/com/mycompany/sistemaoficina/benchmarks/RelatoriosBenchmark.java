@@ -0,0 +1,87 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorDespesas;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorEstoque;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFornecedores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorOrdensDeServico;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorRelatorios;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorServicos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede os tres relatorios do GerenciadorRelatorios (vendas do dia, vendas do mes e balanco mensal)
+ * com historicos de 1 mil a 1 milhao de OS e despesas.
+ * Os relatorios sao privados e guiados pelo menu, entao cada medicao entra no menu com um Scanner
+ * que ja contem as respostas (opcao, data e "0" para sair). A saida no console e descartada.
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RelatoriosBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int quantidade;
+
+    private Path diretorio;
+    private PrintStream saidaOriginal;
+    private GerenciadorRelatorios gerenciadorRelatorios;
+
+    /**
+     * Grava a massa de dados e carrega os gerenciadores de OS e de despesas.
+     * @throws IOException Se houver erro ao gravar a massa de dados.
+     */
+    @Setup
+    public void preparar() throws IOException {
+        diretorio = DadosBenchmark.prepararDiretorio(quantidade);
+        saidaOriginal = DadosBenchmark.silenciarSaida();
+        GerenciadorOrdensDeServico gerenciadorOS = new GerenciadorOrdensDeServico(
+                new GerenciadorEstoque(new GerenciadorFornecedores()), new GerenciadorServicos());
+        gerenciadorRelatorios = new GerenciadorRelatorios(gerenciadorOS, new GerenciadorDespesas());
+    }
+
+    /**
+     * Restaura o System.out e apaga a pasta temporaria.
+     * @throws IOException Se houver erro ao apagar os arquivos.
+     */
+    @TearDown
+    public void encerrar() throws IOException {
+        System.setOut(saidaOriginal);
+        DadosBenchmark.apagarDiretorio(diretorio);
+    }
+
+    @Benchmark
+    public void relatorioVendasDiario() {
+        gerenciadorRelatorios.menuRelatorios(new Scanner("1\n15/06/2023\n0\n"));
+    }
+
+    @Benchmark
+    public void relatorioVendasMensal() {
+        gerenciadorRelatorios.menuRelatorios(new Scanner("2\n06/2023\n0\n"));
+    }
+
+    @Benchmark
+    public void balancoMensal() {
+        gerenciadorRelatorios.menuRelatorios(new Scanner("3\n06/2023\n0\n"));
+    }
+}
@@ -0,0 +1,169 @@
+package com.mycompany.sistemaoficina.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.GeradorDadosSinteticos;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.persistencia.GsonOficina;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a leitura e a gravacao de JSON pelo caminho antigo (Gson por reflexao, com o adaptador
+ * de LocalDateTime baseado em DateTimeFormatter que ficava copiado nos gerenciadores) com o
+ * Gson compartilhado {@link GsonOficina}, que usa adaptadores de streaming.
+ * Execute com: java -jar target/benchmarks.jar SerializacaoJsonBenchmark -prof gc
+ * (o perfilador "gc" mostra tambem o lixo gerado por operacao).
+ * @author santo
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoJsonBenchmark {
+
+    private static final Type LISTA_OS = new TypeToken<List<OrdemDeServico>>(){}.getType();
+    private static final Type LISTA_AGENDAMENTOS = new TypeToken<List<Agendamento>>(){}.getType();
+    private static final Type LISTA_CLIENTES = new TypeToken<List<Clientes>>(){}.getType();
+
+    @Param({"1000", "100000"})
+    public int quantidade;
+
+    private Gson reflexivo;
+    private Gson streaming;
+
+    private List<OrdemDeServico> ordens;
+    private List<Agendamento> agendamentos;
+    private List<Clientes> clientes;
+    private String jsonOrdens;
+    private String jsonAgendamentos;
+    private String jsonClientes;
+
+    /**
+     * Adaptador de data exatamente como era antes (copiado nos gerenciadores), usado como referencia.
+     */
+    private static class AdaptadorDataAntigo extends TypeAdapter<LocalDateTime> {
+        private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(value.format(formatter));
+            }
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return LocalDateTime.parse(in.nextString(), formatter);
+        }
+    }
+
+    /**
+     * Gera os dados em memoria e o JSON correspondente antes das medicoes.
+     */
+    @Setup
+    public void preparar() {
+        reflexivo = new GsonBuilder().registerTypeAdapter(LocalDateTime.class, new AdaptadorDataAntigo()).create();
+        streaming = GsonOficina.COMPACTO;
+
+        GeradorDadosSinteticos.MassaDeDados massa =
+                new GeradorDadosSinteticos(GeradorDadosSinteticos.Configuracao.comQuantidade(quantidade)).gerar();
+        clientes = massa.getClientes();
+        agendamentos = massa.getAgendamentos();
+        ordens = massa.getOrdensDeServico();
+        jsonOrdens = reflexivo.toJson(ordens, LISTA_OS);
+        jsonAgendamentos = reflexivo.toJson(agendamentos, LISTA_AGENDAMENTOS);
+        jsonClientes = reflexivo.toJson(clientes, LISTA_CLIENTES);
+    }
+
+    @Benchmark
+    public List<OrdemDeServico> lerOrdensReflexivo() {
+        return reflexivo.fromJson(jsonOrdens, LISTA_OS);
+    }
+
+    @Benchmark
+    public List<OrdemDeServico> lerOrdensStreaming() {
+        return streaming.fromJson(jsonOrdens, LISTA_OS);
+    }
+
+    @Benchmark
+    public String gravarOrdensReflexivo() {
+        return reflexivo.toJson(ordens, LISTA_OS);
+    }
+
+    @Benchmark
+    public String gravarOrdensStreaming() {
+        return streaming.toJson(ordens, LISTA_OS);
+    }
+
+    @Benchmark
+    public List<Agendamento> lerAgendamentosReflexivo() {
+        return reflexivo.fromJson(jsonAgendamentos, LISTA_AGENDAMENTOS);
+    }
+
+    @Benchmark
+    public List<Agendamento> lerAgendamentosStreaming() {
+        return streaming.fromJson(jsonAgendamentos, LISTA_AGENDAMENTOS);
+    }
+
+    @Benchmark
+    public String gravarAgendamentosReflexivo() {
+        return reflexivo.toJson(agendamentos, LISTA_AGENDAMENTOS);
+    }
+
+    @Benchmark
+    public String gravarAgendamentosStreaming() {
+        return streaming.toJson(agendamentos, LISTA_AGENDAMENTOS);
+    }
+
+    @Benchmark
+    public List<Clientes> lerClientesReflexivo() {
+        return reflexivo.fromJson(jsonClientes, LISTA_CLIENTES);
+    }
+
+    @Benchmark
+    public List<Clientes> lerClientesStreaming() {
+        return streaming.fromJson(jsonClientes, LISTA_CLIENTES);
+    }
+
+    @Benchmark
+    public String gravarClientesReflexivo() {
+        return reflexivo.toJson(clientes, LISTA_CLIENTES);
+    }
+
+    @Benchmark
+    public String gravarClientesStreaming() {
+        return streaming.toJson(clientes, LISTA_CLIENTES);
+    }
+}
@@ -18,18 +18,21 @@ public class Agendamento implements Comparable<Agendamento> {
     private Veiculo veiculo;
     private LocalDateTime dataHora;
     private String descricaoProblema;
-    private String status;
+    private StatusAgendamento status;
     private Funcionario mecanicoResponsavel;
-    private double valorRetidoCancelamento;
+    private long valorRetidoCancelamentoCentavos;
     private Elevador elevadorAlocado; 
+    private int numeroElevadorReservado; // 0 quando o agendamento nao reservou elevador
+    private LocalDateTime inicioReserva; // Inicio da reserva do elevador (o horario ou o momento da alocacao)
+    private LocalDateTime fimPrevisto; // Fim da reserva do elevador
 
     /**
      * Construtor padrao da classe Agendamento.
-     * Define o status inicial como "Agendado".
+     * Define o status inicial como {@link StatusAgendamento#AGENDADO}.
      * E utilizado pela biblioteca Gson para criar objetos a partir do JSON.
      */
     public Agendamento() {
-        this.status = "Agendado";
+        this.status = StatusAgendamento.AGENDADO;
         this.elevadorAlocado = null; 
     }
 
@@ -48,7 +51,7 @@ public class Agendamento implements Comparable<Agendamento> {
         this.veiculo = veiculo;
         this.dataHora = dataHora;
         this.descricaoProblema = descricaoProblema;
-        this.valorRetidoCancelamento = 0.0;
+        this.valorRetidoCancelamentoCentavos = 0;
         this.mecanicoResponsavel = null; // Inicializa como null
         // O atributo elevadorAlocado já é inicializado como null pela chamada a this()
     }
@@ -64,6 +67,30 @@ public class Agendamento implements Comparable<Agendamento> {
         this.elevadorAlocado = elevadorAlocado;
     }
 
+    public int getNumeroElevadorReservado() {
+        return numeroElevadorReservado;
+    }
+
+    public void setNumeroElevadorReservado(int numeroElevadorReservado) {
+        this.numeroElevadorReservado = numeroElevadorReservado;
+    }
+
+    public LocalDateTime getInicioReserva() {
+        return inicioReserva;
+    }
+
+    public void setInicioReserva(LocalDateTime inicioReserva) {
+        this.inicioReserva = inicioReserva;
+    }
+
+    public LocalDateTime getFimPrevisto() {
+        return fimPrevisto;
+    }
+
+    public void setFimPrevisto(LocalDateTime fimPrevisto) {
+        this.fimPrevisto = fimPrevisto;
+    }
+
     public int getIdAgendamento() {
         return idAgendamento;
     }
@@ -104,14 +131,31 @@ public class Agendamento implements Comparable<Agendamento> {
         this.descricaoProblema = descricaoProblema;
     }
 
-    public String getStatus() {
+    public StatusAgendamento getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    /**
+     * Define o status sem validar a transicao (usado na leitura dos arquivos e na geracao de dados).
+     * No fluxo normal use {@link #mudarStatus}.
+     * @param status O novo status.
+     */
+    public void setStatus(StatusAgendamento status) {
         this.status = status;
     }
 
+    /**
+     * Avanca o agendamento para o proximo status do fluxo.
+     * @param novoStatus O novo status.
+     * @throws IllegalStateException se o status atual nao permite ir para o novo (ver {@link StatusAgendamento#podeIrPara}).
+     */
+    public void mudarStatus(StatusAgendamento novoStatus) {
+        if (!status.podeIrPara(novoStatus)) {
+            throw new IllegalStateException("Agendamento " + idAgendamento + " nao pode passar de '" + status + "' para '" + novoStatus + "'.");
+        }
+        this.status = novoStatus;
+    }
+
     public Funcionario getMecanicoResponsavel() {
         return mecanicoResponsavel;
     }
@@ -120,12 +164,12 @@ public class Agendamento implements Comparable<Agendamento> {
         this.mecanicoResponsavel = mecanicoResponsavel;
     }
 
-    public double getValorRetidoCancelamento() {
-        return valorRetidoCancelamento;
+    public long getValorRetidoCancelamentoCentavos() {
+        return valorRetidoCancelamentoCentavos;
     }
 
-    public void setValorRetidoCancelamento(double valorRetidoCancelamento) {
-        this.valorRetidoCancelamento = valorRetidoCancelamento;
+    public void setValorRetidoCancelamentoCentavos(long valorRetidoCancelamentoCentavos) {
+        this.valorRetidoCancelamentoCentavos = valorRetidoCancelamentoCentavos;
     }
     
     /**
@@ -154,13 +198,13 @@ public class Agendamento implements Comparable<Agendamento> {
     */
     public static class AgendamentoPorStatusComparator implements Comparator<Agendamento> {
         /**
-         * Compara dois agendamentos por ordem alfabética.
+         * Compara dois agendamentos pela etapa do fluxo (ordem de {@link StatusAgendamento}).
          * @param a1 o primeiro agendamento a ser comparado.
          * @param a2 o segundo agendamento a ser comparado.
-         * @return um valor negativo, zero ou positivo se o status de a1 for menor, igual ou maior que o de a2.
+         * @return um valor negativo, zero ou positivo se o status de a1 for anterior, igual ou posterior ao de a2.
          */
         public int compare(Agendamento a1, Agendamento a2) {
-            return a1.getStatus().compareToIgnoreCase(a2.getStatus());
+            return a1.getStatus().compareTo(a2.getStatus());
         }
     }
 
@@ -185,7 +229,7 @@ public class Agendamento implements Comparable<Agendamento> {
                 ", Elevador='" + infoElevador + '\'' +
                 ", Problema='" + descricaoProblema + '\'' +
                 ", Mecanico='" + (mecanicoResponsavel != null ? mecanicoResponsavel.getNome() : "Nao Atribuido") + '\'' +
-                ", Valor Retido=" + String.format("%.2f", valorRetidoCancelamento) +
+                ", Valor Retido=" + String.format("%.2f", Dinheiro.emReais(valorRetidoCancelamentoCentavos)) +
                 '}';
     }
 
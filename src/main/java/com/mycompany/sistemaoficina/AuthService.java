@@ -1,12 +1,9 @@
 package com.mycompany.sistemaoficina;
 
-import java.io.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
 /**
  * Classe responsavel pela lógica de autenticacao, alteração de senha e geracao de IDs para Gerentes e Funcionarios.
@@ -15,8 +12,6 @@ import com.google.gson.reflect.TypeToken;
  */
 public class AuthService {
 
-    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    
     /**
      * Conduz o fluxo de trabalho seguro para um gerente alterar a propria senha.
      * Pede a senha atual para verificacao antes de permitir a alteracao.
@@ -62,22 +57,12 @@ public class AuthService {
     }
     
    /**
-    * Verifica se ha algum gerente cadastrado no sistema lendo o arquivo correspondente.
+    * Verifica se ha algum gerente cadastrado no sistema lendo o repositorio de gerentes.
     * Este método é util para o cluxo de inicialização do sistema, para forçar o cadastro do primeiro gerente caso nenhum exista.
     * @return True se existe pelo menos um gerente, falso caso contrario.
     */
     public static boolean existeGerenteCadastrado() {
-        List<Gerente> gerentes = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader("gerentes.json"))) { // Caminho direto aqui
-            gerentes = gson.fromJson(reader, new TypeToken<List<Gerente>>(){}.getType());
-            if (gerentes == null) {
-                gerentes = new ArrayList<>();
-            }
-        } catch (FileNotFoundException e) {
-            // Arquivo nao encontrado, significa que nao ha gerentes. Nao e um erro.
-        } catch (IOException e) {
-            System.err.println("AuthService: Erro ao carregar dados de gerentes para verificacao: " + e.getMessage());
-        }
+        List<Gerente> gerentes = Repositorios.abrir("gerentes.json", Gerente.class, Gerente::getId).carregarTodos();
         System.out.println("AuthService: Existe gerente cadastrado? " + !gerentes.isEmpty()); // DEBUG
         return !gerentes.isEmpty();
     }
@@ -116,41 +101,34 @@ public class AuthService {
     }
 
     /**
-     * Gera um ID unico para um novo funcionario baseado na lista de funcionarios existente.
-     * Encontra o maior ID na lista existente e retorna o próximo numero.
+     * Gera um ID unico para um novo funcionario usando a sequencia central de IDs.
+     * A lista so e percorrida se a sequencia ainda nao tiver sido semeada nesta execucao
+     * (normalmente o GerenciadorFuncionarios ja a semeia ao carregar os dados).
      * @param funcionariosExistentes A lista atual de funcionarios em memoria.
      * @return O proximo ID inteiro disponivel.
      */
     public static int gerarIdUnicoFuncionario(List<Funcionario> funcionariosExistentes) {
-        int maxId = 0;
-        if (funcionariosExistentes != null) {
-            for (Funcionario f : funcionariosExistentes) {
-                if (f.getId() > maxId) {
-                    maxId = f.getId();
-                }
-            }
+        if (!SequenciaIds.foiSemeada(SequenciaIds.FUNCIONARIOS)) {
+            SequenciaIds.semear(SequenciaIds.FUNCIONARIOS, funcionariosExistentes, Funcionario::getId);
         }
-        System.out.println("AuthService: Gerando ID para funcionario. Max ID atual: " + maxId + ", Novo ID: " + (maxId + 1)); // DEBUG
-        return maxId + 1;
+        int novoId = SequenciaIds.proximo(SequenciaIds.FUNCIONARIOS);
+        System.out.println("AuthService: Gerando ID para funcionario. Novo ID: " + novoId); // DEBUG
+        return novoId;
     }
     
     /**
-     * Gera um ID unico e sequencial para um novo gerente baseado na lista de gerentes existente.
-     * Esta lista e fornecida pela Main (para o primeiro cadastro) ou SistemaOficina.
-     * Encontra o maior ID na lista existente e retorna o proximo numero.
+     * Gera um ID unico e sequencial para um novo gerente usando a sequencia central de IDs.
+     * Esta lista e fornecida pela Main (para o primeiro cadastro) ou SistemaOficina,
+     * e so e percorrida se a sequencia ainda nao tiver sido semeada nesta execucao.
      * @param gerentesExistentes A lista atual de gerentes em memoria.
      * @return O proximo ID disponivel.
      */
     public static int gerarIdUnicoGerente(List<Gerente> gerentesExistentes) {
-        int maxId = 0;
-        if (gerentesExistentes != null) {
-            for (Gerente g : gerentesExistentes) {
-                if (g.getId() > maxId) {
-                    maxId = g.getId();
-                }
-            }
+        if (!SequenciaIds.foiSemeada(SequenciaIds.GERENTES)) {
+            SequenciaIds.semear(SequenciaIds.GERENTES, gerentesExistentes, Gerente::getId);
         }
-        System.out.println("AuthService: Gerando ID para gerente. Max ID atual: " + maxId + ", Novo ID: " + (maxId + 1)); // DEBUG
-        return maxId + 1;
+        int novoId = SequenciaIds.proximo(SequenciaIds.GERENTES);
+        System.out.println("AuthService: Gerando ID para gerente. Novo ID: " + novoId); // DEBUG
+        return novoId;
     }
 }
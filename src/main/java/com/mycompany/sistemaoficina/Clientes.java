@@ -125,6 +125,22 @@ public class Clientes implements Comparable<Clientes> {
     this.email = email;
 }
 
+    /**
+     *
+     * @return
+     */
+    public String getCpfAnonimizado() {
+    return cpfAnonimizado;
+}
+
+    /**
+     *
+     * @param cpfAnonimizado
+     */
+    public void setCpfAnonimizado(String cpfAnonimizado) {
+    this.cpfAnonimizado = cpfAnonimizado;
+}
+
     /**
      *
      * @return
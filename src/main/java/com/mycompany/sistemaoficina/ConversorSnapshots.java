@@ -0,0 +1,209 @@
+package com.mycompany.sistemaoficina;
+
+import com.google.gson.reflect.TypeToken;
+import com.mycompany.sistemaoficina.persistencia.ArmazenamentoPaginado;
+import com.mycompany.sistemaoficina.persistencia.DiretorioDados;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.RepositorioBinario;
+import com.mycompany.sistemaoficina.persistencia.RepositorioJson;
+import com.mycompany.sistemaoficina.persistencia.RepositorioPaginado;
+import com.mycompany.sistemaoficina.persistencia.RepositorioParticionado;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SegmentoCompactado;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Converte os snapshots entre o JSON de sempre e o formato binario compacto, usado com
+ * {@code -Dsistemaoficina.armazenamento=binario}: as particoes mensais de Ordens de Servico, despesas e
+ * agendamentos arquivados ({@code ordens_de_servico/AAAA-MM.json} para {@code ordens_de_servico/AAAA-MM.bin}
+ * e vice-versa), listadas pelo particoes.json de cada pasta, e o arquivo dos agendamentos ativos
+ * (agendamentos.json, agendamentos.bin).
+ * O arquivo de origem nao e alterado; o de destino e substituido. Os segmentos compactados dos meses
+ * arquivados ficam sempre em JSON e nao sao convertidos.
+ * Tambem migra as Ordens de Servico gravadas com copias completas de Servico e Produto para o
+ * formato de itens ({@link ItemOrdemDeServico}), em todas as particoes (.json, .bin, .db e segmentos).
+ * <p>
+ * Se ainda houver apenas o arquivo unico antigo (ex: ordens_de_servico.json), ele e dividido em particoes
+ * antes da conversao, como na abertura do sistema.
+ * <p>
+ * Uso pela linha de comando: {@code ConversorSnapshots <paraBinario|paraJson|migrarItens> [pasta]}.
+ * Sem a pasta, usa o diretorio de dados configurado (ou o diretorio de execucao).
+ * @author santo
+ */
+public class ConversorSnapshots {
+
+    private static final Type TIPO_LISTA_OS = TypeToken.getParameterized(List.class, OrdemDeServico.class).getType();
+
+    /**
+     * Ponto de entrada do conversor.
+     * @param args O sentido da conversao ("paraBinario", "paraJson" ou "migrarItens") e, opcionalmente, a pasta dos dados.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || !(args[0].equalsIgnoreCase("paraBinario") || args[0].equalsIgnoreCase("paraJson")
+                || args[0].equalsIgnoreCase("migrarItens"))) {
+            System.out.println("Uso: ConversorSnapshots <paraBinario|paraJson|migrarItens> [pasta]");
+            return;
+        }
+        if (args.length > 1) {
+            System.setProperty(DiretorioDados.PROPRIEDADE, args[1]);
+        }
+        if (args[0].equalsIgnoreCase("migrarItens")) {
+            migrarItens(ordensDeServico());
+            return;
+        }
+        boolean paraBinario = args[0].equalsIgnoreCase("paraBinario");
+        converterParticoes(ordensDeServico(), OrdemDeServico.class, OrdemDeServico::getIdOrdemDeServico, paraBinario);
+        converterParticoes(new RepositorioParticionado<>("despesas", Despesa.class, Despesa::getIdDespesa,
+                Despesa::getData, despesa -> false), Despesa.class, Despesa::getIdDespesa, paraBinario);
+        converterParticoes(new RepositorioParticionado<>("agendamentos_arquivados", Agendamento.class,
+                Agendamento::getIdAgendamento, Agendamento::getDataHora, agendamento -> false),
+                Agendamento.class, Agendamento::getIdAgendamento, paraBinario);
+        converter(DiretorioDados.arquivo("agendamentos.json"), DiretorioDados.arquivo("agendamentos.bin"),
+                Agendamento.class, Agendamento::getIdAgendamento, paraBinario, true);
+    }
+
+    /**
+     * Abre as particoes de Ordens de Servico com as mesmas regras do gerenciador.
+     */
+    private static RepositorioParticionado<OrdemDeServico> ordensDeServico() {
+        return new RepositorioParticionado<>("ordens_de_servico", OrdemDeServico.class,
+                OrdemDeServico::getIdOrdemDeServico, OrdemDeServico::getDataEmissao, os -> "Aberta".equals(os.getStatus()));
+    }
+
+    /**
+     * Converte a particao de cada mes de um repositorio particionado.
+     * @param particionado O repositorio particionado.
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     * @param paraBinario true para converter de JSON para binario, false para o sentido inverso.
+     * @param <T> O tipo dos registros.
+     */
+    private static <T> void converterParticoes(RepositorioParticionado<T> particionado, Class<T> classe,
+            ToIntFunction<T> extratorId, boolean paraBinario) {
+        File pasta = particionado.getPasta();
+        if (!particionado.existe()) {
+            System.out.println("Pasta '" + pasta.getName() + "/' nao encontrada. Nada a converter.");
+            return;
+        }
+        List<YearMonth> meses = particionado.getMeses();
+        for (YearMonth mes : meses) {
+            // Um mes arquivado pode nao ter particao: os registros estao so no segmento.
+            converter(new File(pasta, mes + ".json"), new File(pasta, mes + ".bin"), classe, extratorId,
+                    paraBinario, !particionado.isArquivado(mes));
+        }
+        System.out.println("'" + pasta.getName() + "/': " + meses.size() + " particoes mensais verificadas.");
+    }
+
+    /**
+     * Converte um snapshot, exibindo o tamanho dos arquivos e o tempo gasto.
+     * @param json O arquivo JSON.
+     * @param binario O arquivo binario.
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     * @param paraBinario true para converter de JSON para binario, false para o sentido inverso.
+     * @param avisarAusente true para avisar se o arquivo de origem nao existir.
+     * @param <T> O tipo dos registros.
+     */
+    private static <T> void converter(File json, File binario, Class<T> classe, ToIntFunction<T> extratorId,
+            boolean paraBinario, boolean avisarAusente) {
+        File origem = paraBinario ? json : binario;
+        File destino = paraBinario ? binario : json;
+        if (!origem.exists()) {
+            if (avisarAusente) {
+                System.out.println("Arquivo '" + nomeRelativo(origem) + "' nao encontrado. Nada a converter.");
+            }
+            return;
+        }
+        Repositorio<T> repositorioJson = new RepositorioJson<>(json, classe, extratorId);
+        Repositorio<T> repositorioBinario = new RepositorioBinario<>(binario, classe, extratorId);
+        long inicio = System.currentTimeMillis();
+        boolean sucesso = paraBinario
+                ? Repositorios.importar(repositorioJson, repositorioBinario, json, binario)
+                : Repositorios.importar(repositorioBinario, repositorioJson, binario, json);
+        if (sucesso) {
+            System.out.println("'" + nomeRelativo(origem) + "' (" + origem.length() + " bytes) convertido para '"
+                    + nomeRelativo(destino) + "' (" + destino.length() + " bytes) em " + (System.currentTimeMillis() - inicio) + " ms.");
+        } else {
+            System.err.println("Erro ao converter '" + nomeRelativo(origem) + "'.");
+        }
+    }
+
+    /**
+     * Regrava as Ordens de Servico de todas as particoes mensais, em todos os backends presentes, e os
+     * segmentos dos meses arquivados. A leitura ja converte os itens antigos, entao regravar e suficiente
+     * para que o arquivo fique no formato novo.
+     * @param particionado As particoes de Ordens de Servico.
+     */
+    private static void migrarItens(RepositorioParticionado<OrdemDeServico> particionado) {
+        File pasta = particionado.getPasta();
+        if (!particionado.existe()) {
+            System.out.println("Nenhuma Ordem de Servico encontrada em '" + pasta.getPath() + "'.");
+            return;
+        }
+        for (YearMonth mes : particionado.getMeses()) {
+            File json = new File(pasta, mes + ".json");
+            File binario = new File(pasta, mes + ".bin");
+            File paginado = new File(pasta, mes + ".db");
+            File segmento = new File(pasta, mes + ".json" + SegmentoCompactado.EXTENSAO);
+            if (json.exists()) {
+                regravar(new RepositorioJson<>(json, OrdemDeServico.class, OrdemDeServico::getIdOrdemDeServico), json);
+            }
+            if (binario.exists()) {
+                regravar(new RepositorioBinario<>(binario, OrdemDeServico.class, OrdemDeServico::getIdOrdemDeServico), binario);
+            }
+            if (paginado.exists()) {
+                try (ArmazenamentoPaginado armazenamento = new ArmazenamentoPaginado(paginado)) {
+                    regravar(new RepositorioPaginado<>(armazenamento, OrdemDeServico.class, OrdemDeServico::getIdOrdemDeServico), paginado);
+                } catch (IOException e) {
+                    System.err.println("Erro ao migrar '" + nomeRelativo(paginado) + "': " + e.getMessage());
+                }
+            }
+            if (particionado.isArquivado(mes) && segmento.exists()) {
+                regravarSegmento(segmento);
+            }
+        }
+    }
+
+    private static void regravar(Repositorio<OrdemDeServico> repositorio, File arquivo) {
+        long tamanhoAnterior = arquivo.length();
+        List<OrdemDeServico> ordens = repositorio.carregarTodos();
+        if (repositorio.salvarTodos(ordens)) {
+            System.out.println("'" + nomeRelativo(arquivo) + "': " + ordens.size() + " OS migradas para itens ("
+                    + tamanhoAnterior + " -> " + arquivo.length() + " bytes).");
+        } else {
+            System.err.println("Erro ao migrar '" + nomeRelativo(arquivo) + "'.");
+        }
+    }
+
+    private static void regravarSegmento(File segmento) {
+        long tamanhoAnterior = segmento.length();
+        List<OrdemDeServico> ordens = SegmentoCompactado.ler(segmento, TIPO_LISTA_OS);
+        if (ordens.isEmpty()) {
+            // Segmento ilegivel (o erro ja foi exibido): regravar apagaria os registros.
+            return;
+        }
+        try {
+            SegmentoCompactado.gravar(segmento, ordens, TIPO_LISTA_OS);
+            System.out.println("'" + nomeRelativo(segmento) + "': " + ordens.size() + " OS migradas para itens ("
+                    + tamanhoAnterior + " -> " + segmento.length() + " bytes).");
+        } catch (IOException e) {
+            System.err.println("Erro ao migrar '" + nomeRelativo(segmento) + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Nome do arquivo com a pasta da particao, quando houver (ex: "ordens_de_servico/2024-05.json").
+     */
+    private static String nomeRelativo(File arquivo) {
+        if (DiretorioDados.arquivo(arquivo.getName()).equals(arquivo)) {
+            return arquivo.getName();
+        }
+        return arquivo.getParentFile().getName() + "/" + arquivo.getName();
+    }
+}
@@ -11,7 +11,7 @@ public class Despesa{
     
     private int idDespesa;
     private String descricao;
-    private double valor;
+    private long valorCentavos;
     private LocalDateTime data;
     private String categoria; // Ex: "Contas, Salarios, Fornecedores, outros...".
     
@@ -25,14 +25,14 @@ public class Despesa{
      * Construtor completo para criar uma nova despesa.
      * @param idDespesa O ID unico da despesa.
      * @param descricao Uma descricao do que e a despesa.
-     * @param valor O custo da despesa.
+     * @param valorCentavos O custo da despesa, em centavos (ver {@link Dinheiro}).
      * @param data A data em que a despesa foi lancada.
      * @param categoria Uma categoria para organizar as despesas.
      */
-    public Despesa(int idDespesa, String descricao, double valor, LocalDateTime data, String categoria) {
+    public Despesa(int idDespesa, String descricao, long valorCentavos, LocalDateTime data, String categoria) {
         this.idDespesa = idDespesa;
         this.descricao = descricao;
-        this.valor = valor;
+        this.valorCentavos = valorCentavos;
         this.data = data;
         this.categoria = categoria;
     }
@@ -57,12 +57,12 @@ public class Despesa{
         this.descricao = descricao;
     }
 
-    public double getValor() {
-        return valor;
+    public long getValorCentavos() {
+        return valorCentavos;
     }
 
-    public void setValor(double valor) {
-        this.valor = valor;
+    public void setValorCentavos(long valorCentavos) {
+        this.valorCentavos = valorCentavos;
     }
 
     public LocalDateTime getData() {
@@ -93,7 +93,7 @@ public class Despesa{
                 ", data=" + (data != null ? data.format(java.time.format.DateTimeFormatter.ofPattern("dd/MM/yyyy")) : "N/A") +
                 ", categoria='" + categoria + '\'' +
                 ", descricao='" + descricao + '\'' +
-                ", valor=" + String.format("R$ %.2f", valor) +
+                ", valor=" + String.format("R$ %.2f", Dinheiro.emReais(valorCentavos)) +
                 '}';
     }
 
@@ -0,0 +1,113 @@
+package com.mycompany.sistemaoficina;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmetica de valores monetarios em centavos.
+ * Todos os valores do sistema (precos, totais de OS, despesas, relatorios) sao guardados como
+ * {@code long} com a quantidade de centavos, o que torna as somas exatas (sem o erro acumulado do
+ * double) e sem criar objetos, ao contrario de BigDecimal. Esta classe reune as conversoes de e para
+ * reais, usadas apenas nas bordas (entrada do usuario, arquivos JSON, exibicao), e as operacoes
+ * com verificacao de estouro.
+ * @author santo
+ */
+public final class Dinheiro {
+
+    /**
+     * Quantidade de centavos em um real.
+     */
+    public static final long CENTAVOS_POR_REAL = 100;
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte um valor em reais para centavos, arredondando para o centavo mais proximo.
+     * @param reais O valor em reais.
+     * @return O valor em centavos.
+     */
+    public static long deReais(double reais) {
+        return Math.round(reais * CENTAVOS_POR_REAL);
+    }
+
+    /**
+     * Converte um valor em centavos para reais. Usado apenas para gravar e exibir.
+     * @param centavos O valor em centavos.
+     * @return O valor em reais.
+     */
+    public static double emReais(long centavos) {
+        return centavos / (double) CENTAVOS_POR_REAL;
+    }
+
+    /**
+     * Le um valor digitado em reais (ex: "150", "89.90" ou "89,90"), sem passar por double.
+     * Casas alem dos centavos sao arredondadas (metade para cima).
+     * @param texto O texto digitado.
+     * @return O valor em centavos.
+     * @throws NumberFormatException se o texto nao for um numero valido.
+     */
+    public static long ler(String texto) {
+        try {
+            return new BigDecimal(texto.trim().replace(',', '.'))
+                    .setScale(2, RoundingMode.HALF_UP)
+                    .unscaledValue()
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Valor fora do limite: " + texto);
+        }
+    }
+
+    /**
+     * Soma dois valores.
+     * @param a O primeiro valor, em centavos.
+     * @param b O segundo valor, em centavos.
+     * @return A soma, em centavos.
+     * @throws ArithmeticException se a soma estourar o limite de long.
+     */
+    public static long somar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Subtrai um valor de outro.
+     * @param a O valor inicial, em centavos.
+     * @param b O valor a subtrair, em centavos.
+     * @return A diferenca, em centavos.
+     * @throws ArithmeticException se a diferenca estourar o limite de long.
+     */
+    public static long subtrair(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Multiplica um valor por uma quantidade (ex: preco unitario x quantidade de pecas).
+     * @param centavos O valor unitario, em centavos.
+     * @param quantidade A quantidade.
+     * @return O produto, em centavos.
+     * @throws ArithmeticException se o produto estourar o limite de long.
+     */
+    public static long multiplicar(long centavos, int quantidade) {
+        return Math.multiplyExact(centavos, (long) quantidade);
+    }
+
+    /**
+     * Aplica um percentual inteiro a um valor, arredondando para o centavo mais proximo
+     * (ex: 20% de retencao no cancelamento).
+     * @param centavos O valor, em centavos.
+     * @param percentual O percentual (ex: 20 para 20%).
+     * @return A parcela, em centavos.
+     */
+    public static long percentual(long centavos, int percentual) {
+        return Math.floorDiv(Math.addExact(Math.multiplyExact(centavos, (long) percentual), 50), 100);
+    }
+
+    /**
+     * Formata um valor no padrao "R$%.2f" usado nas telas e na nota fiscal.
+     * @param centavos O valor, em centavos.
+     * @return O valor formatado.
+     */
+    public static String formatar(long centavos) {
+        return String.format("R$%.2f", emReais(centavos));
+    }
+}
@@ -1,6 +1,7 @@
 package com.mycompany.sistemaoficina;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Classe reponsável por alocar os elevadores, eles tem um numero que é seu identificador,
@@ -11,8 +12,9 @@ import java.util.Objects;
 public class Elevador {
 
     private int numero; //Identificador do elevador
-    private String tipo; // 1 elevador fixo, outros dois para outras atividades
-    private boolean ocupado; // Indica se o elevador esta ou não ocupado
+    private TipoElevador tipo; // Categoria do elevador (fixo ou corriqueiro)
+    // Indica se o elevador esta ou não ocupado; atomico para que dois atendentes nao peguem o mesmo elevador
+    private AtomicBoolean ocupado = new AtomicBoolean(false);
 
     /**
      * Construtor padrão
@@ -20,10 +22,10 @@ public class Elevador {
     public Elevador() {
     }
 
-    public Elevador(int numero, String tipo) {
+    public Elevador(int numero, TipoElevador tipo) {
         this.numero = numero;
         this.tipo = tipo;
-        this.ocupado = false; // Elevador não ocupado por padrão ao ser criado
+        // Elevador não ocupado por padrão ao ser criado
     }
 
     /**
@@ -38,16 +40,16 @@ public class Elevador {
         this.numero = numero;
     }
 
-    public String getTipo() {
+    public TipoElevador getTipo() {
         return tipo;
     }
     
-    public void setTipo(String tipo) {
+    public void setTipo(TipoElevador tipo) {
         this.tipo = tipo;
     }
 
     public boolean isOcupado() {
-        return ocupado;
+        return ocupado.get();
     }
     
     /**
@@ -55,7 +57,24 @@ public class Elevador {
      * @param ocupado 
      */
     public void setOcupado(boolean ocupado) {
-        this.ocupado = ocupado;
+        this.ocupado.set(ocupado);
+    }
+
+    /**
+     * Ocupa o elevador se ele estiver livre, em uma unica operacao atomica (compare-and-set).
+     * Se duas threads tentarem ao mesmo tempo, apenas uma consegue.
+     * @return true se o elevador estava livre e agora esta ocupado por quem chamou.
+     */
+    public boolean tentarOcupar() {
+        return ocupado.compareAndSet(false, true);
+    }
+
+    /**
+     * Libera o elevador se ele estiver ocupado, em uma unica operacao atomica (compare-and-set).
+     * @return true se o elevador estava ocupado e foi liberado por quem chamou.
+     */
+    public boolean tentarLiberar() {
+        return ocupado.compareAndSet(true, false);
     }
 
     /**
@@ -67,7 +86,7 @@ public class Elevador {
         return "Elevador{" +
                 "numero=" + numero +
                 ", tipo='" + tipo + '\'' +
-                ", ocupado=" + ocupado +
+                ", ocupado=" + isOcupado() +
                 '}';
     }
 
@@ -2,9 +2,9 @@ package com.mycompany.sistemaoficina;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.mycompany.sistemaoficina.persistencia.GravacaoAtomica;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Objects; 
 
@@ -93,10 +93,8 @@ public class Funcionario {
 
         Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
-        try (FileWriter writer = new FileWriter(arquivo)) {
-            gson.toJson(this, writer);
-            System.out.println("Funcionário " + this.nome + " salvo com sucesso em " + arquivo.getAbsolutePath());
-        } 
+        GravacaoAtomica.gravar(arquivo, writer -> gson.toJson(this, writer));
+        System.out.println("Funcionário " + this.nome + " salvo com sucesso em " + arquivo.getAbsolutePath());
     }
 
     /**
@@ -0,0 +1,459 @@
+package com.mycompany.sistemaoficina;
+
+import com.mycompany.sistemaoficina.persistencia.GravacaoAtomica;
+import com.mycompany.sistemaoficina.persistencia.GsonOficina;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Gera massas de dados sinteticos, coerentes com as classes do sistema, para testes de carga e benchmarks.
+ * Produz clientes (com N veiculos cada), fornecedores, estoque, catalogo de servicos, agendamentos,
+ * Ordens de Servico (com M itens cada) e despesas, com datas espalhadas por varios anos.
+ * <p>
+ * A massa e coerente entre si: cada OS aponta para um agendamento existente, usa o cliente e o veiculo
+ * desse agendamento e so contem servicos e pecas do catalogo; agendamentos com OS finalizada ficam
+ * "Entregue", os com OS aberta ficam "Em Manutencao (Sem Elevador)" (no ultimo mes do periodo) e os demais
+ * ficam "Agendado" ou "Cancelado".
+ * Com a mesma semente o resultado e sempre o mesmo.
+ * <p>
+ * Uso pela linha de comando: {@code GeradorDadosSinteticos <pasta> [clientes] [agendamentos]}.
+ * Para usar a pasta gerada, execute o sistema com {@code -Dsistemaoficina.dados=<pasta>}.
+ * @author santo
+ */
+public class GeradorDadosSinteticos {
+
+    private static final String[] MODELOS = {"Gol", "Onix", "HB20", "Corolla", "Civic", "Uno", "Palio", "Ka", "Sandero", "Hilux", "Strada", "Kwid"};
+    private static final String[] CORES = {"Prata", "Preto", "Branco", "Vermelho", "Cinza", "Azul"};
+    private static final String[] PROBLEMAS = {"Revisao periodica", "Troca de oleo", "Barulho na suspensao", "Freio fazendo ruido",
+        "Alinhamento e balanceamento", "Motor falhando", "Ar condicionado nao gela", "Troca de pastilhas"};
+    private static final String[] CATEGORIAS_DESPESA = {"Contas", "Salarios", "Fornecedores", "Outros"};
+
+    /**
+     * Parametros da massa gerada. Os valores padrao geram uma oficina pequena (mil clientes, tres anos).
+     */
+    public static class Configuracao {
+        private int clientes = 1000;
+        private int veiculosPorClienteMin = 1;
+        private int veiculosPorClienteMax = 2;
+        private int agendamentos = 2000;
+        private int itensPorOSMin = 1;
+        private int itensPorOSMax = 4;
+        private int produtos = 200;
+        private int servicos = 30;
+        private int fornecedores = 10;
+        private int despesas = 1000;
+        private LocalDateTime dataInicial = LocalDateTime.of(2022, 1, 1, 0, 0);
+        private int anos = 3;
+        private double fracaoCancelados = 0.05;
+        private double fracaoOSAbertas = 0.05;
+        private double fracaoAgendados = 0.02;
+        private long semente = 42L;
+
+        public int getClientes() {
+            return clientes;
+        }
+
+        public void setClientes(int clientes) {
+            this.clientes = clientes;
+        }
+
+        public int getVeiculosPorClienteMin() {
+            return veiculosPorClienteMin;
+        }
+
+        public void setVeiculosPorClienteMin(int veiculosPorClienteMin) {
+            this.veiculosPorClienteMin = veiculosPorClienteMin;
+        }
+
+        public int getVeiculosPorClienteMax() {
+            return veiculosPorClienteMax;
+        }
+
+        public void setVeiculosPorClienteMax(int veiculosPorClienteMax) {
+            this.veiculosPorClienteMax = veiculosPorClienteMax;
+        }
+
+        public int getAgendamentos() {
+            return agendamentos;
+        }
+
+        /**
+         * Define o numero de agendamentos. Cada agendamento que nao ficar "Agendado" ou "Cancelado" gera uma OS.
+         * @param agendamentos O numero de agendamentos.
+         */
+        public void setAgendamentos(int agendamentos) {
+            this.agendamentos = agendamentos;
+        }
+
+        public int getItensPorOSMin() {
+            return itensPorOSMin;
+        }
+
+        public void setItensPorOSMin(int itensPorOSMin) {
+            this.itensPorOSMin = itensPorOSMin;
+        }
+
+        public int getItensPorOSMax() {
+            return itensPorOSMax;
+        }
+
+        public void setItensPorOSMax(int itensPorOSMax) {
+            this.itensPorOSMax = itensPorOSMax;
+        }
+
+        public int getProdutos() {
+            return produtos;
+        }
+
+        public void setProdutos(int produtos) {
+            this.produtos = produtos;
+        }
+
+        public int getServicos() {
+            return servicos;
+        }
+
+        public void setServicos(int servicos) {
+            this.servicos = servicos;
+        }
+
+        public int getFornecedores() {
+            return fornecedores;
+        }
+
+        public void setFornecedores(int fornecedores) {
+            this.fornecedores = fornecedores;
+        }
+
+        public int getDespesas() {
+            return despesas;
+        }
+
+        public void setDespesas(int despesas) {
+            this.despesas = despesas;
+        }
+
+        public LocalDateTime getDataInicial() {
+            return dataInicial;
+        }
+
+        public void setDataInicial(LocalDateTime dataInicial) {
+            this.dataInicial = dataInicial;
+        }
+
+        public int getAnos() {
+            return anos;
+        }
+
+        /**
+         * Define por quantos anos (a partir da data inicial) as datas sao espalhadas.
+         * @param anos O numero de anos.
+         */
+        public void setAnos(int anos) {
+            this.anos = anos;
+        }
+
+        public double getFracaoCancelados() {
+            return fracaoCancelados;
+        }
+
+        public void setFracaoCancelados(double fracaoCancelados) {
+            this.fracaoCancelados = fracaoCancelados;
+        }
+
+        public double getFracaoOSAbertas() {
+            return fracaoOSAbertas;
+        }
+
+        public void setFracaoOSAbertas(double fracaoOSAbertas) {
+            this.fracaoOSAbertas = fracaoOSAbertas;
+        }
+
+        public double getFracaoAgendados() {
+            return fracaoAgendados;
+        }
+
+        public void setFracaoAgendados(double fracaoAgendados) {
+            this.fracaoAgendados = fracaoAgendados;
+        }
+
+        public long getSemente() {
+            return semente;
+        }
+
+        public void setSemente(long semente) {
+            this.semente = semente;
+        }
+
+        /**
+         * Configuracao com o mesmo numero de clientes, agendamentos, produtos e despesas, usada nos benchmarks.
+         * O numero de OS fica um pouco abaixo, pois agendamentos cancelados ou ainda agendados nao tem OS.
+         * @param quantidade O numero de registros de cada tipo principal.
+         * @return A configuracao criada.
+         */
+        public static Configuracao comQuantidade(int quantidade) {
+            Configuracao config = new Configuracao();
+            config.setClientes(quantidade);
+            config.setAgendamentos(quantidade);
+            config.setDespesas(quantidade);
+            config.setProdutos(quantidade);
+            return config;
+        }
+    }
+
+    /**
+     * Resultado de uma geracao: as listas prontas para serem gravadas ou usadas em memoria.
+     */
+    public static class MassaDeDados {
+        private final List<Clientes> clientes = new ArrayList<>();
+        private final List<Fornecedor> fornecedores = new ArrayList<>();
+        private final List<Produto> produtos = new ArrayList<>();
+        private final List<Servico> servicos = new ArrayList<>();
+        private final List<Agendamento> agendamentos = new ArrayList<>();
+        private final List<OrdemDeServico> ordensDeServico = new ArrayList<>();
+        private final List<Despesa> despesas = new ArrayList<>();
+
+        public List<Clientes> getClientes() {
+            return clientes;
+        }
+
+        public List<Fornecedor> getFornecedores() {
+            return fornecedores;
+        }
+
+        public List<Produto> getProdutos() {
+            return produtos;
+        }
+
+        public List<Servico> getServicos() {
+            return servicos;
+        }
+
+        public List<Agendamento> getAgendamentos() {
+            return agendamentos;
+        }
+
+        public List<OrdemDeServico> getOrdensDeServico() {
+            return ordensDeServico;
+        }
+
+        public List<Despesa> getDespesas() {
+            return despesas;
+        }
+    }
+
+    private final Configuracao config;
+
+    /**
+     * Cria um gerador com a configuracao informada.
+     * @param config Os parametros da massa.
+     */
+    public GeradorDadosSinteticos(Configuracao config) {
+        this.config = config;
+    }
+
+    /**
+     * Gera a massa de dados em memoria.
+     * @return A massa gerada.
+     */
+    public MassaDeDados gerar() {
+        Random random = new Random(config.getSemente());
+        MassaDeDados massa = new MassaDeDados();
+        long diasNoPeriodo = Math.max(1, ChronoUnit.DAYS.between(config.getDataInicial(),
+                config.getDataInicial().plusYears(config.getAnos())));
+        int totalVeiculos = 0;
+
+        for (int i = 1; i <= config.getFornecedores(); i++) {
+            massa.getFornecedores().add(new Fornecedor(i, "Fornecedor " + i, "Fornecedor " + i + " Ltda",
+                    String.format("%08d/0001-%02d", i, i % 100), telefone(i), "contato@fornecedor" + i + ".com"));
+        }
+        for (int i = 1; i <= config.getProdutos(); i++) {
+            Fornecedor fornecedor = massa.getFornecedores().isEmpty() ? null
+                    : massa.getFornecedores().get(random.nextInt(massa.getFornecedores().size()));
+            long custo = 1000 + random.nextInt(49000); // centavos
+            massa.getProdutos().add(new Produto(i, "Peca " + i, "Descricao da peca " + i, custo,
+                    Dinheiro.percentual(custo, 130), random.nextInt(200), fornecedor));
+        }
+        for (int i = 1; i <= config.getServicos(); i++) {
+            massa.getServicos().add(new Servico(i, "Servico " + i, 5000 + random.nextInt(45) * 1000L));
+        }
+
+        for (int i = 1; i <= config.getClientes(); i++) {
+            Clientes cliente = new Clientes(i, "Cliente " + i, "Rua " + (1 + random.nextInt(500)) + ", " + i,
+                    telefone(i), "cliente" + i + "@email.com", "***." + String.format("%03d", i % 1000) + ".***-**");
+            int veiculos = entre(random, config.getVeiculosPorClienteMin(), config.getVeiculosPorClienteMax());
+            for (int v = 0; v < veiculos; v++) {
+                cliente.adicionarVeiculo(new Veiculo(MODELOS[random.nextInt(MODELOS.length)],
+                        placa(++totalVeiculos), CORES[random.nextInt(CORES.length)], 2000 + random.nextInt(25)));
+            }
+            massa.getClientes().add(cliente);
+        }
+
+        int idOS = 0;
+        for (int i = 1; i <= config.getAgendamentos() && !massa.getClientes().isEmpty(); i++) {
+            Clientes cliente = massa.getClientes().get(random.nextInt(massa.getClientes().size()));
+            if (cliente.getVeiculos().isEmpty()) {
+                continue;
+            }
+            Veiculo veiculo = cliente.getVeiculos().get(random.nextInt(cliente.getVeiculos().size()));
+            LocalDateTime dataHora = horarioComercial(random, diasNoPeriodo);
+            Agendamento agendamento = new Agendamento(i, cliente, veiculo, dataHora, PROBLEMAS[random.nextInt(PROBLEMAS.length)]);
+            massa.getAgendamentos().add(agendamento);
+
+            double sorteio = random.nextDouble();
+            if (sorteio < config.getFracaoAgendados()) {
+                continue; // Continua "Agendado", sem OS
+            }
+            if (sorteio < config.getFracaoAgendados() + config.getFracaoCancelados()) {
+                agendamento.setStatus(StatusAgendamento.CANCELADO);
+                agendamento.setValorRetidoCancelamentoCentavos(2000);
+                continue;
+            }
+            boolean aberta = sorteio < config.getFracaoAgendados() + config.getFracaoCancelados() + config.getFracaoOSAbertas();
+            agendamento.setStatus(aberta ? StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR : StatusAgendamento.ENTREGUE);
+            if (aberta) {
+                // OS abertas sao recentes: ficam nos ultimos 30 dias do periodo, como em uma oficina real
+                // (e as particoes mensais antigas nao precisam ser carregadas). Nao consome o sorteio.
+                agendamento.setDataHora(config.getDataInicial().toLocalDate()
+                        .plusDays(Math.max(0, diasNoPeriodo - 1 - i % 30)).atTime(dataHora.toLocalTime()));
+            }
+            massa.getOrdensDeServico().add(novaOS(random, ++idOS, agendamento, massa, aberta));
+        }
+
+        for (int i = 1; i <= config.getDespesas(); i++) {
+            massa.getDespesas().add(new Despesa(i, "Despesa " + i, 2000 + random.nextInt(200000),
+                    horarioComercial(random, diasNoPeriodo), CATEGORIAS_DESPESA[random.nextInt(CATEGORIAS_DESPESA.length)]));
+        }
+        return massa;
+    }
+
+    /**
+     * Gera a massa e grava os arquivos JSON na pasta informada (criando-a se preciso), com os mesmos
+     * nomes usados pelos gerenciadores: clientes.json, fornecedores.json, estoque.json, servicos.json,
+     * agendamentos.json, ordens_de_servico.json e despesas.json.
+     * @param diretorio A pasta de destino.
+     * @return A massa gerada.
+     * @throws IOException Se houver erro ao gravar os arquivos.
+     */
+    public MassaDeDados gerarArquivos(File diretorio) throws IOException {
+        MassaDeDados massa = gerar();
+        gravar(massa, diretorio);
+        return massa;
+    }
+
+    /**
+     * Grava uma massa ja gerada na pasta informada.
+     * @param massa A massa de dados.
+     * @param diretorio A pasta de destino.
+     * @throws IOException Se houver erro ao gravar os arquivos.
+     */
+    public static void gravar(MassaDeDados massa, File diretorio) throws IOException {
+        if (!diretorio.exists() && !diretorio.mkdirs()) {
+            throw new IOException("Nao foi possivel criar a pasta " + diretorio);
+        }
+        gravarArquivo(new File(diretorio, "clientes.json"), massa.getClientes());
+        gravarArquivo(new File(diretorio, "fornecedores.json"), massa.getFornecedores());
+        gravarArquivo(new File(diretorio, "estoque.json"), massa.getProdutos());
+        gravarArquivo(new File(diretorio, "servicos.json"), massa.getServicos());
+        gravarArquivo(new File(diretorio, "agendamentos.json"), massa.getAgendamentos());
+        gravarArquivo(new File(diretorio, "ordens_de_servico.json"), massa.getOrdensDeServico());
+        gravarArquivo(new File(diretorio, "despesas.json"), massa.getDespesas());
+    }
+
+    private static void gravarArquivo(File arquivo, Object dados) throws IOException {
+        GravacaoAtomica.gravar(arquivo, writer -> GsonOficina.FORMATADO.toJson(dados, writer));
+    }
+
+    /**
+     * Monta uma OS com itens do catalogo. OS finalizadas sao emitidas algumas horas depois do agendamento.
+     */
+    private OrdemDeServico novaOS(Random random, int idOS, Agendamento agendamento, MassaDeDados massa, boolean aberta) {
+        List<ItemOrdemDeServico> servicos = new ArrayList<>();
+        List<ItemOrdemDeServico> pecas = new ArrayList<>();
+        long total = 0;
+        int itens = entre(random, config.getItensPorOSMin(), config.getItensPorOSMax());
+        for (int j = 0; j < itens; j++) {
+            // Cerca de metade dos itens sao servicos e metade pecas, conforme o catalogo disponivel.
+            boolean usarServico = massa.getProdutos().isEmpty()
+                    || (!massa.getServicos().isEmpty() && random.nextBoolean());
+            if (usarServico && !massa.getServicos().isEmpty()) {
+                Servico servico = massa.getServicos().get(random.nextInt(massa.getServicos().size()));
+                servicos.add(ItemOrdemDeServico.deServico(servico));
+                total += servico.getValorCentavos();
+            } else if (!massa.getProdutos().isEmpty()) {
+                Produto peca = massa.getProdutos().get(random.nextInt(massa.getProdutos().size()));
+                pecas.add(ItemOrdemDeServico.deProduto(peca));
+                total += peca.getPrecoVendaCentavos();
+            }
+        }
+        LocalDateTime emissao = aberta ? agendamento.getDataHora() : agendamento.getDataHora().plusHours(1 + random.nextInt(8));
+        return new OrdemDeServico(idOS, agendamento.getIdAgendamento(), agendamento.getCliente().getNome(),
+                agendamento.getVeiculo().getModelo(), agendamento.getVeiculo().getPlaca(), servicos, pecas, total,
+                emissao, aberta ? "Aberta" : "Finalizada", 0);
+    }
+
+    /**
+     * Sorteia uma data no periodo configurado, em horario comercial (8h as 18h, de meia em meia hora).
+     */
+    private LocalDateTime horarioComercial(Random random, long diasNoPeriodo) {
+        return config.getDataInicial().toLocalDate().plusDays((long) (random.nextDouble() * diasNoPeriodo))
+                .atTime(8 + random.nextInt(10), random.nextBoolean() ? 0 : 30);
+    }
+
+    private static int entre(Random random, int minimo, int maximo) {
+        return maximo <= minimo ? minimo : minimo + random.nextInt(maximo - minimo + 1);
+    }
+
+    private static String telefone(int i) {
+        return String.format("(35) 9%04d-%04d", (i / 10000) % 10000, i % 10000);
+    }
+
+    /**
+     * Placa unica para o n-esimo veiculo gerado (AAA-0000, BAA-0000, ...).
+     */
+    private static String placa(int n) {
+        return "" + (char) ('A' + n % 26) + (char) ('A' + (n / 26) % 26) + (char) ('A' + (n / 676) % 26)
+                + "-" + String.format("%04d", (n / 17576) % 10000);
+    }
+
+    /**
+     * Gera uma massa de dados pela linha de comando.
+     * @param args Pasta de destino e, opcionalmente, o numero de clientes e de agendamentos.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Uso: GeradorDadosSinteticos <pasta> [clientes] [agendamentos]");
+            return;
+        }
+        Configuracao config = new Configuracao();
+        try {
+            if (args.length > 1) {
+                config.setClientes(Integer.parseInt(args[1]));
+                config.setAgendamentos(config.getClientes() * 2);
+                config.setDespesas(config.getClientes());
+            }
+            if (args.length > 2) {
+                config.setAgendamentos(Integer.parseInt(args[2]));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Erro: as quantidades devem ser numeros inteiros.");
+            return;
+        }
+        long inicio = System.currentTimeMillis();
+        try {
+            MassaDeDados massa = new GeradorDadosSinteticos(config).gerarArquivos(new File(args[0]));
+            System.out.println("Massa gerada em '" + args[0] + "' em " + (System.currentTimeMillis() - inicio) + " ms: "
+                    + massa.getClientes().size() + " clientes, " + massa.getAgendamentos().size() + " agendamentos, "
+                    + massa.getOrdensDeServico().size() + " OS, " + massa.getProdutos().size() + " produtos, "
+                    + massa.getDespesas().size() + " despesas.");
+        } catch (IOException e) {
+            System.err.println("Erro ao gravar a massa de dados: " + e.getMessage());
+        }
+    }
+}
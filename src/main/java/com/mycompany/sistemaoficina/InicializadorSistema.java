@@ -0,0 +1,232 @@
+package com.mycompany.sistemaoficina;
+
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorAgendamentos;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorClientes;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorDespesas;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorElevadores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorEstoque;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFornecedores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFuncionarios;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorGerentes;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorOrdensDeServico;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorServicos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Orquestra o carregamento inicial dos gerenciadores.
+ * Os gerenciadores independentes (clientes, funcionarios, gerentes, elevadores, servicos,
+ * despesas e fornecedores) leem seus arquivos JSON ao mesmo tempo, em threads separadas.
+ * Somente os que dependem de outros sao encadeados: o estoque espera os fornecedores,
+ * as ordens de servico esperam o estoque e os servicos, e os agendamentos esperam
+ * clientes, funcionarios, elevadores e ordens de servico.
+ * Ao final e exibido um relatorio com o tempo de carregamento de cada arquivo.
+ * @author santo
+ */
+public class InicializadorSistema {
+
+    private GerenciadorClientes gerenciadorClientes;
+    private GerenciadorFuncionarios gerenciadorFuncionarios;
+    private GerenciadorGerentes gerenciadorGerentes;
+    private GerenciadorElevadores gerenciadorElevadores;
+    private GerenciadorServicos gerenciadorServicos;
+    private GerenciadorDespesas gerenciadorDespesas;
+    private GerenciadorFornecedores gerenciadorFornecedores;
+    private GerenciadorEstoque gerenciadorEstoque;
+    private GerenciadorOrdensDeServico gerenciadorOrdensDeServico;
+    private GerenciadorAgendamentos gerenciadorAgendamentos;
+
+    private final List<TempoCarregamento> tempos = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Tempo gasto para carregar um arquivo de dados.
+     */
+    private static class TempoCarregamento {
+        private final String arquivo;
+        private final long inicioMs;
+        private final long duracaoMs;
+        private final String thread;
+
+        private TempoCarregamento(String arquivo, long inicioMs, long duracaoMs, String thread) {
+            this.arquivo = arquivo;
+            this.inicioMs = inicioMs;
+            this.duracaoMs = duracaoMs;
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * Carrega todos os gerenciadores, em paralelo sempre que possivel, e exibe o relatorio de tempos.
+     * Retorna somente quando todos estiverem prontos.
+     * @throws RuntimeException Se o carregamento de algum gerenciador falhar.
+     */
+    public void carregar() {
+        int threads = Math.max(2, Math.min(7, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger numeroThread = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "carregamento-" + numeroThread.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long inicio = System.nanoTime();
+        try {
+            // Gerenciadores que nao dependem de ninguem
+            CompletableFuture<GerenciadorClientes> clientes =
+                    CompletableFuture.supplyAsync(() -> medir("clientes.json", inicio, GerenciadorClientes::new), executor);
+            CompletableFuture<GerenciadorFuncionarios> funcionarios =
+                    CompletableFuture.supplyAsync(() -> medir("funcionarios.json", inicio, GerenciadorFuncionarios::new), executor);
+            CompletableFuture<GerenciadorGerentes> gerentes =
+                    CompletableFuture.supplyAsync(() -> medir("gerentes.json", inicio, GerenciadorGerentes::new), executor);
+            CompletableFuture<GerenciadorElevadores> elevadores =
+                    CompletableFuture.supplyAsync(() -> medir("elevadores.json", inicio, GerenciadorElevadores::new), executor);
+            CompletableFuture<GerenciadorServicos> servicos =
+                    CompletableFuture.supplyAsync(() -> medir("servicos.json", inicio, GerenciadorServicos::new), executor);
+            CompletableFuture<GerenciadorDespesas> despesas =
+                    CompletableFuture.supplyAsync(() -> medir("despesas.json", inicio, GerenciadorDespesas::new), executor);
+            CompletableFuture<GerenciadorFornecedores> fornecedores =
+                    CompletableFuture.supplyAsync(() -> medir("fornecedores.json", inicio, GerenciadorFornecedores::new), executor);
+
+            // Gerenciadores que dependem de outros: cada um comeca assim que suas dependencias terminam
+            CompletableFuture<GerenciadorEstoque> estoque = fornecedores.thenApplyAsync(
+                    gf -> medir("estoque.json", inicio, () -> new GerenciadorEstoque(gf)), executor);
+            CompletableFuture<GerenciadorOrdensDeServico> ordensDeServico = estoque.thenCombineAsync(servicos,
+                    (ge, gs) -> medir("ordens_de_servico.json", inicio, () -> new GerenciadorOrdensDeServico(ge, gs)), executor);
+            CompletableFuture<GerenciadorAgendamentos> agendamentos =
+                    CompletableFuture.allOf(clientes, funcionarios, elevadores, ordensDeServico).thenApplyAsync(
+                    v -> medir("agendamentos.json", inicio, () -> new GerenciadorAgendamentos(
+                            clientes.join(), funcionarios.join(), elevadores.join(), ordensDeServico.join())), executor);
+
+            CompletableFuture.allOf(gerentes, despesas, agendamentos).join();
+
+            this.gerenciadorClientes = clientes.join();
+            this.gerenciadorFuncionarios = funcionarios.join();
+            this.gerenciadorGerentes = gerentes.join();
+            this.gerenciadorElevadores = elevadores.join();
+            this.gerenciadorServicos = servicos.join();
+            this.gerenciadorDespesas = despesas.join();
+            this.gerenciadorFornecedores = fornecedores.join();
+            this.gerenciadorEstoque = estoque.join();
+            this.gerenciadorOrdensDeServico = ordensDeServico.join();
+            this.gerenciadorAgendamentos = agendamentos.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            throw new RuntimeException("Erro ao carregar os dados do sistema: " + causa.getMessage(), causa);
+        } finally {
+            executor.shutdown();
+        }
+        exibirRelatorioTempos((System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Executa o carregamento de um gerenciador e registra quanto tempo ele levou.
+     */
+    private <T> T medir(String arquivo, long inicioGeral, Supplier<T> carregamento) {
+        long inicio = System.nanoTime();
+        T gerenciador = carregamento.get();
+        long fim = System.nanoTime();
+        tempos.add(new TempoCarregamento(arquivo, (inicio - inicioGeral) / 1_000_000,
+                (fim - inicio) / 1_000_000, Thread.currentThread().getName()));
+        return gerenciador;
+    }
+
+    /**
+     * Exibe o tempo de carregamento de cada arquivo, na ordem em que comecaram a ser lidos.
+     */
+    private void exibirRelatorioTempos(long totalMs) {
+        List<TempoCarregamento> ordenados;
+        synchronized (tempos) {
+            ordenados = new ArrayList<>(tempos);
+        }
+        ordenados.sort((a, b) -> Long.compare(a.inicioMs, b.inicioMs));
+        long somaMs = 0;
+        System.out.println("\n--- Tempo de carregamento dos dados ---");
+        for (TempoCarregamento t : ordenados) {
+            System.out.println(String.format("%-24s inicio: +%5d ms | duracao: %5d ms | %s",
+                    t.arquivo, t.inicioMs, t.duracaoMs, t.thread));
+            somaMs += t.duracaoMs;
+        }
+        System.out.println(String.format("Total: %d ms (soma dos carregamentos: %d ms)", totalMs, somaMs));
+        System.out.println("---------------------------------------");
+    }
+
+    /**
+     * @return O gerenciador de clientes carregado.
+     */
+    public GerenciadorClientes getGerenciadorClientes() {
+        return gerenciadorClientes;
+    }
+
+    /**
+     * @return O gerenciador de funcionarios carregado.
+     */
+    public GerenciadorFuncionarios getGerenciadorFuncionarios() {
+        return gerenciadorFuncionarios;
+    }
+
+    /**
+     * @return O gerenciador de gerentes carregado.
+     */
+    public GerenciadorGerentes getGerenciadorGerentes() {
+        return gerenciadorGerentes;
+    }
+
+    /**
+     * @return O gerenciador de elevadores carregado.
+     */
+    public GerenciadorElevadores getGerenciadorElevadores() {
+        return gerenciadorElevadores;
+    }
+
+    /**
+     * @return O gerenciador de servicos carregado.
+     */
+    public GerenciadorServicos getGerenciadorServicos() {
+        return gerenciadorServicos;
+    }
+
+    /**
+     * @return O gerenciador de despesas carregado.
+     */
+    public GerenciadorDespesas getGerenciadorDespesas() {
+        return gerenciadorDespesas;
+    }
+
+    /**
+     * @return O gerenciador de fornecedores carregado.
+     */
+    public GerenciadorFornecedores getGerenciadorFornecedores() {
+        return gerenciadorFornecedores;
+    }
+
+    /**
+     * @return O gerenciador de estoque carregado.
+     */
+    public GerenciadorEstoque getGerenciadorEstoque() {
+        return gerenciadorEstoque;
+    }
+
+    /**
+     * @return O gerenciador de ordens de servico carregado.
+     */
+    public GerenciadorOrdensDeServico getGerenciadorOrdensDeServico() {
+        return gerenciadorOrdensDeServico;
+    }
+
+    /**
+     * @return O gerenciador de agendamentos carregado.
+     */
+    public GerenciadorAgendamentos getGerenciadorAgendamentos() {
+        return gerenciadorAgendamentos;
+    }
+}
@@ -0,0 +1,123 @@
+package com.mycompany.sistemaoficina;
+
+/**
+ * Classe que representa um item (linha) de uma Ordem de Servico: um servico ou uma peca lancados.
+ * Guarda apenas a referencia ao catalogo (idServico ou idProduto), o nome exibido na nota,
+ * a quantidade e o preco unitario cobrado no momento do lancamento, em vez de uma copia
+ * completa do Servico ou do Produto (com custo, fornecedor e quantidade em estoque).
+ * Itens de mao de obra avulsa usam a referencia 0.
+ * @author santo
+ */
+public class ItemOrdemDeServico {
+
+    private int idReferencia;
+    private String descricao;
+    private int quantidade;
+    private long valorUnitarioCentavos;
+
+    /**
+     * Construtor padrão
+     */
+    public ItemOrdemDeServico() {
+        this.quantidade = 1;
+    }
+
+    /**
+     * Construtor completo para criar um novo item.
+     * @param idReferencia O ID do servico ou do produto no catalogo (0 para itens avulsos).
+     * @param descricao O nome do item, como aparece na nota.
+     * @param quantidade A quantidade lancada.
+     * @param valorUnitarioCentavos O preco unitario cobrado, em centavos (ver {@link Dinheiro}).
+     */
+    public ItemOrdemDeServico(int idReferencia, String descricao, int quantidade, long valorUnitarioCentavos) {
+        this.idReferencia = idReferencia;
+        this.descricao = descricao;
+        this.quantidade = quantidade;
+        this.valorUnitarioCentavos = valorUnitarioCentavos;
+    }
+
+    /**
+     * Construtor de copia.
+     * @param outro O item a ser copiado.
+     */
+    public ItemOrdemDeServico(ItemOrdemDeServico outro) {
+        this(outro.idReferencia, outro.descricao, outro.quantidade, outro.valorUnitarioCentavos);
+    }
+
+    /**
+     * Cria o item correspondente a um servico do catalogo (ou mao de obra avulsa), com quantidade 1.
+     * @param servico O servico lancado.
+     * @return O novo item.
+     */
+    public static ItemOrdemDeServico deServico(Servico servico) {
+        return new ItemOrdemDeServico(servico.getIdServico(), servico.getDescricao(), 1, servico.getValorCentavos());
+    }
+
+    /**
+     * Cria o item correspondente a uma peca do estoque, com quantidade 1 e o preco de venda atual.
+     * @param peca A peca lancada.
+     * @return O novo item.
+     */
+    public static ItemOrdemDeServico deProduto(Produto peca) {
+        return new ItemOrdemDeServico(peca.getIdProduto(), peca.getNome(), 1, peca.getPrecoVendaCentavos());
+    }
+
+    /**
+     * Retorna o valor do item (quantidade x preco unitario).
+     * @return O valor total do item, em centavos.
+     */
+    public long getValorTotalCentavos() {
+        return Dinheiro.multiplicar(valorUnitarioCentavos, quantidade);
+    }
+
+    /**
+     * Getters e Setters
+     * @return
+     */
+    public int getIdReferencia() {
+        return idReferencia;
+    }
+
+    public void setIdReferencia(int idReferencia) {
+        this.idReferencia = idReferencia;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(int quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public long getValorUnitarioCentavos() {
+        return valorUnitarioCentavos;
+    }
+
+    public void setValorUnitarioCentavos(long valorUnitarioCentavos) {
+        this.valorUnitarioCentavos = valorUnitarioCentavos;
+    }
+
+    /**
+     * Métodos Sobrescritos.
+     * Fornece uma representação Textual formatada do item.
+     * @return Uma String contendo os dados do item.
+     */
+    @Override
+    public String toString() {
+        return "Item{" +
+                "idReferencia=" + idReferencia +
+                ", descricao='" + descricao + '\'' +
+                ", quantidade=" + quantidade +
+                ", valorUnitario=" + Dinheiro.formatar(valorUnitarioCentavos) +
+                '}';
+    }
+}
@@ -3,13 +3,22 @@ package com.mycompany.sistemaoficina;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Representa a Ordem de Servico (OS), a fatura de um agendamento.
- * Contem todos os servicos realizados e pecas utilizadas.
+ * Contem todos os servicos realizados e pecas utilizadas, como itens compactos ({@link ItemOrdemDeServico})
+ * que referenciam o catalogo pelo ID e guardam o preco cobrado no lancamento.
  * ARMAZENA o ID do agendamento e alguns dados do cliente/veiculo para consulta rapida.
+ * <p>
+ * Lancar de novo um item do catalogo ja presente na OS (mesmo ID e mesmo preco) soma a quantidade
+ * na linha existente, em vez de criar outra linha. O valor total e atualizado a cada adicao ou remocao
+ * apenas com a diferenca do item, sem percorrer a OS inteira, em centavos ({@link Dinheiro}), sem erro de arredondamento. Cada alteracao de itens incrementa
+ * a revisao da OS, usada pelo journal para reaplicar somente as alteracoes que o snapshot ainda nao tem.
  * @author santo
  */
 public class OrdemDeServico {
@@ -19,11 +28,15 @@ public class OrdemDeServico {
     private final String nomeCliente;
     private final String modeloVeiculo;
     private final String placaVeiculo;
-    private final List<Servico> servicosRealizados;
-    private final List<Produto> pecasUtilizadas;
-    private double valorTotal;
+    private final List<ItemOrdemDeServico> servicosRealizados;
+    private final List<ItemOrdemDeServico> pecasUtilizadas;
+    private long valorTotalCentavos;
     private LocalDateTime dataEmissao;
     private String status;
+    private int revisao;
+    // Posicao da ultima linha de cada ID do catalogo, montada na primeira adicao (nao e gravada).
+    private Map<Integer, Integer> linhaPorServico;
+    private Map<Integer, Integer> linhaPorPeca;
 
     /**
      * Construtor. Cria uma Ordem de Servico vinculada a um agendamento.
@@ -39,61 +52,264 @@ public class OrdemDeServico {
         this.servicosRealizados = new ArrayList<>();
         this.pecasUtilizadas = new ArrayList<>();
         this.dataEmissao = LocalDateTime.now();
-        this.valorTotal = 0.0;
+        this.valorTotalCentavos = 0;
         this.status = "Aberta";
     }
 
+    /**
+     * Construtor de restauracao. Recria uma OS ja existente a partir dos dados gravados,
+     * sem recalcular o valor total nem alterar a data de emissao.
+     * E utilizado pelo adaptador de persistencia ao ler o arquivo JSON.
+     * @param idOrdemDeServico O ID unico da OS.
+     * @param idAgendamento O ID do agendamento de origem.
+     * @param nomeCliente O nome do cliente.
+     * @param modeloVeiculo O modelo do veiculo.
+     * @param placaVeiculo A placa do veiculo.
+     * @param servicosRealizados Os servicos ja lancados.
+     * @param pecasUtilizadas As pecas ja lancadas.
+     * @param valorTotalCentavos O valor total gravado, em centavos.
+     * @param dataEmissao A data de emissao gravada.
+     * @param status O status gravado ("Aberta" ou "Finalizada").
+     * @param revisao A revisao gravada (0 para arquivos anteriores a revisao).
+     */
+    public OrdemDeServico(int idOrdemDeServico, int idAgendamento, String nomeCliente, String modeloVeiculo,
+            String placaVeiculo, List<ItemOrdemDeServico> servicosRealizados, List<ItemOrdemDeServico> pecasUtilizadas,
+            long valorTotalCentavos, LocalDateTime dataEmissao, String status, int revisao) {
+        this.idOrdemDeServico = idOrdemDeServico;
+        this.idAgendamento = idAgendamento;
+        this.nomeCliente = nomeCliente;
+        this.modeloVeiculo = modeloVeiculo;
+        this.placaVeiculo = placaVeiculo;
+        this.servicosRealizados = servicosRealizados != null ? servicosRealizados : new ArrayList<>();
+        this.pecasUtilizadas = pecasUtilizadas != null ? pecasUtilizadas : new ArrayList<>();
+        this.valorTotalCentavos = valorTotalCentavos;
+        this.dataEmissao = dataEmissao;
+        this.status = status;
+        this.revisao = revisao;
+    }
+
     /**
      * Métodos de Negócio
      * Adiciona um servico a esta Ordem de Servico, desde que ela esteja "Aberta".
-     * Apos adicionar, o valor total e recalculado automaticamente.
+     * Apos adicionar, o valor total e atualizado automaticamente.
      * @param servico O objeto Servico a ser adicionado a lista.
+     * @return A posicao da linha alterada ou criada, ou -1 se a OS estiver finalizada.
      */
-    public void adicionarServico(Servico servico) {
-        if (this.status.equals("Aberta")) {
-            this.servicosRealizados.add(servico);
-            calcularEAtualizarValorTotal();
-        } else {
-            System.out.println("Erro: Nao e possivel adicionar itens a uma Ordem de Servico finalizada.");
+    public int adicionarServico(Servico servico) {
+        return adicionarServico(ItemOrdemDeServico.deServico(servico));
+    }
+
+    /**
+     * Adiciona um item de servico a esta Ordem de Servico, desde que ela esteja "Aberta".
+     * Se ja houver uma linha do mesmo servico com o mesmo preco, a quantidade e somada a ela.
+     * @param item O item a ser adicionado a lista.
+     * @return A posicao da linha alterada ou criada, ou -1 se a OS estiver finalizada.
+     */
+    public int adicionarServico(ItemOrdemDeServico item) {
+        if (linhaPorServico == null) {
+            linhaPorServico = mapearLinhas(servicosRealizados);
         }
+        return adicionar(servicosRealizados, linhaPorServico, item);
     }
 
     /**
-     * Adiciona uma peca a esta Ordem de Servico, desde que ela esteja "Aberta".
-     * Apos adicionar, o valor total e recalculado automaticamente.
+     * Adiciona uma unidade de uma peca a esta Ordem de Servico, desde que ela esteja "Aberta".
+     * O item guarda o preco de venda do momento; alteracoes posteriores no estoque nao afetam a OS.
+     * Apos adicionar, o valor total e atualizado automaticamente.
      * @param peca O objeto Produto a ser adicionado a lista.
+     * @return A posicao da linha alterada ou criada, ou -1 se a OS estiver finalizada.
      */
-    public void adicionarPeca(Produto peca) {
-        if (this.status.equals("Aberta")) {
-            this.pecasUtilizadas.add(peca);
-            calcularEAtualizarValorTotal();
-        } else {
+    public int adicionarPeca(Produto peca) {
+        return adicionarPeca(peca, 1);
+    }
+
+    /**
+     * Adiciona varias unidades de uma peca a esta Ordem de Servico, em uma unica linha.
+     * @param peca O objeto Produto a ser adicionado a lista.
+     * @param quantidade A quantidade de unidades (maior que zero).
+     * @return A posicao da linha alterada ou criada, ou -1 se a OS estiver finalizada.
+     */
+    public int adicionarPeca(Produto peca, int quantidade) {
+        ItemOrdemDeServico item = ItemOrdemDeServico.deProduto(peca);
+        item.setQuantidade(quantidade);
+        return adicionarPeca(item);
+    }
+
+    /**
+     * Adiciona um item de peca a esta Ordem de Servico, desde que ela esteja "Aberta".
+     * Se ja houver uma linha da mesma peca com o mesmo preco, a quantidade e somada a ela.
+     * @param item O item a ser adicionado a lista.
+     * @return A posicao da linha alterada ou criada, ou -1 se a OS estiver finalizada.
+     */
+    public int adicionarPeca(ItemOrdemDeServico item) {
+        if (linhaPorPeca == null) {
+            linhaPorPeca = mapearLinhas(pecasUtilizadas);
+        }
+        return adicionar(pecasUtilizadas, linhaPorPeca, item);
+    }
+
+    /**
+     * Remove unidades de uma linha de servico. A linha sai da OS quando a quantidade chega a zero.
+     * @param indice A posicao da linha em {@link #getServicosRealizados()}.
+     * @param quantidade A quantidade de unidades a remover.
+     * @return A quantidade efetivamente removida (0 se a OS estiver finalizada ou a linha nao existir).
+     */
+    public int removerServico(int indice, int quantidade) {
+        return remover(servicosRealizados, indice, quantidade);
+    }
+
+    /**
+     * Remove unidades de uma linha de peca. A linha sai da OS quando a quantidade chega a zero.
+     * A devolucao ao estoque e responsabilidade de quem chama.
+     * @param indice A posicao da linha em {@link #getPecasUtilizadas()}.
+     * @param quantidade A quantidade de unidades a remover.
+     * @return A quantidade efetivamente removida (0 se a OS estiver finalizada ou a linha nao existir).
+     */
+    public int removerPeca(int indice, int quantidade) {
+        return remover(pecasUtilizadas, indice, quantidade);
+    }
+
+    /**
+     * Restaura uma linha de servico a partir do journal: substitui a linha da posicao informada,
+     * acrescenta uma linha nova (posicao igual ao tamanho da lista) ou, com item nulo, remove a linha.
+     * @param indice A posicao da linha.
+     * @param item O estado gravado da linha, ou null para remove-la.
+     * @param revisao A revisao da OS apos a alteracao.
+     */
+    public void restaurarServico(int indice, ItemOrdemDeServico item, int revisao) {
+        linhaPorServico = null;
+        restaurar(servicosRealizados, indice, item, revisao);
+    }
+
+    /**
+     * Restaura uma linha de peca a partir do journal (ver {@link #restaurarServico}).
+     * @param indice A posicao da linha.
+     * @param item O estado gravado da linha, ou null para remove-la.
+     * @param revisao A revisao da OS apos a alteracao.
+     */
+    public void restaurarPeca(int indice, ItemOrdemDeServico item, int revisao) {
+        linhaPorPeca = null;
+        restaurar(pecasUtilizadas, indice, item, revisao);
+    }
+
+    /**
+     * Soma o item na linha do mesmo ID e preco, ou cria uma linha nova, e atualiza o total com a diferenca.
+     * Itens avulsos (ID 0) sempre criam uma linha nova.
+     */
+    private int adicionar(List<ItemOrdemDeServico> lista, Map<Integer, Integer> linhaPorId, ItemOrdemDeServico item) {
+        if (!this.status.equals("Aberta")) {
             System.out.println("Erro: Nao e possivel adicionar itens a uma Ordem de Servico finalizada.");
+            return -1;
+        }
+        if (item.getQuantidade() <= 0) {
+            System.out.println("Erro: A quantidade deve ser maior que zero.");
+            return -1;
+        }
+        Integer posicao = item.getIdReferencia() > 0 ? linhaPorId.get(item.getIdReferencia()) : null;
+        if (posicao != null && lista.get(posicao).getValorUnitarioCentavos() == item.getValorUnitarioCentavos()) {
+            ItemOrdemDeServico existente = lista.get(posicao);
+            existente.setQuantidade(existente.getQuantidade() + item.getQuantidade());
+        } else {
+            posicao = lista.size();
+            lista.add(item);
+            if (item.getIdReferencia() > 0) {
+                linhaPorId.put(item.getIdReferencia(), posicao);
+            }
         }
+        somarAoTotal(item.getValorTotalCentavos());
+        revisao++;
+        return posicao;
     }
 
     /**
-     * Metodo privado para calcular o valor total da OS.
-     * E chamado internamente sempre que um novo item (servico ou peca) e adicionado.
+     * Retira unidades de uma linha e atualiza o total com a diferenca.
      */
-    private void calcularEAtualizarValorTotal() {
-        double total = 0.0;
-        for (Servico servico : servicosRealizados) {
-            total += servico.getValor();
+    private int remover(List<ItemOrdemDeServico> lista, int indice, int quantidade) {
+        if (!this.status.equals("Aberta")) {
+            System.out.println("Erro: Nao e possivel remover itens de uma Ordem de Servico finalizada.");
+            return 0;
         }
-        for (Produto peca : pecasUtilizadas) {
-            total += peca.getPrecoVenda();
+        if (indice < 0 || indice >= lista.size() || quantidade <= 0) {
+            return 0;
+        }
+        ItemOrdemDeServico item = lista.get(indice);
+        int removida = Math.min(quantidade, item.getQuantidade());
+        if (removida == item.getQuantidade()) {
+            lista.remove(indice);
+            // As posicoes seguintes mudaram; o mapa e remontado na proxima adicao.
+            if (lista == servicosRealizados) {
+                linhaPorServico = null;
+            } else {
+                linhaPorPeca = null;
+            }
+        } else {
+            item.setQuantidade(item.getQuantidade() - removida);
+        }
+        somarAoTotal(-Dinheiro.multiplicar(item.getValorUnitarioCentavos(), removida));
+        revisao++;
+        return removida;
+    }
+
+    private void restaurar(List<ItemOrdemDeServico> lista, int indice, ItemOrdemDeServico item, int revisao) {
+        if (indice < lista.size()) {
+            somarAoTotal(-lista.get(indice).getValorTotalCentavos());
+            if (item == null) {
+                lista.remove(indice);
+            } else {
+                lista.set(indice, item);
+            }
+        } else if (item != null && indice == lista.size()) {
+            lista.add(item);
+        } else {
+            return;
+        }
+        if (item != null) {
+            somarAoTotal(item.getValorTotalCentavos());
+        }
+        this.revisao = revisao;
+    }
+
+    /**
+     * Atualiza o valor total com a diferenca informada, em centavos.
+     */
+    private void somarAoTotal(long diferencaCentavos) {
+        this.valorTotalCentavos = Dinheiro.somar(this.valorTotalCentavos, diferencaCentavos);
+    }
+
+    private static Map<Integer, Integer> mapearLinhas(List<ItemOrdemDeServico> lista) {
+        Map<Integer, Integer> linhas = new HashMap<>();
+        for (int i = 0; i < lista.size(); i++) {
+            if (lista.get(i).getIdReferencia() > 0) {
+                linhas.put(lista.get(i).getIdReferencia(), i);
+            }
         }
-        this.valorTotal = total;
+        return linhas;
     }
 
     /**
      * Finaliza a Ordem de Servico, mudando seu status para "Finalizada".
      * Isso impede que novos itens sejam adicionados e atualiza a data de emissao.
+     * @return true se a OS foi finalizada, false se ela ja estava finalizada.
+     */
+    public boolean finalizar() {
+        return finalizar(LocalDateTime.now());
+    }
+
+    /**
+     * Finaliza a Ordem de Servico com uma data de emissao especifica.
+     * Usado ao reaplicar o journal, para restaurar a data original da finalizacao.
+     * Uma OS ja finalizada nao muda: a data de emissao original e mantida.
+     * @param dataEmissao A data de emissao a ser registrada.
+     * @return true se a OS foi finalizada, false se ela ja estava finalizada.
      */
-    public void finalizar() {
+    public boolean finalizar(LocalDateTime dataEmissao) {
+        if (!this.status.equals("Aberta")) {
+            System.out.println("Erro: A Ordem de Servico #" + idOrdemDeServico + " ja esta finalizada.");
+            return false;
+        }
         this.status = "Finalizada";
-        this.dataEmissao = LocalDateTime.now();
+        this.dataEmissao = dataEmissao;
+        return true;
     }
 
     // Getters 
@@ -140,27 +356,28 @@ public class OrdemDeServico {
     }
     
     /**
-     *
+     * Retorna os servicos lancados. A lista nao pode ser alterada diretamente;
+     * use os metodos de adicao e remocao, que mantem o valor total.
      * @return
      */
-    public List<Servico> getServicosRealizados() {
-        return servicosRealizados;
+    public List<ItemOrdemDeServico> getServicosRealizados() {
+        return Collections.unmodifiableList(servicosRealizados);
     }
 
     /**
-     *
+     * Retorna as pecas lancadas (somente leitura, ver {@link #getServicosRealizados()}).
      * @return
      */
-    public List<Produto> getPecasUtilizadas() {
-        return pecasUtilizadas;
+    public List<ItemOrdemDeServico> getPecasUtilizadas() {
+        return Collections.unmodifiableList(pecasUtilizadas);
     }
 
     /**
      *
      * @return
      */
-    public double getValorTotal() {
-        return valorTotal;
+    public long getValorTotalCentavos() {
+        return valorTotalCentavos;
     }
 
     /**
@@ -179,6 +396,14 @@ public class OrdemDeServico {
         return status;
     }
 
+    /**
+     * Retorna a revisao dos itens: quantas adicoes e remocoes a OS ja recebeu.
+     * @return
+     */
+    public int getRevisao() {
+        return revisao;
+    }
+
     /**
      * Métodos Sobrescritos:
      * Fornece uma representacao textual resumida e formatada da Ordem de Servico.
@@ -192,7 +417,7 @@ public class OrdemDeServico {
         sb.append(" | Cliente: ").append(nomeCliente);
         sb.append(" | Veiculo: ").append(modeloVeiculo).append(" (").append(placaVeiculo).append(")");
         sb.append(" | Status: ").append(status);
-        sb.append(String.format(" | Valor: R$%.2f", valorTotal));
+        sb.append(" | Valor: ").append(Dinheiro.formatar(valorTotalCentavos));
         return sb.toString();
     }
 
@@ -12,8 +12,8 @@ public class Produto {
     private int idProduto;
     private String nome;
     private String descricao;
-    private double precoCusto;
-    private double precoVenda;
+    private long precoCustoCentavos;
+    private long precoVendaCentavos;
     private int quantidadeEstoque;
     private int idFornecedor;
     private String nomeFornecedor;
@@ -29,17 +29,17 @@ public class Produto {
      * @param idProduto Identificador único do produto.
      * @param nome Nome do produto.
      * @param descricao Descrição detalhada do produto.
-     * @param precoCusto O preço que a oficina pagou pelo produto.
-     * @param precoVenda O preço pelo qual o produto será vendido ao cliente.
+     * @param precoCustoCentavos O preço que a oficina pagou pelo produto, em centavos (ver {@link Dinheiro}).
+     * @param precoVendaCentavos O preço pelo qual o produto será vendido ao cliente, em centavos.
      * @param quantidadeEstoque A quantidade inicial em estoque.
      * @param fornecedor O objeto Fornecedor associado a este produto.
      */
-    public Produto(int idProduto, String nome, String descricao, double precoCusto, double precoVenda, int quantidadeEstoque, Fornecedor fornecedor) {
+    public Produto(int idProduto, String nome, String descricao, long precoCustoCentavos, long precoVendaCentavos, int quantidadeEstoque, Fornecedor fornecedor) {
         this.idProduto = idProduto;
         this.nome = nome;
         this.descricao = descricao;
-        this.precoCusto = precoCusto;
-        this.precoVenda = precoVenda;
+        this.precoCustoCentavos = precoCustoCentavos;
+        this.precoVendaCentavos = precoVendaCentavos;
         this.quantidadeEstoque = quantidadeEstoque;
         
         if (fornecedor != null){
@@ -77,20 +77,20 @@ public class Produto {
         this.descricao = descricao;
     }
 
-    public double getPrecoCusto() {
-        return precoCusto;
+    public long getPrecoCustoCentavos() {
+        return precoCustoCentavos;
     }
 
-    public void setPrecoCusto(double precoCusto) {
-        this.precoCusto = precoCusto;
+    public void setPrecoCustoCentavos(long precoCustoCentavos) {
+        this.precoCustoCentavos = precoCustoCentavos;
     }
 
-    public double getPrecoVenda() {
-        return precoVenda;
+    public long getPrecoVendaCentavos() {
+        return precoVendaCentavos;
     }
 
-    public void setPrecoVenda(double precoVenda) {
-        this.precoVenda = precoVenda;
+    public void setPrecoVendaCentavos(long precoVendaCentavos) {
+        this.precoVendaCentavos = precoVendaCentavos;
     }
 
     public int getQuantidadeEstoque() {
@@ -150,7 +150,7 @@ public class Produto {
         return "Produto{" +
                 "id=" + idProduto +
                 ", nome='" + nome + '\'' +
-                ", preco=" + String.format("R$%.2f", precoVenda) +
+                ", preco=" + Dinheiro.formatar(precoVendaCentavos) +
                 ", qtd=" + quantidadeEstoque +
                 ", fornecedor='" + nomeFornecedor + '\'' + 
                 '}';
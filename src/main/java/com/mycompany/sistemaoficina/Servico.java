@@ -12,7 +12,7 @@ public class Servico {
     
     private int idServico;
     private String descricao;
-    private double valor;
+    private long valorCentavos;
     
     /**
      * Construtor padrão
@@ -24,12 +24,12 @@ public class Servico {
      * Construtor completo para criar um novo servico.
      * @param idServico Identificador unico do servico.
      * @param descricao Descricao do servico (ex: "Troca de Oleo do Motor").
-     * @param valor O preco padrao para este servico.
+     * @param valorCentavos O preco padrao para este servico, em centavos (ver {@link Dinheiro}).
      */
-    public Servico(int idServico, String descricao, double valor) {
+    public Servico(int idServico, String descricao, long valorCentavos) {
         this.idServico = idServico;
         this.descricao = descricao;
-        this.valor = valor;
+        this.valorCentavos = valorCentavos;
     }
     
     /**
@@ -52,12 +52,12 @@ public class Servico {
         this.descricao = descricao;
     }
 
-    public double getValor() {
-        return valor;
+    public long getValorCentavos() {
+        return valorCentavos;
     }
 
-    public void setValor(double valor) {
-        this.valor = valor;
+    public void setValorCentavos(long valorCentavos) {
+        this.valorCentavos = valorCentavos;
     }
 
     /**
@@ -70,7 +70,7 @@ public class Servico {
         return "Servico{" +
                 "idServico=" + idServico +
                 ", descricao='" + descricao + '\'' +
-                ", valor=" + String.format("R$%.2f", valor) +
+                ", valor=" + Dinheiro.formatar(valorCentavos) +
                 '}';
     }
 
@@ -11,6 +11,9 @@ import com.mycompany.sistemaoficina.gerenciadores.GerenciadorOrdensDeServico;
 import com.mycompany.sistemaoficina.gerenciadores.GerenciadorDespesas;
 import com.mycompany.sistemaoficina.gerenciadores.GerenciadorRelatorios;
 import com.mycompany.sistemaoficina.gerenciadores.GerenciadorFornecedores;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorArquivamento;
+import com.mycompany.sistemaoficina.gerenciadores.GerenciadorReconciliacaoElevadores;
+import com.mycompany.sistemaoficina.persistencia.GravacaoAdiada;
 
 
 import java.util.Scanner; 
@@ -38,27 +41,36 @@ public class Sistemaoficina {
     private final GerenciadorDespesas gerenciadorDespesas;
     private final GerenciadorRelatorios gerenciadorRelatorios;
     private final GerenciadorFornecedores gerenciadorFornecedores;
+    private final GerenciadorArquivamento gerenciadorArquivamento;
+    private final GerenciadorReconciliacaoElevadores gerenciadorReconciliacaoElevadores;
 
     /**
      * Construtor da classe.
-     * Inicializa os gerenciadores na ordem correta de suas dependencias.
+     * Inicializa os gerenciadores respeitando suas dependencias: os independentes sao
+     * carregados em paralelo pelo {@link InicializadorSistema}, que encadeia apenas os dependentes.
      * Cada atributo 'final' e inicializado exatamente uma vez.
      */
     public Sistemaoficina() {
-        // Gerenciadores que nao dependem de ninguem
-        this.gerenciadorClientes = new GerenciadorClientes();
-        this.gerenciadorFuncionarios = new GerenciadorFuncionarios();
-        this.gerenciadorGerentes = new GerenciadorGerentes();
-        this.gerenciadorElevadores = new GerenciadorElevadores();
-        this.gerenciadorServicos = new GerenciadorServicos();
-        this.gerenciadorDespesas = new GerenciadorDespesas();
-        this.gerenciadorFornecedores = new GerenciadorFornecedores();
+        InicializadorSistema inicializador = new InicializadorSistema();
+        inicializador.carregar();
 
-        // Gerenciador que dependem de outros ja criados
-        this.gerenciadorEstoque = new GerenciadorEstoque(this.gerenciadorFornecedores);
-        this.gerenciadorOrdensDeServico = new GerenciadorOrdensDeServico(this.gerenciadorEstoque, this.gerenciadorServicos);
-        this.gerenciadorAgendamentos = new GerenciadorAgendamentos(this.gerenciadorClientes, this.gerenciadorFuncionarios, this.gerenciadorElevadores, this.gerenciadorOrdensDeServico);
+        this.gerenciadorClientes = inicializador.getGerenciadorClientes();
+        this.gerenciadorFuncionarios = inicializador.getGerenciadorFuncionarios();
+        this.gerenciadorGerentes = inicializador.getGerenciadorGerentes();
+        this.gerenciadorElevadores = inicializador.getGerenciadorElevadores();
+        this.gerenciadorServicos = inicializador.getGerenciadorServicos();
+        this.gerenciadorDespesas = inicializador.getGerenciadorDespesas();
+        this.gerenciadorFornecedores = inicializador.getGerenciadorFornecedores();
+        this.gerenciadorEstoque = inicializador.getGerenciadorEstoque();
+        this.gerenciadorOrdensDeServico = inicializador.getGerenciadorOrdensDeServico();
+        this.gerenciadorAgendamentos = inicializador.getGerenciadorAgendamentos();
         this.gerenciadorRelatorios = new GerenciadorRelatorios(this.gerenciadorOrdensDeServico, this.gerenciadorDespesas);
+        this.gerenciadorArquivamento = new GerenciadorArquivamento(this.gerenciadorAgendamentos, this.gerenciadorOrdensDeServico);
+        // Tira da memoria o historico encerrado antes do primeiro menu, se ligado por propriedade (opcao 12 do menu).
+        this.gerenciadorArquivamento.executarNaAbertura();
+        // Corrige a ocupacao dos elevadores que ficou diferente dos agendamentos (ex: queda no meio de um servico).
+        this.gerenciadorReconciliacaoElevadores = new GerenciadorReconciliacaoElevadores(this.gerenciadorAgendamentos);
+        this.gerenciadorReconciliacaoElevadores.executar();
     }
 
     /**
@@ -71,6 +83,7 @@ public class Sistemaoficina {
         int opcao;
         System.out.println("Bem-vindo ao Sistema Oficina, Gerente " + gerenteLogado.getNome() + "!");
         do {
+            gerenciadorReconciliacaoElevadores.executarSeVencido();
             exibirMenuPrincipal(); 
             opcao = scanner.nextInt(); 
             scanner.nextLine(); 
@@ -109,7 +122,12 @@ public class Sistemaoficina {
                 case 11:
                     gerenciadorElevadores.menuAdministrativoElevadores(scanner);
                     break;
+                case 12:
+                    gerenciadorArquivamento.executar();
+                    System.out.println("Arquivamento do historico concluido.");
+                    break;
                 case 0:
+                    GravacaoAdiada.descarregar(); // Grava as alteracoes que aguardavam o proximo intervalo
                     System.out.println("Sistema encerrado. Ate logo!");
                     break;
                 default:
@@ -129,6 +147,7 @@ public class Sistemaoficina {
         int opcao;
         System.out.println("Bem-vindo ao Sistema Oficina, " + funcionarioLogado.getNome()+ "!");
         do {
+            gerenciadorReconciliacaoElevadores.executarSeVencido();
             System.out.println("\n=== MENU FUNCIONARIO ===");
             System.out.println("1. Gerenciar Clientes");
             System.out.println("2. Gerenciar Agendamentos e Ordens de Servico"); 
@@ -156,6 +175,7 @@ public class Sistemaoficina {
                     gerenciadorElevadores.listarElevadores();
                     break;
                 case 0:
+                    GravacaoAdiada.descarregar(); // Grava as alteracoes que aguardavam o proximo intervalo
                     System.out.println("Sistema encerrado. Ate logo!");
                     break;
                 default:
@@ -181,6 +201,7 @@ public class Sistemaoficina {
         System.out.println("9. Gerenciar Funcionarios");
         System.out.println("10. Gerenciar Meus Dados (Gerente)");
         System.out.println("11. Gestao Administrativa de Elevadores");
+        System.out.println("12. Arquivar Historico Antigo");
         System.out.println("0. Sair");
         System.out.print("Escolha uma opcao: ");
     }
@@ -0,0 +1,91 @@
+package com.mycompany.sistemaoficina;
+
+/**
+ * Etapas do fluxo de um agendamento, na ordem em que acontecem:
+ * Agendado -> Em Manutencao (com ou sem elevador) -> Pronto para Entrega -> Entregue,
+ * ou Agendado -> Cancelado. Cada status sabe para quais pode seguir ({@link #podeIrPara}).
+ * A descricao e o texto gravado nos arquivos e exibido nas telas.
+ * @author santo
+ */
+public enum StatusAgendamento {
+
+    AGENDADO("Agendado"),
+    EM_MANUTENCAO_SEM_ELEVADOR("Em Manutencao (Sem Elevador)"),
+    EM_MANUTENCAO_COM_ELEVADOR("Em Manutencao (Com Elevador)"),
+    PRONTO_PARA_ENTREGA("Pronto para Entrega"),
+    ENTREGUE("Entregue"),
+    CANCELADO("Cancelado");
+
+    private final String descricao;
+
+    StatusAgendamento(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * @return O texto do status (ex: "Pronto para Entrega").
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Informa se o fluxo permite passar deste status para o informado.
+     * @param proximo O status desejado.
+     * @return true se a transicao e valida.
+     */
+    public boolean podeIrPara(StatusAgendamento proximo) {
+        switch (this) {
+            case AGENDADO:
+                return proximo == EM_MANUTENCAO_SEM_ELEVADOR || proximo == EM_MANUTENCAO_COM_ELEVADOR || proximo == CANCELADO;
+            case EM_MANUTENCAO_SEM_ELEVADOR:
+            case EM_MANUTENCAO_COM_ELEVADOR:
+                return proximo == PRONTO_PARA_ENTREGA;
+            case PRONTO_PARA_ENTREGA:
+                return proximo == ENTREGUE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return true se o veiculo esta em manutencao (com ou sem elevador).
+     */
+    public boolean isEmManutencao() {
+        return this == EM_MANUTENCAO_SEM_ELEVADOR || this == EM_MANUTENCAO_COM_ELEVADOR;
+    }
+
+    /**
+     * @return true se o agendamento terminou (entregue ou cancelado) e nao muda mais.
+     */
+    public boolean isEncerrado() {
+        return this == ENTREGUE || this == CANCELADO;
+    }
+
+    /**
+     * Converte o texto gravado nos arquivos para o status, sem diferenciar maiusculas.
+     * O texto antigo "Em Manutencao", sem a indicacao do elevador, e lido como manutencao sem elevador.
+     * @param descricao O texto do status.
+     * @return O status correspondente.
+     * @throws IllegalArgumentException se o texto nao corresponder a nenhum status.
+     */
+    public static StatusAgendamento deDescricao(String descricao) {
+        if (descricao != null) {
+            String texto = descricao.trim();
+            for (StatusAgendamento status : values()) {
+                if (status.descricao.equalsIgnoreCase(texto)) {
+                    return status;
+                }
+            }
+            if (texto.equalsIgnoreCase("Em Manutencao")) {
+                return EM_MANUTENCAO_SEM_ELEVADOR;
+            }
+        }
+        throw new IllegalArgumentException("Status de agendamento desconhecido: " + descricao);
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
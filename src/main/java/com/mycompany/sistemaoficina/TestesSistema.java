@@ -2,6 +2,10 @@ package com.mycompany.sistemaoficina;
 
 // Importe todas as classes e gerenciadores necessarios
 import com.mycompany.sistemaoficina.gerenciadores.*;
+import com.mycompany.sistemaoficina.persistencia.DiretorioDados;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -24,10 +28,23 @@ public class TestesSistema {
     /**
      * Ponto de entrada para a execução dos testes automatizados de demonstração.
      *
-     * @param args Argumentos da linha de comando (não utilizados).
+     * @param args Argumentos da linha de comando. Opcionalmente "--massa N": gera uma massa sintetica
+     * com N clientes em uma pasta temporaria e executa os testes sobre ela, sem tocar nos arquivos reais.
      */
     public static void main(String[] args) {
 
+        if (args.length >= 2 && args[0].equals("--massa")) {
+            try {
+                prepararMassaSintetica(Integer.parseInt(args[1]));
+            } catch (NumberFormatException e) {
+                System.out.println("Erro: o tamanho da massa deve ser um numero inteiro.");
+                return;
+            } catch (IOException e) {
+                System.err.println("Erro ao gerar a massa sintetica: " + e.getMessage());
+                return;
+            }
+        }
+
         // --- PREPARAÇÃO DO AMBIENTE DE TESTE ---
         // Este passo demonstra o Requisito 13: Salvar e recuperar todas as informações.
         // Ao instanciar os gerenciadores, eles automaticamente carregam os dados dos ficheiros JSON.
@@ -152,7 +169,7 @@ public class TestesSistema {
             System.out.println("\n2. Agendamento de teste criado para " + agendamentoTeste.getCliente().getNome());
             
             System.out.println("\n3. Iniciando serviço e abrindo Ordem de Servico...");
-            agendamentoTeste.setStatus("Em Manutencao");
+            agendamentoTeste.mudarStatus(StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR);
             OrdemDeServico osTeste = gerenciadorOS.criarNovaOS(agendamentoTeste);
             
             System.out.println("\n4. Lancando itens na OS #" + osTeste.getIdOrdemDeServico());
@@ -168,9 +185,9 @@ public class TestesSistema {
             }
             
             System.out.println("\n5. Finalizando o servico...");
-            osTeste.finalizar();
-            agendamentoTeste.setStatus("Pronto para Entrega");
-            System.out.println("    - Ordem de Servico finalizada. Valor Total: R$" + String.format("%.2f", osTeste.getValorTotal()));
+            gerenciadorOS.finalizarOS(osTeste);
+            agendamentoTeste.mudarStatus(StatusAgendamento.PRONTO_PARA_ENTREGA);
+            System.out.println("    - Ordem de Servico finalizada. Valor Total: " + Dinheiro.formatar(osTeste.getValorTotalCentavos()));
 
             System.out.println("\n6. Emitindo Nota Fiscal (Extrato) para o cliente...");
             GeradorNotaFiscal.emitirNotaFiscal(osTeste);
@@ -180,4 +197,25 @@ public class TestesSistema {
         }
         System.out.println("// --- Fim da Questao 18 ---");
     }
-}
\ No newline at end of file
+
+    /**
+     * Gera uma massa de dados sintetica com o {@link GeradorDadosSinteticos} e aponta os gerenciadores
+     * para ela (propriedade "sistemaoficina.dados"), para testar o sistema com volumes maiores.
+     * @param clientes O numero de clientes; sao gerados dois agendamentos por cliente.
+     * @throws IOException Se houver erro ao gravar os arquivos.
+     */
+    private static void prepararMassaSintetica(int clientes) throws IOException {
+        GeradorDadosSinteticos.Configuracao config = new GeradorDadosSinteticos.Configuracao();
+        config.setClientes(clientes);
+        config.setAgendamentos(clientes * 2);
+        config.setDespesas(clientes);
+        File pasta = Files.createTempDirectory("sistemaoficina-massa").toFile();
+        long inicio = System.currentTimeMillis();
+        GeradorDadosSinteticos.MassaDeDados massa = new GeradorDadosSinteticos(config).gerarArquivos(pasta);
+        System.setProperty(DiretorioDados.PROPRIEDADE, pasta.getPath());
+        System.out.println("--- MASSA SINTETICA GERADA EM " + pasta + " (" + (System.currentTimeMillis() - inicio) + " ms) ---");
+        System.out.println(massa.getClientes().size() + " clientes, " + massa.getAgendamentos().size() + " agendamentos, "
+                + massa.getOrdensDeServico().size() + " OS, " + massa.getProdutos().size() + " produtos, "
+                + massa.getDespesas().size() + " despesas.\n");
+    }
+}
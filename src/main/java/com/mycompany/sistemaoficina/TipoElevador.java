@@ -0,0 +1,50 @@
+package com.mycompany.sistemaoficina;
+
+/**
+ * Categorias de elevador da oficina. Cada servico que precisa de elevador pede uma categoria,
+ * e o GerenciadorElevadores mantem os elevadores livres separados por categoria.
+ * A descricao e o texto gravado nos arquivos e exibido nas telas.
+ * @author santo
+ */
+public enum TipoElevador {
+
+    FIXO("Fixo (Alinhamento/Balanceamento)"),
+    CORRIQUEIRO("Corriqueiro");
+
+    private final String descricao;
+
+    TipoElevador(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * @return O texto do tipo (ex: "Corriqueiro").
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Converte o texto gravado nos arquivos (ou o nome da constante, ex: "FIXO") para o tipo,
+     * sem diferenciar maiusculas.
+     * @param descricao O texto do tipo.
+     * @return O tipo correspondente.
+     * @throws IllegalArgumentException se o texto nao corresponder a nenhum tipo.
+     */
+    public static TipoElevador deDescricao(String descricao) {
+        if (descricao != null) {
+            String texto = descricao.trim();
+            for (TipoElevador tipo : values()) {
+                if (tipo.descricao.equalsIgnoreCase(texto) || tipo.name().equalsIgnoreCase(texto)) {
+                    return tipo;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Tipo de elevador desconhecido: " + descricao);
+    }
+
+    @Override
+    public String toString() {
+        return descricao;
+    }
+}
@@ -1,8 +1,8 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
+import com.mycompany.sistemaoficina.Dinheiro;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
 import com.mycompany.sistemaoficina.OrdemDeServico;
-import com.mycompany.sistemaoficina.Produto;
-import com.mycompany.sistemaoficina.Servico;
 import java.time.format.DateTimeFormatter;
 
 /**
@@ -50,33 +50,39 @@ public class GeradorNotaFiscal {
         // Exibe a lista de Servicos realizados e os imprime de forma alinhada.
         if (!os.getServicosRealizados().isEmpty()) {
             System.out.println("SERVICOS PRESTADOS:");
-            for (Servico servico : os.getServicosRealizados()) {
-                String nomeServico = servico.getDescricao();
-                String valorFormatado = String.format("R$ %.2f", servico.getValor());
+            for (ItemOrdemDeServico servico : os.getServicosRealizados()) {
+                String valorFormatado = String.format("R$ %.2f", Dinheiro.emReais(servico.getValorTotalCentavos()));
                 // printf permite formatar e alinhar o texto
-                System.out.printf("  - %-35s %15s%n", nomeServico, valorFormatado);
+                System.out.printf("  - %-35s %15s%n", descricaoDoItem(servico), valorFormatado);
             }
         }
         
         // Exibe a ista de Pecas utilizadas e as imprime de forma alinhada.
         if (!os.getPecasUtilizadas().isEmpty()) {
             System.out.println("\nPECAS UTILIZADAS:");
-            for (Produto peca : os.getPecasUtilizadas()) {
-                String nomePeca = peca.getNome();
-                String valorFormatado = String.format("R$ %.2f", peca.getPrecoVenda());
-                System.out.printf("  - %-35s %15s%n", nomePeca, valorFormatado);
+            for (ItemOrdemDeServico peca : os.getPecasUtilizadas()) {
+                String valorFormatado = String.format("R$ %.2f", Dinheiro.emReais(peca.getValorTotalCentavos()));
+                System.out.printf("  - %-35s %15s%n", descricaoDoItem(peca), valorFormatado);
             }
         }
         
         System.out.println("========================================================");
         
         // Totalizador da nota, alinhado a direita.
-        String valorTotalFormatado = String.format("R$ %.2f", os.getValorTotal());
+        String valorTotalFormatado = String.format("R$ %.2f", Dinheiro.emReais(os.getValorTotalCentavos()));
         System.out.printf("VALOR TOTAL %38s%n", valorTotalFormatado);
         
         System.out.println("========================================================");
         System.out.println("Obrigado pela preferencia!");
         System.out.println("\n");
     }
-    
+
+    /**
+     * Texto exibido na nota para um item: o nome, precedido da quantidade quando houver mais de uma unidade.
+     * @param item O item da OS.
+     * @return A descricao do item.
+     */
+    private static String descricaoDoItem(ItemOrdemDeServico item) {
+        return item.getQuantidade() > 1 ? item.getQuantidade() + "x " + item.getDescricao() : item.getDescricao();
+    }
 }
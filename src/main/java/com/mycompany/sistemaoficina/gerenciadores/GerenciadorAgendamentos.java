@@ -1,25 +1,38 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Dinheiro;
 import com.mycompany.sistemaoficina.Agendamento;
 import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.Elevador;
 import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.StatusAgendamento;
+import com.mycompany.sistemaoficina.TipoElevador;
 import com.mycompany.sistemaoficina.Veiculo;
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.indices.IndicePorData;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.RepositorioParticionado;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
 /**
  * Classe responsavel por gerenciar todas as operacoes relacionadas a Agendamentos.
@@ -34,27 +47,25 @@ public class GerenciadorAgendamentos {
      */
     private List<Agendamento> listaAgendamentos;
     private static final String ARQUIVO_AGENDAMENTOS_JSON = "agendamentos.json";
+    private static final String PASTA_AGENDAMENTOS_ARQUIVADOS = "agendamentos_arquivados";
     private final GerenciadorClientes gerenciadorClientes;
     private final GerenciadorElevadores gerenciadorElevadores;
     private final GerenciadorOrdensDeServico gerenciadorOS;
-
-    /**
-     * Adaptador para que a biblioteca Gson saiba como lidar com o tipo LocalDateTime
-     */
-    private static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME_ADAPTER = new TypeAdapter<>() {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        @Override
-        public void write(JsonWriter out, LocalDateTime value) throws IOException {
-            if (value == null) out.nullValue(); else out.value(value.format(formatter));
-        }
-        @Override
-        public LocalDateTime read(JsonReader in) throws IOException {
-            if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull(); return null;
-            }
-            return LocalDateTime.parse(in.nextString(), formatter);
-        }
-    };
+    private final IndiceId<Agendamento> indiceAgendamentos = new IndiceId<>(Agendamento::getIdAgendamento);
+    // Um indice por status: as consultas por status (ex: prontos para entrega) percorrem so o seu grupo.
+    private final Map<StatusAgendamento, IndiceId<Agendamento>> agendamentosPorStatus = new EnumMap<>(StatusAgendamento.class);
+    // Agenda ordenada por data/hora: listagens por data e consultas por periodo sem ordenar a lista.
+    private final IndicePorData<Agendamento> agenda = new IndicePorData<>(Agendamento::getDataHora);
+    private final Repositorio<Agendamento> repositorio = Repositorios.abrir(ARQUIVO_AGENDAMENTOS_JSON, Agendamento.class, Agendamento::getIdAgendamento);
+    // Arquivo morto dos agendamentos entregues ou cancelados (ver arquivarEncerrados); nunca fica carregado.
+    private final RepositorioParticionado<Agendamento> arquivo = new RepositorioParticionado<>(PASTA_AGENDAMENTOS_ARQUIVADOS,
+            Agendamento.class, Agendamento::getIdAgendamento, Agendamento::getDataHora, agendamento -> false);
+    // Ocupar ou liberar o elevador e mudar o status do agendamento e feito sob a leitura (as sessoes seguem
+    // alocando ao mesmo tempo); a reconciliacao fica com a escrita, para nao ver o elevador ja trocado e o
+    // status ainda nao (ex: liberar um elevador recem-alocado cujo agendamento ainda esta 'Agendado').
+    // A trava nao protege a lista, os indices nem o repositorio: eles so sao lidos e alterados sob o monitor
+    // deste gerenciador (metodos synchronized).
+    private final ReentrantReadWriteLock travaOcupacao = new ReentrantReadWriteLock();
 
     /**
      * Construtor do GerenciadorAgendamentos.
@@ -69,6 +80,10 @@ public class GerenciadorAgendamentos {
         this.gerenciadorElevadores = gerenciadorElevadores;
         this.gerenciadorOS = gerenciadorOS;
         this.listaAgendamentos = carregarDadosAgendamentos();
+        reconstruirIndices();
+        registrarReservasDeElevadores();
+        SequenciaIds.semear(SequenciaIds.AGENDAMENTOS, this.listaAgendamentos, Agendamento::getIdAgendamento);
+        SequenciaIds.semear(SequenciaIds.AGENDAMENTOS, arquivo.getMaiorId());
     }
 
     /**
@@ -86,6 +101,10 @@ public class GerenciadorAgendamentos {
             System.out.println("5. Registrar Entrega de Veiculo");
             System.out.println("6. Listar Todos os Agendamentos (Com Ordenacao)");
             System.out.println("7. Cancelar um Agendamento");
+            System.out.println("8. Agenda do Dia");
+            System.out.println("9. Proximos Agendamentos");
+            System.out.println("10. Agendamentos em um Periodo");
+            System.out.println("11. Operacoes em Lote (Iniciar/Finalizar/Entregar)");
             System.out.println("0. Voltar");
             System.out.print("Escolha uma opcao: ");
 
@@ -106,6 +125,10 @@ public class GerenciadorAgendamentos {
                     listarAgendamentosComOrdenacao(scanner);
                     break;
                 case 7: cancelarAgendamento(scanner); break;
+                case 8: exibirAgendaDoDia(scanner); break;
+                case 9: exibirProximosAgendamentos(scanner); break;
+                case 10: exibirAgendamentosNoPeriodo(scanner); break;
+                case 11: menuOperacoesEmLote(scanner); break;
                 case 0: break;
                 default: System.out.println("Opcao invalida!");
             }
@@ -118,7 +141,8 @@ public class GerenciadorAgendamentos {
      * @param scanner A instancia do Scanner para ler a entrada do usuario.
      */
      private void listarAgendamentosComOrdenacao(Scanner scanner) {
-        if (listaAgendamentos.isEmpty()) {
+        List<Agendamento> todos = copiarAgendamentos();
+        if (todos.isEmpty()) {
             System.out.println("\nNenhum agendamento cadastrado para listar.");
             return;
         }
@@ -130,21 +154,24 @@ public class GerenciadorAgendamentos {
 
         try {
             int escolha = Integer.parseInt(scanner.nextLine());
-            //Cria uma copia da lista para nao alterar a ordem original permanentemente
-            List<Agendamento> listaOrdenada = new ArrayList<>(this.listaAgendamentos);
+            List<Agendamento> listaOrdenada;
 
             switch (escolha) {
                 case 1:
-                    // Usa a ordenacao natural (por data) definida com "implements Comparable"
-                    Collections.sort(listaOrdenada);
+                    // A agenda ja esta em ordem de data (mesma ordem natural de Agendamento), sem ordenar
+                    listaOrdenada = listarEmOrdemDeData();
                     System.out.println("\n=== LISTA DE AGENDAMENTOS (Ordenada por Data) ===");
                     break;
                 case 2:
-                    // Usa o Comparator especifico que criamos para ordenar por Status
-                    listaOrdenada.sort(new Agendamento.AgendamentoPorStatusComparator());
+                    // Os indices por status ja agrupam os agendamentos, na ordem do fluxo
+                    listaOrdenada = new ArrayList<>(todos.size());
+                    for (StatusAgendamento status : StatusAgendamento.values()) {
+                        listaOrdenada.addAll(listarPorStatus(status));
+                    }
                     System.out.println("\n=== LISTA DE AGENDAMENTOS (Ordenada por Status) ===");
                     break;
                 default:
+                    listaOrdenada = todos;
                     System.out.println("Opcao invalida. Listando na ordem padrao.");
                     System.out.println("\n=== LISTA DE AGENDAMENTOS ===");
                     break;
@@ -204,11 +231,46 @@ public class GerenciadorAgendamentos {
         }
         System.out.print("Descricao do problema: ");
         String descricaoProblema = scanner.nextLine();
+
+        // Reserva o elevador ja no agendamento, para nao aceitar mais servicos do que os elevadores comportam.
+        TipoElevador tipoElevador = null;
+        System.out.print("Este servico vai precisar de elevador? (S/N): ");
+        if (scanner.nextLine().equalsIgnoreCase("S")) {
+            tipoElevador = gerenciadorElevadores.escolherTipoElevador(scanner);
+            if (tipoElevador == null) {
+                return;
+            }
+            Duration duracao = GerenciadorElevadores.duracaoPadraoReserva();
+            if (gerenciadorElevadores.contarElevadoresLivres(tipoElevador, dataHora, dataHora.plus(duracao)) == 0) {
+                LocalDateTime sugestao = gerenciadorElevadores.sugerirHorario(tipoElevador, dataHora, duracao);
+                if (sugestao == null) {
+                    System.out.println("FALHA: Nao ha elevadores do tipo '" + tipoElevador + "' cadastrados.");
+                    return;
+                }
+                System.out.println("FALHA: Nenhum elevador do tipo '" + tipoElevador + "' livre nesse horario. Proximo horario livre: "
+                        + sugestao.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+                System.out.print("Deseja agendar nesse horario? (S/N): ");
+                if (!scanner.nextLine().equalsIgnoreCase("S")) {
+                    System.out.println("Agendamento nao realizado.");
+                    return;
+                }
+                dataHora = sugestao;
+            }
+        }
+
         int idAgendamento = gerarProximoIdAgendamento();
         Agendamento novoAgendamento = new Agendamento(idAgendamento, clienteSelecionado, veiculoSelecionado, dataHora, descricaoProblema);
+        if (tipoElevador != null) {
+            LocalDateTime fimPrevisto = dataHora.plus(GerenciadorElevadores.duracaoPadraoReserva());
+            Elevador reservado = gerenciadorElevadores.reservarElevador(novoAgendamento, tipoElevador, dataHora, fimPrevisto);
+            if (reservado == null) {
+                System.out.println("FALHA: O horario acabou de ser reservado por outro agendamento. Tente novamente.");
+                return;
+            }
+            System.out.println("Elevador " + reservado.getNumero() + " reservado ate " + fimPrevisto.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) + ".");
+        }
         
-        listaAgendamentos.add(novoAgendamento);
-        salvarDadosAgendamentos();
+        adicionar(novoAgendamento);
         System.out.println("Agendamento criado e salvo com sucesso! ID: " + novoAgendamento.getIdAgendamento());
     }
 
@@ -218,47 +280,57 @@ public class GerenciadorAgendamentos {
      */
     private void iniciarServico(Scanner scanner) {
         System.out.println("\n--- Iniciar Servico e Abrir OS ---");
-        listarAgendamentos();
-        if (getListaAgendamentos().isEmpty()) return;
+        if (!exibirPorStatus(StatusAgendamento.AGENDADO)) return;
 
         System.out.print("Digite o ID do agendamento para INICIAR o servico: ");
         try {
             int id = Integer.parseInt(scanner.nextLine());
             Agendamento agendamento = buscarAgendamentoPorId(id);
 
-            if (agendamento != null && agendamento.getStatus().equalsIgnoreCase("Agendado")) {
-                String statusFinal = "Em Manutencao (Sem Elevador)";
-                
-                System.out.print("Este servico necessita de um elevador? (S/N): ");
-                String resposta = scanner.nextLine();
-                if (resposta.equalsIgnoreCase("S")) {
-                    System.out.println("Qual tipo de elevador e necessario?");
-                    System.out.println("1 - Fixo (Alinhamento/Balanceamento)");
-                    System.out.println("2 - Corriqueiro (Servicos Gerais)");
-                    System.out.print("Escolha uma opcao: ");
-                    String tipoEscolhido = scanner.nextLine();
-                    
-                    boolean alocado; // Declaracao da variavel
-                    if (tipoEscolhido.equals("1")) {
-                        alocado = this.gerenciadorElevadores.alocarElevadorPorTipo(agendamento, "Fixo");
-                    } else if (tipoEscolhido.equals("2")) {
-                        alocado = this.gerenciadorElevadores.alocarElevadorPorTipo(agendamento, "Corriqueiro");
-                    } else {
-                        System.out.println("Opcao de tipo invalida.");
-                        alocado = false; // Define como falso se a opcao for invalida
+            if (agendamento != null && agendamento.getStatus() == StatusAgendamento.AGENDADO) {
+                TipoElevador tipoEscolhido = null;
+
+                if (agendamento.getNumeroElevadorReservado() <= 0) {
+                    System.out.print("Este servico necessita de um elevador? (S/N): ");
+                    String resposta = scanner.nextLine();
+                    if (resposta.equalsIgnoreCase("S")) {
+                        tipoEscolhido = this.gerenciadorElevadores.escolherTipoElevador(scanner);
+                        if (tipoEscolhido == null) {
+                            return; // Interrompe a operacao
+                        }
                     }
+                }
 
-                    if(alocado){
-                        statusFinal = "Em Manutencao (Com Elevador)";
-                    } else {
-                        // A mensagem de falha ja e exibida pelo metodo alocarElevadorPorTipo
+                // As perguntas ficam fora da trava: a reconciliacao nao espera pelo usuario.
+                boolean comElevador = agendamento.getNumeroElevadorReservado() > 0 || tipoEscolhido != null;
+                travaOcupacao.readLock().lock();
+                try {
+                    // Outra sessao pode ter iniciado o mesmo agendamento enquanto o usuario respondia.
+                    if (!avancarStatus(agendamento, comElevador
+                            ? StatusAgendamento.EM_MANUTENCAO_COM_ELEVADOR : StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR)) {
+                        System.out.println("FALHA: O agendamento " + id + " nao esta mais 'Agendado' (status atual: " + agendamento.getStatus() + ").");
+                        return;
+                    }
+                    boolean alocado;
+                    try {
+                        alocado = !comElevador || (agendamento.getNumeroElevadorReservado() > 0
+                                ? this.gerenciadorElevadores.alocarElevadorReservado(agendamento)
+                                : this.gerenciadorElevadores.alocarElevadorPorTipo(agendamento, tipoEscolhido));
+                    } catch (RuntimeException e) {
+                        desfazerInicio(agendamento);
+                        System.out.println("Erro ao alocar o elevador: " + e.getMessage());
+                        return;
+                    }
+                    if (!alocado) {
+                        // A mensagem de falha ja e exibida pelo GerenciadorElevadores
+                        desfazerInicio(agendamento);
                         return; // Interrompe a operacao
                     }
+                } finally {
+                    travaOcupacao.readLock().unlock();
                 }
-                
-                agendamento.setStatus(statusFinal);
                 gerenciadorOS.criarNovaOS(agendamento);
-                salvarDadosAgendamentos();
+                salvar(agendamento);
                 System.out.println("Status do agendamento ID " + id + " atualizado para: " + agendamento.getStatus());
 
             } else {
@@ -275,15 +347,14 @@ public class GerenciadorAgendamentos {
      */
     private void finalizarServico(Scanner scanner) {
         System.out.println("\n--- Finalizar Servico e Fechar OS ---");
-        listarAgendamentos();
-        if (getListaAgendamentos().isEmpty()) return;
+        if (!exibirPorStatus(StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR, StatusAgendamento.EM_MANUTENCAO_COM_ELEVADOR)) return;
 
         System.out.print("Digite o ID do agendamento para FINALIZAR o servico: ");
         try {
             int id = Integer.parseInt(scanner.nextLine());
             Agendamento agendamento = buscarAgendamentoPorId(id);
 
-            if (agendamento != null && agendamento.getStatus().startsWith("Em Manutencao")) {
+            if (agendamento != null && agendamento.getStatus().isEmManutencao()) {
                 OrdemDeServico os = gerenciadorOS.buscarOSAbertaPorAgendamento(agendamento);
                 
                 if (os == null) {
@@ -291,15 +362,23 @@ public class GerenciadorAgendamentos {
                     return;
                 }
                 
-                os.finalizar();
-                gerenciadorOS.salvarOrdensDeServico();
-                System.out.println("Ordem de Servico #" + os.getIdOrdemDeServico() + " foi finalizada. Valor total: R$" + String.format("%.2f", os.getValorTotal()));
+                // O status muda primeiro: se outra sessao ja finalizou o agendamento, a OS nao e fechada de novo.
+                travaOcupacao.readLock().lock();
+                try {
+                    if (!avancarStatus(agendamento, StatusAgendamento.PRONTO_PARA_ENTREGA)) {
+                        System.out.println("FALHA: O agendamento " + id + " nao esta mais 'Em Manutencao' (status atual: " + agendamento.getStatus() + ").");
+                        return;
+                    }
+                    this.gerenciadorElevadores.liberarElevadorDoAgendamento(agendamento);
+                } finally {
+                    travaOcupacao.readLock().unlock();
+                }
+                if (gerenciadorOS.finalizarOS(os)) {
+                    System.out.println("Ordem de Servico #" + os.getIdOrdemDeServico() + " foi finalizada. Valor total: " + Dinheiro.formatar(os.getValorTotalCentavos()));
+                }
 
-                this.gerenciadorElevadores.liberarElevadorDoAgendamento(agendamento);
-                
-                agendamento.setStatus("Pronto para Entrega");
                 System.out.println("Status do agendamento ID " + id + " atualizado para: " + agendamento.getStatus());
-                salvarDadosAgendamentos();
+                salvar(agendamento);
             } else {
                 System.out.println("Agendamento nao encontrado ou nao esta 'Em Manutencao'.");
             }
@@ -316,9 +395,7 @@ public class GerenciadorAgendamentos {
         System.out.println("\n--- Registrar Entrega de Veiculo ---");
         
         System.out.println("\n--- Veiculos Prontos para Entrega ---");
-        List<Agendamento> agendamentosProntos = this.listaAgendamentos.stream()
-            .filter(ag -> ag.getStatus().equalsIgnoreCase("Pronto para Entrega"))
-            .collect(Collectors.toList());
+        List<Agendamento> agendamentosProntos = listarPorStatus(StatusAgendamento.PRONTO_PARA_ENTREGA);
 
         if (agendamentosProntos.isEmpty()) {
             System.out.println("Nenhum veiculo esta com o status 'Pronto para Entrega'.");
@@ -332,7 +409,7 @@ public class GerenciadorAgendamentos {
             int id = Integer.parseInt(scanner.nextLine());
             Agendamento agendamento = buscarAgendamentoPorId(id);
 
-            if (agendamento != null && agendamento.getStatus().equalsIgnoreCase("Pronto para Entrega")) {
+            if (agendamento != null && agendamento.getStatus() == StatusAgendamento.PRONTO_PARA_ENTREGA) {
                 
                 // Busca a Ordem de Servico finalizada usando o novo metodo auxiliar
                 OrdemDeServico os = gerenciadorOS.buscarOSPorAgendamentoId(agendamento.getIdAgendamento());
@@ -358,9 +435,12 @@ public class GerenciadorAgendamentos {
                 /**
                  * Finaliza o processo mudando o status do agendamento.
                  */
-                agendamento.setStatus("Entregue");
+                if (!avancarStatus(agendamento, StatusAgendamento.ENTREGUE)) {
+                    System.out.println("FALHA: O agendamento " + id + " ja foi entregue por outra sessao.");
+                    return;
+                }
                 System.out.println("Status do agendamento ID " + id + " atualizado para: " + agendamento.getStatus());
-                salvarDadosAgendamentos(); // Salva a mudanca final do status
+                salvar(agendamento); // Salva a mudanca final do status
 
             } else {
                 System.out.println("Agendamento nao encontrado ou nao esta com o status 'Pronto para Entrega'.");
@@ -370,13 +450,230 @@ public class GerenciadorAgendamentos {
         }
     }
 
+    /**
+     * Submenu das operacoes em lote: o usuario informa varios IDs de uma vez (ou "todos" os do status)
+     * e recebe o resultado de cada um.
+     * @param scanner A instancia do Scanner para ler a entrada do usuario.
+     */
+    private void menuOperacoesEmLote(Scanner scanner) {
+        System.out.println("\n--- Operacoes em Lote ---");
+        System.out.println("1. Iniciar Servicos (usa o elevador reservado, quando houver)");
+        System.out.println("2. Finalizar Servicos e Fechar as OS");
+        System.out.println("3. Registrar Entregas");
+        System.out.print("Escolha uma opcao: ");
+        String opcao = scanner.nextLine().trim();
+        StatusAgendamento[] statusDoLote;
+        switch (opcao) {
+            case "1":
+                statusDoLote = new StatusAgendamento[] {StatusAgendamento.AGENDADO};
+                break;
+            case "2":
+                statusDoLote = new StatusAgendamento[] {StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR, StatusAgendamento.EM_MANUTENCAO_COM_ELEVADOR};
+                break;
+            case "3":
+                statusDoLote = new StatusAgendamento[] {StatusAgendamento.PRONTO_PARA_ENTREGA};
+                break;
+            default:
+                System.out.println("Opcao invalida!");
+                return;
+        }
+        if (!exibirPorStatus(statusDoLote)) return;
+
+        System.out.print("Digite os IDs separados por virgula ou espaco (ou 'todos'): ");
+        String linha = scanner.nextLine().trim();
+        List<Integer> ids = new ArrayList<>();
+        if (linha.equalsIgnoreCase("todos")) {
+            for (StatusAgendamento status : statusDoLote) {
+                for (Agendamento agendamento : listarPorStatus(status)) {
+                    ids.add(agendamento.getIdAgendamento());
+                }
+            }
+        } else {
+            try {
+                for (String parte : linha.split("[,;\\s]+")) {
+                    if (!parte.isEmpty()) {
+                        ids.add(Integer.parseInt(parte));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Erro: ID invalido: " + e.getMessage());
+                return;
+            }
+        }
+        if (ids.isEmpty()) {
+            System.out.println("Nenhum ID informado.");
+            return;
+        }
+
+        Map<Integer, String> resultado;
+        if (opcao.equals("1")) {
+            resultado = iniciarServicosEmLote(ids);
+        } else if (opcao.equals("2")) {
+            resultado = finalizarServicosEmLote(ids);
+        } else {
+            System.out.print("Deseja emitir a Nota Fiscal de cada entrega? (S/N): ");
+            resultado = registrarEntregasEmLote(ids, scanner.nextLine().equalsIgnoreCase("S"));
+        }
+        exibirResultadoLote(resultado);
+    }
+
+    /**
+     * Inicia o servico de varios agendamentos de uma vez, abrindo uma OS para cada um.
+     * Agendamentos com elevador reservado recebem o elevador (ou outro livre do mesmo tipo); os demais
+     * entram em manutencao sem elevador. Ver {@link #processarLote} para a validacao e a gravacao.
+     * @param ids Os IDs dos agendamentos.
+     * @return O resultado de cada ID, na ordem informada.
+     */
+    public Map<Integer, String> iniciarServicosEmLote(List<Integer> ids) {
+        return processarLote(ids,
+                agendamento -> agendamento.getStatus() == StatusAgendamento.AGENDADO
+                        ? null : "esta com o status '" + agendamento.getStatus() + "', e nao 'Agendado'",
+                agendamento -> {
+                    boolean comElevador = agendamento.getNumeroElevadorReservado() > 0;
+                    travaOcupacao.readLock().lock();
+                    try {
+                        if (!avancarStatus(agendamento, comElevador
+                                ? StatusAgendamento.EM_MANUTENCAO_COM_ELEVADOR : StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR)) {
+                            throw new IllegalStateException("o status mudou para '" + agendamento.getStatus() + "' antes do inicio");
+                        }
+                        try {
+                            if (comElevador && !gerenciadorElevadores.alocarElevadorReservado(agendamento)) {
+                                throw new IllegalStateException("nenhum elevador livre do tipo reservado");
+                            }
+                            OrdemDeServico os = gerenciadorOS.criarNovaOS(agendamento);
+                            return agendamento.getStatus() + ", OS #" + os.getIdOrdemDeServico() + " aberta";
+                        } catch (RuntimeException e) {
+                            desfazerInicio(agendamento);
+                            throw e;
+                        }
+                    } finally {
+                        travaOcupacao.readLock().unlock();
+                    }
+                });
+    }
+
+    /**
+     * Finaliza o servico de varios agendamentos de uma vez: fecha a OS aberta, libera o elevador
+     * e deixa o veiculo pronto para entrega. Ver {@link #processarLote} para a validacao e a gravacao.
+     * @param ids Os IDs dos agendamentos.
+     * @return O resultado de cada ID, na ordem informada.
+     */
+    public Map<Integer, String> finalizarServicosEmLote(List<Integer> ids) {
+        return processarLote(ids,
+                agendamento -> {
+                    if (!agendamento.getStatus().isEmManutencao()) {
+                        return "esta com o status '" + agendamento.getStatus() + "', e nao em manutencao";
+                    }
+                    return gerenciadorOS.buscarOSAbertaPorAgendamento(agendamento) == null ? "nenhuma OS aberta para o agendamento" : null;
+                },
+                agendamento -> {
+                    OrdemDeServico os = gerenciadorOS.buscarOSAbertaPorAgendamento(agendamento);
+                    if (os == null) {
+                        throw new IllegalStateException("nenhuma OS aberta para o agendamento");
+                    }
+                    // Como no menu: o status muda antes de fechar a OS, para que uma finalizacao repetida nao a feche de novo.
+                    travaOcupacao.readLock().lock();
+                    try {
+                        if (!avancarStatus(agendamento, StatusAgendamento.PRONTO_PARA_ENTREGA)) {
+                            throw new IllegalStateException("o status mudou para '" + agendamento.getStatus() + "' antes da finalizacao");
+                        }
+                        gerenciadorElevadores.liberarElevadorDoAgendamento(agendamento);
+                    } finally {
+                        travaOcupacao.readLock().unlock();
+                    }
+                    String fechamento = gerenciadorOS.finalizarOS(os) ? " fechada em " : " ja estava fechada em ";
+                    return agendamento.getStatus() + ", OS #" + os.getIdOrdemDeServico() + fechamento + Dinheiro.formatar(os.getValorTotalCentavos());
+                });
+    }
+
+    /**
+     * Registra a entrega de varios veiculos de uma vez. Ver {@link #processarLote} para a validacao e a gravacao.
+     * @param ids Os IDs dos agendamentos.
+     * @param emitirNotaFiscal true para imprimir a Nota Fiscal de cada entrega.
+     * @return O resultado de cada ID, na ordem informada.
+     */
+    public Map<Integer, String> registrarEntregasEmLote(List<Integer> ids, boolean emitirNotaFiscal) {
+        return processarLote(ids,
+                agendamento -> {
+                    if (agendamento.getStatus() != StatusAgendamento.PRONTO_PARA_ENTREGA) {
+                        return "esta com o status '" + agendamento.getStatus() + "', e nao 'Pronto para Entrega'";
+                    }
+                    return gerenciadorOS.buscarOSPorAgendamentoId(agendamento.getIdAgendamento()) == null ? "nenhuma OS para o agendamento" : null;
+                },
+                agendamento -> {
+                    if (!avancarStatus(agendamento, StatusAgendamento.ENTREGUE)) {
+                        throw new IllegalStateException("o status mudou para '" + agendamento.getStatus() + "' antes da entrega");
+                    }
+                    if (emitirNotaFiscal) {
+                        GeradorNotaFiscal.emitirNotaFiscal(gerenciadorOS.buscarOSPorAgendamentoId(agendamento.getIdAgendamento()));
+                    }
+                    return agendamento.getStatus().toString();
+                });
+    }
+
+    /**
+     * Executa uma operacao em lote em tres etapas: valida todos os IDs (IDs repetidos, inexistentes ou com
+     * status errado sao ignorados, sem alterar nada), aplica a operacao aos validos e grava os agendamentos
+     * alterados de uma so vez. As OS e os elevadores ja usam a gravacao adiada, entao tambem viram uma gravacao cada.
+     * A falha de um item (qualquer excecao) fica registrada no resultado dele e nao interrompe o lote; a operacao
+     * desfaz o que ja tinha feito no item (ex: o elevador alocado) antes de lancar.
+     * @param ids Os IDs dos agendamentos.
+     * @param validar Retorna o motivo para ignorar o agendamento, ou null se ele pode ser processado.
+     * @param aplicar Aplica a operacao e retorna a descricao do resultado; lanca uma excecao se falhar.
+     * @return O resultado de cada ID, na ordem informada ("OK: ...", "IGNORADO: ..." ou "FALHA: ...").
+     */
+    private Map<Integer, String> processarLote(List<Integer> ids, Function<Agendamento, String> validar, Function<Agendamento, String> aplicar) {
+        Map<Integer, String> resultado = new LinkedHashMap<>();
+        List<Agendamento> validos = new ArrayList<>();
+        for (Integer id : ids) {
+            if (resultado.containsKey(id)) {
+                continue; // ID repetido na lista: processado uma vez so
+            }
+            Agendamento agendamento = buscarAtivo(id);
+            String motivo = agendamento == null ? "agendamento nao encontrado entre os ativos" : validar.apply(agendamento);
+            if (motivo != null) {
+                resultado.put(id, "IGNORADO: " + motivo);
+            } else {
+                resultado.put(id, null);
+                validos.add(agendamento);
+            }
+        }
+
+        for (Agendamento agendamento : validos) {
+            try {
+                resultado.put(agendamento.getIdAgendamento(), "OK: " + aplicar.apply(agendamento));
+            } catch (RuntimeException e) {
+                resultado.put(agendamento.getIdAgendamento(), "FALHA: " + e.getMessage());
+            }
+        }
+        // Os itens que falharam tambem sao gravados: o arquivo fica igual ao que sobrou em memoria, desfeito ou nao.
+        if (!validos.isEmpty() && !salvarVarios(validos)) {
+            System.err.println("Erro ao salvar os agendamentos do lote.");
+        }
+        return resultado;
+    }
+
+    /**
+     * Exibe o resultado de uma operacao em lote, um ID por linha, e o total processado.
+     */
+    private void exibirResultadoLote(Map<Integer, String> resultado) {
+        System.out.println("\n--- Resultado do Lote ---");
+        int processados = 0;
+        for (Map.Entry<Integer, String> item : resultado.entrySet()) {
+            System.out.println("ID " + item.getKey() + " - " + item.getValue());
+            if (item.getValue().startsWith("OK")) {
+                processados++;
+            }
+        }
+        System.out.println(processados + " de " + resultado.size() + " agendamento(s) processado(s).");
+    }
+
     /**
      * Cancela um agendamento que ainda nao foi iniciado, aplicando uma taxa de retencao.
      * @param scanner A instancia do Scanner para ler a entrada do usuario.
      */
     private void cancelarAgendamento(Scanner scanner) {
-        listarAgendamentos();
-        if (listaAgendamentos.isEmpty()) return;
+        if (!exibirPorStatus(StatusAgendamento.AGENDADO)) return;
         
         System.out.print("\nDigite o ID do agendamento a cancelar: ");
         int idCancelar = Integer.parseInt(scanner.nextLine());
@@ -387,7 +684,7 @@ public class GerenciadorAgendamentos {
             return;
         }
 
-        if (!agendamentoParaCancelar.getStatus().equalsIgnoreCase("Agendado")) {
+        if (agendamentoParaCancelar.getStatus() != StatusAgendamento.AGENDADO) {
             System.out.println("Apenas agendamentos com status 'Agendado' podem ser cancelados.");
             return;
         }
@@ -395,11 +692,15 @@ public class GerenciadorAgendamentos {
         System.out.print("Tem certeza que deseja cancelar o agendamento " + idCancelar + "? (S/N): ");
         String confirmacao = scanner.nextLine();
         if (confirmacao.equalsIgnoreCase("S")) {
-            agendamentoParaCancelar.setStatus("Cancelado");
-            double valorEstimado = 100.0;
-            agendamentoParaCancelar.setValorRetidoCancelamento(valorEstimado * 0.20);
-            salvarDadosAgendamentos();
-            System.out.println("Agendamento " + idCancelar + " cancelado com sucesso! Valor retido: R$" + String.format("%.2f", agendamentoParaCancelar.getValorRetidoCancelamento()));
+            if (!avancarStatus(agendamentoParaCancelar, StatusAgendamento.CANCELADO)) {
+                System.out.println("FALHA: O agendamento " + idCancelar + " nao esta mais 'Agendado' (status atual: " + agendamentoParaCancelar.getStatus() + ").");
+                return;
+            }
+            gerenciadorElevadores.cancelarReserva(agendamentoParaCancelar);
+            long valorEstimado = Dinheiro.deReais(100.0);
+            agendamentoParaCancelar.setValorRetidoCancelamentoCentavos(Dinheiro.percentual(valorEstimado, 20));
+            salvar(agendamentoParaCancelar);
+            System.out.println("Agendamento " + idCancelar + " cancelado com sucesso! Valor retido: " + Dinheiro.formatar(agendamentoParaCancelar.getValorRetidoCancelamentoCentavos()));
         } else {
             System.out.println("Cancelamento de agendamento abortado.");
         }
@@ -409,36 +710,373 @@ public class GerenciadorAgendamentos {
      * Exibe a lista de todos os agendamentos cadastrados, sem uma ordem especifica.
      */
     private void listarAgendamentos() {
-        if (listaAgendamentos.isEmpty()) {
+        List<Agendamento> todos = copiarAgendamentos();
+        if (todos.isEmpty()) {
             System.out.println("\nNenhum agendamento cadastrado.");
             return;
         }
         System.out.println("\n=== LISTA DE AGENDAMENTOS ===");
-        for (Agendamento a : listaAgendamentos) {
+        for (Agendamento a : todos) {
             System.out.println(a);
         }
+        int arquivados = arquivo.getQuantidade();
+        if (arquivados > 0) {
+            System.out.println("(" + arquivados + " agendamentos entregues/cancelados no arquivo morto; consulte pelo ID)");
+        }
     }
 
     /**
-     * Busca um agendamento na lista pelo seu ID unico.
+     * Busca um agendamento pelo seu ID unico, usando o indice por ID (O(1)).
+     * Se nao estiver entre os agendamentos ativos, procura no arquivo morto.
      * @param idAgendamento O ID do agendamento a ser procurado.
      * @return O objeto {@code Agendamento} se encontrado, ou {@code null}.
      */
-    public Agendamento buscarAgendamentoPorId(int idAgendamento) {
-        for (Agendamento a : listaAgendamentos) {
-            if (a.getIdAgendamento() == idAgendamento) {
-                return a;
+    public synchronized Agendamento buscarAgendamentoPorId(int idAgendamento) {
+        Agendamento agendamento = indiceAgendamentos.buscar(idAgendamento);
+        return agendamento != null ? agendamento : arquivo.buscarPorId(idAgendamento);
+    }
+
+    /**
+     * Move para o arquivo morto os agendamentos entregues ou cancelados com data anterior ao limite,
+     * tirando-os da lista ativa e de agendamentos.json. Eles continuam acessiveis por
+     * {@link #buscarAgendamentoPorId}.
+     * @param limite A data a partir da qual os agendamentos permanecem ativos.
+     * @return A quantidade de agendamentos arquivados.
+     */
+    public synchronized int arquivarEncerrados(LocalDateTime limite) {
+        List<Agendamento> encerrados = new ArrayList<>();
+        for (StatusAgendamento status : new StatusAgendamento[] {StatusAgendamento.ENTREGUE, StatusAgendamento.CANCELADO}) {
+            for (Agendamento agendamento : agendamentosPorStatus.get(status).valores()) {
+                if (agendamento.getDataHora() != null && agendamento.getDataHora().isBefore(limite)) {
+                    encerrados.add(agendamento);
+                }
             }
         }
-        return null;
+        if (encerrados.isEmpty()) {
+            return 0;
+        }
+        // Grava no arquivo antes de tirar da lista: uma queda no meio deixa o agendamento nos dois lugares,
+        // e a busca por ID encontra o ativo primeiro.
+        if (!arquivo.salvarVarios(encerrados)) {
+            System.err.println("GerenciadorAgendamentos: Erro ao arquivar agendamentos.");
+            return 0;
+        }
+        arquivo.arquivarAntigos(YearMonth.from(limite).plusMonths(1));
+        arquivo.descarregarArquivados();
+        for (Agendamento agendamento : encerrados) {
+            desindexar(agendamento);
+        }
+        listaAgendamentos.removeIf(agendamento -> !indiceAgendamentos.contem(agendamento.getIdAgendamento()));
+        salvarDadosAgendamentos();
+        return encerrados.size();
     }
     
+    /**
+     * Confere a ocupacao dos elevadores com os agendamentos em manutencao com elevador, que gravam uma
+     * copia do elevador em agendamentos.json e podem discordar de elevadores.json depois de uma queda.
+     * Os agendamentos passam a apontar para o elevador do GerenciadorElevadores, a ocupacao e reconstruida
+     * pelo numero do elevador ({@link GerenciadorElevadores#reconciliarOcupacao}) e, quando dois agendamentos
+     * estao com o mesmo elevador, o segundo e transferido para outro elevador livre do mesmo tipo.
+     * Custa O(agendamentos em manutencao + elevadores). Roda com a escrita de {@code travaOcupacao}: espera as
+     * alocacoes e liberacoes em andamento terminarem de mudar o status e bloqueia novas ate o fim. Nao deve ser
+     * chamado de dentro de uma dessas operacoes (a trava de leitura nao passa a escrita).
+     * @return A quantidade de inconsistencias encontradas (corrigidas ou nao).
+     */
+    public int reconciliarElevadores() {
+        travaOcupacao.writeLock().lock();
+        try {
+            return reconciliarElevadoresTravado();
+        } finally {
+            travaOcupacao.writeLock().unlock();
+        }
+    }
+
+    private int reconciliarElevadoresTravado() {
+        List<Agendamento> comElevador = listarPorStatus(StatusAgendamento.EM_MANUTENCAO_COM_ELEVADOR);
+        Map<Integer, Integer> emUso = new HashMap<>(comElevador.size() * 2);
+        List<Agendamento> duplicados = new ArrayList<>();
+        int inconsistencias = 0;
+        for (Agendamento agendamento : comElevador) {
+            Elevador copia = agendamento.getElevadorAlocado();
+            Elevador elevador = copia == null ? null : gerenciadorElevadores.buscarElevadorPorNumero(copia.getNumero());
+            if (elevador == null) {
+                System.out.println("Reconciliacao: O agendamento " + agendamento.getIdAgendamento() + " esta em manutencao com elevador, mas "
+                        + (copia == null ? "nenhum elevador foi registrado" : "o elevador " + copia.getNumero() + " nao existe") + ". Verifique o agendamento.");
+                inconsistencias++;
+                continue;
+            }
+            agendamento.setElevadorAlocado(elevador);
+            Integer dono = emUso.putIfAbsent(elevador.getNumero(), agendamento.getIdAgendamento());
+            if (dono != null) {
+                System.out.println("Reconciliacao: O elevador " + elevador.getNumero() + " esta alocado aos agendamentos "
+                        + dono + " e " + agendamento.getIdAgendamento() + ".");
+                duplicados.add(agendamento);
+            }
+        }
+        inconsistencias += gerenciadorElevadores.reconciliarOcupacao(emUso);
+        // Os duplicados so sao transferidos depois que a ocupacao foi reconstruida, para nao receberem um elevador em uso.
+        for (Agendamento agendamento : duplicados) {
+            inconsistencias++;
+            int numeroAnterior = agendamento.getElevadorAlocado().getNumero();
+            if (gerenciadorElevadores.alocarElevadorPorTipo(agendamento, agendamento.getElevadorAlocado().getTipo())) {
+                salvar(agendamento);
+                System.out.println("Reconciliacao: O agendamento " + agendamento.getIdAgendamento() + " foi transferido do elevador "
+                        + numeroAnterior + " para o elevador " + agendamento.getElevadorAlocado().getNumero() + ".");
+            } else {
+                System.out.println("Reconciliacao: Nao ha outro elevador livre para o agendamento " + agendamento.getIdAgendamento()
+                        + ". Verifique o agendamento.");
+            }
+        }
+        return inconsistencias;
+    }
+
+    /**
+     * Retorna os agendamentos ativos com o status informado, em ordem de ID.
+     * Consulta o indice do status, sem percorrer os demais agendamentos.
+     * @param status O status desejado.
+     * @return Uma nova lista com os agendamentos do status (vazia se nao houver).
+     */
+    public synchronized List<Agendamento> listarPorStatus(StatusAgendamento status) {
+        List<Agendamento> doStatus = agendamentosPorStatus.get(status).valores();
+        doStatus.sort(Comparator.comparingInt(Agendamento::getIdAgendamento));
+        return doStatus;
+    }
+
+    /**
+     * Retorna quantos agendamentos ativos estao com o status informado.
+     * @param status O status desejado.
+     * @return A quantidade de agendamentos do status.
+     */
+    public synchronized int contarPorStatus(StatusAgendamento status) {
+        return agendamentosPorStatus.get(status).tamanho();
+    }
+
+    /**
+     * Retorna os agendamentos ativos com data/hora no intervalo [inicio, fim), em ordem de data.
+     * @param inicio O inicio do intervalo (inclusive).
+     * @param fim O fim do intervalo (exclusive).
+     * @return Uma nova lista com os agendamentos do intervalo.
+     */
+    public synchronized List<Agendamento> listarEntre(LocalDateTime inicio, LocalDateTime fim) {
+        return agenda.entre(inicio, fim);
+    }
+
+    /**
+     * Retorna os agendamentos ativos de um dia, em ordem de horario.
+     * @param dia O dia desejado.
+     * @return Uma nova lista com os agendamentos do dia.
+     */
+    public synchronized List<Agendamento> listarAgendaDoDia(LocalDate dia) {
+        return agenda.entre(dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Retorna os proximos agendamentos ativos a partir de um instante, em ordem de data.
+     * @param aPartirDe O instante inicial (inclusive).
+     * @param quantidade A quantidade maxima de agendamentos.
+     * @return Uma nova lista com ate {@code quantidade} agendamentos.
+     */
+    public synchronized List<Agendamento> listarProximos(LocalDateTime aPartirDe, int quantidade) {
+        return agenda.proximos(aPartirDe, quantidade);
+    }
+
+    /**
+     * Exibe a agenda de um dia informado pelo usuario (vazio para hoje).
+     */
+    private void exibirAgendaDoDia(Scanner scanner) {
+        System.out.print("Digite o dia (formato dd/MM/yyyy, vazio para hoje): ");
+        String texto = scanner.nextLine().trim();
+        LocalDate dia;
+        try {
+            dia = texto.isEmpty() ? LocalDate.now() : LocalDate.parse(texto, DateTimeFormatter.ofPattern("dd/MM/yyyy"));
+        } catch (DateTimeParseException e) {
+            System.out.println("Formato de data invalido. Use dd/MM/yyyy");
+            return;
+        }
+        exibirLista("=== AGENDA DE " + dia.format(DateTimeFormatter.ofPattern("dd/MM/yyyy")) + " ===", listarAgendaDoDia(dia));
+    }
+
+    /**
+     * Exibe os proximos agendamentos a partir de agora.
+     */
+    private void exibirProximosAgendamentos(Scanner scanner) {
+        System.out.print("Quantos agendamentos deseja ver? ");
+        try {
+            int quantidade = Integer.parseInt(scanner.nextLine().trim());
+            exibirLista("=== PROXIMOS AGENDAMENTOS ===", listarProximos(LocalDateTime.now(), quantidade));
+        } catch (NumberFormatException e) {
+            System.out.println("Erro: Por favor, digite um numero valido.");
+        }
+    }
+
+    /**
+     * Exibe os agendamentos de um periodo informado pelo usuario (as duas datas inclusive).
+     */
+    private void exibirAgendamentosNoPeriodo(Scanner scanner) {
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        try {
+            System.out.print("Data inicial (formato dd/MM/yyyy): ");
+            LocalDate inicio = LocalDate.parse(scanner.nextLine().trim(), formato);
+            System.out.print("Data final (formato dd/MM/yyyy): ");
+            LocalDate fim = LocalDate.parse(scanner.nextLine().trim(), formato);
+            exibirLista("=== AGENDAMENTOS DE " + inicio.format(formato) + " A " + fim.format(formato) + " ===",
+                    listarEntre(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay()));
+        } catch (DateTimeParseException e) {
+            System.out.println("Formato de data invalido. Use dd/MM/yyyy");
+        }
+    }
+
+    private void exibirLista(String titulo, List<Agendamento> agendamentos) {
+        System.out.println("\n" + titulo);
+        if (agendamentos.isEmpty()) {
+            System.out.println("Nenhum agendamento encontrado.");
+            return;
+        }
+        for (Agendamento agendamento : agendamentos) {
+            System.out.println(agendamento);
+        }
+    }
+
+    /**
+     * Registra no GerenciadorElevadores as reservas dos agendamentos que ainda vao usar o elevador
+     * (agendados ou em manutencao).
+     */
+    private void registrarReservasDeElevadores() {
+        for (StatusAgendamento status : new StatusAgendamento[] {StatusAgendamento.AGENDADO,
+                StatusAgendamento.EM_MANUTENCAO_SEM_ELEVADOR, StatusAgendamento.EM_MANUTENCAO_COM_ELEVADOR}) {
+            for (Agendamento agendamento : agendamentosPorStatus.get(status).valores()) {
+                gerenciadorElevadores.registrarReserva(agendamento);
+            }
+        }
+    }
+
+    /**
+     * Exibe os agendamentos dos status informados (usado antes de pedir o ID de uma operacao).
+     * @return true se algum agendamento foi exibido.
+     */
+    private boolean exibirPorStatus(StatusAgendamento... status) {
+        boolean encontrou = false;
+        for (StatusAgendamento s : status) {
+            for (Agendamento agendamento : listarPorStatus(s)) {
+                System.out.println(agendamento);
+                encontrou = true;
+            }
+        }
+        if (!encontrou) {
+            System.out.println("\nNenhum agendamento com status " + Arrays.toString(status) + ".");
+        }
+        return encontrou;
+    }
+
+    /**
+     * Avanca o status de um agendamento, movendo-o para o indice do novo status.
+     * @throws IllegalStateException se a transicao nao for permitida (ver {@link StatusAgendamento#podeIrPara}).
+     */
+    private synchronized void mudarStatus(Agendamento agendamento, StatusAgendamento novoStatus) {
+        StatusAgendamento anterior = agendamento.getStatus();
+        agendamento.mudarStatus(novoStatus);
+        agendamentosPorStatus.get(anterior).remover(agendamento);
+        agendamentosPorStatus.get(novoStatus).adicionar(agendamento);
+    }
+
+    /**
+     * Inclui um agendamento novo na lista e nos indices e o grava.
+     */
+    private synchronized void adicionar(Agendamento agendamento) {
+        listaAgendamentos.add(agendamento);
+        indexar(agendamento);
+        repositorio.salvar(agendamento);
+    }
+
+    /**
+     * Grava um agendamento sob o monitor, para que nenhuma outra sessao o altere durante a gravacao.
+     */
+    private synchronized boolean salvar(Agendamento agendamento) {
+        return repositorio.salvar(agendamento);
+    }
+
+    private synchronized boolean salvarVarios(List<Agendamento> agendamentos) {
+        return repositorio.salvarVarios(agendamentos);
+    }
+
+    private synchronized Agendamento buscarAtivo(int idAgendamento) {
+        return indiceAgendamentos.buscar(idAgendamento);
+    }
+
+    private synchronized List<Agendamento> copiarAgendamentos() {
+        return new ArrayList<>(listaAgendamentos);
+    }
+
+    private synchronized List<Agendamento> listarEmOrdemDeData() {
+        return agenda.emOrdem();
+    }
+
+    /**
+     * Avanca o status se o fluxo ainda permitir, conferindo e mudando sob o monitor: de duas sessoes que
+     * operam o mesmo agendamento, so a primeira avanca.
+     * @return true se o status mudou, false se o agendamento ja estava em outro status.
+     */
+    private synchronized boolean avancarStatus(Agendamento agendamento, StatusAgendamento novoStatus) {
+        if (!agendamento.getStatus().podeIrPara(novoStatus)) {
+            return false;
+        }
+        mudarStatus(agendamento, novoStatus);
+        return true;
+    }
+
+    /**
+     * Desfaz o inicio de um servico que falhou depois de o status avancar: libera o elevador, se chegou a ser
+     * alocado, e devolve o agendamento para 'Agendado'. Deve ser chamado com a trava de ocupacao.
+     */
+    private void desfazerInicio(Agendamento agendamento) {
+        if (agendamento.getElevadorAlocado() != null) {
+            gerenciadorElevadores.liberarElevadorDoAgendamento(agendamento);
+        }
+        reverterInicio(agendamento);
+    }
+
+    /**
+     * Devolve para 'Agendado' um agendamento cujo inicio falhou ao alocar o elevador (fora do fluxo normal,
+     * que nao volta status).
+     */
+    private synchronized void reverterInicio(Agendamento agendamento) {
+        agendamentosPorStatus.get(agendamento.getStatus()).remover(agendamento);
+        agendamento.setStatus(StatusAgendamento.AGENDADO);
+        agendamentosPorStatus.get(StatusAgendamento.AGENDADO).adicionar(agendamento);
+    }
+
+    private synchronized void indexar(Agendamento agendamento) {
+        indiceAgendamentos.adicionar(agendamento);
+        agenda.adicionar(agendamento);
+        agendamentosPorStatus.get(agendamento.getStatus()).adicionar(agendamento);
+    }
+
+    private synchronized void desindexar(Agendamento agendamento) {
+        indiceAgendamentos.remover(agendamento);
+        agenda.remover(agendamento);
+        agendamentosPorStatus.get(agendamento.getStatus()).remover(agendamento);
+    }
+
+    /**
+     * Reconstroi o indice por ID, os indices por status e a agenda a partir da lista (usado apos o carregamento).
+     */
+    private void reconstruirIndices() {
+        indiceAgendamentos.reconstruir(Collections.emptyList());
+        agenda.reconstruir(Collections.emptyList());
+        for (StatusAgendamento status : StatusAgendamento.values()) {
+            agendamentosPorStatus.put(status, new IndiceId<>(Agendamento::getIdAgendamento));
+        }
+        for (Agendamento agendamento : listaAgendamentos) {
+            indexar(agendamento);
+        }
+    }
+
     /**
      * Retorna a lista completa de agendamentos.
-     * @return Uma {@code List} de objetos Agendamento.
+     * @return Uma copia da {@code List} de objetos Agendamento.
      */
-    public List<Agendamento> getListaAgendamentos() {
-        return this.listaAgendamentos;
+    public synchronized List<Agendamento> getListaAgendamentos() {
+        return new ArrayList<>(this.listaAgendamentos);
     }
 
      /**
@@ -446,48 +1084,29 @@ public class GerenciadorAgendamentos {
      * @return O proximo ID inteiro disponivel.
      */
     private int gerarProximoIdAgendamento() {
-        if (listaAgendamentos == null || listaAgendamentos.isEmpty()) {
-            return 1;
-        }
-        return listaAgendamentos.stream()
-                .mapToInt(Agendamento::getIdAgendamento)
-                .max()
-                .orElse(0) + 1;
+        return SequenciaIds.proximo(SequenciaIds.AGENDAMENTOS);
     }
 
     /**
-     * Persiste a lista atual de agendamentos no arquivo agendamentos.json.
+     * Persiste a lista completa de agendamentos no repositorio (agendamentos.json por padrao).
      */
-    public void salvarDadosAgendamentos() {
-        try (Writer writer = new FileWriter(ARQUIVO_AGENDAMENTOS_JSON)) {
-            Gson gson = new GsonBuilder()
-                    .setPrettyPrinting()
-                    .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER)
-                    .create();
-            gson.toJson(listaAgendamentos, writer);
-        } catch (IOException e) {
-            System.err.println("GerenciadorAgendamentos: Erro ao salvar dados: " + e.getMessage());
+    public synchronized void salvarDadosAgendamentos() {
+        if (!repositorio.salvarTodos(listaAgendamentos)) {
+            System.err.println("GerenciadorAgendamentos: Erro ao salvar dados.");
         }
     }
 
     /**
-     * Carrega a lista de agendamentos a partir do arquivo agendamentos.json.
+     * Carrega a lista de agendamentos do repositorio.
      * @return Uma {@code List<Agendamento>} com os dados carregados ou uma lista vazia.
      */
     private List<Agendamento> carregarDadosAgendamentos() {
-        try (Reader reader = new FileReader(ARQUIVO_AGENDAMENTOS_JSON)) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER)
-                    .create();
-            List<Agendamento> agendamentos = gson.fromJson(reader, new TypeToken<List<Agendamento>>(){}.getType());
-            System.out.println("GerenciadorAgendamentos: Agendamentos carregados. Total: " + (agendamentos != null ? agendamentos.size() : 0));
-            return agendamentos != null ? agendamentos : new ArrayList<>();
-        } catch (FileNotFoundException e) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorAgendamentos: Arquivo '" + ARQUIVO_AGENDAMENTOS_JSON + "' nao encontrado. Criando lista vazia.");
             return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("GerenciadorAgendamentos: Erro ao carregar dados: " + e.getMessage());
-            return new ArrayList<>();
         }
+        List<Agendamento> agendamentos = repositorio.carregarTodos();
+        System.out.println("GerenciadorAgendamentos: Agendamentos carregados. Total: " + agendamentos.size());
+        return agendamentos;
     }
 }
@@ -0,0 +1,81 @@
+package com.mycompany.sistemaoficina.gerenciadores;
+
+import java.time.LocalDateTime;
+
+/**
+ * Rotina de arquivamento do historico: move para o arquivo morto (segmentos compactados, ver
+ * {@link com.mycompany.sistemaoficina.persistencia.SegmentoCompactado}) as Ordens de Servico e os
+ * agendamentos encerrados ha mais de uma idade configuravel, deixando em memoria apenas o movimento recente.
+ * Os registros arquivados continuam disponiveis para as buscas por ID e para os relatorios.
+ * A idade e lida da propriedade {@value #PROPRIEDADE_DIAS} (padrao {@value #DIAS_PADRAO} dias);
+ * com 0 ou negativo o arquivamento fica desligado.
+ * <p>
+ * Roda pelo menu do gerente. Na abertura do sistema, so roda se {@code -D}{@value #PROPRIEDADE_NA_ABERTURA}{@code =true}:
+ * por padrao, abrir o sistema nao regrava os dados.
+ * @author santo
+ */
+public class GerenciadorArquivamento {
+
+    /**
+     * Propriedade de sistema com a idade minima, em dias, dos registros arquivados.
+     */
+    public static final String PROPRIEDADE_DIAS = "sistemaoficina.arquivamento.dias";
+
+    /**
+     * Idade minima padrao, em dias.
+     */
+    public static final int DIAS_PADRAO = 180;
+
+    /**
+     * Propriedade de sistema que liga o arquivamento automatico na abertura do sistema (padrao: desligado).
+     */
+    public static final String PROPRIEDADE_NA_ABERTURA = "sistemaoficina.arquivamento.naAbertura";
+
+    private final GerenciadorAgendamentos gerenciadorAgendamentos;
+    private final GerenciadorOrdensDeServico gerenciadorOS;
+
+    /**
+     * Construtor do GerenciadorArquivamento.
+     * @param gerenciadorAgendamentos Instancia principal do GerenciadorAgendamentos.
+     * @param gerenciadorOS Instancia principal do GerenciadorOrdensDeServico.
+     */
+    public GerenciadorArquivamento(GerenciadorAgendamentos gerenciadorAgendamentos, GerenciadorOrdensDeServico gerenciadorOS) {
+        this.gerenciadorAgendamentos = gerenciadorAgendamentos;
+        this.gerenciadorOS = gerenciadorOS;
+    }
+
+    /**
+     * Arquiva as OS e os agendamentos entregues ou cancelados mais antigos que a idade configurada.
+     * Pode ser chamado a qualquer momento; registros ja arquivados nao sao regravados.
+     */
+    public void executar() {
+        int dias = diasParaArquivar();
+        if (dias <= 0) {
+            return;
+        }
+        LocalDateTime limite = LocalDateTime.now().minusDays(dias);
+        int ordens = gerenciadorOS.arquivarHistorico(limite);
+        int agendamentos = gerenciadorAgendamentos.arquivarEncerrados(limite);
+        if (ordens > 0 || agendamentos > 0) {
+            System.out.println("GerenciadorArquivamento: " + ordens + " OS e " + agendamentos
+                    + " agendamentos anteriores a " + limite.toLocalDate() + " arquivados.");
+        }
+    }
+
+    /**
+     * Executa o arquivamento na abertura do sistema, se a propriedade {@value #PROPRIEDADE_NA_ABERTURA} estiver ligada.
+     */
+    public void executarNaAbertura() {
+        if (Boolean.getBoolean(PROPRIEDADE_NA_ABERTURA)) {
+            executar();
+        }
+    }
+
+    private static int diasParaArquivar() {
+        try {
+            return Integer.parseInt(System.getProperty(PROPRIEDADE_DIAS, Integer.toString(DIAS_PADRAO)).trim());
+        } catch (NumberFormatException e) {
+            return DIAS_PADRAO;
+        }
+    }
+}
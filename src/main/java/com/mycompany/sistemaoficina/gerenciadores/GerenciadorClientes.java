@@ -1,13 +1,12 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.mycompany.sistemaoficina.Clientes;
 import com.mycompany.sistemaoficina.Veiculo; // Importe a classe Veiculo
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Scanner;
@@ -23,16 +22,19 @@ public class GerenciadorClientes {
     private static final String ARQUIVO_CLIENTES_JSON = "clientes.json";
     private final List<Clientes> listaClientes;
     private final Scanner scanner; // Instância única do Scanner para toda a classe
-    private final Gson gson;       // Instância única do Gson para performance
+    private final Repositorio<Clientes> repositorio; // JSON ou armazenamento paginado
+    private final IndiceId<Clientes> indiceClientes = new IndiceId<>(Clientes::getId); // Busca O(1) por ID
 
     /**
      * Construtor que inicializa o gerenciador.
-     * Instancia o Scanner, o Gson e carrega os clientes do arquivo JSON.
+     * Instancia o Scanner, abre o repositorio e carrega os clientes.
      */
     public GerenciadorClientes() {
         this.scanner = new Scanner(System.in);
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
+        this.repositorio = Repositorios.abrir(ARQUIVO_CLIENTES_JSON, Clientes.class, Clientes::getId);
         this.listaClientes = carregarDadosDoArquivo();
+        this.indiceClientes.reconstruir(this.listaClientes);
+        SequenciaIds.semear(SequenciaIds.CLIENTES, this.listaClientes, Clientes::getId);
     }
 
     // --- PONTO DE ENTRADA E MENU PRINCIPAL ---
@@ -98,7 +100,8 @@ public class GerenciadorClientes {
         novoCliente.adicionarVeiculo(novoVeiculo); // Usa o método do modelo para adicionar
 
         this.listaClientes.add(novoCliente);
-        salvarDadosNoArquivo();
+        this.indiceClientes.adicionar(novoCliente);
+        this.repositorio.salvar(novoCliente);
         System.out.println("\nCliente '" + novoCliente.getNome() + "' cadastrado e salvo com sucesso!");
     }
 
@@ -135,7 +138,7 @@ public class GerenciadorClientes {
             gerenciarVeiculosDoCliente(clienteParaEditar);
         }
 
-        salvarDadosNoArquivo();
+        this.repositorio.salvar(clienteParaEditar);
         System.out.println("\nCliente atualizado com sucesso!");
     }
 
@@ -154,7 +157,8 @@ public class GerenciadorClientes {
 
         if (confirmacao.equalsIgnoreCase("s")) {
             this.listaClientes.remove(clienteParaExcluir);
-            salvarDadosNoArquivo();
+            this.indiceClientes.remover(clienteParaExcluir);
+            this.repositorio.remover(clienteParaExcluir.getId());
             System.out.println("Cliente excluido com sucesso.");
         } else {
             System.out.println("Exclusao cancelada.");
@@ -225,10 +229,9 @@ public class GerenciadorClientes {
         System.out.print("\nDigite o ID do cliente desejado: ");
         try {
             int idBusca = Integer.parseInt(scanner.nextLine());
-            for (Clientes cliente : this.listaClientes) {
-                if (cliente.getId() == idBusca) {
-                    return cliente;
-                }
+            Clientes cliente = buscarClientePorId(idBusca);
+            if (cliente != null) {
+                return cliente;
             }
             System.out.println("Erro: Cliente com ID " + idBusca + " nao encontrado.");
             return null;
@@ -263,19 +266,11 @@ public class GerenciadorClientes {
     }
     
     /**
-     * Gera o próximo ID sequencial com base no maior ID existente na lista.
+     * Gera o próximo ID sequencial a partir da sequencia persistida de clientes (O(1)).
      * @return O próximo ID disponível.
      */
     private int gerarProximoId() {
-        // Se a lista estiver vazia, o primeiro ID será 1
-        if (listaClientes.isEmpty()) {
-            return 1;
-        }
-        // Encontra o maior ID atual e retorna o próximo número
-        return listaClientes.stream()
-                .mapToInt(Clientes::getId)
-                .max()
-                .orElse(0) + 1;
+        return SequenciaIds.proximo(SequenciaIds.CLIENTES);
     }
     
      /**
@@ -289,17 +284,12 @@ public class GerenciadorClientes {
 
     /**
      * Busca e retorna um cliente pelo seu ID.
-     * Método público para ser usado por outras partes do sistema.
+     * Usa o indice por ID, portanto a busca e O(1) independentemente do numero de clientes.
      * @param idBusca O ID do cliente a ser procurado.
      * @return O objeto Cliente encontrado, ou null se não existir.
      */
     public Clientes buscarClientePorId(int idBusca) {
-        for (Clientes cliente : this.listaClientes) {
-            if (cliente.getId() == idBusca) {
-                return cliente;
-            }
-        }
-        return null;
+        return indiceClientes.buscar(idBusca);
     }
 
     /**
@@ -352,34 +342,24 @@ public class GerenciadorClientes {
     // --- PERSISTÊNCIA DE DADOS (JSON) ---
 
     /**
-     * Carrega a lista de clientes a partir do arquivo JSON.
-     * @return Uma lista de clientes preenchida ou uma lista vazia se o arquivo não existir.
+     * Carrega a lista de clientes do repositorio.
+     * @return Uma lista de clientes preenchida ou uma lista vazia se nao houver dados.
      */
     private List<Clientes> carregarDadosDoArquivo() {
-        File arquivo = new File(ARQUIVO_CLIENTES_JSON);
-        if (!arquivo.exists()) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorClientes: Arquivo de dados nao encontrado. Iniciando com lista vazia.");
-            return new ArrayList<>();
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(arquivo))) {
-            List<Clientes> clientes = gson.fromJson(reader, new TypeToken<List<Clientes>>() {}.getType());
-            System.out.println("GerenciadorClientes: Dados carregados. Total: " + (clientes != null ? clientes.size() : 0) + " clientes.");
-            return clientes != null ? clientes : new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("GerenciadorClientes: Erro critico ao carregar dados: " + e.getMessage());
-            return new ArrayList<>(); // Retorna lista vazia em caso de erro
         }
+        List<Clientes> clientes = repositorio.carregarTodos();
+        System.out.println("GerenciadorClientes: Dados carregados. Total: " + clientes.size() + " clientes.");
+        return clientes;
     }
 
     /**
-     * Salva a lista de clientes em arquivo Json
+     * Salva a lista completa de clientes no repositorio.
      */
     public void salvarDadosNoArquivo() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO_CLIENTES_JSON))) {
-            gson.toJson(this.listaClientes, writer);
-        } catch (IOException e) {
-            System.err.println("GerenciadorClientes: Erro critico ao salvar dados: " + e.getMessage());
+        if (!repositorio.salvarTodos(this.listaClientes)) {
+            System.err.println("GerenciadorClientes: Erro critico ao salvar dados.");
         }
     }
 }
\ No newline at end of file
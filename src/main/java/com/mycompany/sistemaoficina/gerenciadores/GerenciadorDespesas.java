@@ -1,17 +1,16 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Dinheiro;
 import com.mycompany.sistemaoficina.Despesa;
+import com.mycompany.sistemaoficina.indices.TotaisPorPeriodo;
+import com.mycompany.sistemaoficina.persistencia.RepositorioParticionado;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Scanner;
 
@@ -22,44 +21,57 @@ import java.util.Scanner;
 public class GerenciadorDespesas {
 
     private List<Despesa> listaDespesas;
-    private static final String ARQUIVO_DESPESAS_JSON = "despesas.json";
+    // Despesas acumuladas por dia/mes, atualizadas a cada lancamento (usadas nos relatorios).
+    private final TotaisPorPeriodo totaisDespesas = new TotaisPorPeriodo();
+    // Pasta das particoes mensais (despesas/2025-03.json, ...) e nome do arquivo unico antigo.
+    private static final String PASTA_DESPESAS = "despesas";
+    private final RepositorioParticionado<Despesa> repositorio = new RepositorioParticionado<>(PASTA_DESPESAS,
+            Despesa.class, Despesa::getIdDespesa, Despesa::getData, despesa -> false);
 
-    /**
-     * Adaptador para que a biblioteca Gson saiba como lidar com LocalDateTime.
-     */
-    private static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME_ADAPTER = new TypeAdapter<>() {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        @Override
-        public void write(JsonWriter out, LocalDateTime value) throws IOException {
-            if (value == null) {
-                out.nullValue();
-            } else {
-                out.value(value.format(formatter));
-            }
-        }
-        @Override
-        public LocalDateTime read(JsonReader in) throws IOException {
-            if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull();
-                return null;
-            }
-            return LocalDateTime.parse(in.nextString(), formatter);
-        }
-    };
-    
  /**
- * Retorna a lista de todas as Despesas.
+ * Retorna a lista das Despesas carregadas: as do mes atual e as dos meses ja consultados
+ * (ver {@link #carregarPeriodo}).
  * @return A lista de objetos Despesa.
  */
 public List<Despesa> getListaDespesas() {
     return this.listaDespesas;
 }
+
+    /**
+     * Retorna os totais de despesas acumulados por dia e por mes.
+     * @return Os totais de despesas, atualizados a cada lancamento.
+     */
+    public TotaisPorPeriodo getTotaisDespesas() {
+        return totaisDespesas;
+    }
     
      /**
-     * Construtor. Carrega as despesas do arquivo JSON ao iniciar.
+     * Construtor. Carrega as despesas do mes atual ao iniciar; os meses anteriores sao carregados sob demanda.
      */
     public GerenciadorDespesas() {
-        this.listaDespesas = carregarDadosDespesas();
+        this.listaDespesas = new ArrayList<>();
+        incorporar(carregarDadosDespesas());
+        SequenciaIds.semear(SequenciaIds.DESPESAS, repositorio.getMaiorId());
+    }
+
+    /**
+     * Carrega as despesas dos meses de um periodo que ainda nao estao em memoria, incluindo-as nos totais.
+     * Deve ser chamado antes de consultar periodos antigos.
+     * @param inicio A data inicial do periodo.
+     * @param fim A data final do periodo (inclusive).
+     */
+    public synchronized void carregarPeriodo(LocalDate inicio, LocalDate fim) {
+        incorporar(repositorio.carregarPeriodo(YearMonth.from(inicio), YearMonth.from(fim)));
+    }
+
+    /**
+     * Inclui na lista e nos totais as despesas lidas do repositorio.
+     */
+    private void incorporar(List<Despesa> despesas) {
+        for (Despesa despesa : despesas) {
+            this.listaDespesas.add(despesa);
+            totaisDespesas.registrar(despesa.getData(), despesa.getValorCentavos());
+        }
     }
     
     /**
@@ -113,14 +125,15 @@ public List<Despesa> getListaDespesas() {
             String categoria = scanner.nextLine();
 
             System.out.print("Valor da despesa (ex: 350.50): ");
-            double valor = Double.parseDouble(scanner.nextLine());
+            long valor = Dinheiro.ler(scanner.nextLine());
 
             int novoId = gerarProximoIdDespesa();
             // A data da despesa e o momento atual do lancamento
             Despesa novaDespesa = new Despesa(novoId, descricao, valor, LocalDateTime.now(), categoria);
             
             this.listaDespesas.add(novaDespesa);
-            salvarDadosDespesas();
+            totaisDespesas.registrar(novaDespesa.getData(), novaDespesa.getValorCentavos());
+            repositorio.salvar(novaDespesa);
             System.out.println("Despesa lancada e salva com sucesso!");
 
         } catch (NumberFormatException e) {
@@ -131,7 +144,10 @@ public List<Despesa> getListaDespesas() {
     /**
       * Exibe no console uma lista formatada de todas as despesas registradas.
       */
-     private void listarDespesas() {
+     private synchronized void listarDespesas() {
+        // A listagem mostra o historico inteiro, entao os meses que faltam sao carregados agora.
+        incorporar(repositorio.carregarRestantes());
+        this.listaDespesas.sort(Comparator.comparingInt(Despesa::getIdDespesa));
         System.out.println("\n--- LISTA DE DESPESAS LANCADAS ---");
         if (this.listaDespesas.isEmpty()) {
             System.out.println("Nenhuma despesa lancada ate o momento.");
@@ -148,53 +164,22 @@ public List<Despesa> getListaDespesas() {
       * @return O proximo ID inteiro disponivel.
       */
      private int gerarProximoIdDespesa() {
-        if (listaDespesas.isEmpty()) {
-            return 1;
-        }
-        return listaDespesas.stream()
-                .mapToInt(Despesa::getIdDespesa)
-                .max()
-                .orElse(0) + 1;
+        return SequenciaIds.proximo(SequenciaIds.DESPESAS);
     }
      
    /**
-    * Persiste a lista atual de despesas no arquivo despesas.json.
-    */
-   private void salvarDadosDespesas() {
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER)
-                .create();
-        try (Writer writer = new FileWriter(ARQUIVO_DESPESAS_JSON)) {
-            gson.toJson(this.listaDespesas, writer);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar despesas: " + e.getMessage());
-        }
-    }
-   
-   /**
-     * Carrega a lista de despesas a partir do arquivo despesas.json.
-     * Se o arquivo nao for encontrado, inicializa uma lista vazia.
+     * Carrega as despesas do mes atual do repositorio (particoes mensais em despesas/ por padrao).
+     * Se nao houver dados gravados, inicializa uma lista vazia.
      * @return Uma {@code List<Despesa>} com os dados carregados ou uma lista vazia.
      */
    private List<Despesa> carregarDadosDespesas() {
-        try (Reader reader = new FileReader(ARQUIVO_DESPESAS_JSON)) {
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER)
-                    .create();
-            List<Despesa> despesas = gson.fromJson(reader, new TypeToken<List<Despesa>>(){}.getType());
-            System.out.println("GerenciadorDespesas: " + (despesas != null ? despesas.size() : 0) + " despesas carregadas.");
-            return despesas != null ? despesas : new ArrayList<>();
-        } catch (FileNotFoundException e) {
-            System.out.println("GerenciadorDespesas: Arquivo 'despesas.json' nao encontrado.");
-            return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("Erro ao carregar despesas: " + e.getMessage());
+        if (!repositorio.existe()) {
+            System.out.println("GerenciadorDespesas: Pasta '" + PASTA_DESPESAS + "/' nao encontrada.");
             return new ArrayList<>();
         }
+        List<Despesa> despesas = repositorio.carregarIniciais(YearMonth.now());
+        System.out.println("GerenciadorDespesas: " + despesas.size() + " despesas carregadas ("
+                + repositorio.getParticoesCarregadas() + " de " + repositorio.getQuantidadeParticoes() + " meses).");
+        return despesas;
     }
 }
-    
-
-
-            
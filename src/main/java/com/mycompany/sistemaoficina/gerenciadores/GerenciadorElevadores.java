@@ -1,23 +1,78 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.mycompany.sistemaoficina.Agendamento;
 import com.mycompany.sistemaoficina.Elevador;
+import com.mycompany.sistemaoficina.TipoElevador;
+import com.mycompany.sistemaoficina.indices.ReservasPorIntervalo;
+import com.mycompany.sistemaoficina.persistencia.GravacaoAdiada;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
 
-import java.io.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Classe responsavel por gerenciar os elevadores da oficina.
- * Armazena e controla o estado dos 3 elevadores fixos do sistema,
- * com persistencia de dados em JSON.
+ * Armazena e controla o estado da frota de elevadores, com persistencia de dados em JSON.
+ * A frota e configuravel pela propriedade {@value #PROPRIEDADE_FROTA} (ex: "FIXO=2,CORRIQUEIRO=12",
+ * padrao {@value #FROTA_PADRAO}): na carga, os tipos com menos elevadores do que o configurado ganham
+ * elevadores novos, numerados depois do maior numero existente. Elevadores nunca sao removidos pela configuracao.
+ * Alem da ocupacao atual, controla as reservas de cada elevador por horario ({@link ReservasPorIntervalo}):
+ * o agendamento reserva um elevador do tipo necessario para o seu horario, e o inicio do servico usa
+ * o elevador reservado. A duracao padrao de uma reserva e lida da propriedade {@value #PROPRIEDADE_DURACAO}
+ * (padrao {@value #DURACAO_PADRAO_MINUTOS} minutos).
+ * A ocupacao dos elevadores pode ser disputada por varios atendimentos ao mesmo tempo: cada tipo tem uma
+ * fila de elevadores livres (alocacao em O(1) por tipo) e a posse de um elevador e decidida por compare-and-set ({@link Elevador#tentarOcupar()}),
+ * sem travar o gerenciador. Somente o calendario de reservas, que nao e thread-safe, e acessado sob o monitor.
  * @author santo
  */
 public class GerenciadorElevadores {
 
+    /**
+     * Propriedade de sistema com a duracao padrao, em minutos, de uma reserva de elevador.
+     */
+    public static final String PROPRIEDADE_DURACAO = "sistemaoficina.elevadores.duracaoReservaMinutos";
+
+    /**
+     * Duracao padrao de uma reserva de elevador, em minutos.
+     */
+    public static final int DURACAO_PADRAO_MINUTOS = 120;
+
+    /**
+     * Propriedade de sistema com a quantidade de elevadores de cada tipo (ex: "FIXO=2,CORRIQUEIRO=12").
+     */
+    public static final String PROPRIEDADE_FROTA = "sistemaoficina.elevadores.frota";
+
+    /**
+     * Frota usada quando a propriedade nao e informada: 1 elevador fixo e 2 corriqueiros.
+     */
+    public static final String FROTA_PADRAO = "FIXO=1,CORRIQUEIRO=2";
+
     private Elevador[] elevadores;
+    private final Map<Integer, Elevador> elevadoresPorNumero = new HashMap<>();
+    private final Map<TipoElevador, List<Elevador>> elevadoresPorTipo = new EnumMap<>(TipoElevador.class);
+    private final ReservasPorIntervalo reservas = new ReservasPorIntervalo();
     private static final String ARQUIVO_ELEVADORES_JSON = "elevadores.json";
+    private final Repositorio<Elevador> repositorio = Repositorios.abrir(ARQUIVO_ELEVADORES_JSON, Elevador.class, Elevador::getNumero);
+    // Elevadores livres de cada tipo. Uma entrada pode estar velha (elevador ocupado por outro caminho):
+    // quem retira da fila so fica com o elevador se conseguir ocupa-lo por compare-and-set.
+    // Todas as filas sao criadas no construtor; depois disso o mapa so e lido, entao um EnumMap basta.
+    private final Map<TipoElevador, ConcurrentLinkedQueue<Elevador>> livresPorTipo = new EnumMap<>(TipoElevador.class);
+    // Elevadores alocados ou liberados que aguardam a gravacao adiada.
+    private final Map<Integer, Elevador> elevadoresPendentes = new ConcurrentHashMap<>();
+    // Impede duas gravacoes dos pendentes ao mesmo tempo, sem travar a alocacao.
+    private final Object travaGravacao = new Object();
 
     /**
      * Construtor do GerenciadorElevadores.
@@ -25,42 +80,259 @@ public class GerenciadorElevadores {
      */
     public GerenciadorElevadores() {
         this.elevadores = carregarDadosElevadores();
+        for (TipoElevador tipo : TipoElevador.values()) {
+            elevadoresPorTipo.put(tipo, new ArrayList<>());
+            livresPorTipo.put(tipo, new ConcurrentLinkedQueue<>());
+        }
+        for (Elevador elevador : elevadores) {
+            elevadoresPorNumero.put(elevador.getNumero(), elevador);
+            if (elevador.getTipo() == null) {
+                System.err.println("GerenciadorElevadores: Elevador " + elevador.getNumero() + " sem tipo; ele nao sera alocado.");
+                continue;
+            }
+            elevadoresPorTipo.get(elevador.getTipo()).add(elevador);
+            if (!elevador.isOcupado()) {
+                livresPorTipo.get(elevador.getTipo()).offer(elevador);
+            }
+        }
     }
     
     /**
      * Aloca o primeiro elevador disponivel de um TIPO especifico para um agendamento.
-     * Este metodo verifica tanto o tipo do elevador quanto o seu estado de ocupacao.
+     * Este metodo verifica o tipo do elevador, o seu estado de ocupacao e se ele nao esta reservado
+     * para outro agendamento pela duracao padrao a partir de agora (o periodo passa a ser reservado).
+     * Pode ser chamado por varias threads: cada elevador livre e entregue a no maximo um agendamento.
      * @param agendamento O agendamento que requer um elevador.
-     * @param tipoBuscado O tipo de elevador desejado (ex: "Fixo" ou "Corriqueiro").
+     * @param tipo O tipo de elevador desejado.
      * @return true se um elevador do tipo correto foi alocado, false caso contrario.
      */
-    public boolean alocarElevadorPorTipo(Agendamento agendamento, String tipoBuscado) {
-        for (Elevador elevador : elevadores) {
-           // A condicao usa 'contains' para ser mais robusta e evitar problemas com espacos ou caracteres especiais
-            if (elevador.getTipo().contains(tipoBuscado) && !elevador.isOcupado()) {
-                elevador.setOcupado(true);
-                agendamento.setElevadorAlocado(elevador);
-                System.out.println("SUCESSO: Elevador " + elevador.getNumero() + " (" + elevador.getTipo() + ") alocado.");
-                salvarDadosElevadores(); // Salva o estado imediatamente
-                return true;
+    public boolean alocarElevadorPorTipo(Agendamento agendamento, TipoElevador tipo) {
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime fim = agora.plus(duracaoPadraoReserva());
+        List<Elevador> reservadosParaOutros = new ArrayList<>();
+        try {
+            Elevador elevador;
+            while ((elevador = retirarLivre(tipo)) != null) {
+                if (reservarAgora(elevador, agendamento, agora, fim)) {
+                    ocupar(agendamento, elevador);
+                    return true;
+                }
+                // Livre agora, mas reservado para outro agendamento: fica de lado ate o fim da busca.
+                reservadosParaOutros.add(elevador);
+            }
+        } finally {
+            for (Elevador elevador : reservadosParaOutros) {
+                devolver(elevador);
             }
         }
         // Esta mensagem e exibida se o loop terminar sem encontrar um elevador do tipo correto que esteja livre.
-        System.out.println("FALHA: Nenhum elevador do tipo '" + tipoBuscado + "' esta disponivel no momento.");
+        System.out.println("FALHA: Nenhum elevador do tipo '" + tipo + "' esta disponivel no momento.");
         return false;
     }
 
     /**
-     * Libera o elevador que esta associado a um agendamento.
+     * Aloca para o inicio do servico o elevador que o agendamento reservou. A reserva passa a valer a partir
+     * de agora (ate o fim previsto, ou pela duracao padrao se ele ja passou), com a mesma verificacao de
+     * conflito de {@link #alocarElevadorPorTipo}: um inicio antecipado nao pode invadir a reserva de outro
+     * agendamento no mesmo elevador. Se ele ainda estiver ocupado (ex: o servico anterior atrasou) ou se o
+     * periodo conflitar, tenta outro elevador do mesmo tipo.
+     * @param agendamento O agendamento com reserva de elevador.
+     * @return true se um elevador foi alocado, false caso contrario.
+     */
+    public boolean alocarElevadorReservado(Agendamento agendamento) {
+        Elevador reservado = buscarElevadorPorNumero(agendamento.getNumeroElevadorReservado());
+        if (reservado == null) {
+            System.out.println("FALHA: O elevador reservado (" + agendamento.getNumeroElevadorReservado() + ") nao existe mais.");
+            return false;
+        }
+        if (reservado.tentarOcupar()) {
+            LocalDateTime agora = LocalDateTime.now();
+            LocalDateTime fim = agendamento.getFimPrevisto() != null && agendamento.getFimPrevisto().isAfter(agora)
+                    ? agendamento.getFimPrevisto() : agora.plus(duracaoPadraoReserva());
+            if (reservarAgora(reservado, agendamento, agora, fim)) {
+                // A entrada na fila de livres fica velha; remove-la e so uma economia para quem busca por tipo.
+                livresPorTipo.get(reservado.getTipo()).remove(reservado);
+                ocupar(agendamento, reservado);
+                return true;
+            }
+            devolver(reservado);
+            System.out.println("Elevador reservado " + reservado.getNumero() + " ja esta reservado para outro agendamento agora. Procurando outro do mesmo tipo...");
+        } else {
+            System.out.println("Elevador reservado " + reservado.getNumero() + " ainda ocupado. Procurando outro do mesmo tipo...");
+        }
+        return alocarElevadorPorTipo(agendamento, reservado.getTipo());
+    }
+
+    /**
+     * Reserva um elevador do tipo pedido para o horario de um agendamento.
+     * @param agendamento O agendamento (recebe o numero do elevador, o inicio da reserva e o fim previsto).
+     * @param tipo O tipo de elevador desejado.
+     * @param inicio O inicio da reserva.
+     * @param fim O fim da reserva.
+     * @return O elevador reservado, ou null se nenhum elevador do tipo estiver livre no horario.
+     */
+    public synchronized Elevador reservarElevador(Agendamento agendamento, TipoElevador tipo, LocalDateTime inicio, LocalDateTime fim) {
+        for (Elevador elevador : elevadoresPorTipo.get(tipo)) {
+            if (reservas.reservar(elevador.getNumero(), agendamento.getIdAgendamento(), inicio, fim)) {
+                agendamento.setNumeroElevadorReservado(elevador.getNumero());
+                agendamento.setInicioReserva(inicio);
+                agendamento.setFimPrevisto(fim);
+                return elevador;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancela a reserva de elevador de um agendamento (cancelamento ou fim do servico).
+     * @param agendamento O agendamento.
+     */
+    public synchronized void cancelarReserva(Agendamento agendamento) {
+        reservas.cancelar(agendamento.getIdAgendamento());
+        agendamento.setNumeroElevadorReservado(0);
+        agendamento.setInicioReserva(null);
+        agendamento.setFimPrevisto(null);
+    }
+
+    /**
+     * Registra a reserva gravada em um agendamento (usado ao carregar os agendamentos ativos), com o mesmo
+     * intervalo reservado em execucao. Registros gravados antes do inicio da reserva usam o horario do agendamento.
+     * @param agendamento O agendamento com reserva.
+     * @return true se a reserva foi registrada, false se nao havia reserva valida ou se ela conflita com outra.
+     */
+    public synchronized boolean registrarReserva(Agendamento agendamento) {
+        LocalDateTime inicio = agendamento.getInicioReserva() != null ? agendamento.getInicioReserva() : agendamento.getDataHora();
+        if (agendamento.getNumeroElevadorReservado() <= 0 || inicio == null
+                || agendamento.getFimPrevisto() == null || !agendamento.getFimPrevisto().isAfter(inicio)) {
+            return false;
+        }
+        if (!reservas.reservar(agendamento.getNumeroElevadorReservado(), agendamento.getIdAgendamento(),
+                inicio, agendamento.getFimPrevisto())) {
+            System.err.println("GerenciadorElevadores: Reserva do agendamento " + agendamento.getIdAgendamento()
+                    + " conflita com outra reserva do elevador " + agendamento.getNumeroElevadorReservado() + ".");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Conta quantos elevadores de um tipo estao livres (sem reserva) em todo o intervalo.
+     * @param tipo O tipo de elevador.
+     * @param inicio O inicio do intervalo.
+     * @param fim O fim do intervalo.
+     * @return A quantidade de elevadores livres.
+     */
+    public synchronized int contarElevadoresLivres(TipoElevador tipo, LocalDateTime inicio, LocalDateTime fim) {
+        int livres = 0;
+        for (Elevador elevador : elevadoresPorTipo.get(tipo)) {
+            if (reservas.livre(elevador.getNumero(), inicio, fim)) {
+                livres++;
+            }
+        }
+        return livres;
+    }
+
+    /**
+     * Sugere o primeiro horario, a partir do desejado, em que algum elevador do tipo fica livre pela duracao pedida.
+     * @param tipo O tipo de elevador.
+     * @param aPartirDe O horario desejado.
+     * @param duracao A duracao necessaria.
+     * @return O horario sugerido, ou null se nao houver elevador do tipo.
+     */
+    public synchronized LocalDateTime sugerirHorario(TipoElevador tipo, LocalDateTime aPartirDe, Duration duracao) {
+        LocalDateTime melhor = null;
+        for (Elevador elevador : elevadoresPorTipo.get(tipo)) {
+            LocalDateTime livre = reservas.proximoHorarioLivre(elevador.getNumero(), aPartirDe, duracao);
+            if (melhor == null || livre.isBefore(melhor)) {
+                melhor = livre;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Retorna a duracao padrao de uma reserva (propriedade {@value #PROPRIEDADE_DURACAO}).
+     * @return A duracao padrao.
+     */
+    public static Duration duracaoPadraoReserva() {
+        try {
+            long minutos = Long.parseLong(System.getProperty(PROPRIEDADE_DURACAO, Integer.toString(DURACAO_PADRAO_MINUTOS)).trim());
+            return Duration.ofMinutes(minutos > 0 ? minutos : DURACAO_PADRAO_MINUTOS);
+        } catch (NumberFormatException e) {
+            return Duration.ofMinutes(DURACAO_PADRAO_MINUTOS);
+        }
+    }
+
+    /**
+     * Reserva o elevador para o agendamento no intervalo, sob o monitor que protege o calendario de reservas.
+     */
+    private synchronized boolean reservarAgora(Elevador elevador, Agendamento agendamento, LocalDateTime inicio, LocalDateTime fim) {
+        if (!reservas.reservar(elevador.getNumero(), agendamento.getIdAgendamento(), inicio, fim)) {
+            return false;
+        }
+        agendamento.setNumeroElevadorReservado(elevador.getNumero());
+        agendamento.setInicioReserva(inicio);
+        agendamento.setFimPrevisto(fim);
+        return true;
+    }
+
+    /**
+     * Retira da fila de livres um elevador do tipo e o ocupa por compare-and-set.
+     * Entradas de elevadores que ja foram ocupados por outro caminho sao descartadas; eles voltam
+     * para a fila quando forem liberados.
+     * @return O elevador, ja ocupado por quem chamou, ou null se nenhum estiver livre.
+     */
+    private Elevador retirarLivre(TipoElevador tipo) {
+        ConcurrentLinkedQueue<Elevador> fila = livresPorTipo.get(tipo);
+        Elevador elevador;
+        while ((elevador = fila.poll()) != null) {
+            if (elevador.tentarOcupar()) {
+                return elevador;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Libera o elevador por compare-and-set e o devolve para a fila de livres do seu tipo.
+     * @return true se o elevador estava ocupado e foi liberado.
+     */
+    private boolean devolver(Elevador elevador) {
+        if (!elevador.tentarLiberar()) {
+            return false;
+        }
+        if (elevador.getTipo() != null) {
+            livresPorTipo.get(elevador.getTipo()).offer(elevador);
+        }
+        return true;
+    }
+
+    private void ocupar(Agendamento agendamento, Elevador elevador) {
+        agendamento.setElevadorAlocado(elevador);
+        System.out.println("SUCESSO: Elevador " + elevador.getNumero() + " (" + elevador.getTipo() + ") alocado.");
+        agendarGravacao(elevador);
+    }
+
+    /**
+     * Libera o elevador que esta associado a um agendamento e encerra a sua reserva.
      * @param agendamento O agendamento cujo servico foi concluido.
      */
     public void liberarElevadorDoAgendamento(Agendamento agendamento) {
-        Elevador elevadorOcupado = agendamento.getElevadorAlocado();
-        if (elevadorOcupado != null) {
-            elevadorOcupado.setOcupado(false);
+        cancelarReserva(agendamento);
+        Elevador alocado = agendamento.getElevadorAlocado();
+        if (alocado != null) {
+            // O agendamento carregado do arquivo guarda uma copia; o estado vale no elevador do gerenciador.
+            Elevador elevadorOcupado = buscarElevadorPorNumero(alocado.getNumero());
             agendamento.setElevadorAlocado(null); // Limpa a referencia no agendamento
+            if (elevadorOcupado == null) {
+                // Devolver a copia poria na fila de livres um elevador que nao existe na frota.
+                System.err.println("GerenciadorElevadores: Elevador " + alocado.getNumero() + " do agendamento "
+                        + agendamento.getIdAgendamento() + " nao existe mais na frota. Nada a liberar.");
+                return;
+            }
+            devolver(elevadorOcupado);
             System.out.println("SUCESSO: Elevador " + elevadorOcupado.getNumero() + " foi liberado.");
-            salvarDadosElevadores(); // Salva o estado imediatamente
+            agendarGravacao(elevadorOcupado);
         } else {
             // Nenhuma mensagem e necessaria aqui, pois e normal um servico nao usar elevador.
         }
@@ -68,15 +340,15 @@ public class GerenciadorElevadores {
 
     /**
      * Forca a liberacao de um elevador especifico pelo seu numero.
-     * Este e um metodo administrativo para corrigir estados inconsistentes do sistema.
+     * Este e um metodo administrativo para corrigir estados inconsistentes do sistema; a reconciliacao
+     * automatica ({@link GerenciadorReconciliacaoElevadores}) ja libera os elevadores orfaos.
      * @param numeroElevador O numero do elevador a ser liberado.
      */
     public void forcarLiberacao(int numeroElevador) {
         Elevador elevador = buscarElevadorPorNumero(numeroElevador);
-        if (elevador != null && elevador.isOcupado()) {
-            elevador.setOcupado(false);
+        if (elevador != null && devolver(elevador)) {
             System.out.println("Elevador " + numeroElevador + " foi FORCADAMENTE liberado.");
-            salvarDadosElevadores();
+            agendarGravacao(elevador);
         } else if (elevador != null) {
             System.out.println("Elevador " + numeroElevador + " ja esta livre.");
         } else {
@@ -84,6 +356,36 @@ public class GerenciadorElevadores {
         }
     }
 
+    /**
+     * Reconstroi a ocupacao dos elevadores a partir dos elevadores em uso pelos agendamentos em manutencao
+     * (ver {@link GerenciadorAgendamentos#reconciliarElevadores()}): elevadores ocupados sem agendamento (orfaos)
+     * sao liberados e elevadores em uso que constavam como livres passam a ocupados. Custa O(elevadores).
+     * Quem chama garante que nenhuma alocacao ou liberacao esta entre a troca do elevador e a do status
+     * do agendamento; senao um elevador recem-ocupado seria liberado como orfao.
+     * @param emUso Numero do elevador -> ID do agendamento que esta com ele.
+     * @return A quantidade de elevadores corrigidos.
+     */
+    public int reconciliarOcupacao(Map<Integer, Integer> emUso) {
+        int corrigidos = 0;
+        for (Elevador elevador : elevadores) {
+            Integer idAgendamento = emUso.get(elevador.getNumero());
+            if (idAgendamento == null && devolver(elevador)) {
+                System.out.println("Reconciliacao: O elevador " + elevador.getNumero() + " estava ocupado sem nenhum servico em andamento e foi liberado.");
+            } else if (idAgendamento != null && elevador.tentarOcupar()) {
+                if (elevador.getTipo() != null) {
+                    livresPorTipo.get(elevador.getTipo()).remove(elevador);
+                }
+                System.out.println("Reconciliacao: O elevador " + elevador.getNumero() + " constava como livre, mas esta com o agendamento "
+                        + idAgendamento + ". Marcado como ocupado.");
+            } else {
+                continue;
+            }
+            agendarGravacao(elevador);
+            corrigidos++;
+        }
+        return corrigidos;
+    }
+
     /**
      * Exibe o menu para gerenciamento administrativo dos elevadores.
      * @param scanner A instancia do Scanner para ler a entrada do usuario.
@@ -94,6 +396,7 @@ public class GerenciadorElevadores {
             System.out.println("\n=== GESTAO ADMINISTRATIVA DE ELEVADORES ===");
             System.out.println("1. Listar Status dos Elevadores");
             System.out.println("2. Forcar Liberacao de Elevador");
+            System.out.println("3. Consultar Disponibilidade por Horario");
             System.out.println("0. Voltar");
             System.out.print("Escolha uma opcao: ");
 
@@ -118,6 +421,9 @@ public class GerenciadorElevadores {
                         System.out.println("Erro: Numero invalido.");
                     }
                     break;
+                case 3:
+                    consultarDisponibilidade(scanner);
+                    break;
                 case 0:
                     System.out.println("Voltando ao menu anterior...");
                     break;
@@ -127,6 +433,57 @@ public class GerenciadorElevadores {
         } while (opcao != 0);
     }
 
+    /**
+     * Mostra quantos elevadores de um tipo estao livres em um horario e, se nenhum estiver, o proximo horario livre.
+     */
+    private void consultarDisponibilidade(Scanner scanner) {
+        TipoElevador tipo = escolherTipoElevador(scanner);
+        if (tipo == null) {
+            return;
+        }
+        System.out.print("Data e hora (formato dd/MM/yyyy HH:mm): ");
+        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        try {
+            LocalDateTime inicio = LocalDateTime.parse(scanner.nextLine().trim(), formato);
+            Duration duracao = duracaoPadraoReserva();
+            int livres = contarElevadoresLivres(tipo, inicio, inicio.plus(duracao));
+            System.out.println(livres + " elevador(es) do tipo '" + tipo + "' livre(s) das "
+                    + inicio.format(formato) + " as " + inicio.plus(duracao).format(formato) + ".");
+            if (livres == 0) {
+                LocalDateTime sugestao = sugerirHorario(tipo, inicio, duracao);
+                if (sugestao != null) {
+                    System.out.println("Proximo horario livre: " + sugestao.format(formato));
+                }
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Formato de data e hora invalido. Use dd/MM/yyyy HH:mm");
+        }
+    }
+
+    /**
+     * Pergunta o tipo de elevador necessario, listando os tipos cadastrados.
+     * @param scanner A instancia do Scanner para ler a entrada do usuario.
+     * @return O tipo escolhido, ou null se a opcao for invalida.
+     */
+    public TipoElevador escolherTipoElevador(Scanner scanner) {
+        TipoElevador[] tipos = TipoElevador.values();
+        System.out.println("Qual tipo de elevador e necessario?");
+        for (int i = 0; i < tipos.length; i++) {
+            System.out.println((i + 1) + " - " + tipos[i].getDescricao() + " (" + elevadoresPorTipo.get(tipos[i]).size() + " elevador(es))");
+        }
+        System.out.print("Escolha uma opcao: ");
+        try {
+            int opcao = Integer.parseInt(scanner.nextLine().trim());
+            if (opcao >= 1 && opcao <= tipos.length) {
+                return tipos[opcao - 1];
+            }
+        } catch (NumberFormatException e) {
+            // Tratado como opcao invalida abaixo.
+        }
+        System.out.println("Opcao de tipo invalida.");
+        return null;
+    }
+
     /**
      * Exibe no console o status atual de todos os elevadores.
      */
@@ -143,70 +500,148 @@ public class GerenciadorElevadores {
     }
 
      /**
-     * Busca um elevador no array pelo seu numero identificador.
+     * Busca um elevador pelo seu numero identificador.
      * @param numeroElevador O numero do elevador.
      * @return O objeto {@code Elevador} se encontrado, ou {@code null} caso contrario.
      */
     public Elevador buscarElevadorPorNumero(int numeroElevador) {
-        if (elevadores == null) return null;
-        for (Elevador elevador : elevadores) {
-            if (elevador.getNumero() == numeroElevador) {
-                return elevador;
+        return elevadoresPorNumero.get(numeroElevador);
+    }
+
+    /**
+     * Marca um elevador alterado para a gravacao adiada ({@link GravacaoAdiada}); alocacoes e
+     * liberacoes seguidas viram uma so gravacao, feita fora do fluxo do menu.
+     * @param elevador O elevador alterado.
+     */
+    private void agendarGravacao(Elevador elevador) {
+        elevadoresPendentes.put(elevador.getNumero(), elevador);
+        GravacaoAdiada.marcar(this, this::gravarElevadoresPendentes);
+    }
+
+    /**
+     * Grava de uma vez os elevadores marcados por {@link #agendarGravacao}.
+     */
+    private void gravarElevadoresPendentes() {
+        synchronized (travaGravacao) {
+            // Cada pendente e retirado antes de gravar: uma alteracao feita durante a gravacao marca o
+            // elevador de novo e entra na proxima.
+            List<Elevador> lote = new ArrayList<>();
+            for (Integer numero : elevadoresPendentes.keySet()) {
+                Elevador elevador = elevadoresPendentes.remove(numero);
+                if (elevador != null) {
+                    lote.add(elevador);
+                }
+            }
+            if (lote.isEmpty()) {
+                return;
+            }
+            if (!repositorio.salvarVarios(lote)) {
+                for (Elevador elevador : lote) {
+                    elevadoresPendentes.putIfAbsent(elevador.getNumero(), elevador);
+                }
+                System.err.println("Erro ao salvar o estado dos elevadores.");
             }
         }
-        return null;
     }
 
    /**
-     * Persiste o estado atual do array de elevadores no arquivo JSON.
-     * Este metodo e chamado sempre que o estado de um elevador e modificado.
+     * Persiste o estado de todos os elevadores no repositorio.
+     * As alteracoes de um unico elevador passam pela gravacao adiada ({@link #agendarGravacao}).
      */
     private void salvarDadosElevadores() {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (Writer writer = new FileWriter(ARQUIVO_ELEVADORES_JSON)) {
-            gson.toJson(this.elevadores, writer);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar o estado dos elevadores: " + e.getMessage());
+        if (!repositorio.salvarTodos(Arrays.asList(this.elevadores))) {
+            System.err.println("Erro ao salvar o estado dos elevadores.");
         }
     }
 
     /**
-     * Carrega o estado dos elevadores a partir do arquivo JSON.
-     * Se o arquivo nao existir, chama o metodo para criar os elevadores padrao.
+     * Carrega o estado dos elevadores do repositorio.
+     * Se nao houver dados gravados, chama o metodo para criar os elevadores padrao.
      * @return Um array de {@code Elevador} com o estado carregado ou padrao.
      */
     private Elevador[] carregarDadosElevadores() {
-        try (Reader reader = new FileReader(ARQUIVO_ELEVADORES_JSON)) {
-            Gson gson = new Gson();
-            Elevador[] elevadoresCarregados = gson.fromJson(reader, Elevador[].class);
-            if (elevadoresCarregados == null) {
-                 return criarElevadoresPadrao();
-            }
+        List<Elevador> elevadoresCarregados = new ArrayList<>();
+        if (!repositorio.existe()) {
+            System.out.println("GerenciadorElevadores: Arquivo '" + ARQUIVO_ELEVADORES_JSON + "' nao encontrado. Criando a frota configurada.");
+        } else {
+            elevadoresCarregados.addAll(repositorio.carregarTodos());
             System.out.println("GerenciadorElevadores: Estado dos elevadores carregado do arquivo.");
-            return elevadoresCarregados;
-        } catch (FileNotFoundException e) {
-            System.out.println("GerenciadorElevadores: Arquivo '" + ARQUIVO_ELEVADORES_JSON + "' nao encontrado. Criando elevadores padrao.");
-            return criarElevadoresPadrao();
-        } catch (IOException e) {
-            System.err.println("Erro ao carregar o estado dos elevadores: " + e.getMessage());
-            return new Elevador[0];
         }
+        boolean incluiuNovos = completarFrota(elevadoresCarregados);
+        this.elevadores = elevadoresCarregados.toArray(new Elevador[0]);
+        if (incluiuNovos) {
+            salvarDadosElevadores();
+        }
+        return this.elevadores;
     }
     
    /**
-     * Cria o array de elevadores com os valores padrao.
-     * Este metodo e chamado apenas na primeira execucao ou se o arquivo JSON nao for encontrado.
-     * @return Um array com os 3 elevadores padrao.
-     */
-    private Elevador[] criarElevadoresPadrao() {
-        Elevador[] elevadoresPadrao = new Elevador[3];
-        elevadoresPadrao[0] = new Elevador(1, "Fixo (Alinhamento/Balanceamento)");
-        elevadoresPadrao[1] = new Elevador(2, "Corriqueiro");
-        elevadoresPadrao[2] = new Elevador(3, "Corriqueiro");
-        
-        this.elevadores = elevadoresPadrao;
-        salvarDadosElevadores();
-        
-        return elevadoresPadrao;
+     * Cria os elevadores que faltam para cada tipo chegar a quantidade configurada ({@link #frotaConfigurada()}).
+     * Na primeira execucao cria a frota inteira.
+     * @param elevadoresAtuais Os elevadores carregados; os novos sao adicionados no final.
+     * @return true se algum elevador foi criado.
+     */
+    private boolean completarFrota(List<Elevador> elevadoresAtuais) {
+        Map<TipoElevador, Integer> existentes = new EnumMap<>(TipoElevador.class);
+        int maiorNumero = 0;
+        for (Elevador elevador : elevadoresAtuais) {
+            if (elevador.getTipo() != null) {
+                existentes.merge(elevador.getTipo(), 1, Integer::sum);
+            }
+            maiorNumero = Math.max(maiorNumero, elevador.getNumero());
+        }
+        boolean incluiuNovos = false;
+        for (Map.Entry<TipoElevador, Integer> configurado : frotaConfigurada().entrySet()) {
+            int faltam = configurado.getValue() - existentes.getOrDefault(configurado.getKey(), 0);
+            for (int i = 0; i < faltam; i++) {
+                elevadoresAtuais.add(new Elevador(++maiorNumero, configurado.getKey()));
+                incluiuNovos = true;
+            }
+            if (faltam > 0) {
+                System.out.println("GerenciadorElevadores: " + faltam + " elevador(es) do tipo '" + configurado.getKey() + "' incluido(s) na frota.");
+            }
+        }
+        return incluiuNovos;
+    }
+
+    /**
+     * Le a quantidade de elevadores de cada tipo da propriedade {@value #PROPRIEDADE_FROTA}.
+     * @return A quantidade configurada por tipo (a frota padrao, se a propriedade for invalida).
+     */
+    private static Map<TipoElevador, Integer> frotaConfigurada() {
+        String configuracao = System.getProperty(PROPRIEDADE_FROTA, FROTA_PADRAO);
+        try {
+            return lerFrota(configuracao);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Erro ao ler a frota de elevadores (" + PROPRIEDADE_FROTA + "): " + e.getMessage()
+                    + ". Usando a frota padrao " + FROTA_PADRAO + ".");
+            return lerFrota(FROTA_PADRAO);
+        }
+    }
+
+    /**
+     * Interpreta uma configuracao de frota no formato "TIPO=quantidade,TIPO=quantidade".
+     * Os tipos podem ser informados pelo nome (ex: "CORRIQUEIRO") ou pela descricao.
+     * @param configuracao O texto da configuracao.
+     * @return A quantidade de elevadores por tipo.
+     * @throws IllegalArgumentException se algum item for invalido.
+     */
+    private static Map<TipoElevador, Integer> lerFrota(String configuracao) {
+        Map<TipoElevador, Integer> frota = new EnumMap<>(TipoElevador.class);
+        for (String item : configuracao.split(",")) {
+            if (item.isBlank()) {
+                continue;
+            }
+            String[] partes = item.split("=");
+            if (partes.length != 2) {
+                throw new IllegalArgumentException("item sem quantidade: " + item.trim());
+            }
+            int quantidade = Integer.parseInt(partes[1].trim());
+            if (quantidade < 0) {
+                throw new IllegalArgumentException("quantidade negativa: " + item.trim());
+            }
+            frota.put(TipoElevador.deDescricao(partes[0]), quantidade);
+        }
+        return frota;
     }
 }
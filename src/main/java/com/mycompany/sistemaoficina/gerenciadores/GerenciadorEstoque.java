@@ -1,14 +1,18 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.mycompany.sistemaoficina.Dinheiro;
 import com.mycompany.sistemaoficina.Fornecedor;
 import com.mycompany.sistemaoficina.Produto;
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.persistencia.GravacaoAdiada;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -23,6 +27,10 @@ public class GerenciadorEstoque {
     private static final String ARQUIVO_ESTOQUE_JSON = "estoque.json";
     private boolean dadosForamModificados;
     private final GerenciadorFornecedores gerenciadorFornecedores;
+    private final IndiceId<Produto> indiceProdutos = new IndiceId<>(Produto::getIdProduto);
+    private final Repositorio<Produto> repositorio = Repositorios.abrir(ARQUIVO_ESTOQUE_JSON, Produto.class, Produto::getIdProduto);
+    // Produtos alterados por outras operacoes que aguardam a gravacao adiada.
+    private final Map<Integer, Produto> produtosPendentes = new LinkedHashMap<>();
 
     /**
      * Retorna a lista de produtos atualmente em memoria.
@@ -41,6 +49,8 @@ public List<Produto> getListaProdutos(){
     public GerenciadorEstoque(GerenciadorFornecedores gf) {
         this.gerenciadorFornecedores = gf;
         this.listaProdutos = carregarEstoque();
+        this.indiceProdutos.reconstruir(this.listaProdutos);
+        SequenciaIds.semear(SequenciaIds.PRODUTOS, this.listaProdutos, Produto::getIdProduto);
         this.dadosForamModificados = false;
     }
 
@@ -134,15 +144,16 @@ public List<Produto> getListaProdutos(){
             System.out.print("Descricao: ");
             String descricao = scanner.nextLine();
             System.out.print("Preco de custo (ex: 25.50): ");
-            double precoCusto = Double.parseDouble(scanner.nextLine());
+            long precoCusto = Dinheiro.ler(scanner.nextLine());
             System.out.print("Preco de venda (ex: 49.90): ");
-            double precoVenda = Double.parseDouble(scanner.nextLine());
+            long precoVenda = Dinheiro.ler(scanner.nextLine());
             System.out.print("Quantidade inicial em estoque: ");
             int quantidade = Integer.parseInt(scanner.nextLine());
 
             int novoId = gerarProximoIdProduto();
             Produto novoProduto = new Produto(novoId, nome, descricao, precoCusto, precoVenda, quantidade, fornecedorSelecionado);
             this.listaProdutos.add(novoProduto);
+            this.indiceProdutos.adicionar(novoProduto);
             this.dadosForamModificados = true;
             System.out.println("Produto '" + nome + "' adicionado em memoria! ID: " + novoId);
             System.out.println("Lembre-se de salvar as alteracoes no menu.");
@@ -195,8 +206,8 @@ public List<Produto> getListaProdutos(){
                 System.out.println("ID: " + produto.getIdProduto());
                 System.out.println("Nome: " + produto.getNome());
                 System.out.println("Descricao: " + produto.getDescricao());
-                System.out.println("Preco de Custo: " + String.format("R$%.2f", produto.getPrecoCusto()));
-                System.out.println("Preco de Venda: " + String.format("R$%.2f", produto.getPrecoVenda()));
+                System.out.println("Preco de Custo: " + Dinheiro.formatar(produto.getPrecoCustoCentavos()));
+                System.out.println("Preco de Venda: " + Dinheiro.formatar(produto.getPrecoVendaCentavos()));
                 System.out.println("Quantidade em Estoque: " + produto.getQuantidadeEstoque());
                 System.out.println("---------------------------");
             } else {
@@ -243,17 +254,12 @@ public List<Produto> getListaProdutos(){
     }
 
     /**
-     * Busca um produto na lista em memoria pelo seu ID unico.
+     * Busca um produto pelo seu ID unico, usando o indice por ID (O(1)).
      * @param idProduto O ID do produto a ser procurado.
      * @return O objeto {@code Produto} se encontrado, ou {@code null}.
      */
     public Produto buscarProdutoPorId(int idProduto) {
-        for (Produto produto : this.listaProdutos) {
-            if (produto.getIdProduto() == idProduto) {
-                return produto;
-            }
-        }
-        return null;
+        return indiceProdutos.buscar(idProduto);
     }
 
     /**
@@ -261,44 +267,57 @@ public List<Produto> getListaProdutos(){
      * @return O proximo ID inteiro disponivel.
      */
     private int gerarProximoIdProduto() {
-        if (listaProdutos.isEmpty()) {
-            return 1;
-        }
-        return listaProdutos.stream()
-                .mapToInt(Produto::getIdProduto)
-                .max()
-                .orElse(0) + 1;
+        return SequenciaIds.proximo(SequenciaIds.PRODUTOS);
     }
 
     /**
-     * Persiste a lista atual de produtos no arquivo estoque.json.
+     * Persiste a lista atual de produtos no repositorio (estoque.json por padrao).
      */
-    public void salvarEstoque() {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (Writer writer = new FileWriter(ARQUIVO_ESTOQUE_JSON)) {
-            gson.toJson(this.listaProdutos, writer);
+    public synchronized void salvarEstoque() {
+        if (repositorio.salvarTodos(this.listaProdutos)) {
             this.dadosForamModificados = false; // Reseta a flag apos salvar
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar o estoque: " + e.getMessage());
+            this.produtosPendentes.clear(); // Ja gravados junto com a lista completa
+        } else {
+            System.err.println("Erro ao salvar o estoque.");
+        }
+    }
+
+    /**
+     * Agenda a gravacao de um unico produto, sem tocar nas demais alteracoes pendentes do menu de estoque.
+     * Usado quando outra operacao (ex: lancamento de peca em uma OS) altera a quantidade de um produto.
+     * A gravacao e adiada pela {@link GravacaoAdiada}: varias alteracoes seguidas viram uma so gravacao.
+     * @param produto O produto alterado.
+     */
+    public synchronized void salvarProduto(Produto produto) {
+        produtosPendentes.put(produto.getIdProduto(), produto);
+        GravacaoAdiada.marcar(this, this::gravarProdutosPendentes);
+    }
+
+    /**
+     * Grava de uma vez os produtos marcados por {@link #salvarProduto}.
+     */
+    private synchronized void gravarProdutosPendentes() {
+        if (produtosPendentes.isEmpty()) {
+            return;
+        }
+        if (repositorio.salvarVarios(new ArrayList<>(produtosPendentes.values()))) {
+            produtosPendentes.clear();
+        } else {
+            System.err.println("Erro ao salvar o estoque.");
         }
     }
 
     /**
-     * Carrega a lista de produtos a partir do arquivo estoque.json.
+     * Carrega a lista de produtos do repositorio.
      * @return Uma {@code List<Produto>} com os dados carregados ou uma lista vazia.
      */
     private List<Produto> carregarEstoque() {
-        try (Reader reader = new FileReader(ARQUIVO_ESTOQUE_JSON)) {
-            Gson gson = new Gson();
-            List<Produto> produtos = gson.fromJson(reader, new TypeToken<List<Produto>>(){}.getType());
-            System.out.println("GerenciadorEstoque: " + (produtos != null ? produtos.size() : 0) + " produtos carregados.");
-            return produtos != null ? produtos : new ArrayList<>();
-        } catch (FileNotFoundException e) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorEstoque: Arquivo 'estoque.json' nao encontrado. Iniciando com estoque vazio.");
             return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("Erro ao carregar o estoque: " + e.getMessage());
-            return new ArrayList<>();
         }
+        List<Produto> produtos = repositorio.carregarTodos();
+        System.out.println("GerenciadorEstoque: " + produtos.size() + " produtos carregados.");
+        return produtos;
     }
 }
\ No newline at end of file
@@ -1,11 +1,11 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.mycompany.sistemaoficina.Fornecedor;
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -18,12 +18,16 @@ public class GerenciadorFornecedores {
     
     private final List<Fornecedor> listaFornecedores;
     private static final String ARQUIVO_FORNECEDORES_JSON = "fornecedores.json";
+    private final IndiceId<Fornecedor> indiceFornecedores = new IndiceId<>(Fornecedor::getIdFornecedor);
+    private final Repositorio<Fornecedor> repositorio = Repositorios.abrir(ARQUIVO_FORNECEDORES_JSON, Fornecedor.class, Fornecedor::getIdFornecedor);
 
    /**
     * Construtor. Carrega os fornecedores do arquivo JSON ao iniciar.
     */
     public GerenciadorFornecedores() {
         this.listaFornecedores = carregarFornecedores();
+        this.indiceFornecedores.reconstruir(this.listaFornecedores);
+        SequenciaIds.semear(SequenciaIds.FORNECEDORES, this.listaFornecedores, Fornecedor::getIdFornecedor);
     }
 
     /**
@@ -98,7 +102,8 @@ public class GerenciadorFornecedores {
             Fornecedor novoFornecedor = new Fornecedor(novoId, nomeFantasia, razaoSocial, cnpj, telefone, email);
             
             this.listaFornecedores.add(novoFornecedor);
-            salvarFornecedores();
+            this.indiceFornecedores.adicionar(novoFornecedor);
+            repositorio.salvar(novoFornecedor);
             System.out.println("Fornecedor '" + nomeFantasia + "' cadastrado com sucesso! ID: " + novoId);
         } catch (Exception e) {
             System.out.println("Ocorreu um erro durante o cadastro: " + e.getMessage());
@@ -143,7 +148,7 @@ public class GerenciadorFornecedores {
                 String email = scanner.nextLine();
                 if (!email.isBlank()) fornecedor.setEmail(email);
 
-                salvarFornecedores();
+                repositorio.salvar(fornecedor);
                 System.out.println("Fornecedor atualizado com sucesso!");
             } else {
                 System.out.println("Fornecedor com ID " + idFornecedor + " nao encontrado.");
@@ -170,64 +175,36 @@ public class GerenciadorFornecedores {
     }
 
     /**
-     * Busca um fornecedor na lista em memoria pelo seu ID unico.
+     * Busca um fornecedor pelo seu ID unico, usando o indice por ID (O(1)).
      * @param idFornecedor O ID do fornecedor a ser procurado.
      * @return O objeto {@code Fornecedor} se encontrado, ou {@code null} caso contrario.
      */
     public Fornecedor buscarFornecedorPorId(int idFornecedor) {
-        for (Fornecedor fornecedor : this.listaFornecedores) {
-            if (fornecedor.getIdFornecedor() == idFornecedor) {
-                return fornecedor;
-            }
-        }
-        return null;
+        return indiceFornecedores.buscar(idFornecedor);
     }
 
     /**
      * Gera um novo ID sequencial para um novo fornecedor.
-     * O ID e baseado no maior ID existente na lista, incrementado de 1.
+     * O ID vem da sequencia persistida em {@link SequenciaIds}, sem percorrer a lista.
      * @return O proximo ID inteiro disponivel.
      */
     private int gerarProximoIdFornecedor() {
-        if (listaFornecedores.isEmpty()) {
-            return 1;
-        }
-        return listaFornecedores.stream()
-                .mapToInt(Fornecedor::getIdFornecedor)
-                .max()
-                .orElse(0) + 1;
-    }
-
-    /**
-     * Persiste a lista atual de fornecedores no arquivo fornecedores.json.
-     * Utiliza a biblioteca Gson para serializar a lista de objetos.
-     */
-    private void salvarFornecedores() {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (Writer writer = new FileWriter(ARQUIVO_FORNECEDORES_JSON)) {
-            gson.toJson(this.listaFornecedores, writer);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar fornecedores: " + e.getMessage());
-        }
+        return SequenciaIds.proximo(SequenciaIds.FORNECEDORES);
     }
 
     /**
-     * Carrega a lista de fornecedores a partir do arquivo fornecedores.json.
-     * Se o arquivo nao for encontrado, inicializa uma lista vazia.
+     * Carrega a lista de fornecedores do repositorio (fornecedores.json por padrao).
+     * Se nao houver dados gravados, inicializa uma lista vazia.
      * @return Uma {@code List<Fornecedor>} com os dados carregados ou uma lista vazia.
      */
     private List<Fornecedor> carregarFornecedores() {
-        try (Reader reader = new FileReader(ARQUIVO_FORNECEDORES_JSON)) {
-            List<Fornecedor> fornecedores = new Gson().fromJson(reader, new TypeToken<List<Fornecedor>>(){}.getType());
-            System.out.println("GerenciadorFornecedores: " + (fornecedores != null ? fornecedores.size() : 0) + " fornecedores carregados.");
-            return fornecedores != null ? fornecedores : new ArrayList<>();
-        } catch (FileNotFoundException e) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorFornecedores: Arquivo 'fornecedores.json' nao encontrado.");
             return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("Erro ao carregar fornecedores: " + e.getMessage());
-            return new ArrayList<>();
         }
+        List<Fornecedor> fornecedores = repositorio.carregarTodos();
+        System.out.println("GerenciadorFornecedores: " + fornecedores.size() + " fornecedores carregados.");
+        return fornecedores;
     }
     
 }
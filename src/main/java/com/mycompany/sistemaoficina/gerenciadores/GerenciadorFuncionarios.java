@@ -1,12 +1,12 @@
 package com.mycompany.sistemaoficina.gerenciadores; 
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.mycompany.sistemaoficina.AuthService; 
 import com.mycompany.sistemaoficina.Funcionario; 
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -24,12 +24,20 @@ public class GerenciadorFuncionarios {
     // Lista de funcionarios gerenciada por esta classe
     private List<Funcionario> listaFuncionarios;
 
+    // Indice por ID, mantido em sincronia com a lista
+    private final IndiceId<Funcionario> indiceFuncionarios = new IndiceId<>(Funcionario::getId);
+
+    // Persistencia (funcionarios.json ou armazenamento paginado)
+    private final Repositorio<Funcionario> repositorio = Repositorios.abrir(ARQUIVO_FUNCIONARIOS_JSON, Funcionario.class, Funcionario::getId);
+
     /**
      * Construtor do GerenciadorFuncionarios.
      * Carrega os dados dos funcionarios do arquivo JSON ao ser instanciado.
      */
     public GerenciadorFuncionarios() {
         this.listaFuncionarios = carregarDadosFuncionarios();
+        this.indiceFuncionarios.reconstruir(this.listaFuncionarios);
+        SequenciaIds.semear(SequenciaIds.FUNCIONARIOS, this.listaFuncionarios, Funcionario::getId);
     }
 
     /**
@@ -99,13 +107,14 @@ public class GerenciadorFuncionarios {
         Funcionario novoFunc = new Funcionario(novoId, nome, cpf, senha); 
         
         this.listaFuncionarios.add(novoFunc); 
+        this.indiceFuncionarios.adicionar(novoFunc);
         System.out.println("Funcionario '" + novoFunc.getNome() + "' (ID: " + novoFunc.getId() + ") cadastrado em memoria.");
 
         System.out.print("Deseja salvar este funcionario no arquivo? (S/N): ");
         String confirmarSalvar = scanner.nextLine().trim();
         
         if (confirmarSalvar.equalsIgnoreCase("S")) {
-            salvarDadosFuncionarios(); 
+            repositorio.salvar(novoFunc);
             System.out.println("Funcionario salvo com sucesso no arquivo!");
         } else {
             System.out.println("Funcionario nao salvo no arquivo. Ele permanecera na sessao atual e sera perdido ao sair.");
@@ -154,7 +163,7 @@ public class GerenciadorFuncionarios {
             funcionarioParaEditar.setSenha(novaSenha);
         }
         
-        salvarDadosFuncionarios(); // Salva apos edicao
+        repositorio.salvar(funcionarioParaEditar); // Salva apos edicao
         System.out.println("Funcionario editado com sucesso e salvo no arquivo!");
     }
 
@@ -186,7 +195,8 @@ public class GerenciadorFuncionarios {
 
         if (confirmacao.equalsIgnoreCase("S")) {
             listaFuncionarios.remove(funcionarioParaRemover); 
-            salvarDadosFuncionarios(); // Salva apos exclusao
+            indiceFuncionarios.remover(funcionarioParaRemover);
+            repositorio.remover(funcionarioParaRemover.getId()); // Salva apos exclusao
             System.out.println("Funcionario " + funcionarioParaRemover.getNome() + " excluido com sucesso e salvo no arquivo!");
         } else {
             System.out.println("Exclusao cancelada.");
@@ -209,52 +219,36 @@ public class GerenciadorFuncionarios {
     }
 
     /**
-     * Busca um funcionario na lista em memoria pelo seu ID unico.
+     * Busca um funcionario pelo seu ID unico, usando o indice por ID (O(1)).
      * @param idFuncionario O ID do funcionario a ser procurado.
      * @return O objeto {@code Funcionario} se encontrado, ou {@code null}.
      */
     public Funcionario buscarFuncionarioPorId(int idFuncionario) { // Metodo publico para ser chamado de fora
-        for (Funcionario f : listaFuncionarios) {
-            if (f.getId() == idFuncionario) {
-                return f;
-            }
-        }
-        return null;
+        return indiceFuncionarios.buscar(idFuncionario);
     }
 
     /**
-     * Carrega a lista de funcionarios a partir do arquivo JSON.
+     * Carrega a lista de funcionarios do repositorio.
      * @return Uma {@code List<Funcionario>} com os dados carregados ou uma lista vazia.
      */
     private List<Funcionario> carregarDadosFuncionarios() {
-        List<Funcionario> funcionarios = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(ARQUIVO_FUNCIONARIOS_JSON))) {
-            Gson gson = new Gson();
-            funcionarios = gson.fromJson(reader, new TypeToken<List<Funcionario>>(){}.getType());
-            if (funcionarios == null) {
-                funcionarios = new ArrayList<>();
-            }
-            System.out.println("GerenciadorFuncionarios: Funcionarios carregados. Total: " + funcionarios.size()); 
-        } catch (FileNotFoundException e) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorFuncionarios: Arquivo '" + ARQUIVO_FUNCIONARIOS_JSON + "' nao encontrado. Criando lista de funcionarios vazia.");
-            funcionarios = new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("GerenciadorFuncionarios: Erro ao carregar dados de funcionarios: " + e.getMessage());
+            return new ArrayList<>();
         }
+        List<Funcionario> funcionarios = repositorio.carregarTodos();
+        System.out.println("GerenciadorFuncionarios: Funcionarios carregados. Total: " + funcionarios.size()); 
         return funcionarios;
     }
 
     /**
-     * Persiste a lista atual de funcionarios no arquivo funcionarios.json.
+     * Persiste a lista completa de funcionarios no repositorio (funcionarios.json por padrao).
      */
     public void salvarDadosFuncionarios() { 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(ARQUIVO_FUNCIONARIOS_JSON))) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
-            gson.toJson(listaFuncionarios, writer);
+        if (repositorio.salvarTodos(listaFuncionarios)) {
             System.out.println("GerenciadorFuncionarios: Funcionarios salvos com sucesso. Total: " + listaFuncionarios.size()); 
-        } catch (IOException e) {
-            System.err.println("GerenciadorFuncionarios: Erro ao salvar dados de funcionarios: " + e.getMessage());
+        } else {
+            System.err.println("GerenciadorFuncionarios: Erro ao salvar dados de funcionarios.");
         }
     }
 }
-
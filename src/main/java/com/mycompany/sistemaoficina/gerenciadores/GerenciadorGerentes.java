@@ -1,12 +1,11 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
 import com.mycompany.sistemaoficina.AuthService;
 import com.mycompany.sistemaoficina.Gerente;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -22,6 +21,8 @@ public class GerenciadorGerentes {
     private List<Gerente> listaGerentes;
     // Caminho do arquivo JSON para persistencia dos dados dos gerentes. 
     private static final String ARQUIVO_GERENTES_JSON = "gerentes.json";
+    // Repositorio dos gerentes (JSON ou armazenamento paginado).
+    private final Repositorio<Gerente> repositorio = Repositorios.abrir(ARQUIVO_GERENTES_JSON, Gerente.class, Gerente::getId);
 
      /**
      * Construtor do GerenciadorGerentes.
@@ -29,6 +30,7 @@ public class GerenciadorGerentes {
      */
     public GerenciadorGerentes() {
         this.listaGerentes = carregarDadosGerentes();
+        SequenciaIds.semear(SequenciaIds.GERENTES, this.listaGerentes, Gerente::getId);
     }
 
     /**
@@ -67,7 +69,7 @@ public class GerenciadorGerentes {
                     
                     // Se a alteracao foi bem-sucedida, o gerenciador salva o estado atualizado no arquivo.
                     if (senhaFoiAlterada) {
-                        salvarDadosGerentes();
+                        repositorio.salvar(gerenteLogado);
                         System.out.println("Confirmacao: A sua nova senha foi salva com seguranca.");
                     }
                     break;
@@ -100,39 +102,22 @@ public class GerenciadorGerentes {
         Gerente novoGerente = new Gerente(novoId, nome, cpf, senha);
         
         this.listaGerentes.add(novoGerente);
-        salvarDadosGerentes();
+        repositorio.salvar(novoGerente);
         System.out.println("Gerente inicial cadastrado com sucesso!");
     }
 
     /**
-     * Persiste a lista atual de gerentes no arquivo gerentes.json.
-     * Utiliza a biblioteca Gson para serializar a lista de objetos.
-     */
-    private void salvarDadosGerentes() {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (Writer writer = new FileWriter(ARQUIVO_GERENTES_JSON)) {
-            gson.toJson(this.listaGerentes, writer);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar dados dos gerentes: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Carrega a lista de gerentes a partir do arquivo JSON.
-     * Se o arquivo nao for encontrado, inicializa uma lista vazia.
+     * Carrega a lista de gerentes do repositorio (gerentes.json por padrao).
+     * Se nao houver dados gravados, inicializa uma lista vazia.
      * @return Uma {@code List<Gerente>} com os dados carregados ou uma lista vazia.
      */
     private List<Gerente> carregarDadosGerentes() {
-        try (Reader reader = new FileReader(ARQUIVO_GERENTES_JSON)) {
-            List<Gerente> gerentes = new Gson().fromJson(reader, new TypeToken<List<Gerente>>(){}.getType());
-            System.out.println("GerenciadorGerentes: Gerentes carregados. Total: " + (gerentes != null ? gerentes.size() : 0));
-            return gerentes != null ? gerentes : new ArrayList<>();
-        } catch (FileNotFoundException e) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorGerentes: Arquivo 'gerentes.json' nao encontrado.");
             return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("Erro ao carregar dados dos gerentes: " + e.getMessage());
-            return new ArrayList<>();
         }
+        List<Gerente> gerentes = repositorio.carregarTodos();
+        System.out.println("GerenciadorGerentes: Gerentes carregados. Total: " + gerentes.size());
+        return gerentes;
     }
 }
@@ -1,24 +1,32 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.TypeAdapter;
-import com.google.gson.reflect.TypeToken;
-import com.google.gson.stream.JsonReader;
-import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Dinheiro;
 import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
 import com.mycompany.sistemaoficina.OrdemDeServico;
 import com.mycompany.sistemaoficina.Produto;
 import com.mycompany.sistemaoficina.Servico;
-
-import java.io.*;
-import java.lang.reflect.Type;
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.indices.MapaInt;
+import com.mycompany.sistemaoficina.indices.TotaisPorPeriodo;
+import com.mycompany.sistemaoficina.persistencia.GravacaoAdiada;
+import com.mycompany.sistemaoficina.persistencia.GsonOficina;
+import com.mycompany.sistemaoficina.persistencia.JournalOrdensDeServico;
+import com.mycompany.sistemaoficina.persistencia.RepositorioParticionado;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
+import com.mycompany.sistemaoficina.persistencia.DiretorioDados;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 /**
  * Gerencia todas as operacoes relacionadas as Ordens de Servico (OS).
@@ -29,36 +37,36 @@ import java.util.stream.Collectors;
 public class GerenciadorOrdensDeServico {
 
     private List<OrdemDeServico> listaOrdensDeServico;
-    private static final String ARQUIVO_OS_JSON = "ordens_de_servico.json";
+    private final IndiceId<OrdemDeServico> indiceOS = new IndiceId<>(OrdemDeServico::getIdOrdemDeServico);
+    // Indices secundarios: OS de cada agendamento (em ordem de criacao) e conjunto das OS ainda abertas.
+    private final MapaInt<List<OrdemDeServico>> osPorAgendamento = new MapaInt<>();
+    private final IndiceId<OrdemDeServico> indiceOSAbertas = new IndiceId<>(OrdemDeServico::getIdOrdemDeServico);
+    // Receitas acumuladas por dia/mes e OS finalizadas de cada dia, mantidas a cada finalizacao (usadas nos relatorios).
+    private final TotaisPorPeriodo receitas = new TotaisPorPeriodo();
+    private final Map<LocalDate, List<OrdemDeServico>> osFinalizadasPorDia = new HashMap<>();
+    // Pasta das particoes mensais (ordens_de_servico/2025-03.json, ...) e nome do arquivo unico antigo.
+    private static final String PASTA_OS = "ordens_de_servico";
+    private static final String ARQUIVO_OS_JOURNAL = "ordens_de_servico.journal";
+    // Quantidade de entradas no journal que dispara a gravacao de um novo snapshot compactado.
+    private static final int LIMITE_ENTRADAS_JOURNAL = 500;
 
     // Dependencias de outros gerenciadores para consulta de dados.
     private GerenciadorEstoque gerenciadorEstoque;
     private GerenciadorServicos gerenciadorServicos;
 
-    // Adaptador para que a biblioteca Gson saiba como lidar com o tipo LocalDateTime.
-    private static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME_ADAPTER = new TypeAdapter<>() {
-        private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-
-        @Override
-        public void write(JsonWriter out, LocalDateTime value) throws IOException {
-            if (value == null) {
-                out.nullValue();
-            } else {
-                out.value(value.format(formatter));
-            }
-        }
-
-        @Override
-        public LocalDateTime read(JsonReader in) throws IOException {
-            if (in.peek() == com.google.gson.stream.JsonToken.NULL) {
-                in.nextNull();
-                return null;
-            }
-            return LocalDateTime.parse(in.nextString(), formatter);
-        }
-    };
+    private final JournalOrdensDeServico journal = new JournalOrdensDeServico(DiretorioDados.arquivo(ARQUIVO_OS_JOURNAL).getPath(), GsonOficina.COMPACTO);
+    // Particionado pela data de emissao; os meses com OS abertas sao sempre carregados na abertura.
+    private final RepositorioParticionado<OrdemDeServico> repositorio = new RepositorioParticionado<>(PASTA_OS,
+            OrdemDeServico.class, OrdemDeServico::getIdOrdemDeServico, OrdemDeServico::getDataEmissao,
+            os -> os.getStatus().equals("Aberta"));
+    // Alteracoes aguardando a gravacao adiada: OS alteradas (gravacao pontual) ou entradas do journal.
+    private final Map<Integer, OrdemDeServico> osPendentes = new LinkedHashMap<>();
+    private final List<Runnable> entradasJournalPendentes = new ArrayList<>();
+    // OS alteradas desde o ultimo snapshot (modo journal), regravadas na compactacao.
+    private final Map<Integer, OrdemDeServico> osForaDoSnapshot = new LinkedHashMap<>();
     
- /* Retorna a lista de todas as Ordens de Servico.
+ /* Retorna a lista das Ordens de Servico carregadas: as do mes atual, as dos meses com OS abertas
+ * e as dos meses ja consultados (ver {@link #carregarPeriodo}).
  * @return A lista de objetos OrdemDeServico.
  */
 public List<OrdemDeServico> getListaOrdensDeServico() {
@@ -76,45 +84,91 @@ public List<OrdemDeServico> getListaOrdensDeServico() {
         this.gerenciadorEstoque = gerenciadorEstoque;
         this.gerenciadorServicos = gerenciadorServicos;
         this.listaOrdensDeServico = carregarOrdensDeServico();
+        int reaplicadas = journal.reaplicar(this.listaOrdensDeServico);
+        if (reaplicadas > 0) {
+            System.out.println("GerenciadorOrdensDeServico: " + reaplicadas + " alteracoes reaplicadas a partir do journal.");
+            gravarSnapshot();
+        }
+        reconstruirIndices();
+        SequenciaIds.semear(SequenciaIds.ORDENS_DE_SERVICO, this.listaOrdensDeServico, OrdemDeServico::getIdOrdemDeServico);
+        // Os meses que nao foram carregados tambem contam para a sequencia.
+        SequenciaIds.semear(SequenciaIds.ORDENS_DE_SERVICO, repositorio.getMaiorId());
+    }
+
+    /**
+     * Carrega as Ordens de Servico dos meses de um periodo que ainda nao estao em memoria, incluindo-as
+     * nos indices e nos totais de receitas. Deve ser chamado antes de consultar periodos antigos.
+     * @param inicio A data inicial do periodo.
+     * @param fim A data final do periodo (inclusive).
+     */
+    public synchronized void carregarPeriodo(LocalDate inicio, LocalDate fim) {
+        incorporar(repositorio.carregarPeriodo(YearMonth.from(inicio), YearMonth.from(fim)));
+    }
+
+    /**
+     * Inclui na lista e nos indices as OS lidas de particoes carregadas sob demanda.
+     */
+    private void incorporar(List<OrdemDeServico> carregadas) {
+        for (OrdemDeServico os : carregadas) {
+            this.listaOrdensDeServico.add(os);
+            indexar(os);
+        }
     }
     
  /**
  * Busca uma Ordem de Servico (de qualquer status) pelo ID do agendamento associado.
+ * Consulta o indice por agendamento, sem percorrer o historico de OS.
  * @param idAgendamento O ID do agendamento.
- * @return A OrdemDeServico encontrada, ou null.
+ * @return A primeira OrdemDeServico do agendamento, ou null.
  */
 public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
-    for (OrdemDeServico os : listaOrdensDeServico) {
-        if (os.getIdAgendamento() == idAgendamento) {
-            return os;
+    List<OrdemDeServico> ordens = osPorAgendamento.get(idAgendamento);
+    return ordens != null ? ordens.get(0) : buscarOSDoAgendamentoNoHistorico(idAgendamento);
+}
+
+    /**
+     * Carrega os meses antigos, do mais recente para o mais antigo, ate encontrar uma OS do agendamento.
+     * @param idAgendamento O ID do agendamento.
+     * @return A primeira OrdemDeServico do agendamento, ou null se nenhum mes tiver OS dele.
+     */
+    private synchronized OrdemDeServico buscarOSDoAgendamentoNoHistorico(int idAgendamento) {
+        List<OrdemDeServico> ordens = osPorAgendamento.get(idAgendamento);
+        List<OrdemDeServico> carregadas;
+        while (ordens == null && (carregadas = repositorio.carregarMaisRecente()) != null) {
+            incorporar(carregadas);
+            ordens = osPorAgendamento.get(idAgendamento);
         }
+        return ordens != null ? ordens.get(0) : null;
     }
-    return null;
-}
     /**
      * Cria uma nova Ordem de Servico associada a um agendamento.
-     * A OS e criada com status "Aberta" e e imediatamente persistida.
+     * A OS e criada com status "Aberta" e a criacao e registrada (ver {@link #registrarAlteracao}).
      * @param agendamento O agendamento que esta dando origem a OS.
      * @return A OrdemDeServico recem-criada.
      */
-    public OrdemDeServico criarNovaOS(Agendamento agendamento) {
+    public synchronized OrdemDeServico criarNovaOS(Agendamento agendamento) {
         int novoId = gerarProximoIdOS();
         OrdemDeServico novaOS = new OrdemDeServico(novoId, agendamento);
         this.listaOrdensDeServico.add(novaOS);
-        salvarOrdensDeServico();
+        indexar(novaOS);
+        registrarAlteracao(novaOS, () -> journal.registrarCriacao(novaOS));
         System.out.println("Ordem de Servico #" + novoId + " criada e aberta com sucesso.");
         return novaOS;
     }
 
     /**
      * Busca uma Ordem de Servico que esteja com o status "Aberta" associada a um agendamento.
+     * Percorre apenas as OS daquele agendamento, obtidas pelo indice por agendamento.
      * @param agendamento O agendamento a ser verificado.
      * @return A OrdemDeServico aberta se encontrada, ou null.
      */
     public OrdemDeServico buscarOSAbertaPorAgendamento(Agendamento agendamento) {
-        for (OrdemDeServico os : listaOrdensDeServico) {
-            if (os.getIdAgendamento() == agendamento.getIdAgendamento() 
-                && os.getStatus().equals("Aberta")) {
+        List<OrdemDeServico> ordens = osPorAgendamento.get(agendamento.getIdAgendamento());
+        if (ordens == null) {
+            return null;
+        }
+        for (OrdemDeServico os : ordens) {
+            if (os.getStatus().equals("Aberta")) {
                 return os;
             }
         }
@@ -128,9 +182,7 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
     public void menuLancarItens(Scanner scanner) {
         System.out.println("\n--- Lancar Itens em Ordem de Servico ---");
 
-        List<OrdemDeServico> osAbertas = listaOrdensDeServico.stream()
-                .filter(os -> os.getStatus().equals("Aberta"))
-                .collect(Collectors.toList());
+        List<OrdemDeServico> osAbertas = listarOSAbertas();
 
         if (osAbertas.isEmpty()) {
             System.out.println("Nenhuma Ordem de Servico aberta no momento.");
@@ -174,6 +226,7 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
             System.out.println("1. Adicionar Servico do Catalogo");
             System.out.println("2. Adicionar Peca do Estoque");
             System.out.println("3. Adicionar Mao de Obra Adicional");
+            System.out.println("4. Remover Item Lancado");
             System.out.println("0. Concluir Lancamentos para esta OS");
             System.out.print("Escolha uma opcao: ");
 
@@ -194,6 +247,9 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
                 case 3:
                     lancarMaoDeObraEmOS(scanner, os);
                     break;
+                case 4:
+                    removerItemDaOS(scanner, os);
+                    break;
                 case 0:
                     System.out.println("Lancamentos para a OS #" + os.getIdOrdemDeServico() + " concluidos.");
                     break;
@@ -220,8 +276,7 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
             int idServico = Integer.parseInt(scanner.nextLine());
             Servico servico = gerenciadorServicos.buscarServicoPorId(idServico);
             if (servico != null) {
-                os.adicionarServico(servico);
-                salvarOrdensDeServico();
+                adicionarServicoNaOS(os, servico);
                 System.out.println("Servico '" + servico.getDescricao() + "' adicionado a OS.");
             } else {
                 System.out.println("Servico nao encontrado.");
@@ -232,8 +287,8 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
     }
 
     /**
-     * Conduz o fluxo para adicionar uma peca do estoque a uma OS.
-     * Realiza a baixa no estoque ao adicionar a peca.
+     * Conduz o fluxo para adicionar uma peca do estoque a uma OS, na quantidade informada.
+     * Realiza a baixa no estoque ao adicionar a peca, com uma unica gravacao do produto.
      * @param scanner A instancia do Scanner para ler a entrada do usuario.
      * @param os A Ordem de Servico que sera modificada.
      */
@@ -249,14 +304,20 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
             int idPeca = Integer.parseInt(scanner.nextLine());
             Produto peca = gerenciadorEstoque.buscarProdutoPorId(idPeca);
             if (peca != null) {
-                if (peca.getQuantidadeEstoque() > 0) {
-                    os.adicionarPeca(peca);
-                    peca.removerEstoque(1);
-                    gerenciadorEstoque.salvarEstoque();
-                    salvarOrdensDeServico();
-                    System.out.println("Peca '" + peca.getNome() + "' adicionada a OS. Estoque restante: " + peca.getQuantidadeEstoque());
-                } else {
+                if (peca.getQuantidadeEstoque() <= 0) {
                     System.out.println("Erro: Peca '" + peca.getNome() + "' sem estoque.");
+                    return;
+                }
+                System.out.print("Quantidade (disponivel: " + peca.getQuantidadeEstoque() + "): ");
+                int quantidade = Integer.parseInt(scanner.nextLine());
+                if (quantidade <= 0 || quantidade > peca.getQuantidadeEstoque()) {
+                    System.out.println("Erro: Quantidade invalida.");
+                    return;
+                }
+                if (adicionarPecaNaOS(os, peca, quantidade)) {
+                    peca.removerEstoque(quantidade);
+                    gerenciadorEstoque.salvarProduto(peca);
+                    System.out.println(quantidade + "x '" + peca.getNome() + "' adicionada(s) a OS. Estoque restante: " + peca.getQuantidadeEstoque());
                 }
             } else {
                 System.out.println("Peca nao encontrada.");
@@ -278,12 +339,11 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
             String descricao = scanner.nextLine();
 
             System.out.print("Valor a ser cobrado pela mao de obra: ");
-            double valor = Double.parseDouble(scanner.nextLine());
+            long valor = Dinheiro.ler(scanner.nextLine());
 
             if (valor > 0) {
                 Servico maoDeObra = new Servico(0, descricao, valor); // ID 0 para item nao catalogado
-                os.adicionarServico(maoDeObra);
-                salvarOrdensDeServico();
+                adicionarServicoNaOS(os, maoDeObra);
                 System.out.println("Mao de obra adicional adicionada com sucesso a OS.");
             } else {
                 System.out.println("O valor deve ser maior que zero.");
@@ -295,17 +355,355 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
     }
     
     /**
-     * Busca uma Ordem de Servico na lista pelo seu ID.
+     * Conduz o fluxo para remover (total ou parcialmente) um item ja lancado em uma OS.
+     * Pecas removidas voltam para o estoque.
+     * @param scanner A instancia do Scanner para ler a entrada do usuario.
+     * @param os A Ordem de Servico que sera modificada.
+     */
+    private void removerItemDaOS(Scanner scanner, OrdemDeServico os) {
+        List<ItemOrdemDeServico> servicos = os.getServicosRealizados();
+        List<ItemOrdemDeServico> pecas = os.getPecasUtilizadas();
+        if (servicos.isEmpty() && pecas.isEmpty()) {
+            System.out.println("Nenhum item lancado nesta OS.");
+            return;
+        }
+        int numero = 1;
+        for (ItemOrdemDeServico item : servicos) {
+            System.out.println(numero++ + ". [Servico] " + item.getQuantidade() + "x " + item.getDescricao() + " - " + Dinheiro.formatar(item.getValorTotalCentavos()));
+        }
+        for (ItemOrdemDeServico item : pecas) {
+            System.out.println(numero++ + ". [Peca] " + item.getQuantidade() + "x " + item.getDescricao() + " - " + Dinheiro.formatar(item.getValorTotalCentavos()));
+        }
+        try {
+            System.out.print("Numero do item a remover: ");
+            int escolhido = Integer.parseInt(scanner.nextLine()) - 1;
+            if (escolhido < 0 || escolhido >= servicos.size() + pecas.size()) {
+                System.out.println("Item nao encontrado.");
+                return;
+            }
+            boolean ehPeca = escolhido >= servicos.size();
+            ItemOrdemDeServico item = ehPeca ? pecas.get(escolhido - servicos.size()) : servicos.get(escolhido);
+            int quantidade = 1;
+            if (item.getQuantidade() > 1) {
+                System.out.print("Quantidade a remover (1 a " + item.getQuantidade() + "): ");
+                quantidade = Integer.parseInt(scanner.nextLine());
+            }
+            if (ehPeca) {
+                int removida = removerPecaDaOS(os, escolhido - servicos.size(), quantidade);
+                Produto peca = removida > 0 ? gerenciadorEstoque.buscarProdutoPorId(item.getIdReferencia()) : null;
+                if (peca != null) {
+                    peca.adicionarEstoque(removida);
+                    gerenciadorEstoque.salvarProduto(peca);
+                }
+                System.out.println(removida > 0 ? removida + "x '" + item.getDescricao() + "' removida(s) da OS." : "Nenhuma unidade removida.");
+            } else {
+                int removida = removerServicoDaOS(os, escolhido, quantidade);
+                System.out.println(removida > 0 ? removida + "x '" + item.getDescricao() + "' removido(s) da OS." : "Nenhuma unidade removida.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Erro: Numero invalido.");
+        }
+    }
+
+    /**
+     * Adiciona um servico a uma OS aberta e registra a alteracao.
+     * Um servico do catalogo ja lancado com o mesmo preco soma na linha existente.
+     * @param os A Ordem de Servico que sera modificada.
+     * @param servico O servico a ser adicionado.
+     */
+    public synchronized void adicionarServicoNaOS(OrdemDeServico os, Servico servico) {
+        int indice = os.adicionarServico(servico);
+        if (indice >= 0) {
+            registrarLinhaServico(os, indice, false);
+        }
+    }
+
+    /**
+     * Adiciona uma unidade de uma peca a uma OS aberta e registra a alteracao.
+     * A baixa no estoque continua sendo responsabilidade de quem chama.
+     * @param os A Ordem de Servico que sera modificada.
+     * @param peca A peca a ser adicionada.
+     */
+    public synchronized void adicionarPecaNaOS(OrdemDeServico os, Produto peca) {
+        adicionarPecaNaOS(os, peca, 1);
+    }
+
+    /**
+     * Adiciona varias unidades de uma peca a uma OS aberta, em uma unica alteracao.
+     * A baixa no estoque continua sendo responsabilidade de quem chama.
+     * @param os A Ordem de Servico que sera modificada.
+     * @param peca A peca a ser adicionada.
+     * @param quantidade A quantidade de unidades.
+     * @return true se a peca foi lancada, false se a OS estiver finalizada ou a quantidade for invalida.
+     */
+    public synchronized boolean adicionarPecaNaOS(OrdemDeServico os, Produto peca, int quantidade) {
+        int indice = os.adicionarPeca(peca, quantidade);
+        if (indice < 0) {
+            return false;
+        }
+        registrarLinhaPeca(os, indice, false);
+        return true;
+    }
+
+    /**
+     * Remove unidades de uma linha de servico de uma OS aberta e registra a alteracao.
+     * @param os A Ordem de Servico que sera modificada.
+     * @param indice A posicao da linha em {@link OrdemDeServico#getServicosRealizados()}.
+     * @param quantidade A quantidade de unidades a remover.
+     * @return A quantidade efetivamente removida.
+     */
+    public synchronized int removerServicoDaOS(OrdemDeServico os, int indice, int quantidade) {
+        int tamanho = os.getServicosRealizados().size();
+        int removida = os.removerServico(indice, quantidade);
+        if (removida > 0) {
+            registrarLinhaServico(os, indice, os.getServicosRealizados().size() < tamanho);
+        }
+        return removida;
+    }
+
+    /**
+     * Remove unidades de uma linha de peca de uma OS aberta e registra a alteracao.
+     * A devolucao ao estoque continua sendo responsabilidade de quem chama.
+     * @param os A Ordem de Servico que sera modificada.
+     * @param indice A posicao da linha em {@link OrdemDeServico#getPecasUtilizadas()}.
+     * @param quantidade A quantidade de unidades a remover.
+     * @return A quantidade efetivamente removida.
+     */
+    public synchronized int removerPecaDaOS(OrdemDeServico os, int indice, int quantidade) {
+        int tamanho = os.getPecasUtilizadas().size();
+        int removida = os.removerPeca(indice, quantidade);
+        if (removida > 0) {
+            registrarLinhaPeca(os, indice, os.getPecasUtilizadas().size() < tamanho);
+        }
+        return removida;
+    }
+
+    /**
+     * Registra no journal o estado atual de uma linha de servico (copiado agora, pois a gravacao e adiada).
+     */
+    private void registrarLinhaServico(OrdemDeServico os, int indice, boolean removida) {
+        ItemOrdemDeServico linha = removida ? null : new ItemOrdemDeServico(os.getServicosRealizados().get(indice));
+        int revisao = os.getRevisao();
+        registrarAlteracao(os, () -> journal.registrarServico(os.getIdOrdemDeServico(), indice, linha, revisao));
+    }
+
+    /**
+     * Registra no journal o estado atual de uma linha de peca (copiado agora, pois a gravacao e adiada).
+     */
+    private void registrarLinhaPeca(OrdemDeServico os, int indice, boolean removida) {
+        ItemOrdemDeServico linha = removida ? null : new ItemOrdemDeServico(os.getPecasUtilizadas().get(indice));
+        int revisao = os.getRevisao();
+        registrarAlteracao(os, () -> journal.registrarPeca(os.getIdOrdemDeServico(), indice, linha, revisao));
+    }
+
+    /**
+     * Finaliza uma Ordem de Servico e registra a finalizacao. Uma OS ja finalizada e ignorada, para que a
+     * receita nao seja contada duas vezes nem o journal receba uma segunda finalizacao.
+     * @param os A Ordem de Servico a ser finalizada.
+     * @return true se a OS foi finalizada, false se ela ja estava finalizada.
+     */
+    public synchronized boolean finalizarOS(OrdemDeServico os) {
+        if (!os.finalizar()) {
+            return false;
+        }
+        indiceOSAbertas.remover(os);
+        registrarFinalizada(os);
+        registrarAlteracao(os, () -> journal.registrarFinalizacao(os.getIdOrdemDeServico(), os.getDataEmissao()));
+        return true;
+    }
+
+    /**
+     * Retorna as Ordens de Servico abertas, ordenadas por ID.
+     * Usa o conjunto de OS abertas, portanto o custo depende apenas da quantidade de OS abertas.
+     * Toda finalizacao passa por {@link #finalizarOS}, que mantem o conjunto atualizado.
+     * @return Uma nova lista com as OS abertas.
+     */
+    public synchronized List<OrdemDeServico> listarOSAbertas() {
+        List<OrdemDeServico> abertas = indiceOSAbertas.valores();
+        abertas.sort(Comparator.comparingInt(OrdemDeServico::getIdOrdemDeServico));
+        return abertas;
+    }
+
+    /**
+     * Inclui uma OS em todos os indices (por ID, por agendamento e, se aberta, no conjunto de abertas).
+     */
+    private void indexar(OrdemDeServico os) {
+        indiceOS.adicionar(os);
+        List<OrdemDeServico> doAgendamento = osPorAgendamento.get(os.getIdAgendamento());
+        if (doAgendamento == null) {
+            doAgendamento = new ArrayList<>(1);
+            osPorAgendamento.put(os.getIdAgendamento(), doAgendamento);
+        }
+        doAgendamento.add(os);
+        if (os.getStatus().equals("Aberta")) {
+            indiceOSAbertas.adicionar(os);
+        } else if (os.getStatus().equals("Finalizada")) {
+            registrarFinalizada(os);
+        }
+    }
+
+    /**
+     * Retira uma OS de todos os indices e, se finalizada, dos totais de receitas.
+     */
+    private void desindexar(OrdemDeServico os) {
+        indiceOS.remover(os);
+        List<OrdemDeServico> doAgendamento = osPorAgendamento.get(os.getIdAgendamento());
+        if (doAgendamento != null) {
+            doAgendamento.remove(os);
+            if (doAgendamento.isEmpty()) {
+                osPorAgendamento.remove(os.getIdAgendamento());
+            }
+        }
+        indiceOSAbertas.remover(os);
+        if (os.getStatus().equals("Finalizada") && os.getDataEmissao() != null) {
+            receitas.remover(os.getDataEmissao(), os.getValorTotalCentavos());
+            LocalDate dia = os.getDataEmissao().toLocalDate();
+            List<OrdemDeServico> doDia = osFinalizadasPorDia.get(dia);
+            if (doDia != null) {
+                doDia.remove(os);
+                if (doDia.isEmpty()) {
+                    osFinalizadasPorDia.remove(dia);
+                }
+            }
+        }
+    }
+
+    /**
+     * Soma uma OS finalizada nas receitas do dia/mes da sua emissao.
+     */
+    private void registrarFinalizada(OrdemDeServico os) {
+        if (os.getDataEmissao() == null) {
+            return;
+        }
+        receitas.registrar(os.getDataEmissao(), os.getValorTotalCentavos());
+        osFinalizadasPorDia.computeIfAbsent(os.getDataEmissao().toLocalDate(), d -> new ArrayList<>()).add(os);
+    }
+
+    /**
+     * Retorna os totais de receitas (OS finalizadas) acumulados por dia e por mes.
+     * @return Os totais de receitas, atualizados a cada finalizacao.
+     */
+    public TotaisPorPeriodo getReceitas() {
+        return receitas;
+    }
+
+    /**
+     * Retorna as Ordens de Servico finalizadas em um dia, na ordem em que foram finalizadas.
+     * @param dia O dia desejado.
+     * @return Uma nova lista com as OS finalizadas no dia (vazia se nao houver).
+     */
+    public List<OrdemDeServico> listarOSFinalizadasNoDia(LocalDate dia) {
+        List<OrdemDeServico> doDia = osFinalizadasPorDia.get(dia);
+        return doDia != null ? new ArrayList<>(doDia) : new ArrayList<>();
+    }
+
+    /**
+     * Reconstroi todos os indices e os totais de receitas a partir da lista completa (usado apos o carregamento).
+     */
+    private void reconstruirIndices() {
+        osPorAgendamento.limpar();
+        indiceOSAbertas.reconstruir(Collections.emptyList());
+        indiceOS.reconstruir(Collections.emptyList());
+        receitas.limpar();
+        osFinalizadasPorDia.clear();
+        for (OrdemDeServico os : listaOrdensDeServico) {
+            indexar(os);
+        }
+    }
+
+    /**
+     * Registra a alteracao de uma OS para a gravacao adiada ({@link GravacaoAdiada}). Se o repositorio
+     * grava registros individualmente (armazenamento paginado), so a OS alterada sera gravada; caso
+     * contrario, a entrada sera acrescentada ao journal, deixando o snapshot completo para
+     * {@link #compactarSeNecessario()}. Alteracoes seguidas viram uma unica gravacao.
+     * @param os A OS alterada.
+     * @param entradaJournal O registro da alteracao no journal.
+     */
+    private void registrarAlteracao(OrdemDeServico os, Runnable entradaJournal) {
+        if (repositorio.suportaGravacaoPontual()) {
+            osPendentes.put(os.getIdOrdemDeServico(), os);
+        } else {
+            entradasJournalPendentes.add(entradaJournal);
+            osForaDoSnapshot.put(os.getIdOrdemDeServico(), os);
+        }
+        GravacaoAdiada.marcar(this, this::gravarAlteracoesPendentes);
+    }
+
+    /**
+     * Grava de uma vez as alteracoes registradas por {@link #registrarAlteracao}: as OS alteradas
+     * em uma unica sincronizacao, ou as entradas do journal com um unico flush.
+     */
+    private synchronized void gravarAlteracoesPendentes() {
+        if (!osPendentes.isEmpty()) {
+            if (repositorio.salvarVarios(new ArrayList<>(osPendentes.values()))) {
+                osPendentes.clear();
+            } else {
+                System.err.println("Erro ao salvar Ordens de Servico.");
+            }
+        }
+        if (!entradasJournalPendentes.isEmpty()) {
+            for (Runnable entrada : entradasJournalPendentes) {
+                entrada.run();
+            }
+            entradasJournalPendentes.clear();
+            journal.descarregar();
+            compactarSeNecessario();
+        }
+    }
+
+    /**
+     * Grava um novo snapshot compactado quando o journal atinge o limite de entradas.
+     * Apenas as particoes das OS alteradas desde o ultimo snapshot sao regravadas.
+     */
+    private void compactarSeNecessario() {
+        if (journal.getEntradasPendentes() < LIMITE_ENTRADAS_JOURNAL) {
+            return;
+        }
+        if (!repositorio.salvarVarios(new ArrayList<>(osForaDoSnapshot.values()))) {
+            System.err.println("Erro ao salvar Ordens de Servico.");
+            return;
+        }
+        osForaDoSnapshot.clear();
+        journal.truncar();
+    }
+
+    /**
+     * Busca uma Ordem de Servico pelo seu ID, usando o indice por ID (O(1)).
+     * Se a OS nao estiver em memoria, carrega os meses cuja faixa de IDs pode conte-la; OS arquivadas
+     * sao lidas do arquivo morto sem voltar para a memoria.
      * @param id O ID da OS a ser procurada.
      * @return O objeto {@code OrdemDeServico} se encontrado, ou {@code null}.
      */
     public OrdemDeServico buscarOSPorId(int id) {
-        for(OrdemDeServico os : listaOrdensDeServico) {
-            if(os.getIdOrdemDeServico() == id) {
-                return os;
-            }
+        OrdemDeServico os = indiceOS.buscar(id);
+        return os != null ? os : buscarOSNoHistorico(id);
+    }
+
+    private synchronized OrdemDeServico buscarOSNoHistorico(int id) {
+        incorporar(repositorio.carregarPorId(id));
+        OrdemDeServico os = indiceOS.buscar(id);
+        return os != null ? os : repositorio.buscarPorId(id);
+    }
+
+    /**
+     * Move para o arquivo morto os meses anteriores ao limite que so tem OS encerradas e tira essas OS
+     * da memoria (lista, indices e totais de receitas). Elas continuam acessiveis por
+     * {@link #buscarOSPorId} e pelos relatorios, que carregam o periodo consultado.
+     * @param limite A data de emissao a partir da qual as OS permanecem ativas (o mes do limite nao e arquivado).
+     * @return A quantidade de OS arquivadas.
+     */
+    public synchronized int arquivarHistorico(LocalDateTime limite) {
+        // Alteracoes ainda no journal precisam estar nas particoes antes de irem para o arquivo morto.
+        salvarOrdensDeServico();
+        int arquivadas = repositorio.arquivarAntigos(YearMonth.from(limite));
+        List<OrdemDeServico> descarregadas = repositorio.descarregarArquivados();
+        for (OrdemDeServico os : descarregadas) {
+            desindexar(os);
         }
-        return null;
+        if (!descarregadas.isEmpty()) {
+            this.listaOrdensDeServico.removeIf(os -> !indiceOS.contem(os.getIdOrdemDeServico()));
+        }
+        return arquivadas;
     }
 
     /**
@@ -313,48 +711,45 @@ public OrdemDeServico buscarOSPorAgendamentoId(int idAgendamento) {
      * @return O proximo ID inteiro disponivel.
      */
     private int gerarProximoIdOS() {
-        if (listaOrdensDeServico.isEmpty()) {
-            return 1;
-        }
-        return listaOrdensDeServico.stream().mapToInt(OrdemDeServico::getIdOrdemDeServico).max().orElse(0) + 1;
+        return SequenciaIds.proximo(SequenciaIds.ORDENS_DE_SERVICO);
+    }
+
+    /**
+     * Persiste as Ordens de Servico em memoria no repositorio (snapshot completo de cada particao mensal
+     * carregada, em ordens_de_servico/ por padrao) e, em seguida, esvazia o journal, que ja esta refletido no snapshot.
+     */
+    public synchronized void salvarOrdensDeServico() {
+        gravarSnapshot();
     }
 
     /**
-     * Persiste a lista atual de Ordens de Servico no arquivo ordens_de_servico.json.
-     * Cria o Gson com o adaptador de data/hora registrado
+     * Grava o snapshot completo e esvazia o journal (usado tambem pelo construtor, apos reaplicar o journal).
      */
-    public void salvarOrdensDeServico() {
-        Gson gson = new GsonBuilder()
-                .setPrettyPrinting()
-                .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER)
-                .create();
-        try (Writer writer = new FileWriter(ARQUIVO_OS_JSON)) {
-            gson.toJson(this.listaOrdensDeServico, writer);
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar Ordens de Servico: " + e.getMessage());
+    private void gravarSnapshot() {
+        if (!repositorio.salvarTodos(this.listaOrdensDeServico)) {
+            System.err.println("Erro ao salvar Ordens de Servico.");
+            return;
         }
+        // O snapshot ja inclui as alteracoes que aguardavam a gravacao adiada.
+        osPendentes.clear();
+        entradasJournalPendentes.clear();
+        osForaDoSnapshot.clear();
+        journal.truncar();
     }
 
     /**
-     * Carrega a lista de Ordens de Servico a partir do arquivo ordens_de_servico.json.
+     * Carrega do repositorio as Ordens de Servico do mes atual e dos meses com OS abertas.
+     * Os demais meses sao carregados sob demanda (relatorios e buscas).
      * @return Uma {@code List<OrdemDeServico>} com os dados carregados ou uma lista vazia.
      */
     private List<OrdemDeServico> carregarOrdensDeServico() {
-        try (Reader reader = new FileReader(ARQUIVO_OS_JSON)) {
-            // CORRECAO: Cria o Gson com o adaptador de data/hora registrado
-            Gson gson = new GsonBuilder()
-                    .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER)
-                    .create();
-            Type listType = new TypeToken<ArrayList<OrdemDeServico>>(){}.getType();
-            List<OrdemDeServico> ordens = gson.fromJson(reader, listType);
-            System.out.println("GerenciadorOrdensDeServico: " + (ordens != null ? ordens.size() : 0) + " ordens carregadas.");
-            return ordens != null ? ordens : new ArrayList<>();
-        } catch (FileNotFoundException e) {
-            System.out.println("GerenciadorOrdensDeServico: Arquivo 'ordens_de_servico.json' nao encontrado.");
-            return new ArrayList<>();
-        } catch (IOException | com.google.gson.JsonSyntaxException e) {
-            System.err.println("Erro ao carregar Ordens de Servico: " + e.getMessage());
+        if (!repositorio.existe()) {
+            System.out.println("GerenciadorOrdensDeServico: Pasta '" + PASTA_OS + "/' nao encontrada.");
             return new ArrayList<>();
         }
+        List<OrdemDeServico> ordens = repositorio.carregarIniciais(YearMonth.now());
+        System.out.println("GerenciadorOrdensDeServico: " + ordens.size() + " ordens carregadas ("
+                + repositorio.getParticoesCarregadas() + " de " + repositorio.getQuantidadeParticoes() + " meses).");
+        return ordens;
     }
 }
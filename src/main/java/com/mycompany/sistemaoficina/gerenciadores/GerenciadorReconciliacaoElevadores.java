@@ -0,0 +1,67 @@
+package com.mycompany.sistemaoficina.gerenciadores;
+
+/**
+ * Rotina que mantem a ocupacao dos elevadores de acordo com os agendamentos em manutencao
+ * (ver {@link GerenciadorAgendamentos#reconciliarElevadores()}), sem depender da liberacao forcada manual.
+ * Roda na inicializacao e, depois, entre as operacoes do menu sempre que passar o intervalo lido da
+ * propriedade {@value #PROPRIEDADE_INTERVALO} (padrao {@value #INTERVALO_PADRAO_MINUTOS} minutos);
+ * com 0 ou negativo roda apenas na inicializacao. Outras sessoes podem estar alocando ao mesmo tempo; a
+ * reconciliacao espera as alocacoes e liberacoes em andamento terminarem de mudar o status do agendamento
+ * e bloqueia novas enquanto roda, para nao liberar um elevador que acabou de ser ocupado.
+ * @author santo
+ */
+public class GerenciadorReconciliacaoElevadores {
+
+    /**
+     * Propriedade de sistema com o intervalo, em minutos, entre as reconciliacoes.
+     */
+    public static final String PROPRIEDADE_INTERVALO = "sistemaoficina.elevadores.reconciliacaoMinutos";
+
+    /**
+     * Intervalo padrao entre as reconciliacoes, em minutos.
+     */
+    public static final int INTERVALO_PADRAO_MINUTOS = 15;
+
+    private final GerenciadorAgendamentos gerenciadorAgendamentos;
+    private long ultimaExecucaoMs;
+
+    /**
+     * Construtor do GerenciadorReconciliacaoElevadores.
+     * @param gerenciadorAgendamentos Instancia principal do GerenciadorAgendamentos (que conhece o GerenciadorElevadores).
+     */
+    public GerenciadorReconciliacaoElevadores(GerenciadorAgendamentos gerenciadorAgendamentos) {
+        this.gerenciadorAgendamentos = gerenciadorAgendamentos;
+    }
+
+    /**
+     * Reconcilia agora os elevadores com os agendamentos e informa o resultado se algo foi encontrado.
+     * @return A quantidade de inconsistencias encontradas.
+     */
+    public int executar() {
+        ultimaExecucaoMs = System.currentTimeMillis();
+        int inconsistencias = gerenciadorAgendamentos.reconciliarElevadores();
+        if (inconsistencias > 0) {
+            System.out.println("GerenciadorReconciliacaoElevadores: " + inconsistencias + " inconsistencia(s) entre elevadores e agendamentos tratada(s).");
+        }
+        return inconsistencias;
+    }
+
+    /**
+     * Executa a reconciliacao se o intervalo configurado ja passou desde a ultima execucao.
+     * Deve ser chamado entre as operacoes do menu.
+     */
+    public void executarSeVencido() {
+        long intervalo = intervaloMinutos();
+        if (intervalo > 0 && System.currentTimeMillis() - ultimaExecucaoMs >= intervalo * 60_000L) {
+            executar();
+        }
+    }
+
+    private static long intervaloMinutos() {
+        try {
+            return Long.parseLong(System.getProperty(PROPRIEDADE_INTERVALO, Integer.toString(INTERVALO_PADRAO_MINUTOS)).trim());
+        } catch (NumberFormatException e) {
+            return INTERVALO_PADRAO_MINUTOS;
+        }
+    }
+}
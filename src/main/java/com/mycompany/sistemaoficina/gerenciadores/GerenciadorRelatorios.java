@@ -1,19 +1,22 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.mycompany.sistemaoficina.Despesa;
+import com.mycompany.sistemaoficina.Dinheiro;
 import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.indices.TotaisPorPeriodo;
 
 import java.time.LocalDate;
 import java.time.Month;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
-import java.util.stream.Collectors;
 
 /**
  *Responsavel por gerar relatorios financeiros e de vendas com base nos dados de outros gerenciadores.
  * Esta classe não armazena dados proprios, atuando como um serviço de processamento e exibição de informações.
+ * Os totais por dia e por mes sao mantidos de forma incremental pelos gerenciadores de OS e de despesas,
+ * entao os relatorios nao percorrem o historico completo.
  * @author santo
  */
 public class GerenciadorRelatorios {
@@ -43,6 +46,7 @@ public class GerenciadorRelatorios {
             System.out.println("1. Relatorio de Vendas do Dia");
             System.out.println("2. Relatorio de Vendas do Mes");
             System.out.println("3. Balanco Financeiro Mensal");
+            System.out.println("4. Balanco Financeiro por Periodo");
             System.out.println("0. Voltar");
             System.out.print("Escolha uma opcao: ");
 
@@ -63,6 +67,9 @@ public class GerenciadorRelatorios {
                 case 3:
                     balancoMensal(scanner);
                     break;
+                case 4:
+                    balancoPorPeriodo(scanner);
+                    break;
                 case 0:
                     break;
                 default:
@@ -82,14 +89,9 @@ public class GerenciadorRelatorios {
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
             LocalDate dataDesejada = LocalDate.parse(dataStr, formatter);
             
-            // Pega a lista completa de OS do gerenciador
-            List<OrdemDeServico> todasAsOS = gerenciadorOS.getListaOrdensDeServico();
-
-            // Filtra as OS que foram finalizadas na data desejada
-            List<OrdemDeServico> osDoDia = todasAsOS.stream()
-                .filter(os -> os.getStatus().equals("Finalizada"))
-                .filter(os -> os.getDataEmissao().toLocalDate().equals(dataDesejada))
-                .collect(Collectors.toList());
+            // Pega apenas as OS finalizadas na data desejada (indice por dia do gerenciador)
+            gerenciadorOS.carregarPeriodo(dataDesejada, dataDesejada);
+            List<OrdemDeServico> osDoDia = gerenciadorOS.listarOSFinalizadasNoDia(dataDesejada);
 
             System.out.println("\n--- RELATORIO DE VENDAS E SERVICOS - " + dataStr + " ---");
             if (osDoDia.isEmpty()) {
@@ -97,14 +99,13 @@ public class GerenciadorRelatorios {
                 return;
             }
 
-            double totalReceitas = 0;
             for (OrdemDeServico os : osDoDia) {
-                System.out.println("OS #" + os.getIdOrdemDeServico() + " | Cliente: " + os.getNomeCliente() + " | Valor: R$" + String.format("%.2f", os.getValorTotal()));
-                totalReceitas += os.getValorTotal();
+                System.out.println("OS #" + os.getIdOrdemDeServico() + " | Cliente: " + os.getNomeCliente() + " | Valor: " + Dinheiro.formatar(os.getValorTotalCentavos()));
             }
+            long totalReceitas = gerenciadorOS.getReceitas().doDia(dataDesejada).getTotalCentavos();
 
             System.out.println("----------------------------------------------");
-            System.out.println("Total de Receitas do Dia: R$" + String.format("%.2f", totalReceitas));
+            System.out.println("Total de Receitas do Dia: " + Dinheiro.formatar(totalReceitas));
             System.out.println("----------------------------------------------");
 
         } catch (DateTimeParseException e) {
@@ -124,21 +125,18 @@ public class GerenciadorRelatorios {
             int mes = Integer.parseInt(partes[0]);
             int ano = Integer.parseInt(partes[1]);
 
-            List<OrdemDeServico> osDoMes = gerenciadorOS.getListaOrdensDeServico().stream()
-                .filter(os -> os.getStatus().equals("Finalizada"))
-                .filter(os -> os.getDataEmissao().getMonthValue() == mes && os.getDataEmissao().getYear() == ano)
-                .collect(Collectors.toList());
+            YearMonth mesAno = YearMonth.of(ano, mes);
+            gerenciadorOS.carregarPeriodo(mesAno.atDay(1), mesAno.atEndOfMonth());
+            TotaisPorPeriodo.Acumulado receitasDoMes = gerenciadorOS.getReceitas().doMes(mesAno);
 
             System.out.println("\n--- RELATORIO DE VENDAS E SERVICOS - " + mesAnoStr + " ---");
-            if (osDoMes.isEmpty()) {
+            if (receitasDoMes.getQuantidade() == 0) {
                 System.out.println("Nenhuma Ordem de Servico finalizada neste mes.");
                 return;
             }
-            
-            double totalReceitas = osDoMes.stream().mapToDouble(OrdemDeServico::getValorTotal).sum();
 
-            System.out.println("Total de Ordens de Servico Finalizadas: " + osDoMes.size());
-            System.out.println("Total de Receitas do Mes: R$" + String.format("%.2f", totalReceitas));
+            System.out.println("Total de Ordens de Servico Finalizadas: " + receitasDoMes.getQuantidade());
+            System.out.println("Total de Receitas do Mes: " + Dinheiro.formatar(receitasDoMes.getTotalCentavos()));
             System.out.println("-------------------------------------------------");
             
         } catch (Exception e) {
@@ -159,41 +157,77 @@ public class GerenciadorRelatorios {
             int mes = Integer.parseInt(partes[0]);
             int ano = Integer.parseInt(partes[1]);
 
-            // 1. Calcula as Receitas
-            double totalReceitas = gerenciadorOS.getListaOrdensDeServico().stream()
-                .filter(os -> os.getStatus().equals("Finalizada"))
-                .filter(os -> os.getDataEmissao().getMonthValue() == mes && os.getDataEmissao().getYear() == ano)
-                .mapToDouble(OrdemDeServico::getValorTotal)
-                .sum();
-
-            // 2. Calcula as Despesas
-            double totalDespesas = gerenciadorDespesas.getListaDespesas().stream()
-                .filter(d -> d.getData().getMonthValue() == mes && d.getData().getYear() == ano)
-                .mapToDouble(Despesa::getValor)
-                .sum();
-            
-            // 3. Calcula o resultado
-            double resultado = totalReceitas - totalDespesas;
-            
+            YearMonth mesAno = YearMonth.of(ano, mes);
+
+            // 1. Receitas e 2. Despesas ja acumuladas para o mes (carregando o mes, se for antigo)
+            gerenciadorOS.carregarPeriodo(mesAno.atDay(1), mesAno.atEndOfMonth());
+            gerenciadorDespesas.carregarPeriodo(mesAno.atDay(1), mesAno.atEndOfMonth());
+            long totalReceitas = gerenciadorOS.getReceitas().doMes(mesAno).getTotalCentavos();
+            long totalDespesas = gerenciadorDespesas.getTotaisDespesas().doMes(mesAno).getTotalCentavos();
+
             System.out.println("\n--- BALANCO MENSAL - " + Month.of(mes).name() + " / " + ano + " ---");
-            System.out.println(String.format("Total de Receitas (Vendas e Servicos): + R$ %.2f", totalReceitas));
-            System.out.println(String.format("Total de Despesas (Custos Fixos e Variaveis): - R$ %.2f", totalDespesas));
-            System.out.println("-------------------------------------------------------");
-            System.out.println(String.format("Resultado do Mes: R$ %.2f", resultado));
-            System.out.println("-------------------------------------------------------");
-            
-            if (resultado > 0) {
-                System.out.println("Status: LUCRO");
-            } else if (resultado < 0) {
-                System.out.println("Status: PREJUIZO");
-            } else {
-                System.out.println("Status: EMPATE");
-            }
+            exibirBalanco(totalReceitas, totalDespesas, "Resultado do Mes");
 
         } catch (Exception e) {
             System.out.println("Erro: Formato de data invalido ou dados incorretos.");
         }
     }
+
+    /**
+     * Gera e exibe um balanço financeiro de um intervalo de datas qualquer (inclusive nas duas pontas).
+     * @param scanner A instancia do Scanner para ler a entrada do usuario.
+     */
+    private void balancoPorPeriodo(Scanner scanner) {
+        try {
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+            System.out.print("\nDigite a data inicial (formato dd/MM/yyyy): ");
+            LocalDate inicio = LocalDate.parse(scanner.nextLine(), formatter);
+            System.out.print("Digite a data final (formato dd/MM/yyyy): ");
+            LocalDate fim = LocalDate.parse(scanner.nextLine(), formatter);
+
+            if (fim.isBefore(inicio)) {
+                System.out.println("Erro: A data final deve ser igual ou posterior a data inicial.");
+                return;
+            }
+
+            gerenciadorOS.carregarPeriodo(inicio, fim);
+            gerenciadorDespesas.carregarPeriodo(inicio, fim);
+            TotaisPorPeriodo.Acumulado receitas = gerenciadorOS.getReceitas().entre(inicio, fim);
+            TotaisPorPeriodo.Acumulado despesas = gerenciadorDespesas.getTotaisDespesas().entre(inicio, fim);
+
+            System.out.println("\n--- BALANCO DO PERIODO - " + inicio.format(formatter) + " a " + fim.format(formatter) + " ---");
+            System.out.println("Ordens de Servico Finalizadas: " + receitas.getQuantidade() + " | Despesas Lancadas: " + despesas.getQuantidade());
+            exibirBalanco(receitas.getTotalCentavos(), despesas.getTotalCentavos(), "Resultado do Periodo");
+
+        } catch (DateTimeParseException e) {
+            System.out.println("Erro: Formato de data invalido.");
+        }
+    }
+
+    /**
+     * Exibe as receitas, as despesas e o resultado (lucro, prejuizo ou empate) de um periodo.
+     * @param totalReceitas O total de receitas do periodo, em centavos.
+     * @param totalDespesas O total de despesas do periodo, em centavos.
+     * @param rotuloResultado O texto exibido antes do resultado (ex: "Resultado do Mes").
+     */
+    private void exibirBalanco(long totalReceitas, long totalDespesas, String rotuloResultado) {
+        // Calcula o resultado (exato, em centavos)
+        long resultado = Dinheiro.subtrair(totalReceitas, totalDespesas);
+
+        System.out.println(String.format("Total de Receitas (Vendas e Servicos): + R$ %.2f", Dinheiro.emReais(totalReceitas)));
+        System.out.println(String.format("Total de Despesas (Custos Fixos e Variaveis): - R$ %.2f", Dinheiro.emReais(totalDespesas)));
+        System.out.println("-------------------------------------------------------");
+        System.out.println(String.format(rotuloResultado + ": R$ %.2f", Dinheiro.emReais(resultado)));
+        System.out.println("-------------------------------------------------------");
+
+        if (resultado > 0) {
+            System.out.println("Status: LUCRO");
+        } else if (resultado < 0) {
+            System.out.println("Status: PREJUIZO");
+        } else {
+            System.out.println("Status: EMPATE");
+        }
+    }
     
     
 }
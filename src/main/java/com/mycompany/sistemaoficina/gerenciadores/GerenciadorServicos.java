@@ -1,11 +1,12 @@
 package com.mycompany.sistemaoficina.gerenciadores;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.mycompany.sistemaoficina.Dinheiro;
 import com.mycompany.sistemaoficina.Servico;
+import com.mycompany.sistemaoficina.indices.IndiceId;
+import com.mycompany.sistemaoficina.persistencia.Repositorio;
+import com.mycompany.sistemaoficina.persistencia.Repositorios;
+import com.mycompany.sistemaoficina.persistencia.SequenciaIds;
 
-import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
@@ -20,6 +21,8 @@ public class GerenciadorServicos {
     private List<Servico> listaServicos;
     private static final String ARQUIVO_SERVICOS_JSON = "servicos.json";
     private boolean dadosForamModificados;
+    private final IndiceId<Servico> indiceServicos = new IndiceId<>(Servico::getIdServico);
+    private final Repositorio<Servico> repositorio = Repositorios.abrir(ARQUIVO_SERVICOS_JSON, Servico.class, Servico::getIdServico);
  
     /**
      * Retorna a lista de todos os servicos cadastrados no catalogo.
@@ -35,6 +38,8 @@ public class GerenciadorServicos {
      */
     public GerenciadorServicos() {
         this.listaServicos = carregarServicos();
+        this.indiceServicos.reconstruir(this.listaServicos);
+        SequenciaIds.semear(SequenciaIds.SERVICOS, this.listaServicos, Servico::getIdServico);
         this.dadosForamModificados = false;
     }
     
@@ -92,11 +97,12 @@ public class GerenciadorServicos {
             System.out.print("Descricao do servico (ex: Troca de Oleo): ");
             String descricao = scanner.nextLine();
             System.out.print("Valor do servico (ex: 80.00): ");
-            double valor = Double.parseDouble(scanner.nextLine());
+            long valor = Dinheiro.ler(scanner.nextLine());
 
             int novoId = gerarProximoIdServico();
             Servico novoServico = new Servico(novoId, descricao, valor);
             this.listaServicos.add(novoServico);
+            this.indiceServicos.adicionar(novoServico);
             this.dadosForamModificados = true;
             System.out.println("Servico '" + descricao + "' cadastrado com sucesso! ID: " + novoId);
             System.out.println("Lembre-se de salvar as alteracoes no menu.");
@@ -130,7 +136,7 @@ public class GerenciadorServicos {
                 System.out.print("Novo valor (Deixe em branco para nao alterar): ");
                 String novoValorStr = scanner.nextLine();
                 if (!novoValorStr.isBlank()) {
-                    servico.setValor(Double.parseDouble(novoValorStr));
+                    servico.setValorCentavos(Dinheiro.ler(novoValorStr));
                     this.dadosForamModificados = true;
                 }
                 
@@ -184,17 +190,12 @@ public void listarServicos() {
     }
 
 /**
-     * Busca um servico na lista pelo seu ID unico.
+     * Busca um servico pelo seu ID unico, usando o indice por ID (O(1)).
      * @param idServico O ID do servico a ser procurado.
      * @return O objeto {@code Servico} se encontrado, ou {@code null}.
      */
 public Servico buscarServicoPorId(int idServico) {
-        for (Servico servico : this.listaServicos) {
-            if (servico.getIdServico() == idServico) {
-                return servico;
-            }
-        }
-        return null;
+        return indiceServicos.buscar(idServico);
     }
 
 /**
@@ -210,46 +211,32 @@ public void consultarCatalogoServicos(){
      * @return O proximo ID inteiro disponivel.
      */
    private int gerarProximoIdServico() {
-        if (listaServicos.isEmpty()) {
-            return 1;
-        }
-        return listaServicos.stream()
-                .mapToInt(Servico::getIdServico)
-                .max()
-                .orElse(0) + 1;
+        return SequenciaIds.proximo(SequenciaIds.SERVICOS);
     }
 
    /**
-     * Persiste a lista atual de servicos no arquivo servicos.json.
+     * Persiste a lista atual de servicos no repositorio (servicos.json por padrao).
      * Apos salvar, marca que nao ha mais dados modificados pendentes.
      */
     private void salvarServicos() {
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        try (Writer writer = new FileWriter(ARQUIVO_SERVICOS_JSON)) {
-            gson.toJson(this.listaServicos, writer);
+        if (repositorio.salvarTodos(this.listaServicos)) {
             this.dadosForamModificados = false; // <-- MUDANÇA 7: Reseta a flag apos salvar
-        } catch (IOException e) {
-            System.err.println("Erro ao salvar servicos: " + e.getMessage());
+        } else {
+            System.err.println("Erro ao salvar servicos.");
         }
     }
 
     /**
-     * Carrega a lista de servicos a partir do arquivo servicos.json.
+     * Carrega a lista de servicos do repositorio.
      * @return Uma {@code List<Servico>} com os dados carregados ou uma lista vazia.
      */
     private List<Servico> carregarServicos() {
-        try (Reader reader = new FileReader(ARQUIVO_SERVICOS_JSON)) {
-            Gson gson = new Gson();
-            List<Servico> servicos = gson.fromJson(reader, new TypeToken<List<Servico>>(){}.getType());
-            System.out.println("GerenciadorServicos: " + (servicos != null ? servicos.size() : 0) + " servicos carregados.");
-            return servicos != null ? servicos : new ArrayList<>();
-        } catch (FileNotFoundException e) {
+        if (!repositorio.existe()) {
             System.out.println("GerenciadorServicos: Arquivo 'servicos.json' nao encontrado. Iniciando com lista vazia.");
             return new ArrayList<>();
-        } catch (IOException e) {
-            System.err.println("Erro ao carregar servicos: " + e.getMessage());
-            return new ArrayList<>();
         }
+        List<Servico> servicos = repositorio.carregarTodos();
+        System.out.println("GerenciadorServicos: " + servicos.size() + " servicos carregados.");
+        return servicos;
     }
 }
-
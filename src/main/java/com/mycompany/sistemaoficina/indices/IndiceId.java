@@ -0,0 +1,99 @@
+package com.mycompany.sistemaoficina.indices;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Indice por ID usado pelos gerenciadores para que as buscas por ID sejam O(1),
+ * em vez de percorrer a lista inteira.
+ * O gerenciador continua dono da lista; o indice deve ser atualizado sempre que um
+ * elemento for adicionado, removido ou quando a lista for carregada do arquivo.
+ * @param <T> O tipo dos objetos indexados.
+ * @author santo
+ */
+public class IndiceId<T> {
+
+    private final ToIntFunction<T> extratorId;
+    private final MapaInt<T> mapa;
+
+    /**
+     * Construtor do indice.
+     * @param extratorId Funcao que retorna o ID de um objeto (ex: {@code Clientes::getId}).
+     */
+    public IndiceId(ToIntFunction<T> extratorId) {
+        this.extratorId = extratorId;
+        this.mapa = new MapaInt<>();
+    }
+
+    /**
+     * Adiciona (ou substitui) um objeto no indice.
+     * @param objeto O objeto a ser indexado.
+     */
+    public void adicionar(T objeto) {
+        mapa.put(extratorId.applyAsInt(objeto), objeto);
+    }
+
+    /**
+     * Remove um objeto do indice.
+     * @param objeto O objeto a ser removido.
+     */
+    public void remover(T objeto) {
+        mapa.remove(extratorId.applyAsInt(objeto));
+    }
+
+    /**
+     * Remove do indice o objeto com o ID informado.
+     * @param id O ID a ser removido.
+     * @return O objeto removido, ou {@code null}.
+     */
+    public T removerPorId(int id) {
+        return mapa.remove(id);
+    }
+
+    /**
+     * Busca um objeto pelo seu ID.
+     * @param id O ID procurado.
+     * @return O objeto encontrado, ou {@code null}.
+     */
+    public T buscar(int id) {
+        return mapa.get(id);
+    }
+
+    /**
+     * Verifica se ha um objeto com o ID informado.
+     * @param id O ID procurado.
+     * @return true se o ID estiver indexado.
+     */
+    public boolean contem(int id) {
+        return mapa.contem(id);
+    }
+
+    /**
+     * Descarta o conteudo atual e indexa novamente todos os objetos da colecao.
+     * Usado apos carregar os dados do arquivo.
+     * @param objetos A colecao completa de objetos.
+     */
+    public void reconstruir(Collection<? extends T> objetos) {
+        mapa.limpar();
+        for (T objeto : objetos) {
+            adicionar(objeto);
+        }
+    }
+
+    /**
+     * Retorna uma copia dos objetos indexados (em ordem nao definida).
+     * @return Uma nova lista com os objetos.
+     */
+    public List<T> valores() {
+        return mapa.valores();
+    }
+
+    /**
+     * Retorna a quantidade de objetos indexados.
+     * @return O tamanho do indice.
+     */
+    public int tamanho() {
+        return mapa.tamanho();
+    }
+}
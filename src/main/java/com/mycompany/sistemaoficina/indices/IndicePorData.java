@@ -0,0 +1,142 @@
+package com.mycompany.sistemaoficina.indices;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Indice ordenado por data/hora, usado para consultar a agenda por intervalo de tempo
+ * (ex: agendamentos do dia, proximos agendamentos) em tempo logaritmico, sem ordenar a lista a cada consulta.
+ * Objetos com o mesmo horario ficam na ordem em que foram adicionados; objetos sem data ficam a parte
+ * e aparecem no final de {@link #emOrdem()}.
+ * Assim como o {@link IndiceId}, o gerenciador continua dono da lista e deve atualizar o indice;
+ * a data de um objeto nao pode mudar enquanto ele estiver indexado (remova, altere e adicione de novo).
+ * @param <T> O tipo dos objetos indexados.
+ * @author santo
+ */
+public class IndicePorData<T> {
+
+    private final Function<T, LocalDateTime> extratorData;
+    private final TreeMap<LocalDateTime, List<T>> porData = new TreeMap<>();
+    private final List<T> semData = new ArrayList<>();
+    private int tamanho;
+
+    /**
+     * Construtor do indice.
+     * @param extratorData Funcao que retorna a data/hora de um objeto (ex: {@code Agendamento::getDataHora}).
+     */
+    public IndicePorData(Function<T, LocalDateTime> extratorData) {
+        this.extratorData = extratorData;
+    }
+
+    /**
+     * Adiciona um objeto no indice.
+     * @param objeto O objeto a ser indexado.
+     */
+    public void adicionar(T objeto) {
+        LocalDateTime data = extratorData.apply(objeto);
+        if (data == null) {
+            semData.add(objeto);
+        } else {
+            porData.computeIfAbsent(data, d -> new ArrayList<>(1)).add(objeto);
+        }
+        tamanho++;
+    }
+
+    /**
+     * Remove um objeto do indice.
+     * @param objeto O objeto a ser removido.
+     * @return true se o objeto estava indexado.
+     */
+    public boolean remover(T objeto) {
+        LocalDateTime data = extratorData.apply(objeto);
+        boolean removido;
+        if (data == null) {
+            removido = semData.remove(objeto);
+        } else {
+            List<T> doHorario = porData.get(data);
+            removido = doHorario != null && doHorario.remove(objeto);
+            if (removido && doHorario.isEmpty()) {
+                porData.remove(data);
+            }
+        }
+        if (removido) {
+            tamanho--;
+        }
+        return removido;
+    }
+
+    /**
+     * Descarta o conteudo atual e indexa novamente todos os objetos da colecao.
+     * @param objetos A colecao completa de objetos.
+     */
+    public void reconstruir(Collection<? extends T> objetos) {
+        porData.clear();
+        semData.clear();
+        tamanho = 0;
+        for (T objeto : objetos) {
+            adicionar(objeto);
+        }
+    }
+
+    /**
+     * Retorna os objetos com data no intervalo [inicio, fim), em ordem de data.
+     * @param inicio O inicio do intervalo (inclusive).
+     * @param fim O fim do intervalo (exclusive).
+     * @return Uma nova lista com os objetos do intervalo (vazia se o intervalo for vazio).
+     */
+    public List<T> entre(LocalDateTime inicio, LocalDateTime fim) {
+        List<T> resultado = new ArrayList<>();
+        if (!fim.isAfter(inicio)) {
+            return resultado;
+        }
+        for (List<T> doHorario : porData.subMap(inicio, true, fim, false).values()) {
+            resultado.addAll(doHorario);
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna os primeiros objetos com data a partir de um instante, em ordem de data.
+     * @param aPartirDe O instante inicial (inclusive).
+     * @param quantidade A quantidade maxima de objetos.
+     * @return Uma nova lista com ate {@code quantidade} objetos.
+     */
+    public List<T> proximos(LocalDateTime aPartirDe, int quantidade) {
+        List<T> resultado = new ArrayList<>(Math.max(0, Math.min(quantidade, tamanho)));
+        for (Map.Entry<LocalDateTime, List<T>> entrada : porData.tailMap(aPartirDe, true).entrySet()) {
+            for (T objeto : entrada.getValue()) {
+                if (resultado.size() >= quantidade) {
+                    return resultado;
+                }
+                resultado.add(objeto);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Retorna todos os objetos em ordem de data, com os objetos sem data no final.
+     * @return Uma nova lista com todos os objetos.
+     */
+    public List<T> emOrdem() {
+        List<T> resultado = new ArrayList<>(tamanho);
+        for (List<T> doHorario : porData.values()) {
+            resultado.addAll(doHorario);
+        }
+        resultado.addAll(semData);
+        return resultado;
+    }
+
+    /**
+     * Retorna a quantidade de objetos indexados.
+     * @return O tamanho do indice.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+}
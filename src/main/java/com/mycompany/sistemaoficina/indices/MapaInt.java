@@ -0,0 +1,217 @@
+package com.mycompany.sistemaoficina.indices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Tabela hash com chaves primitivas {@code int}, sem conversao para {@code Integer}.
+ * Usa enderecamento aberto com sondagem linear e remocao por deslocamento para tras,
+ * o que mantem as buscas em O(1) medio sem deixar marcadores de remocao na tabela.
+ * Valores {@code null} nao sao permitidos, pois uma posicao com valor nulo indica posicao livre.
+ * @param <V> O tipo dos valores armazenados.
+ * @author santo
+ */
+public class MapaInt<V> {
+
+    private static final int CAPACIDADE_INICIAL = 16;
+
+    private int[] chaves;
+    private Object[] valores;
+    private int tamanho;
+    private int mascara;
+
+    /**
+     * Construtor padrao. Cria uma tabela vazia com a capacidade inicial.
+     */
+    public MapaInt() {
+        this(CAPACIDADE_INICIAL);
+    }
+
+    /**
+     * Cria uma tabela dimensionada para receber a quantidade esperada de elementos sem redimensionar.
+     * @param quantidadeEsperada Quantidade de elementos que se espera armazenar.
+     */
+    public MapaInt(int quantidadeEsperada) {
+        int capacidade = CAPACIDADE_INICIAL;
+        while (capacidade < quantidadeEsperada * 2) {
+            capacidade <<= 1;
+        }
+        alocar(capacidade);
+    }
+
+    /**
+     * Retorna o valor associado a chave.
+     * @param chave A chave procurada.
+     * @return O valor associado, ou {@code null} se a chave nao existir.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int chave) {
+        int i = indiceInicial(chave);
+        while (valores[i] != null) {
+            if (chaves[i] == chave) {
+                return (V) valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica se a chave esta presente na tabela.
+     * @param chave A chave procurada.
+     * @return true se existir um valor associado a chave.
+     */
+    public boolean contem(int chave) {
+        return get(chave) != null;
+    }
+
+    /**
+     * Associa um valor a chave, substituindo o valor anterior se houver.
+     * @param chave A chave.
+     * @param valor O valor (nao pode ser nulo).
+     * @return O valor anterior associado a chave, ou {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int chave, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("MapaInt nao aceita valores nulos.");
+        }
+        int i = indiceInicial(chave);
+        while (valores[i] != null) {
+            if (chaves[i] == chave) {
+                V anterior = (V) valores[i];
+                valores[i] = valor;
+                return anterior;
+            }
+            i = (i + 1) & mascara;
+        }
+        chaves[i] = chave;
+        valores[i] = valor;
+        tamanho++;
+        if (tamanho * 2 > valores.length) {
+            redimensionar(valores.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Remove a chave da tabela.
+     * Os elementos seguintes do mesmo agrupamento sao deslocados para tras,
+     * para que nenhuma busca posterior seja interrompida por uma posicao vazia.
+     * @param chave A chave a ser removida.
+     * @return O valor que estava associado a chave, ou {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int chave) {
+        int i = indiceInicial(chave);
+        while (valores[i] != null) {
+            if (chaves[i] == chave) {
+                V removido = (V) valores[i];
+                deslocarParaTras(i);
+                tamanho--;
+                return removido;
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Retorna a quantidade de chaves armazenadas.
+     * @return O tamanho da tabela.
+     */
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Verifica se a tabela esta vazia.
+     * @return true se nao houver nenhuma chave.
+     */
+    public boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    /**
+     * Remove todas as chaves, mantendo a capacidade atual.
+     */
+    public void limpar() {
+        Arrays.fill(valores, null);
+        tamanho = 0;
+    }
+
+    /**
+     * Executa uma acao para cada valor armazenado (em ordem nao definida).
+     * @param acao A acao a ser executada.
+     */
+    @SuppressWarnings("unchecked")
+    public void paraCadaValor(Consumer<? super V> acao) {
+        for (Object valor : valores) {
+            if (valor != null) {
+                acao.accept((V) valor);
+            }
+        }
+    }
+
+    /**
+     * Retorna uma copia dos valores armazenados (em ordem nao definida).
+     * @return Uma nova lista com os valores.
+     */
+    public List<V> valores() {
+        List<V> lista = new ArrayList<>(tamanho);
+        paraCadaValor(lista::add);
+        return lista;
+    }
+
+    /**
+     * Calcula a posicao inicial de uma chave, espalhando os bits para evitar agrupamentos
+     * quando as chaves sao sequenciais (caso comum dos IDs do sistema).
+     */
+    private int indiceInicial(int chave) {
+        int h = chave * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mascara;
+    }
+
+    private void deslocarParaTras(int livre) {
+        int i = livre;
+        while (true) {
+            i = (i + 1) & mascara;
+            if (valores[i] == null) {
+                break;
+            }
+            int ideal = indiceInicial(chaves[i]);
+            // Move o elemento se a posicao livre estiver entre a posicao ideal dele e a atual (circularmente).
+            boolean mover = (i > livre) ? (ideal <= livre || ideal > i) : (ideal <= livre && ideal > i);
+            if (mover) {
+                chaves[livre] = chaves[i];
+                valores[livre] = valores[i];
+                livre = i;
+            }
+        }
+        valores[livre] = null;
+    }
+
+    private void alocar(int capacidade) {
+        this.chaves = new int[capacidade];
+        this.valores = new Object[capacidade];
+        this.mascara = capacidade - 1;
+    }
+
+    private void redimensionar(int novaCapacidade) {
+        int[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        alocar(novaCapacidade);
+        for (int i = 0; i < valoresAntigos.length; i++) {
+            if (valoresAntigos[i] != null) {
+                int j = indiceInicial(chavesAntigas[i]);
+                while (valores[j] != null) {
+                    j = (j + 1) & mascara;
+                }
+                chaves[j] = chavesAntigas[i];
+                valores[j] = valoresAntigos[i];
+            }
+        }
+    }
+}
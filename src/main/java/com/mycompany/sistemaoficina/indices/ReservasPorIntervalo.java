@@ -0,0 +1,184 @@
+package com.mycompany.sistemaoficina.indices;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reservas de recursos (ex: elevadores) por intervalo de tempo [inicio, fim).
+ * As reservas de um mesmo recurso nunca se sobrepoem, entao cada recurso guarda as suas em um mapa
+ * ordenado pelo inicio: o conflito de um novo intervalo so pode ser com a reserva imediatamente anterior
+ * ou com a imediatamente posterior, e a verificacao de disponibilidade custa O(log n).
+ * Cada reserva e identificada por um ID (ex: o ID do agendamento), que pode ter no maximo uma reserva.
+ * @author santo
+ */
+public class ReservasPorIntervalo {
+
+    /**
+     * Uma reserva de um recurso em um intervalo de tempo.
+     */
+    public static class Reserva {
+        private final int id;
+        private final int recurso;
+        private final LocalDateTime inicio;
+        private final LocalDateTime fim;
+
+        private Reserva(int id, int recurso, LocalDateTime inicio, LocalDateTime fim) {
+            this.id = id;
+            this.recurso = recurso;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        /**
+         * @return O ID da reserva (ex: o ID do agendamento).
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return O recurso reservado (ex: o numero do elevador).
+         */
+        public int getRecurso() {
+            return recurso;
+        }
+
+        /**
+         * @return O inicio da reserva (inclusive).
+         */
+        public LocalDateTime getInicio() {
+            return inicio;
+        }
+
+        /**
+         * @return O fim da reserva (exclusive).
+         */
+        public LocalDateTime getFim() {
+            return fim;
+        }
+    }
+
+    private final Map<Integer, TreeMap<LocalDateTime, Reserva>> porRecurso = new HashMap<>();
+    private final Map<Integer, Reserva> porId = new HashMap<>();
+
+    /**
+     * Verifica se um recurso esta livre em todo o intervalo.
+     * @param recurso O recurso.
+     * @param inicio O inicio do intervalo (inclusive).
+     * @param fim O fim do intervalo (exclusive).
+     * @return true se nenhuma reserva do recurso se sobrepoe ao intervalo.
+     */
+    public boolean livre(int recurso, LocalDateTime inicio, LocalDateTime fim) {
+        return conflito(recurso, inicio, fim) == null;
+    }
+
+    /**
+     * Reserva um recurso no intervalo, se ele estiver livre. Uma reserva anterior com o mesmo ID e substituida.
+     * @param recurso O recurso.
+     * @param id O ID da reserva.
+     * @param inicio O inicio do intervalo (inclusive).
+     * @param fim O fim do intervalo (exclusive); deve ser posterior ao inicio.
+     * @return true se a reserva foi feita, false se o recurso ja estava reservado no intervalo.
+     * @throws IllegalArgumentException se o intervalo for vazio.
+     */
+    public boolean reservar(int recurso, int id, LocalDateTime inicio, LocalDateTime fim) {
+        if (!fim.isAfter(inicio)) {
+            throw new IllegalArgumentException("Intervalo de reserva vazio: " + inicio + " a " + fim);
+        }
+        Reserva anterior = porId.get(id);
+        Reserva conflito = conflito(recurso, inicio, fim);
+        if (conflito != null && conflito != anterior) {
+            return false;
+        }
+        if (anterior != null) {
+            cancelar(id);
+            // A reserva anterior do mesmo ID podia esconder um segundo conflito.
+            if (!livre(recurso, inicio, fim)) {
+                incluir(anterior);
+                return false;
+            }
+        }
+        incluir(new Reserva(id, recurso, inicio, fim));
+        return true;
+    }
+
+    /**
+     * Cancela a reserva de um ID.
+     * @param id O ID da reserva.
+     * @return A reserva cancelada, ou null se nao havia reserva.
+     */
+    public Reserva cancelar(int id) {
+        Reserva reserva = porId.remove(id);
+        if (reserva != null) {
+            TreeMap<LocalDateTime, Reserva> doRecurso = porRecurso.get(reserva.recurso);
+            doRecurso.remove(reserva.inicio);
+            if (doRecurso.isEmpty()) {
+                porRecurso.remove(reserva.recurso);
+            }
+        }
+        return reserva;
+    }
+
+    /**
+     * Busca a reserva de um ID.
+     * @param id O ID da reserva.
+     * @return A reserva, ou null se nao houver.
+     */
+    public Reserva buscar(int id) {
+        return porId.get(id);
+    }
+
+    /**
+     * Retorna o primeiro horario, a partir do informado, em que o recurso fica livre pela duracao pedida.
+     * @param recurso O recurso.
+     * @param aPartirDe O horario desejado.
+     * @param duracao A duracao necessaria.
+     * @return O inicio do primeiro intervalo livre (o proprio horario desejado, se estiver livre).
+     */
+    public LocalDateTime proximoHorarioLivre(int recurso, LocalDateTime aPartirDe, Duration duracao) {
+        LocalDateTime candidato = aPartirDe;
+        Reserva conflito;
+        // Cada conflito empurra o candidato para o fim da reserva; as reservas seguintes estao em ordem.
+        while ((conflito = conflito(recurso, candidato, candidato.plus(duracao))) != null) {
+            candidato = conflito.fim;
+        }
+        return candidato;
+    }
+
+    /**
+     * Retorna a quantidade de reservas.
+     * @return O total de reservas.
+     */
+    public int tamanho() {
+        return porId.size();
+    }
+
+    /**
+     * Descarta todas as reservas.
+     */
+    public void limpar() {
+        porRecurso.clear();
+        porId.clear();
+    }
+
+    private void incluir(Reserva reserva) {
+        porRecurso.computeIfAbsent(reserva.recurso, r -> new TreeMap<>()).put(reserva.inicio, reserva);
+        porId.put(reserva.id, reserva);
+    }
+
+    /**
+     * Retorna a reserva do recurso que se sobrepoe ao intervalo, ou null. Como as reservas do recurso
+     * nao se sobrepoem, basta olhar a ultima que comeca antes do fim do intervalo.
+     */
+    private Reserva conflito(int recurso, LocalDateTime inicio, LocalDateTime fim) {
+        TreeMap<LocalDateTime, Reserva> doRecurso = porRecurso.get(recurso);
+        if (doRecurso == null) {
+            return null;
+        }
+        Map.Entry<LocalDateTime, Reserva> anterior = doRecurso.lowerEntry(fim);
+        return anterior != null && anterior.getValue().fim.isAfter(inicio) ? anterior.getValue() : null;
+    }
+}
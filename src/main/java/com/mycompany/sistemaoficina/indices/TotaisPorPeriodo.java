@@ -0,0 +1,163 @@
+package com.mycompany.sistemaoficina.indices;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Totais acumulados por dia e por mes, mantidos de forma incremental.
+ * Cada lancamento (OS finalizada, despesa lancada) e somado uma unica vez no seu dia e no seu mes,
+ * de modo que os relatorios consultam o total pronto em vez de percorrer todo o historico.
+ * Os valores sao somados em centavos (ver {@link com.mycompany.sistemaoficina.Dinheiro}), entao os totais sao exatos.
+ * O gerenciador dono dos dados e responsavel por registrar cada lancamento e por reconstruir
+ * os totais apos carregar os dados do arquivo.
+ * @author santo
+ */
+public class TotaisPorPeriodo {
+
+    private final TreeMap<LocalDate, Acumulado> porDia = new TreeMap<>();
+    private final Map<YearMonth, Acumulado> porMes = new HashMap<>();
+
+    /**
+     * Soma e quantidade de lancamentos de um periodo.
+     */
+    public static class Acumulado {
+        private long totalCentavos;
+        private int quantidade;
+
+        private void somar(long valorCentavos) {
+            this.totalCentavos += valorCentavos;
+            this.quantidade++;
+        }
+
+        private void subtrair(long valorCentavos) {
+            this.totalCentavos -= valorCentavos;
+            this.quantidade--;
+        }
+
+        private void somar(Acumulado outro) {
+            this.totalCentavos += outro.totalCentavos;
+            this.quantidade += outro.quantidade;
+        }
+
+        /**
+         * @return A soma dos valores lancados no periodo, em centavos.
+         */
+        public long getTotalCentavos() {
+            return totalCentavos;
+        }
+
+        /**
+         * @return A quantidade de lancamentos no periodo.
+         */
+        public int getQuantidade() {
+            return quantidade;
+        }
+    }
+
+    /**
+     * Registra um lancamento no dia e no mes correspondentes a data informada.
+     * Lancamentos sem data sao ignorados, pois nao pertencem a nenhum periodo.
+     * @param data A data do lancamento.
+     * @param valorCentavos O valor lancado, em centavos.
+     */
+    public void registrar(LocalDateTime data, long valorCentavos) {
+        if (data == null) {
+            return;
+        }
+        LocalDate dia = data.toLocalDate();
+        porDia.computeIfAbsent(dia, d -> new Acumulado()).somar(valorCentavos);
+        porMes.computeIfAbsent(YearMonth.from(dia), m -> new Acumulado()).somar(valorCentavos);
+    }
+
+    /**
+     * Desfaz um lancamento registrado (usado quando o lancamento sai da memoria, ex: OS arquivada).
+     * @param data A data do lancamento.
+     * @param valorCentavos O valor lancado, em centavos.
+     */
+    public void remover(LocalDateTime data, long valorCentavos) {
+        if (data == null) {
+            return;
+        }
+        LocalDate dia = data.toLocalDate();
+        subtrair(porDia, dia, valorCentavos);
+        subtrair(porMes, YearMonth.from(dia), valorCentavos);
+    }
+
+    private static <K> void subtrair(Map<K, Acumulado> totais, K periodo, long valorCentavos) {
+        Acumulado acumulado = totais.get(periodo);
+        if (acumulado == null) {
+            return;
+        }
+        acumulado.subtrair(valorCentavos);
+        if (acumulado.quantidade <= 0) {
+            totais.remove(periodo);
+        }
+    }
+
+    /**
+     * Retorna os totais de um dia.
+     * @param dia O dia desejado.
+     * @return O acumulado do dia (zerado se nao houver lancamentos).
+     */
+    public Acumulado doDia(LocalDate dia) {
+        Acumulado acumulado = porDia.get(dia);
+        return acumulado != null ? acumulado : new Acumulado();
+    }
+
+    /**
+     * Retorna os totais de um mes.
+     * @param mes O mes desejado.
+     * @return O acumulado do mes (zerado se nao houver lancamentos).
+     */
+    public Acumulado doMes(YearMonth mes) {
+        Acumulado acumulado = porMes.get(mes);
+        return acumulado != null ? acumulado : new Acumulado();
+    }
+
+    /**
+     * Retorna os totais de um intervalo de datas (inclusive nas duas pontas).
+     * Meses completos dentro do intervalo usam o total mensal; apenas os meses das pontas
+     * sao somados dia a dia.
+     * @param inicio O primeiro dia do intervalo.
+     * @param fim O ultimo dia do intervalo.
+     * @return O acumulado do intervalo (zerado se o intervalo for vazio).
+     */
+    public Acumulado entre(LocalDate inicio, LocalDate fim) {
+        Acumulado resultado = new Acumulado();
+        if (fim.isBefore(inicio)) {
+            return resultado;
+        }
+        YearMonth mes = YearMonth.from(inicio);
+        YearMonth ultimoMes = YearMonth.from(fim);
+        while (!mes.isAfter(ultimoMes)) {
+            LocalDate primeiroDia = mes.atDay(1);
+            LocalDate ultimoDia = mes.atEndOfMonth();
+            if (!inicio.isAfter(primeiroDia) && !fim.isBefore(ultimoDia)) {
+                Acumulado doMes = porMes.get(mes);
+                if (doMes != null) {
+                    resultado.somar(doMes);
+                }
+            } else {
+                LocalDate de = inicio.isAfter(primeiroDia) ? inicio : primeiroDia;
+                LocalDate ate = fim.isBefore(ultimoDia) ? fim : ultimoDia;
+                for (Acumulado doDia : porDia.subMap(de, true, ate, true).values()) {
+                    resultado.somar(doDia);
+                }
+            }
+            mes = mes.plusMonths(1);
+        }
+        return resultado;
+    }
+
+    /**
+     * Descarta todos os totais (usado antes de reconstruir a partir dos dados carregados).
+     */
+    public void limpar() {
+        porDia.clear();
+        porMes.clear();
+    }
+}
@@ -0,0 +1,160 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.Elevador;
+import com.mycompany.sistemaoficina.Funcionario;
+import com.mycompany.sistemaoficina.StatusAgendamento;
+import com.mycompany.sistemaoficina.Veiculo;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Adaptador de streaming para {@link Agendamento}, sem uso de reflexao.
+ * Cliente, veiculo e data usam os adaptadores de streaming; mecanico e elevador
+ * (objetos pequenos e pouco frequentes) usam os adaptadores padrao do Gson.
+ * @author santo
+ */
+public class AdaptadorAgendamento extends TypeAdapter<Agendamento> {
+
+    private final TypeAdapter<Clientes> adaptadorClientes;
+    private final TypeAdapter<Veiculo> adaptadorVeiculo;
+    private final TypeAdapter<LocalDateTime> adaptadorData;
+    private final TypeAdapter<Funcionario> adaptadorFuncionario;
+    private final TypeAdapter<Elevador> adaptadorElevador;
+
+    /**
+     * Construtor do adaptador.
+     * @param adaptadorClientes Adaptador do cliente.
+     * @param adaptadorVeiculo Adaptador do veiculo.
+     * @param adaptadorData Adaptador da data/hora.
+     * @param adaptadorFuncionario Adaptador do mecanico responsavel.
+     * @param adaptadorElevador Adaptador do elevador alocado.
+     */
+    public AdaptadorAgendamento(TypeAdapter<Clientes> adaptadorClientes, TypeAdapter<Veiculo> adaptadorVeiculo,
+            TypeAdapter<LocalDateTime> adaptadorData, TypeAdapter<Funcionario> adaptadorFuncionario,
+            TypeAdapter<Elevador> adaptadorElevador) {
+        this.adaptadorClientes = adaptadorClientes;
+        this.adaptadorVeiculo = adaptadorVeiculo;
+        this.adaptadorData = adaptadorData;
+        this.adaptadorFuncionario = adaptadorFuncionario;
+        this.adaptadorElevador = adaptadorElevador;
+    }
+
+    @Override
+    public void write(JsonWriter out, Agendamento agendamento) throws IOException {
+        if (agendamento == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idAgendamento").value(agendamento.getIdAgendamento());
+        if (agendamento.getCliente() != null) {
+            out.name("cliente");
+            adaptadorClientes.write(out, agendamento.getCliente());
+        }
+        if (agendamento.getVeiculo() != null) {
+            out.name("veiculo");
+            adaptadorVeiculo.write(out, agendamento.getVeiculo());
+        }
+        if (agendamento.getDataHora() != null) {
+            out.name("dataHora");
+            adaptadorData.write(out, agendamento.getDataHora());
+        }
+        out.name("descricaoProblema").value(agendamento.getDescricaoProblema());
+        out.name("status").value(agendamento.getStatus().getDescricao());
+        if (agendamento.getMecanicoResponsavel() != null) {
+            out.name("mecanicoResponsavel");
+            adaptadorFuncionario.write(out, agendamento.getMecanicoResponsavel());
+        }
+        out.name("valorRetidoCancelamento");
+        LeituraJson.escreverCentavos(out, agendamento.getValorRetidoCancelamentoCentavos());
+        if (agendamento.getElevadorAlocado() != null) {
+            out.name("elevadorAlocado");
+            adaptadorElevador.write(out, agendamento.getElevadorAlocado());
+        }
+        if (agendamento.getNumeroElevadorReservado() > 0) {
+            out.name("elevadorReservado").value(agendamento.getNumeroElevadorReservado());
+            if (agendamento.getInicioReserva() != null) {
+                out.name("inicioReserva");
+                adaptadorData.write(out, agendamento.getInicioReserva());
+            }
+            if (agendamento.getFimPrevisto() != null) {
+                out.name("fimPrevisto");
+                adaptadorData.write(out, agendamento.getFimPrevisto());
+            }
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Agendamento read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        Agendamento agendamento = new Agendamento();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "idAgendamento":
+                    agendamento.setIdAgendamento(in.nextInt());
+                    break;
+                case "cliente":
+                    agendamento.setCliente(adaptadorClientes.read(in));
+                    break;
+                case "veiculo":
+                    agendamento.setVeiculo(adaptadorVeiculo.read(in));
+                    break;
+                case "dataHora":
+                    agendamento.setDataHora(adaptadorData.read(in));
+                    break;
+                case "descricaoProblema":
+                    agendamento.setDescricaoProblema(LeituraJson.lerString(in));
+                    break;
+                case "status":
+                    agendamento.setStatus(lerStatus(LeituraJson.lerString(in)));
+                    break;
+                case "mecanicoResponsavel":
+                    agendamento.setMecanicoResponsavel(adaptadorFuncionario.read(in));
+                    break;
+                case "valorRetidoCancelamento":
+                    agendamento.setValorRetidoCancelamentoCentavos(LeituraJson.lerCentavos(in));
+                    break;
+                case "elevadorAlocado":
+                    agendamento.setElevadorAlocado(adaptadorElevador.read(in));
+                    break;
+                case "elevadorReservado":
+                    agendamento.setNumeroElevadorReservado(in.nextInt());
+                    break;
+                case "inicioReserva":
+                    agendamento.setInicioReserva(adaptadorData.read(in));
+                    break;
+                case "fimPrevisto":
+                    agendamento.setFimPrevisto(adaptadorData.read(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return agendamento;
+    }
+
+    /**
+     * Converte o texto do status, tratando um texto desconhecido como arquivo invalido.
+     * @param descricao O texto lido.
+     * @return O status correspondente.
+     * @throws IOException se o texto nao corresponder a nenhum status.
+     */
+    static StatusAgendamento lerStatus(String descricao) throws IOException {
+        try {
+            return StatusAgendamento.deDescricao(descricao);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
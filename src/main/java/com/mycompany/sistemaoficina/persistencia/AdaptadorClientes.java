@@ -0,0 +1,103 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.Veiculo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Adaptador de streaming para {@link Clientes}, sem uso de reflexao.
+ * Mantem os mesmos nomes de campos do JSON gravado por reflexao, portanto le os arquivos existentes.
+ * @author santo
+ */
+public class AdaptadorClientes extends TypeAdapter<Clientes> {
+
+    private final TypeAdapter<Veiculo> adaptadorVeiculo;
+
+    /**
+     * Construtor do adaptador.
+     * @param adaptadorVeiculo O adaptador usado para a lista de veiculos do cliente.
+     */
+    public AdaptadorClientes(TypeAdapter<Veiculo> adaptadorVeiculo) {
+        this.adaptadorVeiculo = adaptadorVeiculo;
+    }
+
+    @Override
+    public void write(JsonWriter out, Clientes cliente) throws IOException {
+        if (cliente == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(cliente.getId());
+        out.name("nome").value(cliente.getNome());
+        out.name("endereco").value(cliente.getEndereco());
+        out.name("telefone").value(cliente.getTelefone());
+        out.name("email").value(cliente.getEmail());
+        out.name("cpfAnonimizado").value(cliente.getCpfAnonimizado());
+        if (cliente.getVeiculos() != null) {
+            out.name("veiculos");
+            out.beginArray();
+            for (Veiculo veiculo : cliente.getVeiculos()) {
+                adaptadorVeiculo.write(out, veiculo);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Clientes read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        Clientes cliente = new Clientes();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id":
+                    cliente.setId(in.nextInt());
+                    break;
+                case "nome":
+                    cliente.setNome(LeituraJson.lerString(in));
+                    break;
+                case "endereco":
+                    cliente.setEndereco(LeituraJson.lerString(in));
+                    break;
+                case "telefone":
+                    cliente.setTelefone(LeituraJson.lerString(in));
+                    break;
+                case "email":
+                    cliente.setEmail(LeituraJson.lerString(in));
+                    break;
+                case "cpfAnonimizado":
+                    cliente.setCpfAnonimizado(LeituraJson.lerString(in));
+                    break;
+                case "veiculos":
+                    cliente.setVeiculos(lerVeiculos(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return cliente;
+    }
+
+    private ArrayList<Veiculo> lerVeiculos(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        ArrayList<Veiculo> veiculos = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            veiculos.add(adaptadorVeiculo.read(in));
+        }
+        in.endArray();
+        return veiculos;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Despesa;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Adaptador de streaming para {@link Despesa}, sem uso de reflexao.
+ * O valor fica em centavos na memoria, mas continua gravado em reais no arquivo ("valor"),
+ * no mesmo formato que o Gson gerava por reflexao.
+ * @author santo
+ */
+public class AdaptadorDespesa extends TypeAdapter<Despesa> {
+
+    private final TypeAdapter<LocalDateTime> adaptadorData;
+
+    /**
+     * Construtor do adaptador.
+     * @param adaptadorData O adaptador usado para a data da despesa.
+     */
+    public AdaptadorDespesa(TypeAdapter<LocalDateTime> adaptadorData) {
+        this.adaptadorData = adaptadorData;
+    }
+
+    @Override
+    public void write(JsonWriter out, Despesa despesa) throws IOException {
+        if (despesa == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idDespesa").value(despesa.getIdDespesa());
+        out.name("descricao").value(despesa.getDescricao());
+        out.name("valor");
+        LeituraJson.escreverCentavos(out, despesa.getValorCentavos());
+        if (despesa.getData() != null) {
+            out.name("data");
+            adaptadorData.write(out, despesa.getData());
+        }
+        out.name("categoria").value(despesa.getCategoria());
+        out.endObject();
+    }
+
+    @Override
+    public Despesa read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        Despesa despesa = new Despesa();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "idDespesa":
+                    despesa.setIdDespesa(in.nextInt());
+                    break;
+                case "descricao":
+                    despesa.setDescricao(LeituraJson.lerString(in));
+                    break;
+                case "valor":
+                    despesa.setValorCentavos(LeituraJson.lerCentavos(in));
+                    break;
+                case "data":
+                    despesa.setData(adaptadorData.read(in));
+                    break;
+                case "categoria":
+                    despesa.setCategoria(LeituraJson.lerString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return despesa;
+    }
+}
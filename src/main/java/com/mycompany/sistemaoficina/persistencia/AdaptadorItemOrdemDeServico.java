@@ -0,0 +1,73 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
+
+import java.io.IOException;
+
+/**
+ * Adaptador de streaming para {@link ItemOrdemDeServico}, sem uso de reflexao.
+ * Tambem le os itens no formato antigo, em que a OS guardava uma copia completa do Servico
+ * ("idServico", "descricao", "valor") ou do Produto ("idProduto", "nome", "precoVenda", ...):
+ * esses itens sao convertidos na leitura e gravados no formato novo na proxima gravacao.
+ * @author santo
+ */
+public class AdaptadorItemOrdemDeServico extends TypeAdapter<ItemOrdemDeServico> {
+
+    @Override
+    public void write(JsonWriter out, ItemOrdemDeServico item) throws IOException {
+        if (item == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idReferencia").value(item.getIdReferencia());
+        out.name("descricao").value(item.getDescricao());
+        out.name("quantidade").value(item.getQuantidade());
+        out.name("valorUnitario");
+        LeituraJson.escreverCentavos(out, item.getValorUnitarioCentavos());
+        out.endObject();
+    }
+
+    @Override
+    public ItemOrdemDeServico read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        ItemOrdemDeServico item = new ItemOrdemDeServico();
+        String nomeProduto = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "idReferencia":
+                case "idServico": // formato antigo (Servico)
+                case "idProduto": // formato antigo (Produto)
+                    item.setIdReferencia(in.nextInt());
+                    break;
+                case "descricao":
+                    item.setDescricao(LeituraJson.lerString(in));
+                    break;
+                case "nome": // formato antigo (Produto): o nome e o que aparece na nota
+                    nomeProduto = LeituraJson.lerString(in);
+                    break;
+                case "quantidade":
+                    item.setQuantidade(in.nextInt());
+                    break;
+                case "valorUnitario":
+                case "valor": // formato antigo (Servico)
+                case "precoVenda": // formato antigo (Produto)
+                    item.setValorUnitarioCentavos(LeituraJson.lerCentavos(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        if (nomeProduto != null) {
+            item.setDescricao(nomeProduto);
+        }
+        return item;
+    }
+}
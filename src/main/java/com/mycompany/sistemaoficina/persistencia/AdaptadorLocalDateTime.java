@@ -0,0 +1,115 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Adaptador para que a biblioteca Gson saiba como lidar com o tipo LocalDateTime.
+ * As datas sao gravadas no formato "dd/MM/yyyy HH:mm", o mesmo usado nos arquivos JSON existentes.
+ * Como o formato tem tamanho fixo, a leitura e a gravacao sao feitas caractere a caractere,
+ * sem passar pelo DateTimeFormatter (que e o custo dominante ao ler arquivos grandes).
+ * Textos fora desse formato exato ainda sao lidos pelo DateTimeFormatter.
+ * @author santo
+ */
+public class AdaptadorLocalDateTime extends TypeAdapter<LocalDateTime> {
+
+    /**
+     * Formato usado para gravar e ler datas nos arquivos JSON.
+     */
+    public static final DateTimeFormatter FORMATO = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    @Override
+    public void write(JsonWriter out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(formatar(value));
+        }
+    }
+
+    @Override
+    public LocalDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return interpretar(in.nextString());
+    }
+
+    /**
+     * Formata uma data no padrao "dd/MM/yyyy HH:mm".
+     * @param data A data a ser formatada.
+     * @return O texto formatado.
+     */
+    public static String formatar(LocalDateTime data) {
+        int ano = data.getYear();
+        if (ano < 1 || ano > 9999) {
+            return data.format(FORMATO);
+        }
+        char[] c = new char[16];
+        doisDigitos(c, 0, data.getDayOfMonth());
+        c[2] = '/';
+        doisDigitos(c, 3, data.getMonthValue());
+        c[5] = '/';
+        doisDigitos(c, 6, ano / 100);
+        doisDigitos(c, 8, ano % 100);
+        c[10] = ' ';
+        doisDigitos(c, 11, data.getHour());
+        c[13] = ':';
+        doisDigitos(c, 14, data.getMinute());
+        return new String(c);
+    }
+
+    /**
+     * Interpreta um texto no padrao "dd/MM/yyyy HH:mm".
+     * @param texto O texto a ser interpretado.
+     * @return A data correspondente.
+     * @throws java.time.format.DateTimeParseException Se o texto nao estiver no formato esperado.
+     */
+    public static LocalDateTime interpretar(String texto) {
+        if (texto.length() != 16 || texto.charAt(2) != '/' || texto.charAt(5) != '/'
+                || texto.charAt(10) != ' ' || texto.charAt(13) != ':') {
+            return LocalDateTime.parse(texto, FORMATO);
+        }
+        int dia = numero(texto, 0, 2);
+        int mes = numero(texto, 3, 5);
+        int ano = numero(texto, 6, 10);
+        int hora = numero(texto, 11, 13);
+        int minuto = numero(texto, 14, 16);
+        if (dia < 0 || mes < 0 || ano < 1 || hora < 0 || minuto < 0) {
+            return LocalDateTime.parse(texto, FORMATO);
+        }
+        try {
+            return LocalDateTime.of(ano, mes, dia, hora, minuto);
+        } catch (java.time.DateTimeException e) {
+            // Valores fora do intervalo (ex: 31/02, 24:00): o DateTimeFormatter aplica a mesma resolucao de sempre.
+            return LocalDateTime.parse(texto, FORMATO);
+        }
+    }
+
+    private static void doisDigitos(char[] destino, int posicao, int valor) {
+        destino[posicao] = (char) ('0' + valor / 10);
+        destino[posicao + 1] = (char) ('0' + valor % 10);
+    }
+
+    /**
+     * Le os digitos de texto[inicio, fim) como numero; retorna -1 se houver algum caractere que nao seja digito.
+     */
+    private static int numero(String texto, int inicio, int fim) {
+        int valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,142 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptador de streaming para {@link OrdemDeServico}, sem uso de reflexao.
+ * A OS e recriada pelo construtor de restauracao, preservando o valor total e a data de emissao gravados.
+ * Servicos e pecas sao gravados como itens ({@link AdaptadorItemOrdemDeServico}, que tambem le o formato antigo).
+ * @author santo
+ */
+public class AdaptadorOrdemDeServico extends TypeAdapter<OrdemDeServico> {
+
+    private final TypeAdapter<ItemOrdemDeServico> adaptadorItem;
+    private final TypeAdapter<LocalDateTime> adaptadorData;
+
+    /**
+     * Construtor do adaptador.
+     * @param adaptadorItem Adaptador dos itens (servicos realizados e pecas utilizadas).
+     * @param adaptadorData Adaptador da data de emissao.
+     */
+    public AdaptadorOrdemDeServico(TypeAdapter<ItemOrdemDeServico> adaptadorItem, TypeAdapter<LocalDateTime> adaptadorData) {
+        this.adaptadorItem = adaptadorItem;
+        this.adaptadorData = adaptadorData;
+    }
+
+    @Override
+    public void write(JsonWriter out, OrdemDeServico os) throws IOException {
+        if (os == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idOrdemDeServico").value(os.getIdOrdemDeServico());
+        out.name("idAgendamento").value(os.getIdAgendamento());
+        out.name("nomeCliente").value(os.getNomeCliente());
+        out.name("modeloVeiculo").value(os.getModeloVeiculo());
+        out.name("placaVeiculo").value(os.getPlacaVeiculo());
+        out.name("servicosRealizados");
+        out.beginArray();
+        for (ItemOrdemDeServico item : os.getServicosRealizados()) {
+            adaptadorItem.write(out, item);
+        }
+        out.endArray();
+        out.name("pecasUtilizadas");
+        out.beginArray();
+        for (ItemOrdemDeServico item : os.getPecasUtilizadas()) {
+            adaptadorItem.write(out, item);
+        }
+        out.endArray();
+        out.name("valorTotal");
+        LeituraJson.escreverCentavos(out, os.getValorTotalCentavos());
+        if (os.getDataEmissao() != null) {
+            out.name("dataEmissao");
+            adaptadorData.write(out, os.getDataEmissao());
+        }
+        out.name("status").value(os.getStatus());
+        out.name("revisao").value(os.getRevisao());
+        out.endObject();
+    }
+
+    @Override
+    public OrdemDeServico read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        int idOrdemDeServico = 0;
+        int idAgendamento = 0;
+        String nomeCliente = null;
+        String modeloVeiculo = null;
+        String placaVeiculo = null;
+        List<ItemOrdemDeServico> servicos = new ArrayList<>();
+        List<ItemOrdemDeServico> pecas = new ArrayList<>();
+        long valorTotal = 0;
+        LocalDateTime dataEmissao = null;
+        String status = null;
+        int revisao = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "idOrdemDeServico":
+                    idOrdemDeServico = in.nextInt();
+                    break;
+                case "idAgendamento":
+                    idAgendamento = in.nextInt();
+                    break;
+                case "nomeCliente":
+                    nomeCliente = LeituraJson.lerString(in);
+                    break;
+                case "modeloVeiculo":
+                    modeloVeiculo = LeituraJson.lerString(in);
+                    break;
+                case "placaVeiculo":
+                    placaVeiculo = LeituraJson.lerString(in);
+                    break;
+                case "servicosRealizados":
+                    lerLista(in, adaptadorItem, servicos);
+                    break;
+                case "pecasUtilizadas":
+                    lerLista(in, adaptadorItem, pecas);
+                    break;
+                case "valorTotal":
+                    valorTotal = LeituraJson.lerCentavos(in);
+                    break;
+                case "dataEmissao":
+                    dataEmissao = adaptadorData.read(in);
+                    break;
+                case "status":
+                    status = LeituraJson.lerString(in);
+                    break;
+                case "revisao":
+                    revisao = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new OrdemDeServico(idOrdemDeServico, idAgendamento, nomeCliente, modeloVeiculo, placaVeiculo,
+                servicos, pecas, valorTotal, dataEmissao, status, revisao);
+    }
+
+    private static <T> void lerLista(JsonReader in, TypeAdapter<T> adaptador, List<T> destino) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return;
+        }
+        in.beginArray();
+        while (in.hasNext()) {
+            destino.add(adaptador.read(in));
+        }
+        in.endArray();
+    }
+}
@@ -0,0 +1,77 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Produto;
+
+import java.io.IOException;
+
+/**
+ * Adaptador de streaming para {@link Produto}, sem uso de reflexao.
+ * Usado no estoque e nas pecas lancadas em cada Ordem de Servico.
+ * @author santo
+ */
+public class AdaptadorProduto extends TypeAdapter<Produto> {
+
+    @Override
+    public void write(JsonWriter out, Produto produto) throws IOException {
+        if (produto == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idProduto").value(produto.getIdProduto());
+        out.name("nome").value(produto.getNome());
+        out.name("descricao").value(produto.getDescricao());
+        out.name("precoCusto");
+        LeituraJson.escreverCentavos(out, produto.getPrecoCustoCentavos());
+        out.name("precoVenda");
+        LeituraJson.escreverCentavos(out, produto.getPrecoVendaCentavos());
+        out.name("quantidadeEstoque").value(produto.getQuantidadeEstoque());
+        out.name("idFornecedor").value(produto.getIdFornecedor());
+        out.name("nomeFornecedor").value(produto.getNomeFornecedor());
+        out.endObject();
+    }
+
+    @Override
+    public Produto read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        Produto produto = new Produto();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "idProduto":
+                    produto.setIdProduto(in.nextInt());
+                    break;
+                case "nome":
+                    produto.setNome(LeituraJson.lerString(in));
+                    break;
+                case "descricao":
+                    produto.setDescricao(LeituraJson.lerString(in));
+                    break;
+                case "precoCusto":
+                    produto.setPrecoCustoCentavos(LeituraJson.lerCentavos(in));
+                    break;
+                case "precoVenda":
+                    produto.setPrecoVendaCentavos(LeituraJson.lerCentavos(in));
+                    break;
+                case "quantidadeEstoque":
+                    produto.setQuantidadeEstoque(in.nextInt());
+                    break;
+                case "idFornecedor":
+                    produto.setIdFornecedor(in.nextInt());
+                    break;
+                case "nomeFornecedor":
+                    produto.setNomeFornecedor(LeituraJson.lerString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return produto;
+    }
+}
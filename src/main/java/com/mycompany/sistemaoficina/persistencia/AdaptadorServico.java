@@ -0,0 +1,56 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Servico;
+
+import java.io.IOException;
+
+/**
+ * Adaptador de streaming para {@link Servico}, sem uso de reflexao.
+ * Usado no catalogo de servicos e nos servicos lancados em cada Ordem de Servico.
+ * @author santo
+ */
+public class AdaptadorServico extends TypeAdapter<Servico> {
+
+    @Override
+    public void write(JsonWriter out, Servico servico) throws IOException {
+        if (servico == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("idServico").value(servico.getIdServico());
+        out.name("descricao").value(servico.getDescricao());
+        out.name("valor");
+        LeituraJson.escreverCentavos(out, servico.getValorCentavos());
+        out.endObject();
+    }
+
+    @Override
+    public Servico read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        Servico servico = new Servico();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "idServico":
+                    servico.setIdServico(in.nextInt());
+                    break;
+                case "descricao":
+                    servico.setDescricao(LeituraJson.lerString(in));
+                    break;
+                case "valor":
+                    servico.setValorCentavos(LeituraJson.lerCentavos(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return servico;
+    }
+}
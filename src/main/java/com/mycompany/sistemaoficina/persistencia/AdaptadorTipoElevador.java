@@ -0,0 +1,40 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.TipoElevador;
+
+import java.io.IOException;
+
+/**
+ * Adaptador para que o Gson grave o {@link TipoElevador} pela descricao (ex: "Corriqueiro"),
+ * o mesmo texto dos arquivos gravados quando o tipo ainda era uma String.
+ * @author santo
+ */
+public class AdaptadorTipoElevador extends TypeAdapter<TipoElevador> {
+
+    @Override
+    public void write(JsonWriter out, TipoElevador value) throws IOException {
+        out.value(value.getDescricao());
+    }
+
+    @Override
+    public TipoElevador read(JsonReader in) throws IOException {
+        return interpretar(in.nextString());
+    }
+
+    /**
+     * Converte o texto gravado para o tipo de elevador.
+     * @param descricao O texto gravado.
+     * @return O tipo correspondente.
+     * @throws IOException se o texto nao corresponder a nenhum tipo.
+     */
+    public static TipoElevador interpretar(String descricao) throws IOException {
+        try {
+            return TipoElevador.deDescricao(descricao);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+}
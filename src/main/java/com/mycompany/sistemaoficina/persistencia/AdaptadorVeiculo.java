@@ -0,0 +1,62 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Veiculo;
+
+import java.io.IOException;
+
+/**
+ * Adaptador de streaming para {@link Veiculo}, sem uso de reflexao.
+ * Grava os mesmos campos (modelo, placa, cor, ano) que o Gson gravava por reflexao.
+ * @author santo
+ */
+public class AdaptadorVeiculo extends TypeAdapter<Veiculo> {
+
+    @Override
+    public void write(JsonWriter out, Veiculo veiculo) throws IOException {
+        if (veiculo == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("modelo").value(veiculo.getModelo());
+        out.name("placa").value(veiculo.getPlaca());
+        out.name("cor").value(veiculo.getCor());
+        out.name("ano").value(veiculo.getAno());
+        out.endObject();
+    }
+
+    @Override
+    public Veiculo read(JsonReader in) throws IOException {
+        if (LeituraJson.consumirNulo(in)) {
+            return null;
+        }
+        String modelo = null;
+        String placa = null;
+        String cor = null;
+        int ano = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "modelo":
+                    modelo = LeituraJson.lerString(in);
+                    break;
+                case "placa":
+                    placa = LeituraJson.lerString(in);
+                    break;
+                case "cor":
+                    cor = LeituraJson.lerString(in);
+                    break;
+                case "ano":
+                    ano = in.nextInt();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Veiculo(modelo, placa, cor, ano);
+    }
+}
@@ -0,0 +1,378 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.CRC32C;
+
+/**
+ * Armazenamento chave-valor embutido, gravado em um arquivo dividido em paginas de tamanho fixo.
+ * Cada registro (chave inteira e bytes) ocupa uma cadeia de paginas: a primeira marcada como
+ * INICIO e as seguintes como CONTINUACAO, ligadas pelo numero da proxima pagina. Alterar um
+ * registro grava so as paginas dele, entao o custo de uma gravacao nao depende do total de registros.
+ * A pagina 0 guarda o cabecalho do arquivo. O mapa chave -> paginas e a lista de paginas livres
+ * ficam em memoria e sao reconstruidos lendo os cabecalhos das paginas ao abrir o arquivo.
+ * <p>
+ * Seguranca contra falhas: cada pagina leva um CRC32C e o numero de versao da gravacao. Uma alteracao
+ * nunca sobrescreve a cadeia atual do registro; a nova versao vai para paginas livres e as antigas so
+ * voltam a ser reaproveitadas depois de {@link #sincronizar()}. Se o programa cair no meio de uma
+ * gravacao, ao abrir o arquivo vale a cadeia completa e valida de maior versao de cada chave, ou seja,
+ * a versao anterior do registro continua disponivel.
+ * @author santo
+ */
+public class ArmazenamentoPaginado implements Closeable {
+
+    /** Tamanho de cada pagina em bytes. */
+    public static final int TAMANHO_PAGINA = 1024;
+
+    private static final int ASSINATURA = 0x534F4B56; // "SOKV"
+    private static final int VERSAO = 2;
+    // tipo (1) + chave (4) + proxima pagina (4) + bytes usados (2) + versao da gravacao (8) + CRC32C (4)
+    private static final int POSICAO_VERSAO = 11;
+    private static final int POSICAO_CRC = 19;
+    private static final int CABECALHO_PAGINA = 23;
+    private static final int CARGA_PAGINA = TAMANHO_PAGINA - CABECALHO_PAGINA;
+    private static final int SEM_PROXIMA = -1;
+    private static final int PAGINAS_POR_LEITURA = 64;
+
+    private static final byte LIVRE = 0;
+    private static final byte INICIO = 1;
+    private static final byte CONTINUACAO = 2;
+
+    private final File arquivo;
+    private final FileChannel canal;
+    private final TreeMap<Integer, int[]> cadeias = new TreeMap<>();
+    private final TreeSet<Integer> livres = new TreeSet<>();
+    // Paginas de versoes substituidas, por chave: so podem ser reaproveitadas depois da proxima sincronizacao.
+    private final Map<Integer, List<Integer>> liberadasPendentes = new HashMap<>();
+    private int totalPaginas;
+    private long proximaVersao = 1;
+
+    /**
+     * Abre (ou cria) o arquivo de paginas e reconstroi o mapa de registros.
+     * @param arquivo O arquivo do armazenamento.
+     * @throws IOException Se o arquivo nao puder ser aberto ou nao for um armazenamento valido.
+     */
+    public ArmazenamentoPaginado(File arquivo) throws IOException {
+        this.arquivo = arquivo;
+        this.canal = FileChannel.open(arquivo.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() < TAMANHO_PAGINA) {
+                gravarCabecalhoArquivo();
+                totalPaginas = 1;
+            } else {
+                verificarCabecalhoArquivo();
+                totalPaginas = (int) (canal.size() / TAMANHO_PAGINA);
+                reconstruirMapa();
+            }
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return O arquivo do armazenamento.
+     */
+    public File getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * @return O numero de registros gravados.
+     */
+    public synchronized int quantidade() {
+        return cadeias.size();
+    }
+
+    /**
+     * @return As chaves gravadas, em ordem crescente.
+     */
+    public synchronized List<Integer> chaves() {
+        return new ArrayList<>(cadeias.keySet());
+    }
+
+    /**
+     * Indica se ha um registro com a chave informada.
+     * @param chave A chave.
+     * @return true se o registro existir.
+     */
+    public synchronized boolean contem(int chave) {
+        return cadeias.containsKey(chave);
+    }
+
+    /**
+     * Le os bytes de um registro.
+     * @param chave A chave do registro.
+     * @return Os bytes gravados, ou {@code null} se a chave nao existir.
+     * @throws IOException Se houver erro de leitura.
+     */
+    public synchronized byte[] ler(int chave) throws IOException {
+        int[] paginas = cadeias.get(chave);
+        if (paginas == null) {
+            return null;
+        }
+        ByteBuffer pagina = ByteBuffer.allocate(TAMANHO_PAGINA);
+        byte[] dados = new byte[paginas.length * CARGA_PAGINA];
+        int tamanho = 0;
+        for (int numero : paginas) {
+            lerPagina(numero, pagina);
+            if (pagina.getInt(POSICAO_CRC) != crcPagina(pagina.array(), 0)) {
+                throw new IOException("Pagina " + numero + " de '" + arquivo.getName() + "' corrompida (CRC invalido).");
+            }
+            int usados = pagina.getShort(9);
+            pagina.position(CABECALHO_PAGINA);
+            pagina.get(dados, tamanho, usados);
+            tamanho += usados;
+        }
+        byte[] resultado = new byte[tamanho];
+        System.arraycopy(dados, 0, resultado, 0, tamanho);
+        return resultado;
+    }
+
+    /**
+     * Grava (inclui ou substitui) um registro em paginas livres (ou novas, no fim do arquivo), com uma
+     * versao maior que a atual. As paginas sao escritas da ultima para a primeira; as da versao
+     * anterior so voltam para a lista de livres depois de {@link #sincronizar()}.
+     * @param chave A chave do registro.
+     * @param dados Os bytes do registro.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public synchronized void gravar(int chave, byte[] dados) throws IOException {
+        int necessarias = Math.max(1, (dados.length + CARGA_PAGINA - 1) / CARGA_PAGINA);
+        int[] paginas = new int[necessarias];
+        for (int i = 0; i < necessarias; i++) {
+            paginas[i] = !livres.isEmpty() ? livres.pollFirst() : totalPaginas++;
+        }
+        long versao = proximaVersao++;
+
+        ByteBuffer pagina = ByteBuffer.allocate(TAMANHO_PAGINA);
+        for (int i = necessarias - 1; i >= 0; i--) {
+            int inicio = i * CARGA_PAGINA;
+            int usados = Math.min(CARGA_PAGINA, dados.length - inicio);
+            pagina.clear();
+            pagina.put(i == 0 ? INICIO : CONTINUACAO);
+            pagina.putInt(chave);
+            pagina.putInt(i + 1 < necessarias ? paginas[i + 1] : SEM_PROXIMA);
+            pagina.putShort((short) usados);
+            pagina.putLong(versao);
+            pagina.putInt(0);
+            pagina.put(dados, inicio, usados);
+            while (pagina.hasRemaining()) {
+                pagina.put((byte) 0);
+            }
+            pagina.putInt(POSICAO_CRC, crcPagina(pagina.array(), 0));
+            escreverPagina(paginas[i], pagina);
+        }
+        int[] anteriores = cadeias.put(chave, paginas);
+        if (anteriores != null) {
+            List<Integer> pendentes = liberadasPendentes.computeIfAbsent(chave, k -> new ArrayList<>());
+            for (int numero : anteriores) {
+                pendentes.add(numero);
+            }
+        }
+    }
+
+    /**
+     * Remove um registro, marcando como livres as paginas dele e as de versoes anteriores ainda
+     * pendentes (para que uma versao antiga nao reapareca ao reabrir o arquivo).
+     * @param chave A chave do registro.
+     * @return true se o registro existia.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public synchronized boolean remover(int chave) throws IOException {
+        int[] paginas = cadeias.remove(chave);
+        if (paginas == null) {
+            return false;
+        }
+        for (int numero : paginas) {
+            liberarPagina(numero);
+        }
+        List<Integer> pendentes = liberadasPendentes.remove(chave);
+        if (pendentes != null) {
+            for (int numero : pendentes) {
+                liberarPagina(numero);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forca a gravacao em disco de tudo o que foi escrito e libera para reuso as paginas das
+     * versoes substituidas, que a partir daqui nao sao mais necessarias para recuperacao.
+     * @throws IOException Se houver erro ao sincronizar.
+     */
+    public synchronized void sincronizar() throws IOException {
+        canal.force(true);
+        for (List<Integer> pendentes : liberadasPendentes.values()) {
+            for (int numero : pendentes) {
+                liberarPagina(numero);
+            }
+        }
+        liberadasPendentes.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (canal.isOpen()) {
+            sincronizar();
+            canal.force(true);
+            canal.close();
+        }
+    }
+
+    private void gravarCabecalhoArquivo() throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_PAGINA);
+        cabecalho.putInt(ASSINATURA).putInt(VERSAO).putInt(TAMANHO_PAGINA);
+        cabecalho.clear();
+        escreverPagina(0, cabecalho);
+    }
+
+    private void verificarCabecalhoArquivo() throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_PAGINA);
+        lerPagina(0, cabecalho);
+        if (cabecalho.getInt(0) != ASSINATURA || cabecalho.getInt(8) != TAMANHO_PAGINA) {
+            throw new IOException("Arquivo '" + arquivo.getName() + "' nao e um armazenamento paginado valido.");
+        }
+        if (cabecalho.getInt(4) != VERSAO) {
+            throw new IOException("Versao " + cabecalho.getInt(4) + " do arquivo '" + arquivo.getName() + "' nao suportada.");
+        }
+    }
+
+    /**
+     * Le todas as paginas e monta as cadeias a partir das paginas INICIO. Para cada chave vale a
+     * cadeia completa (todas as paginas com CRC valido, mesma chave e mesma versao) de maior versao.
+     * As demais paginas (versoes substituidas, restos de uma gravacao interrompida ou paginas
+     * corrompidas) voltam para a lista de livres.
+     */
+    private void reconstruirMapa() throws IOException {
+        byte[] tipos = new byte[totalPaginas];
+        int[] chavesPagina = new int[totalPaginas];
+        int[] proximas = new int[totalPaginas];
+        long[] versoes = new long[totalPaginas];
+        Map<Integer, List<Integer>> inicios = new HashMap<>();
+
+        ByteBuffer bloco = ByteBuffer.allocate(TAMANHO_PAGINA * PAGINAS_POR_LEITURA);
+        for (int primeira = 1; primeira < totalPaginas; primeira += PAGINAS_POR_LEITURA) {
+            int quantas = Math.min(PAGINAS_POR_LEITURA, totalPaginas - primeira);
+            bloco.clear().limit(quantas * TAMANHO_PAGINA);
+            long posicao = (long) primeira * TAMANHO_PAGINA;
+            while (bloco.hasRemaining()) {
+                if (canal.read(bloco, posicao + bloco.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = 0; i < quantas; i++) {
+                int numero = primeira + i;
+                int base = i * TAMANHO_PAGINA;
+                boolean valida = bloco.getInt(base + POSICAO_CRC) == crcPagina(bloco.array(), base);
+                tipos[numero] = valida ? bloco.get(base) : LIVRE;
+                chavesPagina[numero] = bloco.getInt(base + 1);
+                proximas[numero] = bloco.getInt(base + 5);
+                versoes[numero] = bloco.getLong(base + POSICAO_VERSAO);
+                if (tipos[numero] != LIVRE) {
+                    proximaVersao = Math.max(proximaVersao, versoes[numero] + 1);
+                }
+                if (tipos[numero] == INICIO) {
+                    inicios.computeIfAbsent(chavesPagina[numero], k -> new ArrayList<>()).add(numero);
+                }
+            }
+        }
+
+        boolean[] usadas = new boolean[totalPaginas];
+        usadas[0] = true;
+        for (Map.Entry<Integer, List<Integer>> candidatos : inicios.entrySet()) {
+            int chave = candidatos.getKey();
+            List<Integer> cabecas = candidatos.getValue();
+            cabecas.sort((a, b) -> Long.compare(versoes[b], versoes[a]));
+            for (int cabeca : cabecas) {
+                int[] cadeia = seguirCadeia(cabeca, chave, tipos, chavesPagina, proximas, versoes, usadas);
+                if (cadeia != null) {
+                    for (int usada : cadeia) {
+                        usadas[usada] = true;
+                    }
+                    cadeias.put(chave, cadeia);
+                    break;
+                }
+            }
+            if (!cadeias.containsKey(chave)) {
+                System.err.println("Erro ao ler registro " + chave + " de '" + arquivo.getName() + "': nenhuma versao completa encontrada.");
+            }
+        }
+        for (int numero = 1; numero < totalPaginas; numero++) {
+            if (!usadas[numero]) {
+                livres.add(numero);
+            }
+        }
+    }
+
+    /**
+     * Percorre a cadeia que comeca na pagina informada.
+     * @return As paginas da cadeia, ou {@code null} se ela estiver incompleta ou inconsistente.
+     */
+    private int[] seguirCadeia(int cabeca, int chave, byte[] tipos, int[] chavesPagina, int[] proximas,
+                               long[] versoes, boolean[] usadas) {
+        List<Integer> cadeia = new ArrayList<>();
+        long versao = versoes[cabeca];
+        int numero = cabeca;
+        while (numero != SEM_PROXIMA) {
+            boolean valida = numero > 0 && numero < totalPaginas && !usadas[numero] && !cadeia.contains(numero)
+                    && chavesPagina[numero] == chave && versoes[numero] == versao
+                    && (cadeia.isEmpty() ? tipos[numero] == INICIO : tipos[numero] == CONTINUACAO);
+            if (!valida) {
+                return null;
+            }
+            cadeia.add(numero);
+            numero = proximas[numero];
+        }
+        return cadeia.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * CRC32C da pagina que comeca em {@code base}, calculado com o campo do CRC zerado.
+     */
+    private static int crcPagina(byte[] dados, int base) {
+        CRC32C crc = new CRC32C();
+        crc.update(dados, base, POSICAO_CRC);
+        crc.update(new byte[4], 0, 4);
+        crc.update(dados, base + CABECALHO_PAGINA, TAMANHO_PAGINA - CABECALHO_PAGINA);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Marca a pagina como LIVRE no arquivo e a devolve para a lista de livres.
+     */
+    private void liberarPagina(int numero) throws IOException {
+        ByteBuffer tipo = ByteBuffer.wrap(new byte[]{LIVRE});
+        canal.write(tipo, (long) numero * TAMANHO_PAGINA);
+        livres.add(numero);
+    }
+
+    private void lerPagina(int numero, ByteBuffer pagina) throws IOException {
+        pagina.clear();
+        long posicao = (long) numero * TAMANHO_PAGINA;
+        while (pagina.hasRemaining()) {
+            if (canal.read(pagina, posicao + pagina.position()) < 0) {
+                throw new IOException("Pagina " + numero + " de '" + arquivo.getName() + "' incompleta.");
+            }
+        }
+    }
+
+    private void escreverPagina(int numero, ByteBuffer pagina) throws IOException {
+        pagina.position(0).limit(TAMANHO_PAGINA);
+        long posicao = (long) numero * TAMANHO_PAGINA;
+        while (pagina.hasRemaining()) {
+            canal.write(pagina, posicao + pagina.position());
+        }
+    }
+}
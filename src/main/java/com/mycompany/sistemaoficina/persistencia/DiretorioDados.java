@@ -0,0 +1,35 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.io.File;
+
+/**
+ * Resolve o local dos arquivos de dados do sistema (clientes.json, ordens_de_servico.json, etc.).
+ * Por padrao os arquivos ficam no diretorio de execucao, como sempre foi. A propriedade de sistema
+ * "sistemaoficina.dados" permite apontar para outra pasta (ex: -Dsistemaoficina.dados=/tmp/massa),
+ * o que e usado pelos benchmarks e pelos testes de carga com dados sinteticos.
+ * A propriedade e lida a cada chamada, entao pode ser definida antes de criar os gerenciadores.
+ * @author santo
+ */
+public final class DiretorioDados {
+
+    /**
+     * Nome da propriedade de sistema com o diretorio dos arquivos de dados.
+     */
+    public static final String PROPRIEDADE = "sistemaoficina.dados";
+
+    private DiretorioDados() {
+    }
+
+    /**
+     * Retorna o arquivo de dados com o nome informado, dentro do diretorio configurado.
+     * @param nomeArquivo O nome do arquivo (ex: "clientes.json").
+     * @return O arquivo correspondente.
+     */
+    public static File arquivo(String nomeArquivo) {
+        String diretorio = System.getProperty(PROPRIEDADE);
+        if (diretorio == null || diretorio.isBlank()) {
+            return new File(nomeArquivo);
+        }
+        return new File(diretorio, nomeArquivo);
+    }
+}
@@ -0,0 +1,190 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.mycompany.sistemaoficina.Dinheiro;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitura dos valores primitivos do formato binario compacto, na mesma ordem e com as mesmas
+ * regras de {@link SaidaBinaria} (inclusive o dicionario de textos, remontado durante a leitura).
+ * Mantem o proprio buffer, entao o fluxo de entrada nao precisa ser bufferizado.
+ * @author santo
+ */
+public class EntradaBinaria {
+
+    private final InputStream entrada;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int posicao;
+    private int limite;
+    private final List<String> dicionario = new ArrayList<>();
+
+    /**
+     * Construtor da entrada.
+     * @param entrada O fluxo de origem.
+     */
+    public EntradaBinaria(InputStream entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Le um byte.
+     * @return O byte, entre 0 e 255.
+     * @throws IOException Se houver erro de leitura ou o arquivo terminar antes do esperado.
+     */
+    public int lerByte() throws IOException {
+        if (posicao == limite && !preencher()) {
+            throw new EOFException("Fim inesperado do arquivo binario.");
+        }
+        return buffer[posicao++] & 0xFF;
+    }
+
+    /**
+     * Le um inteiro de 4 bytes (big-endian).
+     * @return O inteiro.
+     * @throws IOException Se houver erro de leitura.
+     */
+    public int lerIntFixo() throws IOException {
+        return (lerByte() << 24) | (lerByte() << 16) | (lerByte() << 8) | lerByte();
+    }
+
+    /**
+     * Le um inteiro sem sinal em varint.
+     * @return O valor.
+     * @throws IOException Se houver erro de leitura ou o varint for invalido.
+     */
+    public long lerVarLong() throws IOException {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            int b = lerByte();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IOException("Varint invalido no arquivo binario.");
+    }
+
+    /**
+     * Le uma quantidade (varint sem sinal que cabe em um int).
+     * @return A quantidade.
+     * @throws IOException Se houver erro de leitura ou o valor for invalido.
+     */
+    public int lerQuantidade() throws IOException {
+        long valor = lerVarLong();
+        if (valor < 0 || valor > Integer.MAX_VALUE) {
+            throw new IOException("Quantidade invalida no arquivo binario: " + valor);
+        }
+        return (int) valor;
+    }
+
+    /**
+     * Le um inteiro gravado em zigzag + varint.
+     * @return O inteiro.
+     * @throws IOException Se houver erro de leitura.
+     */
+    public int lerInt() throws IOException {
+        int zigzag = (int) lerVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Le um booleano.
+     * @return O booleano.
+     * @throws IOException Se houver erro de leitura.
+     */
+    public boolean lerBoolean() throws IOException {
+        return lerByte() != 0;
+    }
+
+    /**
+     * Le um valor monetario gravado por {@link SaidaBinaria#escreverCentavos}. Valores gravados
+     * como double por versoes anteriores sao arredondados para o centavo mais proximo.
+     * @return O valor, em centavos.
+     * @throws IOException Se houver erro de leitura.
+     */
+    public long lerCentavos() throws IOException {
+        long marcador = lerVarLong();
+        if ((marcador & SaidaBinaria.VALOR_DOUBLE) == 0) {
+            long zigzag = marcador >>> 1;
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | lerByte();
+        }
+        return Dinheiro.deReais(Double.longBitsToDouble(bits));
+    }
+
+    /**
+     * Le uma data gravada por {@link SaidaBinaria#escreverData}.
+     * @return A data, ou {@code null}.
+     * @throws IOException Se houver erro de leitura.
+     */
+    public LocalDateTime lerData() throws IOException {
+        long valor = lerVarLong();
+        if (valor == 0) {
+            return null;
+        }
+        long zigzag = valor - 1;
+        long segundos = (zigzag >>> 1) ^ -(zigzag & 1);
+        return LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * Le um texto gravado por {@link SaidaBinaria#escreverTexto}.
+     * @return O texto, ou {@code null}.
+     * @throws IOException Se houver erro de leitura ou a referencia ao dicionario for invalida.
+     */
+    public String lerTexto() throws IOException {
+        long marcador = lerVarLong();
+        if (marcador == SaidaBinaria.TEXTO_NULO) {
+            return null;
+        }
+        if (marcador >= SaidaBinaria.REF_DICIONARIO) {
+            long indice = marcador - SaidaBinaria.REF_DICIONARIO;
+            if (indice >= dicionario.size()) {
+                throw new IOException("Referencia invalida ao dicionario de textos: " + indice);
+            }
+            return dicionario.get((int) indice);
+        }
+        int tamanho = lerQuantidade();
+        String texto;
+        if (tamanho <= limite - posicao) {
+            texto = new String(buffer, posicao, tamanho, StandardCharsets.UTF_8);
+            posicao += tamanho;
+        } else {
+            byte[] bytes = new byte[tamanho];
+            for (int lidos = 0; lidos < tamanho; ) {
+                if (posicao == limite && !preencher()) {
+                    throw new EOFException("Fim inesperado do arquivo binario.");
+                }
+                int copiar = Math.min(tamanho - lidos, limite - posicao);
+                System.arraycopy(buffer, posicao, bytes, lidos, copiar);
+                posicao += copiar;
+                lidos += copiar;
+            }
+            texto = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (texto.length() <= SaidaBinaria.LIMITE_TEXTO_DICIONARIO) {
+            dicionario.add(texto);
+        }
+        return texto;
+    }
+
+    private boolean preencher() throws IOException {
+        int lidos = entrada.read(buffer, 0, buffer.length);
+        if (lidos <= 0) {
+            return false;
+        }
+        posicao = 0;
+        limite = lidos;
+        return true;
+    }
+}
@@ -0,0 +1,424 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.Despesa;
+import com.mycompany.sistemaoficina.Elevador;
+import com.mycompany.sistemaoficina.Funcionario;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.Produto;
+import com.mycompany.sistemaoficina.Servico;
+import com.mycompany.sistemaoficina.Veiculo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Formato binario compacto dos snapshots mais volumosos: Ordens de Servico, agendamentos e despesas.
+ * Guarda os mesmos campos do JSON, mas sem nomes de campos, com IDs em varint, datas em segundos
+ * desde a epoca e um dicionario de textos (ver {@link SaidaBinaria}), de modo que os dados que se
+ * repetem em cada OS (nomes das pecas e dos servicos) e em cada agendamento
+ * (cliente, veiculo, status) ocupam poucos bytes a partir da segunda ocorrencia.
+ * <p>
+ * Estrutura do arquivo: assinatura ("SOBN"), versao, tipo de registro,
+ * quantidade de registros e os registros em sequencia.
+ * Na versao 2 os servicos e pecas da OS sao itens ({@link ItemOrdemDeServico}); arquivos da versao 1,
+ * com o Servico e o Produto completos, continuam sendo lidos e sao convertidos para itens.
+ * A versao 3 acrescenta a revisao da OS no final do registro; nas anteriores ela e lida como 0.
+ * Agendamentos com reserva de elevador levam, no final, o numero do elevador e o fim previsto,
+ * indicados no byte de campos presentes (registros antigos nao tem a indicacao); a partir da versao 4,
+ * tambem o inicio da reserva.
+ * @author santo
+ */
+public final class FormatoBinario {
+
+    private static final int ASSINATURA = 0x534F424E; // "SOBN"
+    private static final int VERSAO = 4;
+    // Versao em que a OS guardava copias completas de Servico e Produto.
+    private static final int VERSAO_ITENS_COMPLETOS = 1;
+    // Versao com itens, mas ainda sem a revisao da OS.
+    private static final int VERSAO_SEM_REVISAO = 2;
+    // Versao com a revisao da OS, mas sem o inicio da reserva do agendamento.
+    private static final int VERSAO_SEM_INICIO_RESERVA = 3;
+    private static final int TIPO_ORDEM_DE_SERVICO = 1;
+    private static final int TIPO_AGENDAMENTO = 2;
+    private static final int TIPO_DESPESA = 3;
+
+    // Bits que indicam quais objetos opcionais do agendamento estao presentes.
+    private static final int TEM_CLIENTE = 1;
+    private static final int TEM_VEICULO = 1 << 1;
+    private static final int TEM_MECANICO = 1 << 2;
+    private static final int TEM_ELEVADOR = 1 << 3;
+    private static final int TEM_RESERVA = 1 << 4;
+
+    /**
+     * Codificacao de um tipo de registro no formato binario.
+     * @param <T> O tipo do registro.
+     */
+    public interface Codec<T> {
+        /**
+         * Escreve um registro.
+         * @param saida A saida binaria.
+         * @param registro O registro.
+         * @throws IOException Se houver erro de escrita.
+         */
+        void escrever(SaidaBinaria saida, T registro) throws IOException;
+
+        /**
+         * Le um registro.
+         * @param entrada A entrada binaria.
+         * @return O registro lido.
+         * @throws IOException Se houver erro de leitura ou dados invalidos.
+         */
+        T ler(EntradaBinaria entrada) throws IOException;
+    }
+
+    private FormatoBinario() {
+    }
+
+    /**
+     * Indica se a classe tem formato binario.
+     * @param classe A classe dos registros.
+     * @return true para OrdemDeServico, Agendamento e Despesa.
+     */
+    public static boolean suporta(Class<?> classe) {
+        return classe == OrdemDeServico.class || classe == Agendamento.class || classe == Despesa.class;
+    }
+
+    /**
+     * Grava uma colecao de registros no formato binario.
+     * @param saida O fluxo de destino.
+     * @param classe A classe dos registros (ver {@link #suporta}).
+     * @param registros Os registros.
+     * @param <T> O tipo dos registros.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public static <T> void gravar(OutputStream saida, Class<T> classe, Collection<T> registros) throws IOException {
+        Codec<T> codec = codec(classe, VERSAO);
+        SaidaBinaria binaria = new SaidaBinaria(saida);
+        binaria.escreverIntFixo(ASSINATURA);
+        binaria.escreverByte(VERSAO);
+        binaria.escreverByte(tipo(classe));
+        binaria.escreverVarLong(registros.size());
+        for (T registro : registros) {
+            codec.escrever(binaria, registro);
+        }
+        binaria.descarregar();
+    }
+
+    /**
+     * Le todos os registros de um fluxo no formato binario.
+     * @param entrada O fluxo de origem.
+     * @param classe A classe dos registros (ver {@link #suporta}).
+     * @param <T> O tipo dos registros.
+     * @return A lista de registros.
+     * @throws IOException Se houver erro de leitura, ou se o arquivo nao for deste formato ou for de outro tipo.
+     */
+    public static <T> List<T> ler(InputStream entrada, Class<T> classe) throws IOException {
+        EntradaBinaria binaria = new EntradaBinaria(entrada);
+        if (binaria.lerIntFixo() != ASSINATURA) {
+            throw new IOException("Arquivo nao esta no formato binario do sistema.");
+        }
+        int versao = binaria.lerByte();
+        if (versao < VERSAO_ITENS_COMPLETOS || versao > VERSAO) {
+            throw new IOException("Versao do formato binario nao suportada: " + versao);
+        }
+        Codec<T> codec = codec(classe, versao);
+        int tipo = binaria.lerByte();
+        if (tipo != tipo(classe)) {
+            throw new IOException("O arquivo binario nao contem registros de " + classe.getSimpleName() + ".");
+        }
+        int quantidade = binaria.lerQuantidade();
+        List<T> registros = new ArrayList<>(Math.min(quantidade, 1 << 16));
+        for (int i = 0; i < quantidade; i++) {
+            registros.add(codec.ler(binaria));
+        }
+        return registros;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Codec<T> codec(Class<T> classe, int versao) {
+        if (classe == OrdemDeServico.class) {
+            return (Codec<T>) new CodecOrdemDeServico(versao);
+        }
+        if (classe == Agendamento.class) {
+            return (Codec<T>) new CodecAgendamento(versao);
+        }
+        if (classe == Despesa.class) {
+            return (Codec<T>) new CodecDespesa();
+        }
+        throw new IllegalArgumentException("Sem formato binario para " + classe.getSimpleName());
+    }
+
+    private static int tipo(Class<?> classe) {
+        if (classe == OrdemDeServico.class) {
+            return TIPO_ORDEM_DE_SERVICO;
+        }
+        return classe == Agendamento.class ? TIPO_AGENDAMENTO : TIPO_DESPESA;
+    }
+
+    /**
+     * Ordem de Servico com os servicos e as pecas lancados.
+     */
+    private static class CodecOrdemDeServico implements Codec<OrdemDeServico> {
+
+        private final int versao;
+
+        CodecOrdemDeServico(int versao) {
+            this.versao = versao;
+        }
+
+        @Override
+        public void escrever(SaidaBinaria saida, OrdemDeServico os) throws IOException {
+            saida.escreverInt(os.getIdOrdemDeServico());
+            saida.escreverInt(os.getIdAgendamento());
+            saida.escreverTexto(os.getNomeCliente());
+            saida.escreverTexto(os.getModeloVeiculo());
+            saida.escreverTexto(os.getPlacaVeiculo());
+            saida.escreverVarLong(os.getServicosRealizados().size());
+            for (ItemOrdemDeServico item : os.getServicosRealizados()) {
+                escreverItem(saida, item);
+            }
+            saida.escreverVarLong(os.getPecasUtilizadas().size());
+            for (ItemOrdemDeServico item : os.getPecasUtilizadas()) {
+                escreverItem(saida, item);
+            }
+            saida.escreverCentavos(os.getValorTotalCentavos());
+            saida.escreverData(os.getDataEmissao());
+            saida.escreverTexto(os.getStatus());
+            saida.escreverVarLong(os.getRevisao());
+        }
+
+        @Override
+        public OrdemDeServico ler(EntradaBinaria entrada) throws IOException {
+            int id = entrada.lerInt();
+            int idAgendamento = entrada.lerInt();
+            String nomeCliente = entrada.lerTexto();
+            String modeloVeiculo = entrada.lerTexto();
+            String placaVeiculo = entrada.lerTexto();
+            int quantidadeServicos = entrada.lerQuantidade();
+            List<ItemOrdemDeServico> servicos = new ArrayList<>(Math.min(quantidadeServicos, 1024));
+            for (int i = 0; i < quantidadeServicos; i++) {
+                servicos.add(versao == VERSAO_ITENS_COMPLETOS ? ItemOrdemDeServico.deServico(lerServico(entrada)) : lerItem(entrada));
+            }
+            int quantidadePecas = entrada.lerQuantidade();
+            List<ItemOrdemDeServico> pecas = new ArrayList<>(Math.min(quantidadePecas, 1024));
+            for (int i = 0; i < quantidadePecas; i++) {
+                pecas.add(versao == VERSAO_ITENS_COMPLETOS ? ItemOrdemDeServico.deProduto(lerProduto(entrada)) : lerItem(entrada));
+            }
+            long valorTotal = entrada.lerCentavos();
+            LocalDateTime dataEmissao = entrada.lerData();
+            String status = entrada.lerTexto();
+            int revisao = versao > VERSAO_SEM_REVISAO ? entrada.lerQuantidade() : 0;
+            return new OrdemDeServico(id, idAgendamento, nomeCliente, modeloVeiculo, placaVeiculo,
+                    servicos, pecas, valorTotal, dataEmissao, status, revisao);
+        }
+    }
+
+    /**
+     * Agendamento com o cliente (e os veiculos dele), o veiculo, o mecanico e o elevador embutidos,
+     * como no JSON.
+     */
+    private static class CodecAgendamento implements Codec<Agendamento> {
+
+        private final int versao;
+
+        CodecAgendamento(int versao) {
+            this.versao = versao;
+        }
+
+        @Override
+        public void escrever(SaidaBinaria saida, Agendamento agendamento) throws IOException {
+            int presentes = (agendamento.getCliente() != null ? TEM_CLIENTE : 0)
+                    | (agendamento.getVeiculo() != null ? TEM_VEICULO : 0)
+                    | (agendamento.getMecanicoResponsavel() != null ? TEM_MECANICO : 0)
+                    | (agendamento.getElevadorAlocado() != null ? TEM_ELEVADOR : 0)
+                    | (agendamento.getNumeroElevadorReservado() > 0 ? TEM_RESERVA : 0);
+            saida.escreverByte(presentes);
+            saida.escreverInt(agendamento.getIdAgendamento());
+            if (agendamento.getCliente() != null) {
+                escreverCliente(saida, agendamento.getCliente());
+            }
+            if (agendamento.getVeiculo() != null) {
+                escreverVeiculo(saida, agendamento.getVeiculo());
+            }
+            saida.escreverData(agendamento.getDataHora());
+            saida.escreverTexto(agendamento.getDescricaoProblema());
+            saida.escreverTexto(agendamento.getStatus().getDescricao());
+            if (agendamento.getMecanicoResponsavel() != null) {
+                Funcionario mecanico = agendamento.getMecanicoResponsavel();
+                saida.escreverInt(mecanico.getId());
+                saida.escreverTexto(mecanico.getNome());
+                saida.escreverTexto(mecanico.getCpf());
+                saida.escreverTexto(mecanico.getSenha());
+            }
+            saida.escreverCentavos(agendamento.getValorRetidoCancelamentoCentavos());
+            if (agendamento.getElevadorAlocado() != null) {
+                Elevador elevador = agendamento.getElevadorAlocado();
+                saida.escreverInt(elevador.getNumero());
+                saida.escreverTexto(elevador.getTipo().getDescricao());
+                saida.escreverBoolean(elevador.isOcupado());
+            }
+            if (agendamento.getNumeroElevadorReservado() > 0) {
+                saida.escreverInt(agendamento.getNumeroElevadorReservado());
+                saida.escreverData(agendamento.getFimPrevisto());
+                saida.escreverData(agendamento.getInicioReserva());
+            }
+        }
+
+        @Override
+        public Agendamento ler(EntradaBinaria entrada) throws IOException {
+            int presentes = entrada.lerByte();
+            Agendamento agendamento = new Agendamento();
+            agendamento.setIdAgendamento(entrada.lerInt());
+            if ((presentes & TEM_CLIENTE) != 0) {
+                agendamento.setCliente(lerCliente(entrada));
+            }
+            if ((presentes & TEM_VEICULO) != 0) {
+                agendamento.setVeiculo(lerVeiculo(entrada));
+            }
+            agendamento.setDataHora(entrada.lerData());
+            agendamento.setDescricaoProblema(entrada.lerTexto());
+            agendamento.setStatus(AdaptadorAgendamento.lerStatus(entrada.lerTexto()));
+            if ((presentes & TEM_MECANICO) != 0) {
+                Funcionario mecanico = new Funcionario();
+                mecanico.setId(entrada.lerInt());
+                mecanico.setNome(entrada.lerTexto());
+                mecanico.setCpf(entrada.lerTexto());
+                mecanico.setSenha(entrada.lerTexto());
+                agendamento.setMecanicoResponsavel(mecanico);
+            }
+            agendamento.setValorRetidoCancelamentoCentavos(entrada.lerCentavos());
+            if ((presentes & TEM_ELEVADOR) != 0) {
+                Elevador elevador = new Elevador(entrada.lerInt(), AdaptadorTipoElevador.interpretar(entrada.lerTexto()));
+                elevador.setOcupado(entrada.lerBoolean());
+                agendamento.setElevadorAlocado(elevador);
+            }
+            if ((presentes & TEM_RESERVA) != 0) {
+                agendamento.setNumeroElevadorReservado(entrada.lerInt());
+                agendamento.setFimPrevisto(entrada.lerData());
+                if (versao > VERSAO_SEM_INICIO_RESERVA) {
+                    agendamento.setInicioReserva(entrada.lerData());
+                }
+            }
+            return agendamento;
+        }
+    }
+
+    /**
+     * Despesa, com a descricao e a categoria no dicionario de textos.
+     */
+    private static class CodecDespesa implements Codec<Despesa> {
+
+        @Override
+        public void escrever(SaidaBinaria saida, Despesa despesa) throws IOException {
+            saida.escreverInt(despesa.getIdDespesa());
+            saida.escreverTexto(despesa.getDescricao());
+            saida.escreverCentavos(despesa.getValorCentavos());
+            saida.escreverData(despesa.getData());
+            saida.escreverTexto(despesa.getCategoria());
+        }
+
+        @Override
+        public Despesa ler(EntradaBinaria entrada) throws IOException {
+            int id = entrada.lerInt();
+            String descricao = entrada.lerTexto();
+            long valor = entrada.lerCentavos();
+            LocalDateTime data = entrada.lerData();
+            return new Despesa(id, descricao, valor, data, entrada.lerTexto());
+        }
+    }
+
+    private static void escreverItem(SaidaBinaria saida, ItemOrdemDeServico item) throws IOException {
+        saida.escreverInt(item.getIdReferencia());
+        saida.escreverTexto(item.getDescricao());
+        saida.escreverInt(item.getQuantidade());
+        saida.escreverCentavos(item.getValorUnitarioCentavos());
+    }
+
+    private static ItemOrdemDeServico lerItem(EntradaBinaria entrada) throws IOException {
+        ItemOrdemDeServico item = new ItemOrdemDeServico();
+        item.setIdReferencia(entrada.lerInt());
+        item.setDescricao(entrada.lerTexto());
+        item.setQuantidade(entrada.lerInt());
+        item.setValorUnitarioCentavos(entrada.lerCentavos());
+        return item;
+    }
+
+    /**
+     * Servico completo, como gravado na versao 1.
+     */
+    private static Servico lerServico(EntradaBinaria entrada) throws IOException {
+        Servico servico = new Servico();
+        servico.setIdServico(entrada.lerInt());
+        servico.setDescricao(entrada.lerTexto());
+        servico.setValorCentavos(entrada.lerCentavos());
+        return servico;
+    }
+
+    /**
+     * Produto completo, como gravado na versao 1.
+     */
+    private static Produto lerProduto(EntradaBinaria entrada) throws IOException {
+        Produto produto = new Produto();
+        produto.setIdProduto(entrada.lerInt());
+        produto.setNome(entrada.lerTexto());
+        produto.setDescricao(entrada.lerTexto());
+        produto.setPrecoCustoCentavos(entrada.lerCentavos());
+        produto.setPrecoVendaCentavos(entrada.lerCentavos());
+        produto.setQuantidadeEstoque(entrada.lerInt());
+        produto.setIdFornecedor(entrada.lerInt());
+        produto.setNomeFornecedor(entrada.lerTexto());
+        return produto;
+    }
+
+    private static void escreverVeiculo(SaidaBinaria saida, Veiculo veiculo) throws IOException {
+        saida.escreverTexto(veiculo.getModelo());
+        saida.escreverTexto(veiculo.getPlaca());
+        saida.escreverTexto(veiculo.getCor());
+        saida.escreverInt(veiculo.getAno());
+    }
+
+    private static Veiculo lerVeiculo(EntradaBinaria entrada) throws IOException {
+        return new Veiculo(entrada.lerTexto(), entrada.lerTexto(), entrada.lerTexto(), entrada.lerInt());
+    }
+
+    private static void escreverCliente(SaidaBinaria saida, Clientes cliente) throws IOException {
+        saida.escreverInt(cliente.getId());
+        saida.escreverTexto(cliente.getNome());
+        saida.escreverTexto(cliente.getEndereco());
+        saida.escreverTexto(cliente.getTelefone());
+        saida.escreverTexto(cliente.getEmail());
+        saida.escreverTexto(cliente.getCpfAnonimizado());
+        List<Veiculo> veiculos = cliente.getVeiculos();
+        saida.escreverVarLong(veiculos != null ? veiculos.size() : 0);
+        if (veiculos != null) {
+            for (Veiculo veiculo : veiculos) {
+                escreverVeiculo(saida, veiculo);
+            }
+        }
+    }
+
+    private static Clientes lerCliente(EntradaBinaria entrada) throws IOException {
+        Clientes cliente = new Clientes();
+        cliente.setId(entrada.lerInt());
+        cliente.setNome(entrada.lerTexto());
+        cliente.setEndereco(entrada.lerTexto());
+        cliente.setTelefone(entrada.lerTexto());
+        cliente.setEmail(entrada.lerTexto());
+        cliente.setCpfAnonimizado(entrada.lerTexto());
+        int quantidadeVeiculos = entrada.lerQuantidade();
+        ArrayList<Veiculo> veiculos = new ArrayList<>(Math.min(quantidadeVeiculos, 1024));
+        for (int i = 0; i < quantidadeVeiculos; i++) {
+            veiculos.add(lerVeiculo(entrada));
+        }
+        cliente.setVeiculos(veiculos);
+        return cliente;
+    }
+}
@@ -0,0 +1,111 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agendador de gravacoes adiadas (write-behind) dos gerenciadores que alteram dados a todo momento
+ * no fluxo interativo (estoque, Ordens de Servico e elevadores).
+ * O gerenciador guarda as alteracoes pendentes e chama {@link #marcar} informando como grava-las;
+ * varias marcacoes do mesmo gerenciador dentro de um intervalo viram uma unica gravacao, feita em
+ * uma thread de fundo. Assim o menu nao espera pelo disco a cada peca lancada ou elevador alocado.
+ * O intervalo (em milissegundos) vem da propriedade de sistema "sistemaoficina.gravacao.intervaloMs"
+ * (padrao {@value #INTERVALO_PADRAO_MS}); com 0 ou negativo a gravacao volta a ser imediata.
+ * As pendencias sao gravadas por {@link #descarregar()} ao sair do sistema e, de qualquer forma,
+ * pelo gancho de encerramento registrado em {@link Repositorios}.
+ * @author santo
+ */
+public final class GravacaoAdiada {
+
+    /**
+     * Nome da propriedade de sistema com o intervalo entre as gravacoes, em milissegundos.
+     */
+    public static final String PROPRIEDADE_INTERVALO = "sistemaoficina.gravacao.intervaloMs";
+
+    /** Intervalo usado quando a propriedade nao e informada. */
+    public static final long INTERVALO_PADRAO_MS = 1000;
+
+    // Uma gravacao pendente por gerenciador; marcar de novo apenas substitui a anterior.
+    private static final Map<Object, Runnable> PENDENTES = new LinkedHashMap<>();
+    // Garante que uma descarga termine antes de outra comecar (ex: a da saida espera a da thread de fundo).
+    private static final Object DESCARGA = new Object();
+    private static ScheduledExecutorService executor;
+    private static ScheduledFuture<?> agendada;
+
+    private GravacaoAdiada() {
+    }
+
+    /**
+     * Marca um gerenciador como alterado. A gravacao e executada uma unica vez, no maximo um
+     * intervalo depois da primeira marcacao pendente.
+     * A gravacao e executada em outra thread: ela deve sincronizar com as alteracoes do gerenciador
+     * (ex: metodos synchronized) e ler as pendencias somente dentro dessa sincronizacao.
+     * @param dono O gerenciador alterado (chave de agrupamento).
+     * @param gravacao Quem grava as alteracoes pendentes do gerenciador.
+     */
+    public static void marcar(Object dono, Runnable gravacao) {
+        long intervalo = intervaloMs();
+        if (intervalo <= 0) {
+            gravacao.run();
+            return;
+        }
+        Repositorios.registrarEncerramento();
+        synchronized (GravacaoAdiada.class) {
+            PENDENTES.put(dono, gravacao);
+            if (agendada == null) {
+                agendada = executor().schedule(GravacaoAdiada::descarregar, intervalo, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Executa agora todas as gravacoes pendentes, na thread de quem chama.
+     * Se a thread de fundo estiver gravando, espera ela terminar.
+     */
+    public static void descarregar() {
+        synchronized (DESCARGA) {
+            List<Runnable> gravacoes;
+            synchronized (GravacaoAdiada.class) {
+                gravacoes = new ArrayList<>(PENDENTES.values());
+                PENDENTES.clear();
+                if (agendada != null) {
+                    agendada.cancel(false);
+                    agendada = null;
+                }
+            }
+            for (Runnable gravacao : gravacoes) {
+                try {
+                    gravacao.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Erro ao gravar alteracoes pendentes: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static long intervaloMs() {
+        try {
+            return Long.parseLong(System.getProperty(PROPRIEDADE_INTERVALO, Long.toString(INTERVALO_PADRAO_MS)).trim());
+        } catch (NumberFormatException e) {
+            return INTERVALO_PADRAO_MS;
+        }
+    }
+
+    private static ScheduledExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "gravacao-adiada");
+                // Nao impede o encerramento: as pendencias sao gravadas pelo gancho de encerramento.
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,271 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Gravacao segura contra falhas dos arquivos de dados (clientes.json, estoque.json, etc.).
+ * O conteudo e escrito em um arquivo temporario na mesma pasta ("nome.tmp"), forcado para o disco
+ * (fsync) e so entao renomeado sobre o arquivo definitivo com um move atomico do NIO. Uma queda no
+ * meio da gravacao deixa o arquivo anterior intacto; no maximo sobra o ".tmp", que e sobrescrito
+ * na proxima gravacao.
+ * Junto de cada arquivo fica um ".crc" com o CRC32C e o tamanho do conteudo atual e do anterior.
+ * O ".crc" e trocado antes do arquivo de dados, entao uma queda entre as duas trocas deixa o arquivo
+ * anterior, que continua batendo com o checksum "anterior". Arquivos sem ".crc" (criados por versoes
+ * antigas ou editados a mao sem ele) sao aceitos sem verificacao.
+ * @author santo
+ */
+public final class GravacaoAtomica {
+
+    private static final String EXTENSAO_TEMPORARIA = ".tmp";
+    private static final String EXTENSAO_CHECKSUM = ".crc";
+    private static final String CHAVE_CRC = "crc32c";
+    private static final String CHAVE_TAMANHO = "tamanho";
+    private static final String SUFIXO_ANTERIOR = ".anterior";
+
+    // Um lock por arquivo, para que duas gravacoes do mesmo arquivo nao usem o mesmo ".tmp" ao mesmo tempo.
+    private static final ConcurrentHashMap<String, Object> TRAVAS = new ConcurrentHashMap<>();
+
+    /**
+     * Conteudo a ser gravado: recebe o Writer (UTF-8) do arquivo temporario.
+     */
+    @FunctionalInterface
+    public interface Conteudo {
+        /**
+         * Escreve o conteudo completo do arquivo.
+         * @param writer O Writer do arquivo temporario.
+         * @throws IOException Se houver erro de escrita.
+         */
+        void escrever(Writer writer) throws IOException;
+    }
+
+    /**
+     * Conteudo binario a ser gravado: recebe o fluxo de bytes do arquivo temporario.
+     */
+    @FunctionalInterface
+    public interface ConteudoBinario {
+        /**
+         * Escreve o conteudo completo do arquivo.
+         * @param saida O fluxo do arquivo temporario (quem escreve e responsavel pelo proprio buffer).
+         * @throws IOException Se houver erro de escrita.
+         */
+        void escrever(OutputStream saida) throws IOException;
+    }
+
+    private GravacaoAtomica() {
+    }
+
+    /**
+     * Substitui o conteudo de um arquivo de forma atomica e duravel.
+     * @param arquivo O arquivo definitivo.
+     * @param conteudo Quem escreve o novo conteudo.
+     * @throws IOException Se a gravacao falhar; nesse caso o arquivo definitivo nao e alterado.
+     */
+    public static void gravar(File arquivo, Conteudo conteudo) throws IOException {
+        gravarBinario(arquivo, saida -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+            conteudo.escrever(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Substitui o conteudo de um arquivo binario de forma atomica e duravel (ver {@link #gravar}).
+     * @param arquivo O arquivo definitivo.
+     * @param conteudo Quem escreve o novo conteudo.
+     * @throws IOException Se a gravacao falhar; nesse caso o arquivo definitivo nao e alterado.
+     */
+    public static void gravarBinario(File arquivo, ConteudoBinario conteudo) throws IOException {
+        Path destino = arquivo.toPath().toAbsolutePath();
+        synchronized (TRAVAS.computeIfAbsent(destino.toString(), k -> new Object())) {
+            Path pasta = destino.getParent();
+            Path temporario = irmao(destino, EXTENSAO_TEMPORARIA);
+            Path checksum = irmao(destino, EXTENSAO_CHECKSUM);
+            Path checksumTemporario = irmao(checksum, EXTENSAO_TEMPORARIA);
+
+            CRC32C crc = new CRC32C();
+            long tamanho;
+            try (FileOutputStream saida = new FileOutputStream(temporario.toFile())) {
+                conteudo.escrever(new CheckedOutputStream(saida, crc));
+                saida.getChannel().force(true);
+                tamanho = saida.getChannel().size();
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporario);
+                throw e;
+            }
+
+            Properties atual = lerChecksum(checksum);
+            Properties novo = new Properties();
+            novo.setProperty(CHAVE_CRC, Long.toHexString(crc.getValue()));
+            novo.setProperty(CHAVE_TAMANHO, Long.toString(tamanho));
+            if (atual != null && atual.getProperty(CHAVE_CRC) != null) {
+                novo.setProperty(CHAVE_CRC + SUFIXO_ANTERIOR, atual.getProperty(CHAVE_CRC));
+                novo.setProperty(CHAVE_TAMANHO + SUFIXO_ANTERIOR, atual.getProperty(CHAVE_TAMANHO, "-1"));
+            } else if (Files.exists(destino)) {
+                // Primeira gravacao com checksum: o anterior e o do arquivo que ja existe.
+                String[] anterior = calcular(destino);
+                novo.setProperty(CHAVE_CRC + SUFIXO_ANTERIOR, anterior[0]);
+                novo.setProperty(CHAVE_TAMANHO + SUFIXO_ANTERIOR, anterior[1]);
+            }
+            try (FileOutputStream saida = new FileOutputStream(checksumTemporario.toFile())) {
+                novo.store(saida, "Checksum de " + destino.getFileName());
+                saida.getChannel().force(true);
+            }
+
+            mover(checksumTemporario, checksum);
+            mover(temporario, destino);
+            sincronizarPasta(pasta);
+        }
+    }
+
+    /**
+     * Abre um arquivo de dados para leitura calculando o checksum enquanto ele e lido, entao a
+     * verificacao nao exige uma segunda passada pelo arquivo.
+     * @param arquivo O arquivo de dados.
+     * @return O leitor, que deve ser conferido com {@link LeituraVerificada#conferir()} ao final.
+     * @throws IOException Se o arquivo nao puder ser aberto.
+     */
+    public static LeituraVerificada abrirVerificado(File arquivo) throws IOException {
+        return new LeituraVerificada(arquivo);
+    }
+
+    /**
+     * Fluxo de leitura de um arquivo de dados que acumula o CRC32C e o tamanho dos bytes lidos.
+     */
+    public static final class LeituraVerificada extends CheckedInputStream {
+
+        private final File arquivo;
+        private long tamanho;
+
+        private LeituraVerificada(File arquivo) throws IOException {
+            super(new BufferedInputStream(new FileInputStream(arquivo), 64 * 1024), new CRC32C());
+            this.arquivo = arquivo;
+        }
+
+        /**
+         * @return Um Reader UTF-8 sobre este fluxo.
+         */
+        public Reader comoReader() {
+            return new InputStreamReader(this, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                tamanho++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int inicio, int quantidade) throws IOException {
+            int lidos = super.read(buffer, inicio, quantidade);
+            if (lidos > 0) {
+                tamanho += lidos;
+            }
+            return lidos;
+        }
+
+        /**
+         * Le o que restou do arquivo e compara com o ".crc". Se nao bater com o checksum atual nem com
+         * o anterior, exibe o erro e guarda uma copia ("nome.invalido") para que a proxima gravacao
+         * nao apague a evidencia. Os dados ja lidos continuam sendo usados, pois o arquivo pode ter
+         * sido editado a mao.
+         * @return true se nao houver ".crc" ou se o conteudo conferir.
+         */
+        public boolean conferir() {
+            try {
+                byte[] descarte = new byte[8 * 1024];
+                while (read(descarte, 0, descarte.length) > 0) {
+                    // Consome o restante (espacos finais que o parser nao leu).
+                }
+                Path caminho = arquivo.toPath().toAbsolutePath();
+                Properties esperado = lerChecksum(irmao(caminho, EXTENSAO_CHECKSUM));
+                if (esperado == null || esperado.getProperty(CHAVE_CRC) == null) {
+                    return true;
+                }
+                String crcLido = Long.toHexString(getChecksum().getValue());
+                String tamanhoLido = Long.toString(tamanho);
+                boolean confere = (crcLido.equals(esperado.getProperty(CHAVE_CRC)) && tamanhoLido.equals(esperado.getProperty(CHAVE_TAMANHO)))
+                        || (crcLido.equals(esperado.getProperty(CHAVE_CRC + SUFIXO_ANTERIOR))
+                            && tamanhoLido.equals(esperado.getProperty(CHAVE_TAMANHO + SUFIXO_ANTERIOR)));
+                if (!confere) {
+                    Path copia = irmao(caminho, ".invalido");
+                    Files.copy(caminho, copia, StandardCopyOption.REPLACE_EXISTING);
+                    System.err.println("Erro ao verificar '" + arquivo.getName() + "': checksum nao confere (arquivo corrompido ou alterado fora do sistema). Copia guardada em '" + copia.getFileName() + "'.");
+                }
+                return confere;
+            } catch (IOException e) {
+                System.err.println("Erro ao verificar '" + arquivo.getName() + "': " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Calcula o CRC32C (em hexadecimal) e o tamanho de um arquivo.
+     */
+    private static String[] calcular(Path caminho) throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[64 * 1024];
+        long tamanho = 0;
+        try (InputStream entrada = Files.newInputStream(caminho)) {
+            int lidos;
+            while ((lidos = entrada.read(buffer)) > 0) {
+                crc.update(buffer, 0, lidos);
+                tamanho += lidos;
+            }
+        }
+        return new String[]{Long.toHexString(crc.getValue()), Long.toString(tamanho)};
+    }
+
+    private static Properties lerChecksum(Path checksum) throws IOException {
+        if (!Files.exists(checksum)) {
+            return null;
+        }
+        Properties propriedades = new Properties();
+        try (InputStream entrada = Files.newInputStream(checksum)) {
+            propriedades.load(entrada);
+        }
+        return propriedades;
+    }
+
+    private static Path irmao(Path caminho, String extensao) {
+        return caminho.resolveSibling(caminho.getFileName() + extensao);
+    }
+
+    private static void mover(Path origem, Path destino) throws IOException {
+        try {
+            Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(origem, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Forca para o disco a entrada de diretorio criada pelo rename. Nem todo sistema permite abrir
+     * uma pasta para leitura (ex: Windows); nesse caso o rename ja e duravel e o erro e ignorado.
+     */
+    private static void sincronizarPasta(Path pasta) {
+        if (pasta == null) {
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(pasta, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // Sem suporte a fsync de diretorio.
+        }
+    }
+}
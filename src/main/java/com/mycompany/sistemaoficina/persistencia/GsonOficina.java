@@ -0,0 +1,101 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.mycompany.sistemaoficina.Agendamento;
+import com.mycompany.sistemaoficina.Clientes;
+import com.mycompany.sistemaoficina.Despesa;
+import com.mycompany.sistemaoficina.Elevador;
+import com.mycompany.sistemaoficina.Funcionario;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+import com.mycompany.sistemaoficina.Produto;
+import com.mycompany.sistemaoficina.Servico;
+import com.mycompany.sistemaoficina.TipoElevador;
+import com.mycompany.sistemaoficina.Veiculo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Instancias compartilhadas do Gson usadas por toda a persistencia do sistema.
+ * Registra em um unico lugar os adaptadores de LocalDateTime e TipoElevador e os adaptadores de streaming
+ * das classes mais volumosas (OrdemDeServico, Agendamento, Clientes e os objetos aninhados
+ * Veiculo, Servico, Produto e ItemOrdemDeServico), alem de Despesa, que leem e gravam o JSON diretamente, sem reflexao.
+ * O formato gerado e o mesmo do Gson por reflexao, com os valores monetarios (centavos na memoria) gravados em reais.
+ * Instancias de Gson sao imutaveis e seguras para uso concorrente.
+ * @author santo
+ */
+public final class GsonOficina {
+
+    /**
+     * Gson compacto (uma linha por objeto), usado no journal e em gravacoes internas.
+     */
+    public static final Gson COMPACTO = criarBuilder().create();
+
+    /**
+     * Gson com pretty printing, usado para gravar os arquivos JSON editaveis.
+     */
+    public static final Gson FORMATADO = criarBuilder().setPrettyPrinting().create();
+
+    private GsonOficina() {
+    }
+
+    /**
+     * Cria um GsonBuilder com todos os adaptadores do sistema registrados.
+     * @return Um novo GsonBuilder configurado.
+     */
+    public static GsonBuilder criarBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new AdaptadorLocalDateTime().nullSafe())
+                .registerTypeAdapter(TipoElevador.class, new AdaptadorTipoElevador().nullSafe())
+                .registerTypeAdapterFactory(new FabricaAdaptadores());
+    }
+
+    /**
+     * Fabrica que entrega os adaptadores de streaming. Os tipos aninhados menos frequentes
+     * (Funcionario, Elevador) continuam usando o adaptador por reflexao do proprio Gson.
+     */
+    private static class FabricaAdaptadores implements TypeAdapterFactory {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> tipo) {
+            Class<? super T> classe = tipo.getRawType();
+            if (classe == Veiculo.class) {
+                return (TypeAdapter<T>) new AdaptadorVeiculo().nullSafe();
+            }
+            if (classe == Servico.class) {
+                return (TypeAdapter<T>) new AdaptadorServico().nullSafe();
+            }
+            if (classe == Produto.class) {
+                return (TypeAdapter<T>) new AdaptadorProduto().nullSafe();
+            }
+            if (classe == Clientes.class) {
+                return (TypeAdapter<T>) new AdaptadorClientes(gson.getAdapter(Veiculo.class)).nullSafe();
+            }
+            if (classe == Agendamento.class) {
+                return (TypeAdapter<T>) new AdaptadorAgendamento(
+                        gson.getAdapter(Clientes.class),
+                        gson.getAdapter(Veiculo.class),
+                        gson.getAdapter(LocalDateTime.class),
+                        gson.getAdapter(Funcionario.class),
+                        gson.getAdapter(Elevador.class)).nullSafe();
+            }
+            if (classe == Despesa.class) {
+                return (TypeAdapter<T>) new AdaptadorDespesa(gson.getAdapter(LocalDateTime.class)).nullSafe();
+            }
+            if (classe == ItemOrdemDeServico.class) {
+                return (TypeAdapter<T>) new AdaptadorItemOrdemDeServico().nullSafe();
+            }
+            if (classe == OrdemDeServico.class) {
+                return (TypeAdapter<T>) new AdaptadorOrdemDeServico(
+                        gson.getAdapter(ItemOrdemDeServico.class),
+                        gson.getAdapter(LocalDateTime.class)).nullSafe();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.mycompany.sistemaoficina.ItemOrdemDeServico;
+import com.mycompany.sistemaoficina.OrdemDeServico;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Journal (registro somente de acrescimo) das alteracoes feitas nas Ordens de Servico.
+ * Cada alteracao (criacao, alteracao de item, finalizacao) e gravada como uma linha JSON
+ * no final do arquivo, de modo que o custo de gravar uma alteracao depende apenas do
+ * tamanho dela, e nao do historico completo de OS.
+ * O snapshot completo (ordens_de_servico.json) so e regravado na compactacao.
+ * <p>
+ * Cada alteracao de item guarda o estado final da linha e a revisao da OS depois dela; na reaplicacao,
+ * entradas com revisao menor ou igual a da OS carregada ja estao no snapshot e sao ignoradas.
+ * Linhas antigas, sem revisao, continuam sendo reaplicadas pela posicao (apenas acrescimos).
+ * @author santo
+ */
+public class JournalOrdensDeServico {
+
+    private static final String OP_CRIACAO = "CRIACAO";
+    private static final String OP_SERVICO = "SERVICO";
+    private static final String OP_PECA = "PECA";
+    private static final String OP_FINALIZACAO = "FINALIZACAO";
+
+    private final File arquivo;
+    private final Gson gson;
+    private Writer escritor;
+    private int entradasPendentes;
+
+    /**
+     * Uma linha do journal. Apenas os campos relativos a operacao sao preenchidos;
+     * os demais ficam nulos e nao sao gravados pelo Gson.
+     * Linhas antigas, com o Servico ou o Produto completos, sao lidas como itens pelo
+     * {@link AdaptadorItemOrdemDeServico}.
+     */
+    private static class Entrada {
+        private String op;
+        private Integer idOS;
+        private Integer indice;
+        private Integer revisao;
+        private OrdemDeServico os;
+        private ItemOrdemDeServico servico;
+        private ItemOrdemDeServico peca;
+        private LocalDateTime dataEmissao;
+    }
+
+    /**
+     * Construtor do journal.
+     * @param nomeArquivo O caminho do arquivo de journal.
+     * @param gson Instancia do Gson (sem pretty printing) com os adaptadores necessarios.
+     */
+    public JournalOrdensDeServico(String nomeArquivo, Gson gson) {
+        this.arquivo = new File(nomeArquivo);
+        this.gson = gson;
+        this.entradasPendentes = 0;
+    }
+
+    /**
+     * Registra a criacao de uma nova Ordem de Servico.
+     * @param os A OS recem-criada.
+     */
+    public void registrarCriacao(OrdemDeServico os) {
+        Entrada e = new Entrada();
+        e.op = OP_CRIACAO;
+        e.os = os;
+        gravar(e);
+    }
+
+    /**
+     * Registra a alteracao de uma linha de servico de uma OS (adicao, soma de quantidade ou remocao).
+     * @param idOS O ID da OS alterada.
+     * @param indice A posicao da linha na lista da OS.
+     * @param servico O estado da linha apos a alteracao, ou null se a linha foi removida.
+     * @param revisao A revisao da OS apos a alteracao (usada para tornar a reaplicacao idempotente).
+     */
+    public void registrarServico(int idOS, int indice, ItemOrdemDeServico servico, int revisao) {
+        Entrada e = new Entrada();
+        e.op = OP_SERVICO;
+        e.idOS = idOS;
+        e.indice = indice;
+        e.revisao = revisao;
+        e.servico = servico;
+        gravar(e);
+    }
+
+    /**
+     * Registra a alteracao de uma linha de peca de uma OS (adicao, soma de quantidade ou remocao).
+     * @param idOS O ID da OS alterada.
+     * @param indice A posicao da linha na lista da OS.
+     * @param peca O estado da linha apos a alteracao, ou null se a linha foi removida.
+     * @param revisao A revisao da OS apos a alteracao (usada para tornar a reaplicacao idempotente).
+     */
+    public void registrarPeca(int idOS, int indice, ItemOrdemDeServico peca, int revisao) {
+        Entrada e = new Entrada();
+        e.op = OP_PECA;
+        e.idOS = idOS;
+        e.indice = indice;
+        e.revisao = revisao;
+        e.peca = peca;
+        gravar(e);
+    }
+
+    /**
+     * Registra a finalizacao de uma OS.
+     * @param idOS O ID da OS finalizada.
+     * @param dataEmissao A data de emissao definida na finalizacao.
+     */
+    public void registrarFinalizacao(int idOS, LocalDateTime dataEmissao) {
+        Entrada e = new Entrada();
+        e.op = OP_FINALIZACAO;
+        e.idOS = idOS;
+        e.dataEmissao = dataEmissao;
+        gravar(e);
+    }
+
+    /**
+     * Reaplica sobre a lista carregada do snapshot todas as alteracoes registradas no journal.
+     * A reaplicacao e idempotente: entradas que ja estao refletidas no snapshot sao ignoradas.
+     * Uma ultima linha incompleta (gravacao interrompida) e ignorada sem erro. Uma linha invalida seguida de
+     * outras entradas nao e de gravacao interrompida: a leitura falha, para que o snapshot nao seja regravado
+     * e o journal truncado sem as alteracoes posteriores a ela.
+     * @param ordens A lista de OS carregada do snapshot, que sera alterada.
+     * @return O numero de entradas lidas do journal.
+     * @throws IllegalStateException se o journal tiver uma linha invalida antes da ultima ou nao puder ser lido.
+     */
+    public int reaplicar(List<OrdemDeServico> ordens) {
+        if (!arquivo.exists()) {
+            return 0;
+        }
+        Map<Integer, OrdemDeServico> porId = new HashMap<>();
+        for (OrdemDeServico os : ordens) {
+            porId.put(os.getIdOrdemDeServico(), os);
+        }
+
+        int lidas = 0;
+        int numeroLinha = 0;
+        int linhaInvalida = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(arquivo), StandardCharsets.UTF_8))) {
+            String linha;
+            while ((linha = reader.readLine()) != null) {
+                numeroLinha++;
+                if (linha.isBlank()) continue;
+                if (linhaInvalida > 0) {
+                    throw new IllegalStateException("Journal de Ordens de Servico '" + arquivo.getName() + "' corrompido na linha "
+                            + linhaInvalida + ", antes de outras entradas. O arquivo foi mantido para correcao manual.");
+                }
+                Entrada e;
+                try {
+                    e = gson.fromJson(linha, Entrada.class);
+                } catch (JsonParseException ex) {
+                    // So e tolerada se for a ultima linha; a proxima linha nao vazia decide.
+                    linhaInvalida = numeroLinha;
+                    continue;
+                }
+                aplicar(e, ordens, porId);
+                lidas++;
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Erro ao ler o journal de Ordens de Servico: " + e.getMessage(), e);
+        }
+        if (linhaInvalida > 0) {
+            System.err.println("JournalOrdensDeServico: Entrada incompleta ignorada no final do journal.");
+        }
+        this.entradasPendentes = lidas;
+        return lidas;
+    }
+
+    /**
+     * Aplica uma unica entrada do journal ao estado em memoria.
+     */
+    private void aplicar(Entrada e, List<OrdemDeServico> ordens, Map<Integer, OrdemDeServico> porId) {
+        if (OP_CRIACAO.equals(e.op)) {
+            if (e.os != null && !porId.containsKey(e.os.getIdOrdemDeServico())) {
+                ordens.add(e.os);
+                porId.put(e.os.getIdOrdemDeServico(), e.os);
+            }
+            return;
+        }
+        OrdemDeServico os = e.idOS != null ? porId.get(e.idOS) : null;
+        if (os == null) {
+            return;
+        }
+        switch (e.op) {
+            case OP_SERVICO:
+                if (e.revisao != null) {
+                    if (os.getRevisao() < e.revisao) {
+                        os.restaurarServico(e.indice, e.servico, e.revisao);
+                    }
+                } else if (os.getServicosRealizados().size() == e.indice) {
+                    os.restaurarServico(e.indice, e.servico, os.getRevisao());
+                }
+                break;
+            case OP_PECA:
+                if (e.revisao != null) {
+                    if (os.getRevisao() < e.revisao) {
+                        os.restaurarPeca(e.indice, e.peca, e.revisao);
+                    }
+                } else if (os.getPecasUtilizadas().size() == e.indice) {
+                    os.restaurarPeca(e.indice, e.peca, os.getRevisao());
+                }
+                break;
+            case OP_FINALIZACAO:
+                if (os.getStatus().equals("Aberta")) {
+                    os.finalizar(e.dataEmissao);
+                }
+                break;
+            default:
+                System.err.println("JournalOrdensDeServico: Operacao desconhecida '" + e.op + "' ignorada.");
+        }
+    }
+
+    /**
+     * Retorna quantas entradas existem no journal desde a ultima compactacao.
+     * @return O numero de entradas pendentes.
+     */
+    public int getEntradasPendentes() {
+        return entradasPendentes;
+    }
+
+    /**
+     * Esvazia o journal. Deve ser chamado logo apos a gravacao de um snapshot completo.
+     */
+    public void truncar() {
+        fechar();
+        try {
+            // Abrir sem modo append ja descarta o conteudo anterior.
+            new FileOutputStream(arquivo).close();
+        } catch (IOException e) {
+            System.err.println("Erro ao truncar o journal de Ordens de Servico: " + e.getMessage());
+        }
+        this.entradasPendentes = 0;
+    }
+
+    /**
+     * Fecha o arquivo de journal, caso esteja aberto.
+     */
+    public void fechar() {
+        if (escritor != null) {
+            try {
+                escritor.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar o journal de Ordens de Servico: " + e.getMessage());
+            }
+            escritor = null;
+        }
+    }
+
+    /**
+     * Descarrega no arquivo as entradas acumuladas no buffer desde a ultima chamada.
+     * Quem registra varias alteracoes de uma vez chama este metodo uma unica vez no final.
+     */
+    public void descarregar() {
+        if (escritor != null) {
+            try {
+                escritor.flush();
+            } catch (IOException e) {
+                System.err.println("Erro ao gravar no journal de Ordens de Servico: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Acrescenta uma entrada no buffer do journal (ver {@link #descarregar()}).
+     */
+    private void gravar(Entrada e) {
+        try {
+            if (escritor == null) {
+                escritor = new BufferedWriter(new FileWriter(arquivo, StandardCharsets.UTF_8, true));
+            }
+            escritor.write(gson.toJson(e));
+            escritor.write('\n');
+            entradasPendentes++;
+        } catch (IOException ex) {
+            System.err.println("Erro ao gravar no journal de Ordens de Servico: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.mycompany.sistemaoficina.Dinheiro;
+
+import java.io.IOException;
+
+/**
+ * Metodos auxiliares de leitura usados pelos adaptadores de streaming.
+ * @author santo
+ */
+final class LeituraJson {
+
+    private LeituraJson() {
+    }
+
+    /**
+     * Le uma string que pode ser nula no JSON.
+     * @param in O leitor posicionado no valor.
+     * @return A string lida, ou {@code null}.
+     * @throws IOException Se o JSON estiver mal formado.
+     */
+    static String lerString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Le um valor monetario gravado em reais (ex: 89.9) e o converte para centavos.
+     * @param in O leitor posicionado no valor.
+     * @return O valor, em centavos.
+     * @throws IOException Se o JSON estiver mal formado.
+     */
+    static long lerCentavos(JsonReader in) throws IOException {
+        return Dinheiro.deReais(in.nextDouble());
+    }
+
+    /**
+     * Grava um valor monetario em reais, como nos arquivos JSON de sempre.
+     * @param out O escritor posicionado no valor.
+     * @param centavos O valor, em centavos.
+     * @throws IOException Se houver erro de escrita.
+     */
+    static void escreverCentavos(JsonWriter out, long centavos) throws IOException {
+        out.value(Dinheiro.emReais(centavos));
+    }
+
+    /**
+     * Verifica se o proximo valor e nulo e, nesse caso, consome-o.
+     * @param in O leitor posicionado no valor.
+     * @return true se o valor era nulo (e ja foi consumido).
+     * @throws IOException Se o JSON estiver mal formado.
+     */
+    static boolean consumirNulo(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Contrato de persistencia usado pelos gerenciadores para carregar, gravar e buscar seus registros.
+ * Cada registro e identificado por um ID inteiro (o mesmo usado nos indices por ID).
+ * Ha duas implementacoes: {@link RepositorioJson}, que mantem o arquivo JSON de sempre, e
+ * {@link RepositorioPaginado}, que guarda cada registro separadamente em um arquivo de paginas
+ * e por isso consegue gravar uma alteracao sem regravar o arquivo inteiro.
+ * As instancias sao obtidas por {@link Repositorios#abrir}.
+ * Erros de E/S sao exibidos no console e sinalizados pelo retorno dos metodos de gravacao,
+ * seguindo o tratamento que os gerenciadores ja faziam.
+ * @param <T> O tipo dos registros.
+ * @author santo
+ */
+public interface Repositorio<T> {
+
+    /**
+     * Indica se ja existem dados gravados (arquivo JSON presente ou armazenamento com registros).
+     * @return true se houver dados gravados.
+     */
+    boolean existe();
+
+    /**
+     * Carrega todos os registros.
+     * @return Uma nova lista com os registros (vazia se nao houver dados).
+     */
+    List<T> carregarTodos();
+
+    /**
+     * Busca um unico registro pelo ID.
+     * @param id O ID procurado.
+     * @return O registro, ou {@code null} se nao existir.
+     */
+    T buscarPorId(int id);
+
+    /**
+     * Grava (inclui ou substitui) um unico registro.
+     * @param registro O registro alterado.
+     * @return true se a gravacao foi concluida.
+     */
+    boolean salvar(T registro);
+
+    /**
+     * Grava (inclui ou substitui) varios registros de uma vez, sem tocar nos demais.
+     * As implementacoes agrupam a gravacao (uma regravacao do arquivo ou uma sincronizacao).
+     * @param registros Os registros alterados.
+     * @return true se a gravacao foi concluida.
+     */
+    boolean salvarVarios(Collection<T> registros);
+
+    /**
+     * Remove o registro com o ID informado.
+     * @param id O ID do registro.
+     * @return true se a gravacao foi concluida.
+     */
+    boolean remover(int id);
+
+    /**
+     * Substitui todo o conteudo gravado pela colecao informada.
+     * @param registros Todos os registros.
+     * @return true se a gravacao foi concluida.
+     */
+    boolean salvarTodos(Collection<T> registros);
+
+    /**
+     * Indica se {@link #salvar} grava apenas o registro alterado. Quando false, cada gravacao
+     * regrava o conteudo completo e o gerenciador pode preferir agrupar as alteracoes.
+     * @return true se a gravacao de um registro tiver custo proporcional ao tamanho dele.
+     */
+    boolean suportaGravacaoPontual();
+}
@@ -0,0 +1,142 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Repositorio gravado em um unico arquivo no {@link FormatoBinario} (ex: ordens_de_servico.bin).
+ * Funciona como o {@link RepositorioJson}: mantem em memoria a lista gravada e cada gravacao regrava
+ * o arquivo inteiro, pela {@link GravacaoAtomica}, com o checksum conferido a cada carga. A diferenca
+ * e o tamanho do arquivo e o custo de le-lo, bem menores que os do JSON formatado.
+ * Disponivel apenas para os tipos aceitos por {@link FormatoBinario#suporta}.
+ * @param <T> O tipo dos registros.
+ * @author santo
+ */
+public class RepositorioBinario<T> implements Repositorio<T> {
+
+    private final File arquivo;
+    private final Class<T> classe;
+    private final ToIntFunction<T> extratorId;
+    private List<T> registros;
+
+    /**
+     * Construtor do repositorio.
+     * @param arquivo O arquivo binario.
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     */
+    public RepositorioBinario(File arquivo, Class<T> classe, ToIntFunction<T> extratorId) {
+        if (!FormatoBinario.suporta(classe)) {
+            throw new IllegalArgumentException("Sem formato binario para " + classe.getSimpleName());
+        }
+        this.arquivo = arquivo;
+        this.classe = classe;
+        this.extratorId = extratorId;
+    }
+
+    @Override
+    public synchronized boolean existe() {
+        return arquivo.exists();
+    }
+
+    @Override
+    public synchronized List<T> carregarTodos() {
+        registros = lerArquivo();
+        return new ArrayList<>(registros);
+    }
+
+    @Override
+    public synchronized T buscarPorId(int id) {
+        int posicao = posicaoDoId(id);
+        return posicao >= 0 ? registros.get(posicao) : null;
+    }
+
+    @Override
+    public synchronized boolean salvar(T registro) {
+        substituir(registro);
+        return gravarArquivo();
+    }
+
+    @Override
+    public synchronized boolean salvarVarios(Collection<T> alterados) {
+        for (T registro : alterados) {
+            substituir(registro);
+        }
+        return gravarArquivo();
+    }
+
+    @Override
+    public synchronized boolean remover(int id) {
+        int posicao = posicaoDoId(id);
+        if (posicao >= 0) {
+            registros.remove(posicao);
+        }
+        return gravarArquivo();
+    }
+
+    @Override
+    public synchronized boolean salvarTodos(Collection<T> todos) {
+        registros = new ArrayList<>(todos);
+        return gravarArquivo();
+    }
+
+    @Override
+    public boolean suportaGravacaoPontual() {
+        return false;
+    }
+
+    /**
+     * Inclui o registro na lista gravada, ou substitui o registro com o mesmo ID.
+     */
+    private void substituir(T registro) {
+        int posicao = posicaoDoId(extratorId.applyAsInt(registro));
+        if (posicao >= 0) {
+            registros.set(posicao, registro);
+        } else {
+            registros.add(registro);
+        }
+    }
+
+    /**
+     * Posicao do registro com o ID informado na lista gravada (carregando o arquivo na primeira vez).
+     */
+    private int posicaoDoId(int id) {
+        if (registros == null) {
+            registros = lerArquivo();
+        }
+        for (int i = 0; i < registros.size(); i++) {
+            if (extratorId.applyAsInt(registros.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<T> lerArquivo() {
+        if (!arquivo.exists()) {
+            return new ArrayList<>();
+        }
+        try (GravacaoAtomica.LeituraVerificada entrada = GravacaoAtomica.abrirVerificado(arquivo)) {
+            List<T> lidos = FormatoBinario.ler(entrada, classe);
+            entrada.conferir();
+            return lidos;
+        } catch (IOException e) {
+            System.err.println("Erro ao carregar " + arquivo.getName() + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private boolean gravarArquivo() {
+        try {
+            GravacaoAtomica.gravarBinario(arquivo, saida -> FormatoBinario.gravar(saida, classe, registros));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar " + arquivo.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
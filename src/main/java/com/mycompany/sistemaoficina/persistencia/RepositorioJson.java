@@ -0,0 +1,141 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.*;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Repositorio gravado em um unico arquivo JSON (uma lista com todos os registros), no mesmo
+ * formato que os gerenciadores sempre usaram. Mantem em memoria a lista gravada, entao
+ * {@link #salvar}, {@link #salvarVarios} e {@link #remover} atualizam essa lista e regravam o arquivo inteiro
+ * (uma unica vez por chamada).
+ * As gravacoes passam pela {@link GravacaoAtomica} (arquivo temporario, fsync e rename) e o
+ * checksum e conferido a cada carga.
+ * @param <T> O tipo dos registros.
+ * @author santo
+ */
+public class RepositorioJson<T> implements Repositorio<T> {
+
+    private final File arquivo;
+    private final Type tipoLista;
+    private final ToIntFunction<T> extratorId;
+    private List<T> registros;
+
+    /**
+     * Construtor do repositorio.
+     * @param arquivo O arquivo JSON.
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     */
+    public RepositorioJson(File arquivo, Class<T> classe, ToIntFunction<T> extratorId) {
+        this.arquivo = arquivo;
+        this.tipoLista = TypeToken.getParameterized(List.class, classe).getType();
+        this.extratorId = extratorId;
+    }
+
+    @Override
+    public synchronized boolean existe() {
+        return arquivo.exists();
+    }
+
+    @Override
+    public synchronized List<T> carregarTodos() {
+        registros = lerArquivo();
+        return new ArrayList<>(registros);
+    }
+
+    @Override
+    public synchronized T buscarPorId(int id) {
+        int posicao = posicaoDoId(id);
+        return posicao >= 0 ? registros.get(posicao) : null;
+    }
+
+    @Override
+    public synchronized boolean salvar(T registro) {
+        int posicao = posicaoDoId(extratorId.applyAsInt(registro));
+        if (posicao >= 0) {
+            registros.set(posicao, registro);
+        } else {
+            registros.add(registro);
+        }
+        return gravarArquivo();
+    }
+
+    @Override
+    public synchronized boolean salvarVarios(Collection<T> alterados) {
+        for (T registro : alterados) {
+            int posicao = posicaoDoId(extratorId.applyAsInt(registro));
+            if (posicao >= 0) {
+                registros.set(posicao, registro);
+            } else {
+                registros.add(registro);
+            }
+        }
+        return gravarArquivo();
+    }
+
+    @Override
+    public synchronized boolean remover(int id) {
+        int posicao = posicaoDoId(id);
+        if (posicao >= 0) {
+            registros.remove(posicao);
+        }
+        return gravarArquivo();
+    }
+
+    @Override
+    public synchronized boolean salvarTodos(Collection<T> todos) {
+        registros = new ArrayList<>(todos);
+        return gravarArquivo();
+    }
+
+    @Override
+    public boolean suportaGravacaoPontual() {
+        return false;
+    }
+
+    /**
+     * Posicao do registro com o ID informado na lista gravada (carregando o arquivo na primeira vez).
+     */
+    private int posicaoDoId(int id) {
+        if (registros == null) {
+            registros = lerArquivo();
+        }
+        for (int i = 0; i < registros.size(); i++) {
+            if (extratorId.applyAsInt(registros.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<T> lerArquivo() {
+        if (!arquivo.exists()) {
+            return new ArrayList<>();
+        }
+        try (GravacaoAtomica.LeituraVerificada entrada = GravacaoAtomica.abrirVerificado(arquivo)) {
+            List<T> lidos = GsonOficina.COMPACTO.fromJson(entrada.comoReader(), tipoLista);
+            entrada.conferir();
+            return lidos != null ? new ArrayList<>(lidos) : new ArrayList<>();
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Erro ao carregar " + arquivo.getName() + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private boolean gravarArquivo() {
+        try {
+            GravacaoAtomica.gravar(arquivo, writer -> GsonOficina.FORMATADO.toJson(registros, tipoLista, writer));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar " + arquivo.getName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Repositorio sobre o {@link ArmazenamentoPaginado}: cada registro e gravado como JSON compacto
+ * sob o proprio ID, entao incluir, alterar ou remover um registro escreve so as paginas dele.
+ * Cada {@link #salvar}, {@link #salvarVarios} e {@link #remover} sincroniza o arquivo antes de retornar
+ * (a alteracao e duravel); {@link #salvarTodos} sincroniza a cada {@value #REGISTROS_POR_SINCRONIZACAO} registros e no final.
+ * @param <T> O tipo dos registros.
+ * @author santo
+ */
+public class RepositorioPaginado<T> implements Repositorio<T> {
+
+    private static final int REGISTROS_POR_SINCRONIZACAO = 1024;
+
+    private final ArmazenamentoPaginado armazenamento;
+    private final Class<T> classe;
+    private final ToIntFunction<T> extratorId;
+
+    /**
+     * Construtor do repositorio.
+     * @param armazenamento O armazenamento ja aberto.
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     */
+    public RepositorioPaginado(ArmazenamentoPaginado armazenamento, Class<T> classe, ToIntFunction<T> extratorId) {
+        this.armazenamento = armazenamento;
+        this.classe = classe;
+        this.extratorId = extratorId;
+    }
+
+    @Override
+    public boolean existe() {
+        return armazenamento.quantidade() > 0;
+    }
+
+    @Override
+    public List<T> carregarTodos() {
+        List<T> registros = new ArrayList<>(armazenamento.quantidade());
+        for (int id : armazenamento.chaves()) {
+            T registro = buscarPorId(id);
+            if (registro != null) {
+                registros.add(registro);
+            }
+        }
+        return registros;
+    }
+
+    @Override
+    public T buscarPorId(int id) {
+        try {
+            byte[] dados = armazenamento.ler(id);
+            return dados != null ? GsonOficina.COMPACTO.fromJson(new String(dados, StandardCharsets.UTF_8), classe) : null;
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Erro ao carregar registro " + id + " de '" + armazenamento.getArquivo().getName() + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean salvar(T registro) {
+        return gravar(registro) && sincronizar();
+    }
+
+    @Override
+    public boolean salvarVarios(Collection<T> registros) {
+        boolean sucesso = true;
+        for (T registro : registros) {
+            sucesso &= gravar(registro);
+        }
+        return sincronizar() && sucesso;
+    }
+
+    @Override
+    public boolean remover(int id) {
+        try {
+            armazenamento.remover(id);
+            armazenamento.sincronizar();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao remover registro " + id + " de '" + armazenamento.getArquivo().getName() + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Grava todos os registros informados e remove os que nao fazem mais parte da colecao.
+     * Registros com o mesmo ID ficam com o ultimo da colecao.
+     */
+    @Override
+    public boolean salvarTodos(Collection<T> registros) {
+        Set<Integer> ids = new HashSet<>();
+        boolean sucesso = true;
+        int gravados = 0;
+        for (T registro : registros) {
+            ids.add(extratorId.applyAsInt(registro));
+            sucesso &= gravar(registro);
+            // Sincroniza periodicamente para que as paginas das versoes substituidas voltem a ser reaproveitadas.
+            if (++gravados % REGISTROS_POR_SINCRONIZACAO == 0) {
+                sucesso &= sincronizar();
+            }
+        }
+        for (int id : armazenamento.chaves()) {
+            if (!ids.contains(id)) {
+                sucesso &= remover(id);
+            }
+        }
+        return sincronizar() && sucesso;
+    }
+
+    @Override
+    public boolean suportaGravacaoPontual() {
+        return true;
+    }
+
+    /**
+     * Grava um registro sem sincronizar o arquivo.
+     */
+    private boolean gravar(T registro) {
+        int id = extratorId.applyAsInt(registro);
+        try {
+            armazenamento.gravar(id, GsonOficina.COMPACTO.toJson(registro, classe).getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar registro " + id + " em '" + armazenamento.getArquivo().getName() + "': " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean sincronizar() {
+        try {
+            armazenamento.sincronizar();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao sincronizar '" + armazenamento.getArquivo().getName() + "': " + e.getMessage());
+            return false;
+        }
+    }
+}
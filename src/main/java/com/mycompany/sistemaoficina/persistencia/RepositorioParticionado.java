@@ -0,0 +1,775 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Repositorio dividido em particoes mensais pela data de cada registro (ex: a data de emissao da OS).
+ * Cada mes fica em um repositorio proprio, dentro de uma pasta com o nome do tipo
+ * (ex: ordens_de_servico/2025-03.json), aberto por {@link Repositorios#abrir}; assim os backends
+ * json, binario e paginado continuam valendo, particao por particao.
+ * O arquivo particoes.json da pasta guarda o resumo de cada mes: quantidade de registros, faixa de IDs
+ * e quantos registros precisam ficar sempre em memoria (ex: OS abertas). Com ele, a abertura carrega
+ * apenas o mes atual e os meses com esses registros; os demais sao carregados sob demanda, por periodo
+ * ({@link #carregarPeriodo}) ou por ID ({@link #carregarPorId}).
+ * <p>
+ * Na primeira abertura, se existir o arquivo unico antigo (ex: ordens_de_servico.json), os registros
+ * dele sao divididos nas particoes; o arquivo antigo nao e alterado. Um registro cuja data muda de mes
+ * (ex: OS finalizada em um mes diferente do da abertura) e movido de particao ao ser gravado.
+ * Registros sem data ficam no mes em que foram gravados pela primeira vez.
+ * <p>
+ * Meses antigos sem registros mantidos podem ser arquivados ({@link #arquivarAntigos}): o conteudo vai para
+ * um {@link SegmentoCompactado} (ex: ordens_de_servico/2022-03.json.gz) e a particao fica vazia. Meses
+ * arquivados continuam sendo lidos pelas cargas e por {@link #buscarPorId}; como so guardam registros
+ * encerrados, nao sao regravados pelo snapshot de {@link #salvarTodos}. Se um registro for gravado em um
+ * mes arquivado, o mes volta a ser uma particao comum.
+ * @param <T> O tipo dos registros.
+ * @author santo
+ */
+public class RepositorioParticionado<T> {
+
+    private static final String ARQUIVO_PARTICOES = "particoes.json";
+    private static final Type TIPO_RESUMOS = TypeToken.getParameterized(List.class, Resumo.class).getType();
+    private static final Pattern NOME_PARTICAO = Pattern.compile("(\\d{4}-\\d{2})\\.(json|bin|db|json\\.gz)");
+
+    private final String nome;
+    private final Class<T> classe;
+    private final ToIntFunction<T> extratorId;
+    private final Function<T, LocalDateTime> extratorData;
+    private final Predicate<T> manterCarregado;
+    private final Type tipoLista;
+
+    private final TreeMap<YearMonth, Resumo> resumos = new TreeMap<>();
+    private final Map<YearMonth, Repositorio<T>> particoes = new HashMap<>();
+    // Registros conhecidos de cada mes: todos, se o mes ja foi carregado; senao, apenas os gravados nesta execucao.
+    private final Map<YearMonth, Map<Integer, T>> registrosPorMes = new HashMap<>();
+    private final Set<YearMonth> carregados = new HashSet<>();
+    private final Map<Integer, YearMonth> mesPorId = new HashMap<>();
+    private boolean aberto = false;
+    // Ultimo mes lido por buscarPorId sem ser carregado (as buscas seguidas costumam cair no mesmo mes).
+    private YearMonth mesEmCache;
+    private List<T> registrosEmCache;
+
+    /**
+     * Construtor do repositorio. Nada e lido ate a primeira operacao.
+     * @param nome O nome do tipo, usado na pasta das particoes e no arquivo unico antigo (ex: "ordens_de_servico").
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     * @param extratorData Funcao que retorna a data que define o mes do registro (pode retornar null).
+     * @param manterCarregado Condicao dos registros que devem ser carregados sempre na abertura (ex: OS abertas).
+     */
+    public RepositorioParticionado(String nome, Class<T> classe, ToIntFunction<T> extratorId,
+            Function<T, LocalDateTime> extratorData, Predicate<T> manterCarregado) {
+        this.nome = nome;
+        this.classe = classe;
+        this.extratorId = extratorId;
+        this.extratorData = extratorData;
+        this.manterCarregado = manterCarregado;
+        this.tipoLista = TypeToken.getParameterized(List.class, classe).getType();
+    }
+
+    /**
+     * Verifica se ha dados gravados, particionados ou no arquivo unico antigo.
+     * @return true se existir a pasta das particoes ou o arquivo antigo.
+     */
+    public synchronized boolean existe() {
+        return pasta().isDirectory() || legadoExiste();
+    }
+
+    /**
+     * Carrega os registros necessarios na abertura: os do mes atual e os dos meses que tem registros
+     * que devem ficar sempre em memoria.
+     * @param mesAtual O mes atual.
+     * @return Os registros carregados.
+     */
+    public synchronized List<T> carregarIniciais(YearMonth mesAtual) {
+        abrir();
+        List<T> lidos = new ArrayList<>();
+        for (YearMonth mes : new ArrayList<>(resumos.keySet())) {
+            if (mes.equals(mesAtual) || resumos.get(mes).mantidos > 0) {
+                lidos.addAll(carregarMes(mes));
+            }
+        }
+        return lidos;
+    }
+
+    /**
+     * Carrega os meses de um periodo que ainda nao estao em memoria.
+     * @param inicio O primeiro mes do periodo.
+     * @param fim O ultimo mes do periodo (inclusive).
+     * @return Os registros que ainda nao tinham sido carregados (vazio se o periodo ja estava em memoria).
+     */
+    public synchronized List<T> carregarPeriodo(YearMonth inicio, YearMonth fim) {
+        abrir();
+        List<T> lidos = new ArrayList<>();
+        if (fim.isBefore(inicio)) {
+            return lidos;
+        }
+        for (YearMonth mes : new ArrayList<>(resumos.subMap(inicio, true, fim, true).keySet())) {
+            lidos.addAll(carregarMes(mes));
+        }
+        return lidos;
+    }
+
+    /**
+     * Carrega os meses ainda nao carregados cuja faixa de IDs inclui o ID informado.
+     * Meses arquivados nao sao carregados; use {@link #buscarPorId} para consulta-los.
+     * @param id O ID procurado.
+     * @return Os registros que ainda nao tinham sido carregados (vazio se nenhum mes pode conter o ID).
+     */
+    public synchronized List<T> carregarPorId(int id) {
+        abrir();
+        List<T> lidos = new ArrayList<>();
+        for (Map.Entry<YearMonth, Resumo> entrada : new ArrayList<>(resumos.entrySet())) {
+            Resumo resumo = entrada.getValue();
+            if (!carregados.contains(entrada.getKey()) && !resumo.arquivado && resumo.quantidade > 0
+                    && id >= resumo.menorId && id <= resumo.maiorId) {
+                lidos.addAll(carregarMes(entrada.getKey()));
+            }
+        }
+        return lidos;
+    }
+
+    /**
+     * Carrega o mes mais recente que ainda nao esta em memoria (usado nas buscas que nao sao por ID
+     * nem por data, que percorrem o historico do mais novo para o mais antigo).
+     * @return Os registros do mes carregado, ou null se todos os meses ja estao em memoria.
+     */
+    public synchronized List<T> carregarMaisRecente() {
+        abrir();
+        for (YearMonth mes : resumos.descendingKeySet()) {
+            if (!carregados.contains(mes)) {
+                return carregarMes(mes);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Carrega todos os meses que ainda nao estao em memoria.
+     * @return Os registros que ainda nao tinham sido carregados.
+     */
+    public synchronized List<T> carregarRestantes() {
+        abrir();
+        List<T> lidos = new ArrayList<>();
+        for (YearMonth mes : new ArrayList<>(resumos.keySet())) {
+            lidos.addAll(carregarMes(mes));
+        }
+        return lidos;
+    }
+
+    /**
+     * Retorna o maior ID gravado em qualquer particao, carregada ou nao (usado para semear a sequencia de IDs).
+     * @return O maior ID, ou 0 se nao houver registros.
+     */
+    public synchronized int getMaiorId() {
+        abrir();
+        int maiorId = 0;
+        for (Resumo resumo : resumos.values()) {
+            if (resumo.quantidade > 0) {
+                maiorId = Math.max(maiorId, resumo.maiorId);
+            }
+        }
+        return maiorId;
+    }
+
+    /**
+     * Retorna a quantidade de registros gravados em todas as particoes, carregadas ou nao.
+     * @return O total de registros.
+     */
+    public synchronized int getQuantidade() {
+        abrir();
+        int quantidade = 0;
+        for (Resumo resumo : resumos.values()) {
+            quantidade += resumo.quantidade;
+        }
+        return quantidade;
+    }
+
+    /**
+     * Busca um registro pelo ID sem carregar o mes em que ele esta: se nao estiver em memoria, le os meses
+     * cuja faixa de IDs pode conte-lo (o ultimo mes lido fica em cache). Usado para consultar registros
+     * arquivados sem trazer o historico de volta para a memoria.
+     * @param id O ID procurado.
+     * @return O registro, ou null se nao existir.
+     */
+    public synchronized T buscarPorId(int id) {
+        abrir();
+        YearMonth conhecido = mesPorId.get(id);
+        if (conhecido != null) {
+            return registrosPorMes.get(conhecido).get(id);
+        }
+        for (Map.Entry<YearMonth, Resumo> entrada : resumos.entrySet()) {
+            YearMonth mes = entrada.getKey();
+            Resumo resumo = entrada.getValue();
+            if (carregados.contains(mes) || resumo.quantidade == 0 || id < resumo.menorId || id > resumo.maiorId) {
+                continue;
+            }
+            if (!mes.equals(mesEmCache)) {
+                registrosEmCache = lerMes(mes);
+                mesEmCache = mes;
+            }
+            for (T registro : registrosEmCache) {
+                if (extratorId.applyAsInt(registro) == id) {
+                    return registro;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Arquiva os meses anteriores ao limite que nao tem registros mantidos: grava cada mes em um
+     * {@link SegmentoCompactado} e esvazia a particao. Os meses continuam em memoria se ja estavam
+     * (ver {@link #descarregarArquivados}).
+     * @param limite O primeiro mes que nao deve ser arquivado.
+     * @return A quantidade de registros arquivados.
+     */
+    public synchronized int arquivarAntigos(YearMonth limite) {
+        abrir();
+        limparCache();
+        int arquivados = 0;
+        for (YearMonth mes : new ArrayList<>(resumos.headMap(limite, false).keySet())) {
+            if (resumos.get(mes).arquivado) {
+                continue;
+            }
+            Collection<T> registros = carregados.contains(mes) ? registrosPorMes.get(mes).values() : lerMes(mes);
+            Resumo resumo = resumir(mes, registros);
+            if (resumo.mantidos > 0) {
+                continue;
+            }
+            try {
+                SegmentoCompactado.gravar(arquivoSegmento(mes), registros, tipoLista);
+            } catch (IOException e) {
+                System.err.println("Erro ao arquivar " + nome + "/" + mes + ": " + e.getMessage());
+                continue;
+            }
+            // O resumo e gravado antes de esvaziar a particao: uma queda no meio deixa os registros
+            // repetidos no segmento e na particao, e a leitura descarta a repeticao.
+            resumo.arquivado = true;
+            resumos.put(mes, resumo);
+            gravarResumos();
+            if (!particao(mes).salvarTodos(Collections.emptyList())) {
+                System.err.println("Erro ao esvaziar a particao " + nome + "/" + mes + " depois de arquivada.");
+            }
+            arquivados += registros.size();
+        }
+        return arquivados;
+    }
+
+    /**
+     * Tira da memoria os meses arquivados que estavam carregados. Eles voltam a ser lidos sob demanda.
+     * @return Os registros descarregados, para que quem os usava tambem os descarte.
+     */
+    public synchronized List<T> descarregarArquivados() {
+        abrir();
+        List<T> descarregados = new ArrayList<>();
+        for (YearMonth mes : new ArrayList<>(carregados)) {
+            Resumo resumo = resumos.get(mes);
+            if (resumo == null || !resumo.arquivado) {
+                continue;
+            }
+            carregados.remove(mes);
+            Map<Integer, T> doMes = registrosPorMes.remove(mes);
+            if (doMes != null) {
+                mesPorId.keySet().removeAll(doMes.keySet());
+                descarregados.addAll(doMes.values());
+            }
+        }
+        return descarregados;
+    }
+
+    /**
+     * Retorna a quantidade de particoes mensais gravadas.
+     * @return O numero de meses com particao.
+     */
+    public synchronized int getQuantidadeParticoes() {
+        abrir();
+        return resumos.size();
+    }
+
+    /**
+     * Retorna os meses com particao, na ordem, conforme o particoes.json (refeito a partir da pasta, ou
+     * criado dividindo o arquivo unico antigo, como na abertura).
+     * @return Uma nova lista com os meses, incluindo os arquivados.
+     */
+    public synchronized List<YearMonth> getMeses() {
+        abrir();
+        return new ArrayList<>(resumos.keySet());
+    }
+
+    /**
+     * Indica se um mes esta arquivado em segmento compactado.
+     * @param mes O mes.
+     * @return true se o mes tem segmento ({@code pasta/AAAA-MM.json.gz}).
+     */
+    public synchronized boolean isArquivado(YearMonth mes) {
+        abrir();
+        Resumo resumo = resumos.get(mes);
+        return resumo != null && resumo.arquivado;
+    }
+
+    /**
+     * Retorna a pasta das particoes.
+     * @return A pasta, dentro do diretorio de dados.
+     */
+    public File getPasta() {
+        return pasta();
+    }
+
+    /**
+     * Retorna a quantidade de particoes mensais ja carregadas.
+     * @return O numero de meses em memoria.
+     */
+    public synchronized int getParticoesCarregadas() {
+        abrir();
+        return (int) resumos.keySet().stream().filter(carregados::contains).count();
+    }
+
+    /**
+     * Grava um registro na particao do seu mes.
+     * @param registro O registro a ser gravado.
+     * @return true se a gravacao foi concluida.
+     */
+    public boolean salvar(T registro) {
+        return salvarVarios(Collections.singletonList(registro));
+    }
+
+    /**
+     * Grava varios registros, com uma gravacao por particao afetada. Registros que mudaram de mes
+     * sao removidos da particao anterior.
+     * @param registros Os registros alterados ou novos.
+     * @return true se todas as gravacoes foram concluidas.
+     */
+    public synchronized boolean salvarVarios(Collection<T> registros) {
+        abrir();
+        limparCache();
+        Map<YearMonth, List<Integer>> saidas = new TreeMap<>();
+        Map<YearMonth, List<T>> porMes = distribuir(registros, saidas, new HashSet<>());
+        boolean sucesso = true;
+        for (Map.Entry<YearMonth, List<T>> entrada : porMes.entrySet()) {
+            sucesso &= desarquivar(entrada.getKey());
+            sucesso &= particao(entrada.getKey()).salvarVarios(entrada.getValue());
+            atualizarResumo(entrada.getKey(), entrada.getValue());
+        }
+        sucesso &= removerSaidas(saidas);
+        return sucesso & gravarResumos();
+    }
+
+    /**
+     * Substitui o conteudo de todas as particoes carregadas pelos registros informados (snapshot completo
+     * do que esta em memoria). Registros de meses ainda nao carregados sao apenas acrescentados as suas particoes.
+     * Meses arquivados so sao regravados se receberam um registro que nao estava neles.
+     * @param registros Todos os registros em memoria.
+     * @return true se todas as gravacoes foram concluidas.
+     */
+    public synchronized boolean salvarTodos(Collection<T> registros) {
+        abrir();
+        limparCache();
+        Set<Integer> ids = new HashSet<>();
+        for (T registro : registros) {
+            ids.add(extratorId.applyAsInt(registro));
+        }
+        // Registros de meses carregados que nao estao mais na colecao foram excluidos.
+        for (YearMonth mes : carregados) {
+            Map<Integer, T> doMes = registrosPorMes.get(mes);
+            if (doMes == null) {
+                continue;
+            }
+            for (Iterator<Integer> iterador = doMes.keySet().iterator(); iterador.hasNext(); ) {
+                Integer id = iterador.next();
+                if (!ids.contains(id)) {
+                    iterador.remove();
+                    mesPorId.remove(id);
+                }
+            }
+        }
+        Map<YearMonth, List<Integer>> saidas = new TreeMap<>();
+        Set<YearMonth> entradas = new HashSet<>();
+        Map<YearMonth, List<T>> porMes = distribuir(registros, saidas, entradas);
+        boolean sucesso = true;
+        Set<YearMonth> meses = new TreeSet<>(carregados);
+        meses.addAll(porMes.keySet());
+        for (YearMonth mes : meses) {
+            if (resumos.get(mes).arquivado) {
+                if (!entradas.contains(mes)) {
+                    continue;
+                }
+                sucesso &= desarquivar(mes);
+            }
+            if (carregados.contains(mes)) {
+                sucesso &= particao(mes).salvarTodos(registrosPorMes.computeIfAbsent(mes, m -> new LinkedHashMap<>()).values());
+                saidas.remove(mes);
+            } else {
+                sucesso &= particao(mes).salvarVarios(porMes.get(mes));
+            }
+            atualizarResumo(mes, porMes.getOrDefault(mes, Collections.emptyList()));
+        }
+        sucesso &= removerSaidas(saidas);
+        return sucesso & gravarResumos();
+    }
+
+    /**
+     * Informa se as particoes gravam registros individualmente (armazenamento paginado).
+     * @return true se {@link #salvarVarios} grava apenas os registros informados.
+     */
+    public synchronized boolean suportaGravacaoPontual() {
+        return particao(YearMonth.now()).suportaGravacaoPontual();
+    }
+
+    /**
+     * Distribui os registros pelos meses, atualizando o mes conhecido de cada ID.
+     * @param registros Os registros a distribuir.
+     * @param saidas Recebe, por mes anterior, os IDs dos registros que mudaram de mes.
+     * @param entradas Recebe os meses que receberam registros novos ou vindos de outro mes.
+     * @return Os registros agrupados pelo mes de destino.
+     */
+    private Map<YearMonth, List<T>> distribuir(Collection<T> registros, Map<YearMonth, List<Integer>> saidas,
+            Set<YearMonth> entradas) {
+        Map<YearMonth, List<T>> porMes = new TreeMap<>();
+        for (T registro : registros) {
+            int id = extratorId.applyAsInt(registro);
+            YearMonth anterior = mesPorId.get(id);
+            YearMonth mes = mesDe(registro, anterior);
+            if (anterior != null && !anterior.equals(mes)) {
+                registrosPorMes.get(anterior).remove(id);
+                saidas.computeIfAbsent(anterior, m -> new ArrayList<>()).add(id);
+            }
+            if (!mes.equals(anterior)) {
+                entradas.add(mes);
+            }
+            if (!resumos.containsKey(mes)) {
+                // Mes novo: nao ha nada gravado, entao ele ja esta completo em memoria.
+                carregados.add(mes);
+                resumos.put(mes, new Resumo(mes));
+            }
+            mesPorId.put(id, mes);
+            registrosPorMes.computeIfAbsent(mes, m -> new LinkedHashMap<>()).put(id, registro);
+            porMes.computeIfAbsent(mes, m -> new ArrayList<>()).add(registro);
+        }
+        return porMes;
+    }
+
+    /**
+     * Remove das particoes anteriores os registros que mudaram de mes.
+     */
+    private boolean removerSaidas(Map<YearMonth, List<Integer>> saidas) {
+        boolean sucesso = true;
+        for (Map.Entry<YearMonth, List<Integer>> entrada : saidas.entrySet()) {
+            sucesso &= desarquivar(entrada.getKey());
+            Repositorio<T> particao = particao(entrada.getKey());
+            for (int id : entrada.getValue()) {
+                sucesso &= particao.remover(id);
+            }
+            Resumo resumo = resumos.get(entrada.getKey());
+            if (carregados.contains(entrada.getKey())) {
+                resumos.put(entrada.getKey(), resumir(entrada.getKey(), registrosPorMes.get(entrada.getKey()).values()));
+            } else if (resumo != null) {
+                resumo.quantidade = Math.max(0, resumo.quantidade - entrada.getValue().size());
+            }
+        }
+        return sucesso;
+    }
+
+    /**
+     * Carrega uma particao e registra os seus registros. Registros que ja estao em memoria
+     * (gravados nesta execucao ou movidos para outro mes) mantem o objeto em memoria.
+     * @return Os registros que ainda nao estavam em memoria.
+     */
+    private List<T> carregarMes(YearMonth mes) {
+        if (!carregados.add(mes)) {
+            return Collections.emptyList();
+        }
+        Map<Integer, T> doMes = registrosPorMes.computeIfAbsent(mes, m -> new LinkedHashMap<>());
+        List<T> novos = new ArrayList<>();
+        for (T registro : lerMes(mes)) {
+            int id = extratorId.applyAsInt(registro);
+            if (!mesPorId.containsKey(id)) {
+                mesPorId.put(id, mes);
+                doMes.put(id, registro);
+                novos.add(registro);
+            }
+        }
+        Resumo resumo = resumir(mes, doMes.values());
+        if (!resumo.equals(resumos.put(mes, resumo))) {
+            gravarResumos();
+        }
+        return novos;
+    }
+
+    /**
+     * Atualiza o resumo de um mes apos uma gravacao. Se o mes esta carregado, o resumo e recalculado;
+     * senao, e estendido com os registros gravados cujo ID esta fora da faixa do mes (certamente novos).
+     * Um ID dentro da faixa pode ser a atualizacao de um registro ja contado: nesse caso o resumo e refeito
+     * a partir da particao ja gravada, para nao contar o registro duas vezes.
+     */
+    private void atualizarResumo(YearMonth mes, List<T> gravados) {
+        if (carregados.contains(mes)) {
+            resumos.put(mes, resumir(mes, registrosPorMes.get(mes).values()));
+            return;
+        }
+        Resumo resumo = resumos.get(mes);
+        for (T registro : gravados) {
+            int id = extratorId.applyAsInt(registro);
+            if (resumo.quantidade > 0 && id >= resumo.menorId && id <= resumo.maiorId) {
+                resumos.put(mes, resumir(mes, lerMes(mes)));
+                return;
+            }
+            resumo.incluir(id, manterCarregado.test(registro));
+        }
+    }
+
+    /**
+     * Le todos os registros gravados de um mes: os do segmento, se o mes estiver arquivado, e os da particao
+     * (que prevalecem se o mesmo ID estiver nos dois).
+     */
+    private List<T> lerMes(YearMonth mes) {
+        Resumo resumo = resumos.get(mes);
+        if (resumo == null || !resumo.arquivado) {
+            return particao(mes).carregarTodos();
+        }
+        Map<Integer, T> porId = new LinkedHashMap<>();
+        for (T registro : SegmentoCompactado.<T>ler(arquivoSegmento(mes), tipoLista)) {
+            porId.put(extratorId.applyAsInt(registro), registro);
+        }
+        for (T registro : particao(mes).carregarTodos()) {
+            porId.put(extratorId.applyAsInt(registro), registro);
+        }
+        return new ArrayList<>(porId.values());
+    }
+
+    /**
+     * Devolve um mes arquivado para a sua particao (antes de gravar nele), apagando o segmento.
+     * @return true se o mes nao estava arquivado ou se foi devolvido.
+     */
+    private boolean desarquivar(YearMonth mes) {
+        Resumo resumo = resumos.get(mes);
+        if (resumo == null || !resumo.arquivado) {
+            return true;
+        }
+        if (!particao(mes).salvarTodos(lerMes(mes))) {
+            System.err.println("Erro ao desarquivar " + nome + "/" + mes + ".");
+            return false;
+        }
+        resumo.arquivado = false;
+        gravarResumos();
+        SegmentoCompactado.apagar(arquivoSegmento(mes));
+        return true;
+    }
+
+    private void limparCache() {
+        mesEmCache = null;
+        registrosEmCache = null;
+    }
+
+    private Resumo resumir(YearMonth mes, Collection<T> registros) {
+        Resumo resumo = new Resumo(mes);
+        Resumo anterior = resumos.get(mes);
+        resumo.arquivado = anterior != null && anterior.arquivado;
+        for (T registro : registros) {
+            resumo.incluir(extratorId.applyAsInt(registro), manterCarregado.test(registro));
+        }
+        return resumo;
+    }
+
+    /**
+     * Mes de um registro: o da sua data ou, se nao tiver data, o mes em que ja esta (ou o atual).
+     */
+    private YearMonth mesDe(T registro, YearMonth anterior) {
+        LocalDateTime data = extratorData.apply(registro);
+        if (data != null) {
+            return YearMonth.from(data);
+        }
+        return anterior != null ? anterior : YearMonth.now();
+    }
+
+    private Repositorio<T> particao(YearMonth mes) {
+        return particoes.computeIfAbsent(mes, m -> {
+            pasta().mkdirs();
+            return Repositorios.abrir(nome + "/" + m + ".json", classe, extratorId);
+        });
+    }
+
+    private File pasta() {
+        return DiretorioDados.arquivo(nome);
+    }
+
+    private File arquivoSegmento(YearMonth mes) {
+        return new File(pasta(), mes + ".json" + SegmentoCompactado.EXTENSAO);
+    }
+
+    private File arquivoParticoes() {
+        return new File(pasta(), ARQUIVO_PARTICOES);
+    }
+
+    private boolean legadoExiste() {
+        return DiretorioDados.arquivo(nome + ".json").exists() || DiretorioDados.arquivo(nome + ".bin").exists()
+                || DiretorioDados.arquivo(nome + ".db").exists();
+    }
+
+    /**
+     * Le o resumo das particoes na primeira operacao. Sem o arquivo particoes.json, o resumo e refeito a
+     * partir das particoes da pasta ou, se a pasta nao existir, os registros do arquivo unico antigo sao
+     * divididos em particoes.
+     */
+    private void abrir() {
+        if (aberto) {
+            return;
+        }
+        aberto = true;
+        if (lerResumos()) {
+            return;
+        }
+        if (pasta().isDirectory()) {
+            reconstruirResumos();
+        } else if (legadoExiste()) {
+            migrarLegado();
+        }
+    }
+
+    private boolean lerResumos() {
+        try (GravacaoAtomica.LeituraVerificada entrada = GravacaoAtomica.abrirVerificado(arquivoParticoes())) {
+            List<Resumo> lidos = GsonOficina.COMPACTO.fromJson(entrada.comoReader(), TIPO_RESUMOS);
+            entrada.conferir();
+            if (lidos != null) {
+                for (Resumo resumo : lidos) {
+                    resumos.put(YearMonth.parse(resumo.mes), resumo);
+                }
+            }
+            return true;
+        } catch (FileNotFoundException e) {
+            return false;
+        } catch (IOException | JsonParseException | DateTimeParseException e) {
+            System.err.println("Erro ao carregar " + nome + "/" + ARQUIVO_PARTICOES + ": " + e.getMessage());
+            resumos.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Refaz o resumo lendo cada particao encontrada na pasta (usado se particoes.json se perder).
+     */
+    private void reconstruirResumos() {
+        String[] arquivos = pasta().list();
+        Set<YearMonth> meses = new TreeSet<>();
+        for (String arquivo : arquivos != null ? arquivos : new String[0]) {
+            Matcher matcher = NOME_PARTICAO.matcher(arquivo);
+            if (matcher.matches()) {
+                meses.add(YearMonth.parse(matcher.group(1)));
+            }
+        }
+        for (YearMonth mes : meses) {
+            Resumo arquivado = new Resumo(mes);
+            arquivado.arquivado = arquivoSegmento(mes).exists();
+            resumos.put(mes, arquivado);
+            resumos.put(mes, resumir(mes, lerMes(mes)));
+        }
+        gravarResumos();
+        System.out.println("Repositorios: resumo de " + meses.size() + " particoes mensais refeito em '" + nome + "/'.");
+    }
+
+    /**
+     * Divide os registros do arquivo unico antigo em particoes mensais. Nada fica em memoria:
+     * {@link #carregarIniciais} le em seguida apenas as particoes necessarias.
+     */
+    private void migrarLegado() {
+        List<T> registros = Repositorios.abrir(nome + ".json", classe, extratorId).carregarTodos();
+        Map<YearMonth, List<T>> porMes = new TreeMap<>();
+        YearMonth mesAtual = YearMonth.now();
+        for (T registro : registros) {
+            porMes.computeIfAbsent(mesDe(registro, mesAtual), m -> new ArrayList<>()).add(registro);
+        }
+        boolean sucesso = true;
+        for (Map.Entry<YearMonth, List<T>> entrada : porMes.entrySet()) {
+            sucesso &= particao(entrada.getKey()).salvarTodos(entrada.getValue());
+            resumos.put(entrada.getKey(), resumir(entrada.getKey(), entrada.getValue()));
+        }
+        if (sucesso && gravarResumos()) {
+            System.out.println("Repositorios: " + registros.size() + " registros de '" + nome + "' divididos em "
+                    + porMes.size() + " particoes mensais em '" + nome + "/'.");
+        } else {
+            System.err.println("Erro ao dividir '" + nome + "' em particoes mensais.");
+        }
+    }
+
+    private boolean gravarResumos() {
+        if (resumos.isEmpty() && !pasta().isDirectory()) {
+            return true;
+        }
+        pasta().mkdirs();
+        List<Resumo> lista = new ArrayList<>(resumos.values());
+        try {
+            GravacaoAtomica.gravar(arquivoParticoes(), writer -> GsonOficina.FORMATADO.toJson(lista, TIPO_RESUMOS, writer));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar " + nome + "/" + ARQUIVO_PARTICOES + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Resumo de uma particao mensal, gravado em particoes.json.
+     */
+    private static class Resumo {
+        private String mes;
+        private int quantidade;
+        private int menorId;
+        private int maiorId;
+        private int mantidos;
+        private boolean arquivado;
+
+        Resumo(YearMonth mes) {
+            this.mes = mes.toString();
+        }
+
+        void incluir(int id, boolean mantido) {
+            menorId = quantidade == 0 ? id : Math.min(menorId, id);
+            maiorId = quantidade == 0 ? id : Math.max(maiorId, id);
+            quantidade++;
+            if (mantido) {
+                mantidos++;
+            }
+        }
+
+        @Override
+        public boolean equals(Object outro) {
+            if (!(outro instanceof Resumo)) {
+                return false;
+            }
+            Resumo resumo = (Resumo) outro;
+            return Objects.equals(mes, resumo.mes) && quantidade == resumo.quantidade && menorId == resumo.menorId
+                    && maiorId == resumo.maiorId && mantidos == resumo.mantidos && arquivado == resumo.arquivado;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(mes, quantidade, menorId, maiorId, mantidos, arquivado);
+        }
+    }
+}
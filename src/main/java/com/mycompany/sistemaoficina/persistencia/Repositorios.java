@@ -0,0 +1,154 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cria os repositorios usados pelos gerenciadores, conforme o backend configurado.
+ * A propriedade de sistema "sistemaoficina.armazenamento" escolhe o backend:
+ * "json" (padrao) mantem os arquivos JSON de sempre; "paginado" usa um {@link ArmazenamentoPaginado}
+ * por tipo de registro, em um arquivo ".db" com o mesmo nome do JSON (ex: clientes.db); "binario" grava
+ * Ordens de Servico e agendamentos no {@link FormatoBinario} compacto, em um arquivo ".bin"
+ * (ex: ordens_de_servico.bin), e mantem os demais tipos em JSON.
+ * Na primeira abertura dos backends paginado e binario, se o JSON existir, os registros dele sao importados.
+ * Os armazenamentos paginados abertos sao compartilhados por arquivo e fechados ao encerrar o programa,
+ * depois de gravadas as alteracoes pendentes da {@link GravacaoAdiada}.
+ * @author santo
+ */
+public final class Repositorios {
+
+    /**
+     * Nome da propriedade de sistema que escolhe o backend de armazenamento.
+     */
+    public static final String PROPRIEDADE = "sistemaoficina.armazenamento";
+
+    /** Valor da propriedade para os arquivos JSON (padrao). */
+    public static final String JSON = "json";
+
+    /** Valor da propriedade para o armazenamento paginado. */
+    public static final String PAGINADO = "paginado";
+
+    /** Valor da propriedade para os snapshots binarios (OS e agendamentos). */
+    public static final String BINARIO = "binario";
+
+    private static final Map<String, ArmazenamentoPaginado> ABERTOS = new HashMap<>();
+    private static boolean ganchoRegistrado = false;
+
+    private Repositorios() {
+    }
+
+    /**
+     * Abre o repositorio de um tipo de registro.
+     * @param nomeArquivoJson O nome do arquivo JSON do tipo (ex: "clientes.json").
+     * @param classe A classe dos registros.
+     * @param extratorId Funcao que retorna o ID de um registro.
+     * @param <T> O tipo dos registros.
+     * @return O repositorio do backend configurado. Se o arquivo paginado nao puder ser aberto,
+     *         o erro e exibido e o repositorio JSON e usado.
+     */
+    public static <T> Repositorio<T> abrir(String nomeArquivoJson, Class<T> classe, ToIntFunction<T> extratorId) {
+        File arquivoJson = DiretorioDados.arquivo(nomeArquivoJson);
+        RepositorioJson<T> repositorioJson = new RepositorioJson<>(arquivoJson, classe, extratorId);
+        String backend = System.getProperty(PROPRIEDADE, JSON).trim();
+        if (BINARIO.equalsIgnoreCase(backend) && FormatoBinario.suporta(classe)) {
+            File arquivoBinario = arquivoIrmao(nomeArquivoJson, ".bin");
+            RepositorioBinario<T> repositorio = new RepositorioBinario<>(arquivoBinario, classe, extratorId);
+            if (!repositorio.existe() && repositorioJson.existe()) {
+                importar(repositorioJson, repositorio, arquivoJson, arquivoBinario);
+            }
+            return repositorio;
+        }
+        if (!PAGINADO.equalsIgnoreCase(backend)) {
+            return repositorioJson;
+        }
+        File arquivoPaginado = arquivoIrmao(nomeArquivoJson, ".db");
+        try {
+            boolean novo = !arquivoPaginado.exists();
+            RepositorioPaginado<T> repositorio = new RepositorioPaginado<>(armazenamento(arquivoPaginado), classe, extratorId);
+            if (novo && repositorioJson.existe()) {
+                importar(repositorioJson, repositorio, arquivoJson, arquivoPaginado);
+            }
+            return repositorio;
+        } catch (IOException e) {
+            System.err.println("Erro ao abrir '" + arquivoPaginado.getName() + "': " + e.getMessage() + ". Usando '" + arquivoJson.getName() + "'.");
+            return repositorioJson;
+        }
+    }
+
+    /**
+     * Copia todos os registros de um repositorio para outro (usado na primeira abertura de um backend
+     * e pelo conversor de snapshots).
+     * @param origem O repositorio de origem.
+     * @param destino O repositorio de destino, cujo conteudo e substituido.
+     * @param arquivoOrigem O arquivo de origem (apenas para a mensagem).
+     * @param arquivoDestino O arquivo de destino (apenas para a mensagem).
+     * @param <T> O tipo dos registros.
+     * @return true se a gravacao no destino foi concluida.
+     */
+    public static <T> boolean importar(Repositorio<T> origem, Repositorio<T> destino, File arquivoOrigem, File arquivoDestino) {
+        List<T> registros = origem.carregarTodos();
+        boolean sucesso = destino.salvarTodos(registros);
+        if (sucesso) {
+            System.out.println("Repositorios: " + registros.size() + " registros importados de '"
+                    + arquivoOrigem.getName() + "' para '" + arquivoDestino.getName() + "'.");
+        }
+        return sucesso;
+    }
+
+    /**
+     * Grava as alteracoes pendentes da {@link GravacaoAdiada} e fecha os armazenamentos paginados.
+     * E o que o gancho de encerramento executa; pode ser chamado antes para encerrar de forma explicita.
+     */
+    public static void encerrar() {
+        GravacaoAdiada.descarregar();
+        fecharTodos();
+    }
+
+    /**
+     * Sincroniza e fecha todos os armazenamentos paginados abertos.
+     * Os proximos {@link #abrir} reabrem os arquivos.
+     */
+    public static synchronized void fecharTodos() {
+        for (ArmazenamentoPaginado armazenamento : ABERTOS.values()) {
+            try {
+                armazenamento.close();
+            } catch (IOException e) {
+                System.err.println("Erro ao fechar '" + armazenamento.getArquivo().getName() + "': " + e.getMessage());
+            }
+        }
+        ABERTOS.clear();
+    }
+
+    /**
+     * Arquivo com o mesmo nome do JSON e outra extensao (ex: "clientes.json" e ".db" resultam em "clientes.db").
+     */
+    private static File arquivoIrmao(String nomeArquivoJson, String extensao) {
+        return DiretorioDados.arquivo(nomeArquivoJson.replaceFirst("\\.json$", "") + extensao);
+    }
+
+    private static synchronized ArmazenamentoPaginado armazenamento(File arquivo) throws IOException {
+        String chave = arquivo.getAbsolutePath();
+        ArmazenamentoPaginado armazenamento = ABERTOS.get(chave);
+        if (armazenamento == null) {
+            armazenamento = new ArmazenamentoPaginado(arquivo);
+            ABERTOS.put(chave, armazenamento);
+            registrarEncerramento();
+        }
+        return armazenamento;
+    }
+
+    /**
+     * Registra (uma unica vez) o gancho que executa {@link #encerrar()} quando o programa termina.
+     * Um unico gancho garante que as pendencias sejam gravadas antes de os arquivos serem fechados.
+     */
+    static synchronized void registrarEncerramento() {
+        if (!ganchoRegistrado) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Repositorios::encerrar));
+            ganchoRegistrado = true;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escrita dos valores primitivos do formato binario compacto (ver {@link FormatoBinario}).
+ * <ul>
+ * <li>Inteiros em varint (7 bits por byte); os que podem ser negativos passam antes pelo zigzag.</li>
+ * <li>Textos curtos entram em um dicionario montado durante a escrita: a primeira ocorrencia e
+ * gravada por extenso e as seguintes viram apenas a posicao no dicionario.</li>
+ * <li>Datas como segundos desde a epoca (UTC), em varint.</li>
+ * <li>Valores monetarios em centavos (varint, com zigzag). Arquivos antigos podem ter valores
+ * gravados com os 8 bytes do double, que continuam sendo lidos.</li>
+ * </ul>
+ * Mantem o proprio buffer, entao o fluxo de saida nao precisa ser bufferizado.
+ * @author santo
+ */
+public class SaidaBinaria {
+
+    /**
+     * Tamanho maximo (em caracteres) de um texto incluido no dicionario. Textos maiores, como
+     * descricoes de problema, raramente se repetem e sao sempre gravados por extenso.
+     */
+    static final int LIMITE_TEXTO_DICIONARIO = 64;
+
+    // Marcadores dos textos: nulo, por extenso, ou (a partir de REF_DICIONARIO) posicao no dicionario.
+    static final int TEXTO_NULO = 0;
+    static final int TEXTO_LITERAL = 1;
+    static final int REF_DICIONARIO = 2;
+
+    // Marcadores dos valores: centavos (bit 0 = 0) ou double bruto (bit 0 = 1, apenas em arquivos antigos).
+    static final long VALOR_DOUBLE = 1;
+
+    private final OutputStream saida;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int posicao;
+    private final Map<String, Integer> dicionario = new HashMap<>();
+
+    /**
+     * Construtor da saida.
+     * @param saida O fluxo de destino.
+     */
+    public SaidaBinaria(OutputStream saida) {
+        this.saida = saida;
+    }
+
+    /**
+     * Escreve um byte.
+     * @param valor O byte (apenas os 8 bits menos significativos sao usados).
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverByte(int valor) throws IOException {
+        if (posicao == buffer.length) {
+            descarregar();
+        }
+        buffer[posicao++] = (byte) valor;
+    }
+
+    /**
+     * Escreve um inteiro de 4 bytes (big-endian), usado no cabecalho.
+     * @param valor O inteiro.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverIntFixo(int valor) throws IOException {
+        escreverByte(valor >>> 24);
+        escreverByte(valor >>> 16);
+        escreverByte(valor >>> 8);
+        escreverByte(valor);
+    }
+
+    /**
+     * Escreve um inteiro nao negativo em varint (ex: quantidade de itens).
+     * @param valor O valor, tratado como sem sinal.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverVarLong(long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            escreverByte((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        escreverByte((int) valor);
+    }
+
+    /**
+     * Escreve um inteiro que pode ser negativo (IDs, quantidades) em zigzag + varint.
+     * @param valor O inteiro.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverInt(int valor) throws IOException {
+        escreverVarLong(((valor << 1) ^ (valor >> 31)) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Escreve um booleano em um byte.
+     * @param valor O booleano.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverBoolean(boolean valor) throws IOException {
+        escreverByte(valor ? 1 : 0);
+    }
+
+    /**
+     * Escreve um valor monetario em centavos.
+     * @param centavos O valor, em centavos (ate 2^61 em modulo).
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverCentavos(long centavos) throws IOException {
+        escreverVarLong(((centavos << 1) ^ (centavos >> 63)) << 1);
+    }
+
+    /**
+     * Escreve uma data como segundos desde a epoca (UTC). As datas dos arquivos JSON tem precisao
+     * de minutos, entao nada se perde na conversao entre os dois formatos.
+     * @param data A data, ou {@code null}.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverData(LocalDateTime data) throws IOException {
+        if (data == null) {
+            escreverVarLong(0);
+            return;
+        }
+        long segundos = data.toEpochSecond(ZoneOffset.UTC);
+        escreverVarLong(((segundos << 1) ^ (segundos >> 63)) + 1);
+    }
+
+    /**
+     * Escreve um texto, usando o dicionario para os textos curtos que ja apareceram.
+     * @param texto O texto, ou {@code null}.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void escreverTexto(String texto) throws IOException {
+        if (texto == null) {
+            escreverVarLong(TEXTO_NULO);
+            return;
+        }
+        boolean noDicionario = texto.length() <= LIMITE_TEXTO_DICIONARIO;
+        if (noDicionario) {
+            Integer indice = dicionario.get(texto);
+            if (indice != null) {
+                escreverVarLong(REF_DICIONARIO + (long) indice);
+                return;
+            }
+            dicionario.put(texto, dicionario.size());
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        escreverVarLong(TEXTO_LITERAL);
+        escreverVarLong(bytes.length);
+        if (bytes.length > buffer.length - posicao) {
+            descarregar();
+        }
+        if (bytes.length > buffer.length) {
+            saida.write(bytes);
+        } else {
+            System.arraycopy(bytes, 0, buffer, posicao, bytes.length);
+            posicao += bytes.length;
+        }
+    }
+
+    /**
+     * Envia ao fluxo de destino os bytes acumulados no buffer.
+     * @throws IOException Se houver erro de escrita.
+     */
+    public void descarregar() throws IOException {
+        if (posicao > 0) {
+            saida.write(buffer, 0, posicao);
+            posicao = 0;
+        }
+        saida.flush();
+    }
+}
@@ -0,0 +1,86 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Leitura e gravacao dos segmentos de arquivo morto: uma lista de registros em JSON compacto,
+ * comprimida com GZIP (ex: ordens_de_servico/2022-03.json.gz). Os registros arquivados nao mudam mais,
+ * entao o segmento e gravado uma unica vez e lido apenas pelos relatorios e pelas buscas por ID.
+ * A gravacao passa pela {@link GravacaoAtomica}, como os demais arquivos de dados.
+ * @author santo
+ */
+public final class SegmentoCompactado {
+
+    /**
+     * Extensao dos segmentos, acrescentada ao nome do arquivo JSON.
+     */
+    public static final String EXTENSAO = ".gz";
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private SegmentoCompactado() {
+    }
+
+    /**
+     * Grava um segmento, substituindo o anterior de mesmo nome.
+     * @param arquivo O arquivo do segmento.
+     * @param registros Os registros do segmento.
+     * @param tipoLista O tipo da lista (ex: List&lt;OrdemDeServico&gt;).
+     * @throws IOException Se a gravacao falhar; nesse caso o segmento anterior nao e alterado.
+     */
+    public static void gravar(File arquivo, Collection<?> registros, Type tipoLista) throws IOException {
+        GravacaoAtomica.gravarBinario(arquivo, saida -> {
+            GZIPOutputStream compactado = new GZIPOutputStream(saida, TAMANHO_BUFFER);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(compactado, StandardCharsets.UTF_8));
+            GsonOficina.COMPACTO.toJson(registros, tipoLista, writer);
+            writer.flush();
+            compactado.finish();
+        });
+    }
+
+    /**
+     * Le todos os registros de um segmento, conferindo o checksum.
+     * @param arquivo O arquivo do segmento.
+     * @param tipoLista O tipo da lista (ex: List&lt;OrdemDeServico&gt;).
+     * @param <T> O tipo dos registros.
+     * @return Os registros lidos, ou uma lista vazia se o segmento nao existir ou nao puder ser lido.
+     */
+    public static <T> List<T> ler(File arquivo, Type tipoLista) {
+        if (!arquivo.exists()) {
+            return new ArrayList<>();
+        }
+        try (GravacaoAtomica.LeituraVerificada entrada = GravacaoAtomica.abrirVerificado(arquivo)) {
+            List<T> lidos = GsonOficina.COMPACTO.fromJson(
+                    new InputStreamReader(new GZIPInputStream(entrada, TAMANHO_BUFFER), StandardCharsets.UTF_8), tipoLista);
+            entrada.conferir();
+            return lidos != null ? new ArrayList<>(lidos) : new ArrayList<>();
+        } catch (IOException | JsonParseException e) {
+            System.err.println("Erro ao carregar " + arquivo.getName() + ": " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Apaga um segmento e o seu ".crc".
+     * @param arquivo O arquivo do segmento.
+     * @return true se o segmento nao existe mais.
+     */
+    public static boolean apagar(File arquivo) {
+        new File(arquivo.getPath() + ".crc").delete();
+        return !arquivo.exists() || arquivo.delete();
+    }
+}
@@ -0,0 +1,138 @@
+package com.mycompany.sistemaoficina.persistencia;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.*;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Servico central de geracao de IDs sequenciais.
+ * Cada tipo de cadastro tem sua propria sequencia, semeada uma unica vez ao carregar os dados
+ * (com o maior ID existente) e persistida no arquivo sequencias.json a cada novo ID gerado.
+ * Gerar um ID e O(1) e seguro mesmo com insercoes concorrentes, pois cada sequencia e um {@link AtomicInteger}.
+ * Todos os metodos sao estaticos, seguindo o mesmo padrao do AuthService.
+ * @author santo
+ */
+public final class SequenciaIds {
+
+    public static final String CLIENTES = "clientes";
+    public static final String PRODUTOS = "produtos";
+    public static final String ORDENS_DE_SERVICO = "ordensDeServico";
+    public static final String AGENDAMENTOS = "agendamentos";
+    public static final String DESPESAS = "despesas";
+    public static final String SERVICOS = "servicos";
+    public static final String FORNECEDORES = "fornecedores";
+    public static final String FUNCIONARIOS = "funcionarios";
+    public static final String GERENTES = "gerentes";
+
+    private static final String ARQUIVO_SEQUENCIAS_JSON = "sequencias.json";
+    private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    private static final Map<String, AtomicInteger> sequencias = carregarSequencias();
+    private static final Map<String, Boolean> semeadas = new ConcurrentHashMap<>();
+
+    private SequenciaIds() {
+    }
+
+    /**
+     * Semeia a sequencia com o maior ID existente na lista carregada.
+     * O valor persistido so e substituido se for menor, para que IDs de registros ja excluidos nunca sejam reutilizados.
+     * @param <T> O tipo dos objetos da lista.
+     * @param nome O nome da sequencia (ex: {@link #CLIENTES}).
+     * @param existentes A lista de objetos ja carregados.
+     * @param extratorId Funcao que retorna o ID de cada objeto.
+     */
+    public static <T> void semear(String nome, Collection<? extends T> existentes, ToIntFunction<T> extratorId) {
+        int maiorId = 0;
+        if (existentes != null) {
+            for (T objeto : existentes) {
+                maiorId = Math.max(maiorId, extratorId.applyAsInt(objeto));
+            }
+        }
+        semear(nome, maiorId);
+    }
+
+    /**
+     * Semeia a sequencia com um valor minimo.
+     * @param nome O nome da sequencia.
+     * @param maiorIdExistente O maior ID ja utilizado.
+     */
+    public static void semear(String nome, int maiorIdExistente) {
+        sequencia(nome).accumulateAndGet(maiorIdExistente, Math::max);
+        semeadas.put(nome, Boolean.TRUE);
+    }
+
+    /**
+     * Verifica se a sequencia ja foi semeada nesta execucao.
+     * @param nome O nome da sequencia.
+     * @return true se {@link #semear} ja foi chamado para ela.
+     */
+    public static boolean foiSemeada(String nome) {
+        return semeadas.containsKey(nome);
+    }
+
+    /**
+     * Gera o proximo ID da sequencia e persiste o novo valor.
+     * @param nome O nome da sequencia.
+     * @return O proximo ID disponivel.
+     */
+    public static int proximo(String nome) {
+        int id = sequencia(nome).incrementAndGet();
+        salvarSequencias();
+        return id;
+    }
+
+    /**
+     * Retorna o ultimo ID gerado (ou semeado) da sequencia, sem altera-la.
+     * @param nome O nome da sequencia.
+     * @return O valor atual da sequencia.
+     */
+    public static int atual(String nome) {
+        return sequencia(nome).get();
+    }
+
+    private static AtomicInteger sequencia(String nome) {
+        return sequencias.computeIfAbsent(nome, n -> new AtomicInteger(0));
+    }
+
+    /**
+     * Persiste o valor atual de todas as sequencias no arquivo sequencias.json.
+     * E sincronizado para que gravacoes concorrentes nao se intercalem no arquivo.
+     */
+    private static synchronized void salvarSequencias() {
+        Map<String, Integer> valores = new TreeMap<>();
+        sequencias.forEach((nome, valor) -> valores.put(nome, valor.get()));
+        try {
+            GravacaoAtomica.gravar(DiretorioDados.arquivo(ARQUIVO_SEQUENCIAS_JSON), writer -> gson.toJson(valores, writer));
+        } catch (IOException e) {
+            System.err.println("Erro ao salvar as sequencias de IDs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carrega os valores das sequencias a partir do arquivo sequencias.json.
+     * @return O mapa de sequencias carregado, ou vazio se o arquivo nao existir.
+     */
+    private static Map<String, AtomicInteger> carregarSequencias() {
+        Map<String, AtomicInteger> mapa = new ConcurrentHashMap<>();
+        try (GravacaoAtomica.LeituraVerificada entrada = GravacaoAtomica.abrirVerificado(DiretorioDados.arquivo(ARQUIVO_SEQUENCIAS_JSON))) {
+            Map<String, Integer> valores = gson.fromJson(entrada.comoReader(), new TypeToken<Map<String, Integer>>(){}.getType());
+            entrada.conferir();
+            if (valores != null) {
+                valores.forEach((nome, valor) -> mapa.put(nome, new AtomicInteger(valor)));
+            }
+        } catch (FileNotFoundException e) {
+            // Primeira execucao: as sequencias serao semeadas a partir dos dados carregados.
+        } catch (IOException | JsonSyntaxException e) {
+            System.err.println("Erro ao carregar as sequencias de IDs: " + e.getMessage());
+        }
+        return mapa;
+    }
+}